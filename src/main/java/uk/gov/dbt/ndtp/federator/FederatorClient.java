@@ -37,6 +37,8 @@ import uk.gov.dbt.ndtp.federator.client.grpc.GRPCTopicClient;
 import uk.gov.dbt.ndtp.federator.client.jobs.DefaultJobSchedulerProvider;
 import uk.gov.dbt.ndtp.federator.client.jobs.JobSchedulerProvider;
 import uk.gov.dbt.ndtp.federator.client.jobs.handlers.ClientDynamicConfigJob;
+import uk.gov.dbt.ndtp.federator.client.lifecycle.AutoClosableShutdownTask;
+import uk.gov.dbt.ndtp.federator.client.lifecycle.ShutdownThread;
 import uk.gov.dbt.ndtp.federator.common.management.ManagementNodeDataHandler;
 import uk.gov.dbt.ndtp.federator.common.service.config.ConsumerConfigService;
 import uk.gov.dbt.ndtp.federator.common.service.idp.IdpTokenService;
@@ -111,10 +113,12 @@ public class FederatorClient {
     public static void main(final String[] args) {
         LOGGER.info(LOG_INIT);
         initProperties();
-        ConsumerConfigService service = createConfigService();
+        final ManagementNodeDataHandler handler = createDataHandler();
+        ConsumerConfigService service = createConfigService(handler);
         ClientDynamicConfigJob.initialize(service);
         JobSchedulerProvider scheduler = new DefaultJobSchedulerProvider();
         ClientDynamicConfigJob.setScheduler(scheduler);
+        subscribeToChanges(handler, service, scheduler);
         new FederatorClient(service, scheduler).run();
     }
 
@@ -144,21 +148,45 @@ public class FederatorClient {
     }
 
     /**
-     * Creates configuration service.
+     * Creates the Management Node data handler.
      *
-     * @return configured service
+     * @return configured handler
      */
-    private static ConsumerConfigService createConfigService() {
+    private static ManagementNodeDataHandler createDataHandler() {
         final HttpClient httpClient = createHttpClient();
         final ObjectMapper mapper = ObjectMapperUtil.getInstance();
 
         final IdpTokenService tokenService = GRPCUtils.createIdpTokenService();
-        final ManagementNodeDataHandler handler = new ManagementNodeDataHandler(httpClient, mapper, tokenService);
+        return new ManagementNodeDataHandler(httpClient, mapper, tokenService);
+    }
+
+    /**
+     * Creates configuration service.
+     *
+     * @param handler Management Node data handler
+     * @return configured service
+     */
+    private static ConsumerConfigService createConfigService(final ManagementNodeDataHandler handler) {
         final InMemoryConfigurationStore store = InMemoryConfigurationStore.getInstance();
         LOGGER.info(LOG_SERVICE);
         return new ConsumerConfigService(handler, store);
     }
 
+    /**
+     * Subscribes to configuration changes pushed by the Management Node when enabled, so that they are applied
+     * without waiting for the next dynamic config run.
+     */
+    private static void subscribeToChanges(
+            final ManagementNodeDataHandler handler,
+            final ConsumerConfigService service,
+            final JobSchedulerProvider scheduler) {
+        if (!ManagementNodeDataHandler.isChangeSubscriptionEnabled()) {
+            return;
+        }
+        final ClientDynamicConfigJob job = new ClientDynamicConfigJob(service, scheduler);
+        ShutdownThread.register(new AutoClosableShutdownTask(handler.subscribeToChanges(job::onConfigChange)));
+    }
+
     /**
      * Creates HTTP client with SSL if configured.
      *
@@ -69,7 +69,6 @@ public class FederatorServer {
     private static final String HEADER_SEPARATOR = "\\^";
     private static final String CONTENT_TYPE = "Content-Type";
     private static final int LOOP_SLEEP = 100;
-    private static final ExecutorService THREADED_EXECUTOR = ThreadUtil.threadExecutor("Server");
 
     static {
         // Try to initialize from environment variable only
@@ -96,17 +95,20 @@ public class FederatorServer {
             System.exit(1);
         }
 
+        // Created after the properties are loaded so the configured thread mode applies
+        ExecutorService threadedExecutor = ThreadUtil.serverThreadExecutor("Server");
+
         LOGGER.debug("Server looper starting...");
         List<Future<?>> futureList = new ArrayList<>();
-        futureList.add(THREADED_EXECUTOR.submit(new Looper()));
+        futureList.add(threadedExecutor.submit(new Looper()));
 
         LOGGER.info("Start GRPC Server process");
         String sHeaders = PropertyUtil.getPropertyValue(SHARED_HEADERS, CONTENT_TYPE);
         Set<String> sharedHeaders = Set.of(sHeaders.split(HEADER_SEPARATOR));
         LOGGER.info("Shared Headers - '{}'", sharedHeaders);
         try (GRPCServer server = new GRPCServer(sharedHeaders)) {
-            futureList.add(THREADED_EXECUTOR.submit(server::start));
-            ThreadUtil.awaitShutdown(futureList, server, THREADED_EXECUTOR);
+            futureList.add(threadedExecutor.submit(server::start));
+            ThreadUtil.awaitShutdown(futureList, server, threadedExecutor);
             LOGGER.debug("Post ThreadUtil Shutdown");
         } catch (Exception e) {
             LOGGER.error("MessageServeable failed to close.", e);
@@ -13,6 +13,7 @@ import uk.gov.dbt.ndtp.federator.server.interfaces.StreamObservable;
 import uk.gov.dbt.ndtp.grpc.FileStreamEvent;
 import uk.gov.dbt.ndtp.grpc.FileStreamRequest;
 import uk.gov.dbt.ndtp.grpc.KafkaByteBatch;
+import uk.gov.dbt.ndtp.grpc.MultiTopicRequest;
 import uk.gov.dbt.ndtp.grpc.TopicRequest;
 
 /**
@@ -21,11 +22,9 @@ import uk.gov.dbt.ndtp.grpc.TopicRequest;
 public class FederatorService implements AutoCloseable {
 
     public static final Logger LOGGER = LoggerFactory.getLogger("FederatorService");
-    private static final ExecutorService THREADED_FILE_STREAM_SERVICE_EXECUTOR =
-            ThreadUtil.threadExecutor("FileStreamService");
-    private static final ExecutorService THREADED_KAFKA_STREAM_SERVICE_EXECUTOR =
-            ThreadUtil.threadExecutor("KafkaStreamService");
-    private final CloseableFederatorStreamService<TopicRequest, KafkaByteBatch> kafkaStreamService;
+    private final ExecutorService fileStreamServiceExecutor = ThreadUtil.serverThreadExecutor("FileStreamService");
+    private final ExecutorService kafkaStreamServiceExecutor = ThreadUtil.serverThreadExecutor("KafkaStreamService");
+    private final KafkaStreamService kafkaStreamService;
     private final CloseableFederatorStreamService<FileStreamRequest, FileStreamEvent> fileStreamService;
 
     public FederatorService(Set<String> sharedHeaders) {
@@ -41,7 +40,18 @@ public class FederatorService implements AutoCloseable {
      */
     public void getKafkaConsumer(TopicRequest request, StreamObservable<KafkaByteBatch> streamObservable)
             throws InvalidTopicException {
-        kafkaStreamService.streamToClient(request, streamObservable, THREADED_KAFKA_STREAM_SERVICE_EXECUTOR);
+        kafkaStreamService.streamToClient(request, streamObservable, kafkaStreamServiceExecutor);
+    }
+
+    /**
+     * Gets a single Kafka consumer for several topics and streams their data to the provided stream observable.
+     * @param request
+     * @param streamObservable
+     * @throws InvalidTopicException if any of the topics is not available to the client
+     */
+    public void getKafkaConsumers(MultiTopicRequest request, StreamObservable<KafkaByteBatch> streamObservable)
+            throws InvalidTopicException {
+        kafkaStreamService.streamTopicsToClient(request, streamObservable, kafkaStreamServiceExecutor);
     }
 
     /**
@@ -50,14 +60,14 @@ public class FederatorService implements AutoCloseable {
      * @param streamObservable
      */
     public void getFileConsumer(FileStreamRequest request, StreamObservable<FileStreamEvent> streamObservable) {
-        fileStreamService.streamToClient(request, streamObservable, THREADED_FILE_STREAM_SERVICE_EXECUTOR);
+        fileStreamService.streamToClient(request, streamObservable, fileStreamServiceExecutor);
     }
 
     @Override
     public void close() {
         fileStreamService.close();
         kafkaStreamService.close();
-        THREADED_FILE_STREAM_SERVICE_EXECUTOR.shutdown();
-        THREADED_KAFKA_STREAM_SERVICE_EXECUTOR.shutdown();
+        fileStreamServiceExecutor.shutdown();
+        kafkaStreamServiceExecutor.shutdown();
     }
 }
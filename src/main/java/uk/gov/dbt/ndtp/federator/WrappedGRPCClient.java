@@ -25,6 +25,7 @@
  */
 package uk.gov.dbt.ndtp.federator;
 
+import java.util.Map;
 import uk.gov.dbt.ndtp.federator.client.grpc.GRPCTopicClient;
 import uk.gov.dbt.ndtp.federator.client.interfaces.KafkaConsumable;
 
@@ -60,6 +61,16 @@ public class WrappedGRPCClient implements KafkaConsumable {
         this.client.processTopic(topic, offset);
     }
 
+    @Override
+    public void followTopic(String topic, long offset) {
+        this.client.followTopic(topic, offset);
+    }
+
+    @Override
+    public void processTopics(Map<String, Long> topicOffsets, boolean follow) {
+        this.client.processTopics(topicOffsets, follow);
+    }
+
     @Override
     public void testConnectivity() {
         this.client.testConnectivity();
@@ -0,0 +1,76 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.grpc;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
+
+/**
+ * Settings for following topics: each topic job keeps one long-lived stream open instead of reconnecting on every
+ * schedule tick.
+ * <p>
+ * The server sends heartbeats on a followed stream, so a stream that delivers neither records nor heartbeats for
+ * {@code heartbeatTimeout} is treated as dead. After a failure the client reconnects with exponential backoff and full
+ * jitter between {@code initialBackoff} and {@code maxBackoff}.
+ *
+ * @param enabled true to follow topics rather than drain them once per schedule run
+ * @param heartbeatTimeout how long a followed stream may stay silent before the client reconnects; must exceed the
+ *     server's {@code server.follow.heartbeatInterval}
+ * @param initialBackoff delay ceiling before the first reconnect after a failure
+ * @param maxBackoff upper bound on the delay between reconnects
+ */
+@Slf4j
+public record FollowMode(boolean enabled, Duration heartbeatTimeout, Duration initialBackoff, Duration maxBackoff) {
+
+    public static final String CLIENT_FOLLOW_ENABLED = "client.follow.enabled";
+    public static final String CLIENT_FOLLOW_HEARTBEAT_TIMEOUT = "client.follow.heartbeatTimeout";
+    public static final String CLIENT_FOLLOW_INITIAL_BACKOFF = "client.follow.initialBackoff";
+    public static final String CLIENT_FOLLOW_MAX_BACKOFF = "client.follow.maxBackoff";
+
+    private static final String DEFAULT_ENABLED = "false";
+    private static final String DEFAULT_HEARTBEAT_TIMEOUT = "PT30S";
+    private static final String DEFAULT_INITIAL_BACKOFF = "PT1S";
+    private static final String DEFAULT_MAX_BACKOFF = "PT1M";
+
+    public static final FollowMode DISABLED = new FollowMode(
+            false,
+            Duration.parse(DEFAULT_HEARTBEAT_TIMEOUT),
+            Duration.parse(DEFAULT_INITIAL_BACKOFF),
+            Duration.parse(DEFAULT_MAX_BACKOFF));
+
+    /**
+     * @return the settings from client properties, or {@link #DISABLED} if properties are not loaded
+     */
+    public static FollowMode fromProperties() {
+        try {
+            return new FollowMode(
+                    PropertyUtil.getPropertyBooleanValue(CLIENT_FOLLOW_ENABLED, DEFAULT_ENABLED),
+                    PropertyUtil.getPropertyDurationValue(CLIENT_FOLLOW_HEARTBEAT_TIMEOUT, DEFAULT_HEARTBEAT_TIMEOUT),
+                    PropertyUtil.getPropertyDurationValue(CLIENT_FOLLOW_INITIAL_BACKOFF, DEFAULT_INITIAL_BACKOFF),
+                    PropertyUtil.getPropertyDurationValue(CLIENT_FOLLOW_MAX_BACKOFF, DEFAULT_MAX_BACKOFF));
+        } catch (PropertyUtil.PropertyUtilException e) {
+            log.debug("Properties not loaded, follow mode disabled");
+            return DISABLED;
+        }
+    }
+
+    /**
+     * Delay before reconnect attempt {@code failures} (1 for the first failure in a row): a random value up to
+     * {@code min(maxBackoff, initialBackoff * 2^(failures-1))}.
+     *
+     * @param failures consecutive failed attempts so far
+     * @return how long to wait before reconnecting
+     */
+    public Duration backoff(int failures) {
+        if (failures <= 0) {
+            return Duration.ZERO;
+        }
+        long ceiling = initialBackoff.toMillis() << Math.min(failures - 1, 20);
+        long bounded = Math.min(maxBackoff.toMillis(), ceiling);
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(bounded + 1));
+    }
+}
@@ -5,6 +5,7 @@ package uk.gov.dbt.ndtp.federator.client.grpc;
 
 import io.grpc.ManagedChannel;
 import java.util.concurrent.TimeUnit;
+import uk.gov.dbt.ndtp.federator.client.connection.ConnectionProperties;
 import uk.gov.dbt.ndtp.grpc.FederatorServiceGrpc;
 
 /**
@@ -22,6 +23,7 @@ public abstract class GRPCAbstractClient implements GRPCClient {
     protected final String key;
     protected final String topicPrefix;
     protected final String serverName;
+    private ManagedChannelPool.Lease lease;
 
     /**
      * Construct with explicit parameters. Builds the channel once via {@link #buildChannel}.
@@ -67,11 +69,19 @@ public abstract class GRPCAbstractClient implements GRPCClient {
     }
 
     /**
-     * Hook for building the channel. By default delegates to generateChannel(...).
+     * Hook for building the channel. By default delegates to generateChannel(...), or leases a warm channel from
+     * {@link ManagedChannelPool} when the pool is enabled.
      * Tests may override generateChannel(...) or this method to inject a mock.
      */
     protected ManagedChannel buildChannel(String host, int port, boolean isTLSEnabled) {
-        return generateChannel(host, port, isTLSEnabled);
+        if (!ManagedChannelPool.isEnabled()) {
+            return generateChannel(host, port, isTLSEnabled);
+        }
+        ManagedChannelPool pool = ManagedChannelPool.getInstance();
+        ConnectionProperties connection = new ConnectionProperties(client, key, serverName, host, port, isTLSEnabled);
+        this.lease = pool.acquire(
+                connection, () -> generateChannel(host, port, isTLSEnabled, pool.channelIdleTimeoutSecs()));
+        return lease.channel();
     }
 
     /**
@@ -89,12 +99,14 @@ public abstract class GRPCAbstractClient implements GRPCClient {
     }
 
     /**
-     * Close the underlying channel with a short timeout.
+     * Returns a pooled channel to the pool, otherwise closes the underlying channel with a short timeout.
      */
     @Override
     public void close() {
         try {
-            if (channel != null) {
+            if (lease != null) {
+                lease.close();
+            } else if (channel != null) {
                 channel.shutdown().awaitTermination(5, TimeUnit.SECONDS);
             }
         } catch (InterruptedException ie) {
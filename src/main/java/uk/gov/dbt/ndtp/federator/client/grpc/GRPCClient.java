@@ -54,12 +54,20 @@ public interface GRPCClient extends AutoCloseable {
     String THIRTY = "30";
 
     default ManagedChannel generateChannel(String host, int port, boolean ismTLSEnabled) {
+        return generateChannel(host, port, ismTLSEnabled, PropertyUtil.getPropertyIntValue(CLIENT_IDLE_TIMEOUT, TEN));
+    }
+
+    /**
+     * Builds a channel that drops its connection after {@code idleTimeoutSecs} without RPCs. Pooled channels use
+     * a longer idle timeout than per-run channels so the connection survives the gap between job runs.
+     */
+    default ManagedChannel generateChannel(String host, int port, boolean ismTLSEnabled, long idleTimeoutSecs) {
         if (ismTLSEnabled) {
             LOGGER.info("Using MTLS for GRPC connection");
-            return generateSecureChannel(host, port, generateChannelCredentials());
+            return generateSecureChannel(host, port, generateChannelCredentials(), idleTimeoutSecs);
         } else {
             LOGGER.info("Using plaintext for GRPC connection");
-            return generateChannel(host, port);
+            return generateChannel(host, port, idleTimeoutSecs);
         }
     }
 
@@ -67,22 +75,22 @@ public interface GRPCClient extends AutoCloseable {
         return client + "-" + serverName;
     }
 
-    private ManagedChannel generateChannel(String host, int port) {
+    private ManagedChannel generateChannel(String host, int port, long idleTimeoutSecs) {
         ManagedChannelBuilder<?> builder = ManagedChannelBuilder.forAddress(host, port);
         builder.usePlaintext();
-        return configureChannelBuilder(builder).build();
+        return configureChannelBuilder(builder, idleTimeoutSecs).build();
     }
 
-    private ManagedChannel generateSecureChannel(String host, int port, ChannelCredentials cred) {
+    private ManagedChannel generateSecureChannel(String host, int port, ChannelCredentials cred, long idleTimeoutSecs) {
         ManagedChannelBuilder<?> builder = Grpc.newChannelBuilderForAddress(host, port, cred);
-        return configureChannelBuilder(builder).build();
+        return configureChannelBuilder(builder, idleTimeoutSecs).build();
     }
 
-    private ManagedChannelBuilder<?> configureChannelBuilder(ManagedChannelBuilder<?> builder) {
+    private ManagedChannelBuilder<?> configureChannelBuilder(ManagedChannelBuilder<?> builder, long idleTimeoutSecs) {
         IdpTokenService tokenService = GRPCUtils.createIdpTokenService();
         return builder.keepAliveTime(PropertyUtil.getPropertyIntValue(CLIENT_KEEP_ALIVE_TIME, THIRTY), TimeUnit.SECONDS)
                 .keepAliveTimeout(PropertyUtil.getPropertyIntValue(CLIENT_KEEP_ALIVE_TIMEOUT, TEN), TimeUnit.SECONDS)
-                .idleTimeout(PropertyUtil.getPropertyIntValue(CLIENT_IDLE_TIMEOUT, TEN), TimeUnit.SECONDS)
+                .idleTimeout(idleTimeoutSecs, TimeUnit.SECONDS)
                 .intercept(new CustomClientInterceptor(), new AuthClientInterceptor(tokenService));
     }
 }
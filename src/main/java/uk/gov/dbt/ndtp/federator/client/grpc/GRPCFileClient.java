@@ -5,11 +5,17 @@ package uk.gov.dbt.ndtp.federator.client.grpc;
 
 import java.nio.file.Path;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import lombok.extern.slf4j.Slf4j;
 import uk.gov.dbt.ndtp.federator.client.connection.ConnectionProperties;
 import uk.gov.dbt.ndtp.federator.client.grpc.file.FileChunkAssembler;
-import uk.gov.dbt.ndtp.federator.common.utils.RedisUtil;
+import uk.gov.dbt.ndtp.federator.client.offsets.OffsetStoreFactory;
+import uk.gov.dbt.ndtp.federator.common.utils.FileChecksums;
+import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
 import uk.gov.dbt.ndtp.federator.exceptions.FileAssemblyException;
+import uk.gov.dbt.ndtp.grpc.FileBundle;
+import uk.gov.dbt.ndtp.grpc.FileChecksumAlgorithm;
 import uk.gov.dbt.ndtp.grpc.FileChunk;
 import uk.gov.dbt.ndtp.grpc.FileStreamEvent;
 import uk.gov.dbt.ndtp.grpc.FileStreamRequest;
@@ -25,6 +31,9 @@ import uk.gov.dbt.ndtp.grpc.StreamWarning;
 @Slf4j
 public class GRPCFileClient extends GRPCAbstractClient {
 
+    public static final String CHECKSUM_ALGORITHM = "client.files.checksumAlgorithm";
+    public static final String BUNDLES_ENABLED = "client.files.bundles.enabled";
+
     /**
      * Creates a client using the provided {@link ConnectionProperties} and topic prefix.
      *
@@ -75,7 +84,7 @@ public class GRPCFileClient extends GRPCAbstractClient {
     /**
      * Streams files for the given topic starting at the provided sequence id and stores them via
      * {@link uk.gov.dbt.ndtp.federator.client.grpc.file.FileChunkAssembler} and the configured storage provider.
-     * When each file completes, the next sequence id is persisted to Redis.
+     * When each file completes, the next sequence id is persisted to the offset store.
      *
      * @param topic topic name to stream
      * @param offset sequence id to begin from
@@ -87,7 +96,8 @@ public class GRPCFileClient extends GRPCAbstractClient {
         validatePrerequisites(topic, destination);
 
         FileStreamRequest request = buildFileStreamRequest(topic, offset);
-        FileChunkAssembler assembler = new FileChunkAssembler(destination);
+        FileChunkAssembler assembler = new FileChunkAssembler(
+                destination, (seq, rangeOffset, length) -> fetchRange(topic, seq, rangeOffset, length));
 
         try {
             processFileStream(topic, offset, request, assembler);
@@ -97,15 +107,15 @@ public class GRPCFileClient extends GRPCAbstractClient {
     }
 
     /**
-     * Validates that Redis is accessible and destination is properly configured.
+     * Validates that the offset store is accessible and destination is properly configured.
      *
      * @param topic topic name for error messages
      * @param destination destination path to validate
      * @throws FileAssemblyException if validation fails
      */
     private void validatePrerequisites(String topic, String destination) {
-        RedisUtil.getInstance();
-        log.debug("Redis connectivity check passed");
+        OffsetStoreFactory.getInstance().checkAvailable();
+        log.debug("Offset store check passed");
 
         if (destination == null || destination.isBlank()) {
             throw new FileAssemblyException("Destination is required but was null/blank for topic '" + topic + "'");
@@ -123,9 +133,78 @@ public class GRPCFileClient extends GRPCAbstractClient {
         return FileStreamRequest.newBuilder()
                 .setTopic(topic)
                 .setStartSequenceId(offset)
+                .setChecksumAlgorithm(requestedChecksumAlgorithm())
+                .setAcceptBundles(bundlesEnabled())
                 .build();
     }
 
+    /**
+     * @return true if small files may be sent together in bundles
+     */
+    private static boolean bundlesEnabled() {
+        try {
+            return PropertyUtil.getPropertyBooleanValue(BUNDLES_ENABLED, "false");
+        } catch (RuntimeException e) {
+            // PropertyUtil may not be initialized in some tests
+            return false;
+        }
+    }
+
+    /**
+     * @return the whole-file checksum to ask producers for; they may answer with SHA-256 instead
+     */
+    private static FileChecksumAlgorithm requestedChecksumAlgorithm() {
+        try {
+            return FileChecksums.parse(PropertyUtil.getPropertyValue(CHECKSUM_ALGORITHM, ""));
+        } catch (RuntimeException e) {
+            // PropertyUtil may not be initialized in some tests
+            return FileChecksumAlgorithm.SHA_256;
+        }
+    }
+
+    /**
+     * Asks the server to resend {@code length} bytes from {@code rangeOffset} of the file at sequence id {@code seq}.
+     *
+     * @return the data chunks of the resent range
+     */
+    private Iterator<FileChunk> fetchRange(String topic, long seq, long rangeOffset, long length) {
+        log.info(
+                "Requesting retransmission of {} bytes at offset {} of file {} on topic '{}'",
+                length,
+                rangeOffset,
+                seq,
+                topic);
+        FileStreamRequest request = buildFileStreamRequest(topic, seq).toBuilder()
+                .setRangeOffset(rangeOffset)
+                .setRangeLength(length)
+                .build();
+        Iterator<FileStreamEvent> events = getStub().getFilesStream(request);
+        return new Iterator<>() {
+            private FileChunk next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && events.hasNext()) {
+                    FileStreamEvent event = events.next();
+                    if (event.hasChunk()) {
+                        next = event.getChunk();
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public FileChunk next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                FileChunk chunk = next;
+                next = null;
+                return chunk;
+            }
+        };
+    }
+
     /**
      * Processes the file stream by iterating through events and delegating to specific handlers.
      *
@@ -159,6 +238,7 @@ public class GRPCFileClient extends GRPCAbstractClient {
         return switch (event.getEventCase()) {
             case CHUNK -> handleChunkEvent(topic, event.getChunk(), assembler, currentSeq);
             case WARNING -> handleWarningEvent(topic, event.getWarning(), currentSeq);
+            case BUNDLE -> handleBundleEvent(topic, event.getBundle(), assembler, currentSeq);
             case EVENT_NOT_SET -> {
                 log.warn("Received FileStreamEvent with no payload for topic '{}'", topic);
                 yield currentSeq;
@@ -167,7 +247,7 @@ public class GRPCFileClient extends GRPCAbstractClient {
     }
 
     /**
-     * Processes a file chunk, assembles the file, and updates Redis offset on completion.
+     * Processes a file chunk, assembles the file, and updates the stored offset on completion.
      *
      * @param topic topic name for logging
      * @param chunk the file chunk to process
@@ -182,9 +262,9 @@ public class GRPCFileClient extends GRPCAbstractClient {
 
         if (completed != null) {
             long seqId = chunk.getFileSequenceId();
-            saveNextOffsetToRedis(topic, seqId);
+            saveNextOffset(topic, seqId);
             log.info(
-                    "Completed file '{}' stored at {}. Saved next sequence id {} to Redis.",
+                    "Completed file '{}' stored at {}. Saved next sequence id {}.",
                     chunk.getFileName(),
                     completed,
                     seqId + 1);
@@ -195,7 +275,36 @@ public class GRPCFileClient extends GRPCAbstractClient {
     }
 
     /**
-     * Handles a stream warning event by logging and updating Redis offset.
+     * Stores the files of a bundle and updates the stored offset once for the whole bundle.
+     *
+     * @param topic topic name for logging
+     * @param bundle the small files sent together
+     * @param assembler file chunk assembler that stores the files
+     * @param currentSeq current sequence id
+     * @return sequence id of the last file stored, or {@code currentSeq} if none was
+     */
+    private long handleBundleEvent(String topic, FileBundle bundle, FileChunkAssembler assembler, long currentSeq) {
+        List<Path> stored = assembler.acceptBundle(bundle);
+        long lastSeq = currentSeq;
+        for (int i = 0; i < stored.size(); i++) {
+            // As for single files, a failed remote upload does not itself move the offset
+            if (stored.get(i) != null) {
+                lastSeq = bundle.getFiles(i).getFileSequenceId();
+            }
+        }
+        if (lastSeq != currentSeq) {
+            saveNextOffset(topic, lastSeq);
+            log.info(
+                    "Completed bundle of {} files on topic '{}'. Saved next sequence id {}.",
+                    stored.size(),
+                    topic,
+                    lastSeq + 1);
+        }
+        return lastSeq;
+    }
+
+    /**
+     * Handles a stream warning event by logging and updating the stored offset.
      *
      * @param topic topic name for logging
      * @param warning the warning event
@@ -211,7 +320,7 @@ public class GRPCFileClient extends GRPCAbstractClient {
                 warning.getDetails(),
                 warning.getSkippedSequenceId());
 
-        saveNextOffsetToRedis(topic, warning.getSkippedSequenceId());
+        saveNextOffset(topic, warning.getSkippedSequenceId());
 
         log.warn("Incremented stream warning counter for topic '{}' to {}", topic, warning.getSkippedSequenceId() + 1);
 
@@ -222,23 +331,23 @@ public class GRPCFileClient extends GRPCAbstractClient {
     }
 
     /**
-     * Saves the next offset to Redis after processing the given sequence ID.
+     * Saves the next offset after processing the given sequence ID.
      *
      * @param topic topic name
      * @param lastProcessedSequenceId the sequence ID that was just processed
      */
-    private void saveNextOffsetToRedis(String topic, long lastProcessedSequenceId) {
+    private void saveNextOffset(String topic, long lastProcessedSequenceId) {
         long nextOffset = lastProcessedSequenceId + 1;
-        saveOffsetToRedis(topic, nextOffset);
+        saveOffset(topic, nextOffset);
     }
 
     /**
-     * Saves the next offset to Redis for the given topic.
+     * Saves the next offset for the given topic.
      *
      * @param topic topic name
      * @param nextOffset offset to save
      */
-    private void saveOffsetToRedis(String topic, long nextOffset) {
-        RedisUtil.getInstance().setOffset(getRedisPrefix(), topic, nextOffset);
+    private void saveOffset(String topic, long nextOffset) {
+        OffsetStoreFactory.getInstance().setOffset(getRedisPrefix(), topic, nextOffset);
     }
 }
@@ -31,9 +31,13 @@ import io.grpc.Context.CancellableContext;
 import io.grpc.ManagedChannel;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientResponseObserver;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -41,16 +45,24 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import lombok.SneakyThrows;
 import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.errors.AuthenticationException;
+import org.apache.kafka.common.errors.ProducerFencedException;
 import org.apache.kafka.common.utils.Bytes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.gov.dbt.ndtp.federator.client.connection.ConnectionProperties;
+import uk.gov.dbt.ndtp.federator.client.kafka.AsyncTopicWriter;
+import uk.gov.dbt.ndtp.federator.client.kafka.KafkaProducerCache;
+import uk.gov.dbt.ndtp.federator.client.kafka.TopicWriter;
+import uk.gov.dbt.ndtp.federator.client.offsets.OffsetStoreFactory;
 import uk.gov.dbt.ndtp.federator.common.utils.KafkaUtil;
 import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
-import uk.gov.dbt.ndtp.federator.common.utils.RedisUtil;
 import uk.gov.dbt.ndtp.federator.exceptions.ClientGRPCJobException;
 import uk.gov.dbt.ndtp.federator.exceptions.RetryableException;
+import uk.gov.dbt.ndtp.grpc.FederatorServiceGrpc;
 import uk.gov.dbt.ndtp.grpc.KafkaByteBatch;
+import uk.gov.dbt.ndtp.grpc.MultiTopicRequest;
+import uk.gov.dbt.ndtp.grpc.TopicOffset;
 import uk.gov.dbt.ndtp.grpc.TopicRequest;
 import uk.gov.dbt.ndtp.secure.agent.sources.Event;
 import uk.gov.dbt.ndtp.secure.agent.sources.Header;
@@ -141,39 +153,251 @@ public class GRPCTopicClient extends GRPCAbstractClient {
     }
 
     public void processTopic(String topic, long offset) {
-        LOGGER.info("Processing topic: '{}' with offset: '{}'", topic, offset);
-        RedisUtil.getInstance();
-        LOGGER.debug("Redis connectivity check passed");
-        TopicRequest topicRequest =
-                TopicRequest.newBuilder().setTopic(topic).setOffset(offset).build();
-
-        try (KafkaSink<Bytes, Bytes> sink = getSender(topic, this.topicPrefix, this.serverName)) {
-            LOGGER.debug("Kafka sink created successfully");
-            try (Context.CancellableContext withCancellation = Context.current().withCancellation()) {
-                withCancellation.run(() -> consumeMessagesAndSendOn(topicRequest, sink));
-                LOGGER.info("Topic {} processed", topic);
-            } catch (StatusRuntimeException exception) {
-                if (Status.INVALID_ARGUMENT
-                        .getCode()
-                        .equals(exception.getStatus().getCode())) {
-                    LOGGER.error("Topic ({}) no longer valid for client ({})", topic, client);
-                } else {
-                    LOGGER.error("Topic processing stopped due to unknown error.", exception);
+        processTopic(topic, offset, false);
+    }
+
+    /**
+     * Like {@link #processTopic(String, long)}, but asks the server to keep the stream open while the topic is idle.
+     * Returns or throws only when the stream fails, goes silent for longer than the follow heartbeat timeout, or is
+     * ended by the server.
+     */
+    public void followTopic(String topic, long offset) {
+        processTopic(topic, offset, true);
+    }
+
+    /**
+     * Opens a followed stream for {@code topic} on the asynchronous stub and returns straight away. Records are
+     * delivered to {@code observer} on {@code executor}, which controls inbound flow itself.
+     */
+    public void followTopicAsync(
+            String topic,
+            long offset,
+            Executor executor,
+            ClientResponseObserver<TopicRequest, KafkaByteBatch> observer) {
+        LOGGER.info("Following topic: '{}' asynchronously from offset: '{}'", topic, offset);
+        TopicRequest topicRequest = TopicRequest.newBuilder()
+                .setTopic(topic)
+                .setOffset(offset)
+                .setFollow(true)
+                .build();
+        FederatorServiceGrpc.newStub(channel).withExecutor(executor).getKafkaConsumer(topicRequest, observer);
+    }
+
+    /**
+     * Opens the writer for records of {@code topic} from {@code serverName}, chosen the same way as for
+     * {@link #processTopic(String, long)}. The caller must close it.
+     */
+    public static TopicWriter openWriter(String topic, String topicPrefix, String serverName) {
+        String compoundTopic = concatCompoundTopicName(topic, topicPrefix, serverName);
+        if (AsyncTopicWriter.isEnabled()) {
+            return AsyncTopicWriter.create(compoundTopic);
+        }
+        if (KafkaProducerCache.isEnabled()) {
+            return new SinkTopicWriter(KafkaProducerCache.getInstance().sink(compoundTopic), false);
+        }
+        return new SinkTopicWriter(getSender(topic, topicPrefix, serverName), true);
+    }
+
+    /**
+     * Reads several topics from the server on one stream, each from its own offset, as {@link #processTopic} does for
+     * one. Records are written to the local topic of the topic they came from, and offsets are stored per topic.
+     *
+     * @param topicOffsets offset to start from per topic
+     * @param follow true to keep the stream open while the topics are idle
+     */
+    public void processTopics(Map<String, Long> topicOffsets, boolean follow) {
+        LOGGER.info("Processing topics: {} on one stream, follow: {}", topicOffsets, follow);
+        OffsetStoreFactory.getInstance().checkAvailable();
+        MultiTopicRequest.Builder request = MultiTopicRequest.newBuilder().setFollow(follow);
+        topicOffsets.forEach((topic, offset) -> request.addTopics(
+                TopicOffset.newBuilder().setTopic(topic).setOffset(offset)));
+
+        Map<String, TopicWriter> writers = new HashMap<>();
+        try {
+            for (String topic : topicOffsets.keySet()) {
+                writers.put(topic, openWriter(topic, this.topicPrefix, this.serverName));
+            }
+            String topics = String.join(",", topicOffsets.keySet());
+            runCancellable(topics, () -> consumeTopicsAndWrite(request.build(), writers));
+        } catch (KafkaException e) {
+            throw new RetryableException(e);
+        } finally {
+            writers.values().forEach(TopicWriter::close);
+        }
+    }
+
+    /**
+     * Streams several topics from the server, routing each record to the writer of its topic. Offsets are stored per
+     * topic as in {@link #consumeMessagesAndWrite}.
+     */
+    public void consumeTopicsAndWrite(MultiTopicRequest req, Map<String, TopicWriter> writers) {
+        long idleSeconds = req.getFollow()
+                ? Math.max(1L, FollowMode.fromProperties().heartbeatTimeout().toSeconds())
+                : PropertyUtil.getPropertyIntValue(CLIENT_IDLE_TIMEOUT, TEN);
+
+        ExecutorService threadExecutor = null;
+        CancellableContext context = null;
+        Map<String, Long> committedOffsets = new HashMap<>();
+        try {
+            threadExecutor = Executors.newSingleThreadExecutor();
+            context = Context.current().withCancellation();
+            Iterator<KafkaByteBatch> iterator = context.call(() -> getStub().getKafkaConsumers(req));
+
+            while (true) {
+                Future<KafkaByteBatch> futureNext = threadExecutor.submit(context.wrap(iterator::next));
+                KafkaByteBatch batch = getNextBatch(futureNext, idleSeconds, context, req.getFollow());
+                if (batch == null) {
+                    break;
+                }
+                if (batch.getHeartbeat()) {
+                    LOGGER.debug("Heartbeat received for topics");
+                    continue;
+                }
+                TopicWriter writer = writers.get(batch.getTopic());
+                if (writer == null) {
+                    throw new ClientGRPCJobException("Received record for unrequested topic " + batch.getTopic());
+                }
+                writer.write(batch);
+                advanceOffset(batch.getTopic(), writer.committableOffset(), committedOffsets);
+            }
+            writers.forEach((topic, writer) -> {
+                writer.flush();
+                advanceOffset(topic, writer.committableOffset(), committedOffsets);
+            });
+        } catch (Exception e) {
+            writers.forEach((topic, writer) ->
+                    commitAcknowledged(topic, writer, committedOffsets.getOrDefault(topic, -1L)));
+            throw new ClientGRPCJobException("Error encountered whilst consuming topics", e);
+        } finally {
+            if (context != null) {
+                context.cancel(null);
+            }
+            if (threadExecutor != null) {
+                threadExecutor.shutdownNow();
+            }
+            LOGGER.info("Finished consuming topics");
+        }
+    }
+
+    private void advanceOffset(String topic, long nextOffset, Map<String, Long> committedOffsets) {
+        committedOffsets.put(topic, commitOffset(topic, nextOffset, committedOffsets.getOrDefault(topic, -1L)));
+    }
+
+    private void processTopic(String topic, long offset, boolean follow) {
+        LOGGER.info("Processing topic: '{}' with offset: '{}', follow: {}", topic, offset, follow);
+        OffsetStoreFactory.getInstance().checkAvailable();
+        LOGGER.debug("Offset store check passed");
+        TopicRequest topicRequest = TopicRequest.newBuilder()
+                .setTopic(topic)
+                .setOffset(offset)
+                .setFollow(follow)
+                .build();
+
+        String compoundTopic = concatCompoundTopicName(topic, this.topicPrefix, this.serverName);
+        try {
+            if (AsyncTopicWriter.isEnabled()) {
+                writeAsync(topic, compoundTopic, topicRequest);
+            } else if (KafkaProducerCache.isEnabled()) {
+                writeToCachedSink(topic, compoundTopic, topicRequest);
+            } else {
+                try (KafkaSink<Bytes, Bytes> sink = getSender(topic, this.topicPrefix, this.serverName)) {
+                    LOGGER.debug("Kafka sink created successfully");
+                    runCancellable(topic, () -> consumeMessagesAndSendOn(topicRequest, sink));
                 }
-                throw exception;
             }
         } catch (KafkaException e) {
             throw new RetryableException(e);
+        } catch (IllegalStateException e) {
+            // A shared producer closed underneath this run is replaced on the retry
+            if (isFatalKafkaFailure(e)) {
+                throw new RetryableException(e);
+            }
+            throw e;
+        }
+    }
+
+    private void writeAsync(String topic, String compoundTopic, TopicRequest topicRequest) {
+        try (AsyncTopicWriter writer = AsyncTopicWriter.create(compoundTopic)) {
+            LOGGER.debug("Async Kafka writer created successfully");
+            try {
+                runCancellable(topic, () -> consumeMessagesAndWrite(topicRequest, writer));
+            } catch (RuntimeException e) {
+                if (!writer.ownsProducer() && isFatalKafkaFailure(e)) {
+                    KafkaProducerCache.getInstance().invalidateProducer(writer.producer());
+                }
+                throw e;
+            }
+        }
+    }
+
+    // The cached sink stays open for the next run unless its producer is broken
+    private void writeToCachedSink(String topic, String compoundTopic, TopicRequest topicRequest) {
+        KafkaSink<Bytes, Bytes> sink = KafkaProducerCache.getInstance().sink(compoundTopic);
+        LOGGER.debug("Using cached Kafka sink for {}", compoundTopic);
+        try {
+            runCancellable(topic, () -> consumeMessagesAndSendOn(topicRequest, sink));
+        } catch (RuntimeException e) {
+            if (isFatalKafkaFailure(e)) {
+                KafkaProducerCache.getInstance().invalidate(compoundTopic);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return true if the producer itself is unusable (rejected credentials, fenced, closed or unable to reach the
+     *     brokers in time), rather than one record having failed, e.g. for being too large or unserialisable
+     */
+    static boolean isFatalKafkaFailure(Throwable throwable) {
+        for (Throwable t = throwable; t != null; t = t.getCause()) {
+            if (t instanceof AuthenticationException
+                    || t instanceof ProducerFencedException
+                    || t instanceof org.apache.kafka.common.errors.TimeoutException) {
+                return true;
+            }
+            if (t instanceof IllegalStateException
+                    && t.getMessage() != null
+                    && t.getMessage().contains("producer")
+                    && t.getMessage().contains("closed")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void runCancellable(String topic, Runnable consume) {
+        try (Context.CancellableContext withCancellation = Context.current().withCancellation()) {
+            withCancellation.run(consume);
+            LOGGER.info("Topic {} processed", topic);
+        } catch (StatusRuntimeException exception) {
+            if (Status.INVALID_ARGUMENT.getCode().equals(exception.getStatus().getCode())) {
+                LOGGER.error("Topic ({}) no longer valid for client ({})", topic, client);
+            } else {
+                LOGGER.error("Topic processing stopped due to unknown error.", exception);
+            }
+            throw exception;
         }
     }
 
     public void consumeMessagesAndSendOn(TopicRequest req, KafkaSink<Bytes, Bytes> sink) {
+        consumeMessagesAndWrite(req, new SinkTopicWriter(sink, false));
+    }
+
+    /**
+     * Streams the topic from the server into {@code writer}. The stored offset is advanced to
+     * {@link TopicWriter#committableOffset()} as records are acknowledged, and once more after the final flush.
+     */
+    public void consumeMessagesAndWrite(TopicRequest req, TopicWriter writer) {
         LOGGER.info("Consuming messages for topic: {}", req.getTopic());
 
-        long idleSeconds = PropertyUtil.getPropertyIntValue(CLIENT_IDLE_TIMEOUT, TEN);
+        // A followed stream is never idle-closed; only silence beyond the heartbeat timeout ends it
+        long idleSeconds = req.getFollow()
+                ? Math.max(1L, FollowMode.fromProperties().heartbeatTimeout().toSeconds())
+                : PropertyUtil.getPropertyIntValue(CLIENT_IDLE_TIMEOUT, TEN);
 
         ExecutorService threadExecutor = null;
         CancellableContext context = null;
+        long committedOffset = -1L;
         try {
             threadExecutor = Executors.newSingleThreadExecutor();
             context = Context.current().withCancellation();
@@ -185,21 +409,23 @@ public class GRPCTopicClient extends GRPCAbstractClient {
                 // To avoid blocking indefinitely (as idle timeouts will not be reached), we use a Future with a timeout
                 // to limit how long we wait for a message.
                 Future<KafkaByteBatch> futureNext = threadExecutor.submit(context.wrap(iterator::next));
-                KafkaByteBatch batch = getNextBatch(futureNext, idleSeconds, context);
+                KafkaByteBatch batch = getNextBatch(futureNext, idleSeconds, context, req.getFollow());
                 if (batch == null) {
                     break;
                 }
+                if (batch.getHeartbeat()) {
+                    LOGGER.debug("Heartbeat received for topic: {}", req.getTopic());
+                    continue;
+                }
 
                 LOGGER.debug("Consuming message: {}, {} : {}", batch.getTopic(), batch.getOffset(), batch.getValue());
-                sendMessage(sink, batch);
-
-                // The persisted offset here is read when a new job starts.
-                // Store the next offset to be read to avoid record overlaps.
-                long nextOffset = batch.getOffset() + 1;
-                RedisUtil.getInstance().setOffset(getRedisPrefix(), req.getTopic(), nextOffset);
-                LOGGER.debug("Wrote next offset {} to redis for topic {}", nextOffset, req.getTopic());
+                writer.write(batch);
+                committedOffset = commitOffset(req.getTopic(), writer.committableOffset(), committedOffset);
             }
+            writer.flush();
+            commitOffset(req.getTopic(), writer.committableOffset(), committedOffset);
         } catch (Exception e) {
+            commitAcknowledged(req.getTopic(), writer, committedOffset);
             throw new ClientGRPCJobException("Error encountered whilst consuming topic", e);
         } finally {
             if (context != null) {
@@ -219,17 +445,50 @@ public class GRPCTopicClient extends GRPCAbstractClient {
         }
     }
 
+    /**
+     * Stores {@code nextOffset} in the offset store if it is ahead of what has already been stored. The persisted
+     * offset is read when a new job starts; it is the next offset to be read, to avoid record overlaps.
+     *
+     * @return the offset now stored
+     */
+    private long commitOffset(String topic, long nextOffset, long committedOffset) {
+        if (nextOffset <= committedOffset) {
+            return committedOffset;
+        }
+        OffsetStoreFactory.getInstance().setOffset(getRedisPrefix(), topic, nextOffset);
+        LOGGER.debug("Wrote next offset {} to redis for topic {}", nextOffset, topic);
+        return nextOffset;
+    }
+
+    // Keep whatever was acknowledged before a failure so the retry does not resend it
+    private void commitAcknowledged(String topic, TopicWriter writer, long committedOffset) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+        } catch (RuntimeException e) {
+            LOGGER.debug("Flush after failure did not complete", e);
+        }
+        try {
+            commitOffset(topic, writer.committableOffset(), committedOffset);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Unable to store acknowledged offset for topic {}", topic, e);
+        }
+    }
+
     /***
      * Gets the next batch from the future, with a timeout to avoid blocking indefinitely.
      * @param futureNext The future to get the next batch from.
      * @param idleSeconds The number of seconds to wait before timing out.
      * @param context The cancellable context to cancel if the timeout is reached.
+     * @param follow Whether the stream is followed, in which case a timeout means the connection is dead.
      * @return The next batch, or null if the timeout is reached.
      * @throws Exception If an error occurs while getting the next batch.
      */
     @SneakyThrows
     private KafkaByteBatch getNextBatch(
-            Future<KafkaByteBatch> futureNext, long idleSeconds, CancellableContext context) {
+            Future<KafkaByteBatch> futureNext, long idleSeconds, CancellableContext context, boolean follow) {
 
         // To avoid blocking indefinitely (as idle timeouts will not be reached),
         // use a Future with a timeout to limit how long we wait for a message.
@@ -237,6 +496,9 @@ public class GRPCTopicClient extends GRPCAbstractClient {
             return futureNext.get(idleSeconds, TimeUnit.SECONDS);
         } catch (TimeoutException te) {
             context.cancel(null);
+            if (follow) {
+                throw new RetryableException("No records or heartbeats received for " + idleSeconds + "s", te);
+            }
             LOGGER.info("No messages received for {}s. Closing consumer.", idleSeconds);
             return null;
         } catch (ExecutionException ee) {
@@ -255,6 +517,44 @@ public class GRPCTopicClient extends GRPCAbstractClient {
         }
     }
 
+    /**
+     * Sends each record through a {@link KafkaSink}, which returns once the record has been handed to the producer, so
+     * every record is committable as soon as it is written.
+     */
+    private static final class SinkTopicWriter implements TopicWriter {
+        private final KafkaSink<Bytes, Bytes> sink;
+        private final boolean ownsSink;
+        private long committableOffset = -1L;
+
+        private SinkTopicWriter(KafkaSink<Bytes, Bytes> sink, boolean ownsSink) {
+            this.sink = sink;
+            this.ownsSink = ownsSink;
+        }
+
+        @Override
+        public void write(KafkaByteBatch batch) {
+            sendMessage(sink, batch);
+            committableOffset = batch.getOffset() + 1;
+        }
+
+        @Override
+        public void flush() {
+            // Nothing outstanding
+        }
+
+        @Override
+        public long committableOffset() {
+            return committableOffset;
+        }
+
+        @Override
+        public void close() {
+            if (ownsSink) {
+                sink.close();
+            }
+        }
+    }
+
     public void testConnectivity() {
         // getStub().testConnectivity(TopicRequest.getDefaultInstance());
     }
@@ -0,0 +1,110 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.grpc;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bounds how many records the {@link ReactiveTopicEngine} may have in flight: requested from producers but not yet
+ * written to Kafka. One credit is taken before each record is requested from a producer and given back once it has
+ * been written. Credits are limited per producer and in total.
+ * <p>
+ * A stream that cannot get a credit registers a wake-up with {@link #awaitCredit}, which runs on the executor as soon
+ * as a credit for that producer may be available again.
+ */
+final class InFlightBudget {
+
+    private final int perProducerLimit;
+    private final Semaphore total;
+    private final Executor executor;
+    private final Map<String, Semaphore> producers = new ConcurrentHashMap<>();
+    private final Map<String, Queue<Runnable>> waiting = new ConcurrentHashMap<>();
+
+    /**
+     * @param perProducerLimit credits available to all streams from one producer together
+     * @param totalLimit credits available to all streams together
+     * @param executor runs wake-ups
+     */
+    InFlightBudget(int perProducerLimit, int totalLimit, Executor executor) {
+        if (perProducerLimit < 1 || totalLimit < 1) {
+            throw new IllegalArgumentException("In-flight limits must be positive");
+        }
+        this.perProducerLimit = perProducerLimit;
+        this.total = new Semaphore(totalLimit);
+        this.executor = executor;
+    }
+
+    /**
+     * Takes one credit for {@code producer} if both the producer and the total budget have one left.
+     *
+     * @return true if the credit was taken
+     */
+    boolean tryAcquire(String producer) {
+        Semaphore own = producer(producer);
+        if (!own.tryAcquire()) {
+            return false;
+        }
+        if (!total.tryAcquire()) {
+            own.release();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gives back {@code credits} taken for {@code producer} and wakes streams waiting for them.
+     */
+    void release(String producer, int credits) {
+        if (credits <= 0) {
+            return;
+        }
+        producer(producer).release(credits);
+        total.release(credits);
+        wake(producer);
+        // Streams of other producers may have been held back by the total budget only
+        if (total.availablePermits() > 0) {
+            waiting.keySet().stream().filter(p -> !p.equals(producer)).forEach(this::wake);
+        }
+    }
+
+    /**
+     * Runs {@code wakeUp} once credit for {@code producer} may be available. It runs straight away (on the executor) if
+     * credit was released between the caller's failed {@link #tryAcquire} and this call.
+     */
+    void awaitCredit(String producer, Runnable wakeUp) {
+        Queue<Runnable> queue = waiting.computeIfAbsent(producer, p -> new ConcurrentLinkedQueue<>());
+        queue.add(wakeUp);
+        if (producer(producer).availablePermits() > 0 && total.availablePermits() > 0 && queue.remove(wakeUp)) {
+            executor.execute(wakeUp);
+        }
+    }
+
+    /**
+     * @return credits currently taken by streams of {@code producer}
+     */
+    int inFlight(String producer) {
+        return perProducerLimit - producer(producer).availablePermits();
+    }
+
+    private void wake(String producer) {
+        Queue<Runnable> queue = waiting.get(producer);
+        if (queue == null) {
+            return;
+        }
+        Runnable wakeUp;
+        while ((wakeUp = queue.poll()) != null) {
+            executor.execute(wakeUp);
+        }
+    }
+
+    private Semaphore producer(String producer) {
+        return producers.computeIfAbsent(producer, p -> new Semaphore(perProducerLimit));
+    }
+}
@@ -0,0 +1,412 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.grpc;
+
+import static uk.gov.dbt.ndtp.federator.client.grpc.GRPCClient.*;
+
+import io.grpc.ManagedChannel;
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.dbt.ndtp.federator.client.connection.ConnectionProperties;
+import uk.gov.dbt.ndtp.federator.client.lifecycle.AutoClosableShutdownTask;
+import uk.gov.dbt.ndtp.federator.client.lifecycle.ShutdownThread;
+import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
+import uk.gov.dbt.ndtp.federator.common.utils.ThreadFactoryWithNamePrefix;
+
+/**
+ * Keeps one {@link ManagedChannel} per {@link ConnectionProperties} alive between job runs so that each run does not
+ * pay for a new TCP connection and TLS handshake.
+ * <p>
+ * Clients {@link #acquire} a {@link Lease} when they are created and close it when the run ends; closing a lease
+ * only returns the channel to the pool. A channel is shut down when:
+ * <ul>
+ *   <li>nobody has leased it for longer than {@code client.channelPool.maxIdle};</li>
+ *   <li>the TLS material or channel settings it was built with have changed (new key store, trust store, passwords
+ *   or keepalive/idle settings), in which case the next acquire builds a fresh channel and the old one is shut down
+ *   once its last lease is closed;</li>
+ *   <li>the pool itself is closed at shutdown.</li>
+ * </ul>
+ * Pooled channels keep the client keepalive settings and use {@code client.channelPool.maxIdle} as their transport
+ * idle timeout, so the connection stays up for as long as the pool keeps the channel.
+ * <p>
+ * Channels are built outside the pool lock: the first caller for a connection publishes a future for it and builds
+ * the channel, and concurrent callers for the same connection wait on that future. Building a channel (TLS set-up
+ * and loading key material) therefore never holds up leases for other connections.
+ */
+@Slf4j
+public final class ManagedChannelPool implements AutoCloseable {
+
+    public static final String CLIENT_CHANNEL_POOL_ENABLED = "client.channelPool.enabled";
+    public static final String CLIENT_CHANNEL_POOL_MAX_IDLE = "client.channelPool.maxIdle";
+
+    private static final String DEFAULT_ENABLED = "false";
+    private static final String DEFAULT_MAX_IDLE = "PT5M";
+
+    private static final AtomicReference<ManagedChannelPool> INSTANCE = new AtomicReference<>();
+    private static final ReentrantLock INSTANCE_LOCK = new ReentrantLock();
+
+    private final Duration maxIdle;
+    private final Function<ConnectionProperties, Object> configFingerprint;
+    private final LongSupplier clock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<ConnectionProperties, Entry> entries = new HashMap<>();
+    private ScheduledExecutorService evictor;
+    private boolean closed;
+
+    /**
+     * @param maxIdle how long an unleased channel is kept before it is shut down
+     * @param configFingerprint value describing the settings a channel for the given connection would be built with;
+     *     a channel is rebuilt when this changes
+     * @param clock nanosecond clock used for idle tracking
+     */
+    ManagedChannelPool(Duration maxIdle, Function<ConnectionProperties, Object> configFingerprint, LongSupplier clock) {
+        this.maxIdle = maxIdle;
+        this.configFingerprint = configFingerprint;
+        this.clock = clock;
+    }
+
+    /**
+     * @return true if clients should lease channels from the pool rather than build their own
+     */
+    public static boolean isEnabled() {
+        try {
+            return PropertyUtil.getPropertyBooleanValue(CLIENT_CHANNEL_POOL_ENABLED, DEFAULT_ENABLED);
+        } catch (PropertyUtil.PropertyUtilException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return the process-wide pool, created from client properties on first use
+     */
+    public static ManagedChannelPool getInstance() {
+        ManagedChannelPool pool = INSTANCE.get();
+        if (pool != null) {
+            return pool;
+        }
+        // Created under a lock, as creating it starts the evictor and registers a shutdown hook
+        INSTANCE_LOCK.lock();
+        try {
+            if (INSTANCE.get() == null) {
+                INSTANCE.set(fromProperties());
+            }
+            return INSTANCE.get();
+        } finally {
+            INSTANCE_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Testing helper to close and reset the singleton.
+     */
+    public static void clearForTests() {
+        ManagedChannelPool pool = INSTANCE.getAndSet(null);
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    private static ManagedChannelPool fromProperties() {
+        Duration maxIdle;
+        try {
+            maxIdle = PropertyUtil.getPropertyDurationValue(CLIENT_CHANNEL_POOL_MAX_IDLE, DEFAULT_MAX_IDLE);
+        } catch (PropertyUtil.PropertyUtilException e) {
+            maxIdle = Duration.parse(DEFAULT_MAX_IDLE);
+        }
+        ManagedChannelPool pool = new ManagedChannelPool(maxIdle, ChannelConfig::current, System::nanoTime);
+        pool.startEvictor();
+        ShutdownThread.register(new AutoClosableShutdownTask(pool));
+        log.info("gRPC channel pool enabled: maxIdle={}", maxIdle);
+        return pool;
+    }
+
+    /**
+     * @return the transport idle timeout, in seconds, for channels built for this pool
+     */
+    public long channelIdleTimeoutSecs() {
+        return Math.max(1L, maxIdle.toSeconds());
+    }
+
+    /**
+     * Leases the channel for {@code connection}, building one with {@code factory} if there is none, the existing one
+     * has been shut down, or its configuration has changed.
+     *
+     * @param connection the connection the channel is for
+     * @param factory builds a new channel for the connection
+     * @return a lease that must be closed when the caller has finished with the channel
+     */
+    public Lease acquire(ConnectionProperties connection, Supplier<ManagedChannel> factory) {
+        Object fingerprint = configFingerprint.apply(connection);
+        Entry entry;
+        boolean build;
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Channel pool is closed");
+            }
+            entry = entries.get(connection);
+            if (entry != null && (entry.isShutdown() || !entry.fingerprint.equals(fingerprint))) {
+                log.info(
+                        "Rebuilding gRPC channel for server {} at {}:{} ({})",
+                        connection.serverName(),
+                        connection.serverHost(),
+                        connection.serverPort(),
+                        entry.isShutdown() ? "channel shut down" : "configuration changed");
+                entries.remove(connection);
+                retire(entry);
+                entry = null;
+            }
+            build = entry == null;
+            if (build) {
+                entry = new Entry(fingerprint);
+                entries.put(connection, entry);
+            }
+            // Counted before the channel exists, so it cannot be evicted or shut down while it is being built
+            entry.leases++;
+        } finally {
+            lock.unlock();
+        }
+        if (build) {
+            build(connection, entry, factory);
+        }
+        try {
+            return new Lease(entry, entry.channel.join());
+        } catch (CompletionException | CancellationException e) {
+            release(entry);
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private void build(ConnectionProperties connection, Entry entry, Supplier<ManagedChannel> factory) {
+        try {
+            entry.channel.complete(Objects.requireNonNull(factory.get(), "channel"));
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                entries.remove(connection, entry);
+            } finally {
+                lock.unlock();
+            }
+            entry.channel.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Shuts down channels that have not been leased for longer than {@code maxIdle}.
+     *
+     * @return the number of channels evicted
+     */
+    int evictIdle() {
+        long now = clock.getAsLong();
+        List<ManagedChannel> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.leases == 0 && now - entry.lastReleasedNanos >= maxIdle.toNanos()) {
+                    iterator.remove();
+                    // An entry with no leases has finished building
+                    evicted.add(entry.channel.join());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        evicted.forEach(ManagedChannel::shutdown);
+        if (!evicted.isEmpty()) {
+            log.debug("Evicted {} idle gRPC channel(s)", evicted.size());
+        }
+        return evicted.size();
+    }
+
+    /**
+     * @return the number of channels currently held by the pool
+     */
+    int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        List<ManagedChannel> channels;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            channels = entries.values().stream()
+                    .map(entry -> entry.channel.getNow(null))
+                    .filter(Objects::nonNull)
+                    .toList();
+            // Channels still being built are shut down as soon as they are ready
+            entries.values().stream()
+                    .filter(entry -> !entry.channel.isDone())
+                    .forEach(entry -> entry.channel.thenAccept(ManagedChannel::shutdown));
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+        for (ManagedChannel channel : channels) {
+            try {
+                channel.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                channel.shutdownNow();
+            }
+        }
+        log.info("gRPC channel pool closed ({} channel(s) shut down)", channels.size());
+    }
+
+    private void startEvictor() {
+        long periodNanos = Math.max(TimeUnit.SECONDS.toNanos(1), maxIdle.toNanos() / 2);
+        evictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryWithNamePrefix("ChannelPoolEvictor"));
+        evictor.scheduleWithFixedDelay(this::evictIdleQuietly, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void evictIdleQuietly() {
+        try {
+            evictIdle();
+        } catch (RuntimeException e) {
+            log.warn("Unable to evict idle gRPC channels", e);
+        }
+    }
+
+    // Called with the lock held
+    private void retire(Entry entry) {
+        entry.retired = true;
+        if (entry.leases == 0) {
+            entry.shutdown();
+        }
+    }
+
+    private void release(Entry entry) {
+        boolean shutdown;
+        lock.lock();
+        try {
+            entry.leases--;
+            entry.lastReleasedNanos = clock.getAsLong();
+            shutdown = entry.retired && entry.leases == 0;
+        } finally {
+            lock.unlock();
+        }
+        if (shutdown) {
+            entry.shutdown();
+        }
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<ManagedChannel> channel = new CompletableFuture<>();
+        private final Object fingerprint;
+        private int leases;
+        private long lastReleasedNanos;
+        private boolean retired;
+
+        private Entry(Object fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        /**
+         * @return true if the channel has been built and since shut down; a channel still being built is not
+         */
+        private boolean isShutdown() {
+            ManagedChannel built = channel.getNow(null);
+            return built != null && built.isShutdown();
+        }
+
+        private void shutdown() {
+            channel.thenAccept(ManagedChannel::shutdown);
+        }
+    }
+
+    /**
+     * A caller's hold on a pooled channel. Closing it returns the channel to the pool; it is safe to close twice.
+     */
+    public final class Lease implements AutoCloseable {
+        private final Entry entry;
+        private final ManagedChannel channel;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(Entry entry, ManagedChannel channel) {
+            this.entry = entry;
+            this.channel = channel;
+        }
+
+        public ManagedChannel channel() {
+            return channel;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release(entry);
+            }
+        }
+    }
+
+    /**
+     * The settings a channel is built with. TLS files are identified by path and modification time so that rotated
+     * certificates are picked up; passwords are kept only as hashes.
+     */
+    record ChannelConfig(
+            boolean tls,
+            String keyStore,
+            long keyStoreModified,
+            int keyStorePasswordHash,
+            String trustStore,
+            long trustStoreModified,
+            int trustStorePasswordHash,
+            String keepAliveTime,
+            String keepAliveTimeout) {
+
+        static ChannelConfig current(ConnectionProperties connection) {
+            String keepAliveTime = PropertyUtil.getPropertyValue(CLIENT_KEEP_ALIVE_TIME, THIRTY);
+            String keepAliveTimeout = PropertyUtil.getPropertyValue(CLIENT_KEEP_ALIVE_TIMEOUT, TEN);
+            if (!connection.tls()) {
+                return new ChannelConfig(false, "", 0L, 0, "", 0L, 0, keepAliveTime, keepAliveTimeout);
+            }
+            String keyStore = PropertyUtil.getPropertyValue(CLIENT_P12_FILE_PATH, "");
+            String trustStore = PropertyUtil.getPropertyValue(CLIENT_TRUSTSTORE_FILE_PATH, "");
+            return new ChannelConfig(
+                    true,
+                    keyStore,
+                    new File(keyStore).lastModified(),
+                    Objects.hashCode(PropertyUtil.getPropertyValue(CLIENT_P12_PASSWORD, "")),
+                    trustStore,
+                    new File(trustStore).lastModified(),
+                    Objects.hashCode(PropertyUtil.getPropertyValue(CLIENT_TRUSTSTORE_PASSWORD, "")),
+                    keepAliveTime,
+                    keepAliveTimeout);
+        }
+    }
+}
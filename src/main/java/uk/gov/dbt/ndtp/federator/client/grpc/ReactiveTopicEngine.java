@@ -0,0 +1,426 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.grpc;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.dbt.ndtp.federator.client.connection.ConnectionProperties;
+import uk.gov.dbt.ndtp.federator.client.jobs.params.ClientGRPCJobParams;
+import uk.gov.dbt.ndtp.federator.client.kafka.TopicWriter;
+import uk.gov.dbt.ndtp.federator.client.lifecycle.AutoClosableShutdownTask;
+import uk.gov.dbt.ndtp.federator.client.lifecycle.ShutdownThread;
+import uk.gov.dbt.ndtp.federator.client.offsets.OffsetStore;
+import uk.gov.dbt.ndtp.federator.client.offsets.OffsetStoreFactory;
+import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
+import uk.gov.dbt.ndtp.federator.common.utils.ThreadFactoryWithNamePrefix;
+
+/**
+ * Alternative client engine that follows every topic on asynchronous gRPC stubs instead of one blocked JobRunr thread
+ * per producer and topic.
+ * <p>
+ * All streams share one small pool ({@code client.reactive.eventLoopThreads}) that runs the gRPC callbacks, reconnect
+ * timers and the heartbeat check. Opening streams, writing records and storing offsets may block, so they run on a
+ * separate write pool, serially for each stream. Streams from the same producer share one channel, so one HTTP/2
+ * connection carries all of that producer's topics. Each stream controls its own inbound flow: records are only
+ * requested while the producer and the client as a whole are under their in-flight limits
+ * ({@code client.reactive.maxInFlightPerProducer} and {@code client.reactive.maxInFlightTotal}), see
+ * {@link InFlightBudget}.
+ * <p>
+ * Topic jobs only {@link #subscribe} and configuration reloads {@link #retain} the topics still configured; a
+ * subscription then stays open until it is stopped. Heartbeat timeout and reconnect backoff come from
+ * {@link FollowMode}, so the producers must support followed streams.
+ */
+@Slf4j
+public final class ReactiveTopicEngine implements AutoCloseable {
+
+    public static final String CLIENT_REACTIVE_ENABLED = "client.reactive.enabled";
+    public static final String CLIENT_REACTIVE_EVENT_LOOP_THREADS = "client.reactive.eventLoopThreads";
+    public static final String CLIENT_REACTIVE_MAX_IN_FLIGHT_PER_PRODUCER = "client.reactive.maxInFlightPerProducer";
+    public static final String CLIENT_REACTIVE_MAX_IN_FLIGHT_TOTAL = "client.reactive.maxInFlightTotal";
+
+    private static final String DEFAULT_ENABLED = "false";
+    private static final String DEFAULT_EVENT_LOOP_THREADS = "2";
+    private static final String DEFAULT_MAX_IN_FLIGHT_PER_PRODUCER = "1000";
+    private static final String DEFAULT_MAX_IN_FLIGHT_TOTAL = "10000";
+    // Most records one stream may have requested at once, so that one busy topic cannot take its producer's budget
+    private static final int STREAM_WINDOW = 64;
+
+    private static final AtomicReference<ReactiveTopicEngine> INSTANCE = new AtomicReference<>();
+    private static final ReentrantLock INSTANCE_LOCK = new ReentrantLock();
+
+    private final ScheduledExecutorService eventLoop;
+    private final ExecutorService writePool;
+    private final InFlightBudget budget;
+    private final FollowMode followMode;
+    private final Function<ProducerKey, GRPCTopicClient> clientFactory;
+    private final BiFunction<ProducerKey, String, TopicWriter> writerFactory;
+    private final Supplier<OffsetStore> offsetStores;
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final Map<ProducerKey, SharedClient> clients = new HashMap<>(); // guarded by itself
+    private volatile boolean closed;
+
+    ReactiveTopicEngine(
+            ScheduledExecutorService eventLoop,
+            ExecutorService writePool,
+            int maxInFlightPerProducer,
+            int maxInFlightTotal,
+            FollowMode followMode,
+            Function<ProducerKey, GRPCTopicClient> clientFactory,
+            BiFunction<ProducerKey, String, TopicWriter> writerFactory,
+            Supplier<OffsetStore> offsetStores) {
+        this.eventLoop = eventLoop;
+        this.writePool = writePool;
+        this.budget = new InFlightBudget(maxInFlightPerProducer, maxInFlightTotal, eventLoop);
+        this.followMode = followMode;
+        this.clientFactory = clientFactory;
+        this.writerFactory = writerFactory;
+        this.offsetStores = offsetStores;
+        long checkMillis = Math.max(1000L, followMode.heartbeatTimeout().toMillis() / 2);
+        eventLoop.scheduleWithFixedDelay(this::cancelSilentStreams, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return true if topic jobs should subscribe through this engine instead of streaming on their own thread
+     */
+    public static boolean isEnabled() {
+        try {
+            return PropertyUtil.getPropertyBooleanValue(CLIENT_REACTIVE_ENABLED, DEFAULT_ENABLED);
+        } catch (PropertyUtil.PropertyUtilException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return the process-wide engine, created from client properties on first use
+     */
+    public static ReactiveTopicEngine getInstance() {
+        ReactiveTopicEngine engine = INSTANCE.get();
+        if (engine != null) {
+            return engine;
+        }
+        INSTANCE_LOCK.lock();
+        try {
+            if (INSTANCE.get() == null) {
+                INSTANCE.set(fromProperties());
+            }
+            return INSTANCE.get();
+        } finally {
+            INSTANCE_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Testing helper to close and reset the singleton.
+     */
+    public static void clearForTests() {
+        ReactiveTopicEngine engine = INSTANCE.getAndSet(null);
+        if (engine != null) {
+            engine.close();
+        }
+    }
+
+    private static ReactiveTopicEngine fromProperties() {
+        int threads = PropertyUtil.getPropertyIntValue(CLIENT_REACTIVE_EVENT_LOOP_THREADS, DEFAULT_EVENT_LOOP_THREADS);
+        int perProducer = PropertyUtil.getPropertyIntValue(
+                CLIENT_REACTIVE_MAX_IN_FLIGHT_PER_PRODUCER, DEFAULT_MAX_IN_FLIGHT_PER_PRODUCER);
+        int total = PropertyUtil.getPropertyIntValue(CLIENT_REACTIVE_MAX_IN_FLIGHT_TOTAL, DEFAULT_MAX_IN_FLIGHT_TOTAL);
+        ScheduledExecutorService eventLoop = Executors.newScheduledThreadPool(
+                Math.max(1, threads), new ThreadFactoryWithNamePrefix("ReactiveClient"));
+        ExecutorService writePool = Executors.newCachedThreadPool(new ThreadFactoryWithNamePrefix("ReactiveWriter"));
+        ReactiveTopicEngine engine = new ReactiveTopicEngine(
+                eventLoop,
+                writePool,
+                perProducer,
+                total,
+                FollowMode.fromProperties(),
+                key -> new GRPCTopicClient(key.connection(), key.topicPrefix()),
+                (key, topic) -> GRPCTopicClient.openWriter(topic, key.topicPrefix(), key.connection().serverName()),
+                OffsetStoreFactory::getInstance);
+        ShutdownThread.register(new AutoClosableShutdownTask(engine));
+        log.info(
+                "Reactive client engine enabled: eventLoopThreads={}, maxInFlightPerProducer={}, maxInFlightTotal={}",
+                threads,
+                perProducer,
+                total);
+        return engine;
+    }
+
+    /**
+     * Starts following the job's topic unless it is already followed with the same connection. A subscription whose
+     * connection has changed is restarted.
+     *
+     * @param params the topic job
+     * @param topicPrefix prefix of the local Kafka topic
+     */
+    public void subscribe(ClientGRPCJobParams params, String topicPrefix) {
+        if (closed) {
+            throw new IllegalStateException("Reactive client engine is closed");
+        }
+        ProducerKey key = new ProducerKey(params.getConnectionProperties(), topicPrefix);
+        Subscription fresh = new Subscription(params.getJobId(), params.getManagementNodeId(), params.getTopic(), key);
+        Subscription existing = subscriptions.putIfAbsent(fresh.jobId, fresh);
+        if (existing != null) {
+            if (existing.key.equals(key)) {
+                return;
+            }
+            log.info("Connection for {} changed, restarting its subscription", fresh.jobId);
+            if (!subscriptions.replace(fresh.jobId, existing, fresh)) {
+                return;
+            }
+            existing.stop();
+        }
+        fresh.start();
+    }
+
+    /**
+     * Stops the subscription for {@code jobId}, if any.
+     */
+    public void unsubscribe(String jobId) {
+        Subscription subscription = subscriptions.remove(jobId);
+        if (subscription != null) {
+            subscription.stop();
+        }
+    }
+
+    /**
+     * Stops the subscriptions started for {@code managementNodeId} whose job is not in {@code jobIds}.
+     *
+     * @param managementNodeId the node whose configuration was reloaded
+     * @param jobIds the topic jobs still configured for that node
+     */
+    public void retain(String managementNodeId, Collection<String> jobIds) {
+        List<String> obsolete = subscriptions.values().stream()
+                .filter(s -> Objects.equals(s.managementNodeId, managementNodeId))
+                .map(s -> s.jobId)
+                .filter(id -> !jobIds.contains(id))
+                .toList();
+        obsolete.forEach(this::unsubscribe);
+        if (!obsolete.isEmpty()) {
+            log.info("Stopped {} subscription(s) no longer configured for node {}", obsolete.size(), managementNodeId);
+        }
+    }
+
+    /**
+     * @return the number of active subscriptions
+     */
+    public int size() {
+        return subscriptions.size();
+    }
+
+    /**
+     * @return records currently requested but not yet written for the producer named {@code serverName}
+     */
+    public int inFlight(String serverName) {
+        return budget.inFlight(serverName);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        List.copyOf(subscriptions.keySet()).forEach(this::unsubscribe);
+        // Stop the event loop first, so that nothing more is handed to the write pool
+        shutdown(eventLoop);
+        shutdown(writePool);
+        synchronized (clients) {
+            clients.values().forEach(shared -> shared.client.close());
+            clients.clear();
+        }
+    }
+
+    private static void shutdown(ExecutorService executor) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    private void cancelSilentStreams() {
+        for (Subscription subscription : subscriptions.values()) {
+            TopicSubscription stream = subscription.stream;
+            if (stream != null && stream.isSilentFor(followMode.heartbeatTimeout())) {
+                log.warn(
+                        "No records or heartbeats for topic {} in {}, reconnecting",
+                        subscription.topic,
+                        followMode.heartbeatTimeout());
+                stream.cancel("Heartbeat timeout");
+            }
+        }
+    }
+
+    private GRPCTopicClient acquireClient(ProducerKey key) {
+        synchronized (clients) {
+            SharedClient shared = clients.computeIfAbsent(key, k -> new SharedClient(clientFactory.apply(k)));
+            shared.users++;
+            return shared.client;
+        }
+    }
+
+    private void releaseClient(ProducerKey key) {
+        GRPCTopicClient unused = null;
+        synchronized (clients) {
+            SharedClient shared = clients.get(key);
+            if (shared != null && --shared.users == 0) {
+                clients.remove(key);
+                unused = shared.client;
+            }
+        }
+        if (unused != null) {
+            unused.close();
+        }
+    }
+
+    /**
+     * @return true if reconnecting will not help: the producer rejected the topic or our access to it
+     */
+    private static boolean isPermanent(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof StatusRuntimeException sre) {
+                Status.Code code = sre.getStatus().getCode();
+                return code == Status.Code.INVALID_ARGUMENT || code == Status.Code.PERMISSION_DENIED;
+            }
+        }
+        return false;
+    }
+
+    /** Producer channel shared by the subscriptions that use the same connection and local topic prefix. */
+    record ProducerKey(ConnectionProperties connection, String topicPrefix) {}
+
+    private static final class SharedClient {
+        private final GRPCTopicClient client;
+        private int users;
+
+        private SharedClient(GRPCTopicClient client) {
+            this.client = client;
+        }
+    }
+
+    /** A followed topic: reconnects after each stream ends until it is stopped. */
+    private final class Subscription {
+        private final String jobId;
+        private final String managementNodeId;
+        private final String topic;
+        private final ProducerKey key;
+        private volatile TopicSubscription stream;
+        private volatile boolean stopped;
+        private GRPCTopicClient client;
+        private int failures;
+
+        private Subscription(String jobId, String managementNodeId, String topic, ProducerKey key) {
+            this.jobId = jobId;
+            this.managementNodeId = managementNodeId;
+            this.topic = topic;
+            this.key = key;
+        }
+
+        private void start() {
+            client = acquireClient(key);
+            writePool.execute(this::connect);
+        }
+
+        private synchronized void stop() {
+            stopped = true;
+            if (stream != null) {
+                stream.cancel("Unsubscribed");
+            } else {
+                releaseClient(key);
+            }
+        }
+
+        private void connect() {
+            synchronized (this) {
+                if (stopped) {
+                    return;
+                }
+                String redisPrefix = client.getRedisPrefix();
+                TopicWriter writer = null;
+                try {
+                    OffsetStore offsets = offsetStores.get();
+                    long offset = offsets.getOffset(redisPrefix, topic);
+                    writer = writerFactory.apply(key, topic);
+                    TopicSubscription opened = new TopicSubscription(
+                            key.connection().serverName(),
+                            topic,
+                            budget,
+                            STREAM_WINDOW,
+                            writer,
+                            new SerialExecutor(writePool),
+                            next -> offsets.setOffset(redisPrefix, topic, next),
+                            this::onStreamEnd,
+                            System::nanoTime);
+                    client.followTopicAsync(topic, offset, eventLoop, opened);
+                    stream = opened;
+                    opened.replenish();
+                    return;
+                } catch (RuntimeException e) {
+                    if (writer != null) {
+                        writer.close();
+                    }
+                    log.warn("Could not open stream for topic {}", topic, e);
+                }
+            }
+            onStreamEnd(new IllegalStateException("Could not open stream for topic " + topic));
+        }
+
+        private void onStreamEnd(Throwable failure) {
+            synchronized (this) {
+                stream = null;
+                if (stopped || closed) {
+                    releaseClient(key);
+                    log.info("Stopped following topic {}", topic);
+                    return;
+                }
+                if (isPermanent(failure)) {
+                    log.error(
+                            "Topic ({}) no longer available from {}, unsubscribing",
+                            topic,
+                            key.connection().serverName());
+                    stopped = true;
+                    subscriptions.remove(jobId, this);
+                    releaseClient(key);
+                    return;
+                }
+                failures = failure == null ? 0 : failures + 1;
+            }
+            Duration delay = followMode.backoff(failures);
+            if (failure == null) {
+                log.info("Followed stream for topic {} ended by the server, reconnecting", topic);
+            } else {
+                log.warn(
+                        "Followed stream for topic {} failed ({} in a row), reconnecting in {}",
+                        topic,
+                        failures,
+                        delay);
+                log.debug("Follow failure for topic {}", topic, failure);
+            }
+            try {
+                eventLoop.schedule(() -> writePool.execute(this::connect), delay.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                log.debug("Event loop no longer accepts work, not reconnecting topic {}", topic);
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.grpc;
+
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.dbt.ndtp.federator.client.kafka.TopicWriter;
+import uk.gov.dbt.ndtp.grpc.KafkaByteBatch;
+import uk.gov.dbt.ndtp.grpc.TopicRequest;
+
+/**
+ * One followed topic stream in the {@link ReactiveTopicEngine}, driven by gRPC callbacks rather than a blocked thread.
+ * <p>
+ * Automatic inbound flow control is switched off: the stream asks the producer for one record per credit taken from
+ * the {@link InFlightBudget}, with at most {@code window} requested at a time, and gives the credit back once the
+ * record has been written. A stream that gets no credit stays quiet until the budget wakes it up.
+ * <p>
+ * Records are written, and offsets stored, on the stream's own serial executor rather than on the event loop, so a
+ * slow Kafka write or offset store holds up only this stream. Offsets are stored as the writer reports them
+ * committable whenever the queued records have all been written, and once more when the stream ends.
+ */
+@Slf4j
+final class TopicSubscription implements ClientResponseObserver<TopicRequest, KafkaByteBatch> {
+
+    private final String producer;
+    private final String topic;
+    private final InFlightBudget budget;
+    private final int window;
+    private final TopicWriter writer;
+    private final Executor worker;
+    private final LongConsumer offsetStore;
+    private final Consumer<Throwable> onEnd;
+    private final LongSupplier clock;
+    private ClientCallStreamObserver<TopicRequest> call;
+    private int outstanding; // guarded by this
+    private boolean done; // guarded by this
+    // Records handed to the worker but not yet written; offsets are stored when it drops to zero
+    private final AtomicInteger queued = new AtomicInteger();
+    private volatile boolean writeFailed;
+    private long committedOffset = -1L; // worker only
+    private volatile long lastActivityNanos;
+
+    /**
+     * @param producer budget key of the producer the stream is from
+     * @param topic the topic being followed
+     * @param budget shared in-flight budget
+     * @param window most records this stream may have requested at once
+     * @param writer writes received records to Kafka; closed when the stream ends
+     * @param worker runs writes, offset stores and the end of the stream, one at a time and in order
+     * @param offsetStore stores the next offset to read
+     * @param onEnd told once when the stream ends, with the failure or {@code null} if the producer completed it
+     * @param clock nanosecond clock used to detect silent streams
+     */
+    TopicSubscription(
+            String producer,
+            String topic,
+            InFlightBudget budget,
+            int window,
+            TopicWriter writer,
+            Executor worker,
+            LongConsumer offsetStore,
+            Consumer<Throwable> onEnd,
+            LongSupplier clock) {
+        this.producer = producer;
+        this.topic = topic;
+        this.budget = budget;
+        this.window = window;
+        this.writer = writer;
+        this.worker = worker;
+        this.offsetStore = offsetStore;
+        this.onEnd = onEnd;
+        this.clock = clock;
+        this.lastActivityNanos = clock.getAsLong();
+    }
+
+    @Override
+    public void beforeStart(ClientCallStreamObserver<TopicRequest> requestStream) {
+        this.call = requestStream;
+        requestStream.disableAutoRequestWithInitial(0);
+    }
+
+    /**
+     * Requests as many records as the window and the budget allow. Called once the call has started and after every
+     * record; if nothing could be requested the stream waits for the budget to wake it.
+     */
+    void replenish() {
+        int granted = 0;
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            while (outstanding < window && budget.tryAcquire(producer)) {
+                outstanding++;
+                granted++;
+            }
+            if (outstanding == 0) {
+                budget.awaitCredit(producer, this::replenish);
+                return;
+            }
+        }
+        if (granted > 0) {
+            lastActivityNanos = clock.getAsLong();
+            call.request(granted);
+        }
+    }
+
+    @Override
+    public void onNext(KafkaByteBatch batch) {
+        lastActivityNanos = clock.getAsLong();
+        synchronized (this) {
+            outstanding--;
+        }
+        queued.incrementAndGet();
+        dispatch(() -> write(batch));
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        dispatch(() -> finish(t));
+    }
+
+    @Override
+    public void onCompleted() {
+        dispatch(() -> finish(null));
+    }
+
+    /**
+     * @return true if records have been requested but neither records nor heartbeats have arrived for {@code timeout}
+     */
+    boolean isSilentFor(Duration timeout) {
+        synchronized (this) {
+            if (done || outstanding == 0) {
+                return false;
+            }
+        }
+        return clock.getAsLong() - lastActivityNanos > timeout.toNanos();
+    }
+
+    /**
+     * Cancels the call; the stream then ends through {@link #onError}.
+     */
+    void cancel(String reason) {
+        if (call != null) {
+            call.cancel(reason, null);
+        }
+    }
+
+    private void write(KafkaByteBatch batch) {
+        boolean drained = queued.decrementAndGet() == 0;
+        try {
+            // Nothing after a failed record may be written, or its offset would be stored past the gap
+            if (writeFailed) {
+                return;
+            }
+            if (batch.getHeartbeat()) {
+                log.debug("Heartbeat received for topic: {}", topic);
+            } else {
+                writer.write(batch);
+            }
+            if (drained) {
+                commit();
+            }
+        } catch (RuntimeException e) {
+            writeFailed = true;
+            log.warn("Failed to write record for topic {}, cancelling stream", topic, e);
+            call.cancel("Failed to write record", e);
+            return;
+        } finally {
+            budget.release(producer, 1);
+        }
+        replenish();
+    }
+
+    // Runs the task inline once the worker no longer accepts work, so that the stream still ends
+    private void dispatch(Runnable task) {
+        try {
+            worker.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    private void commit() {
+        long next = writer.committableOffset();
+        if (next > committedOffset) {
+            offsetStore.accept(next);
+            committedOffset = next;
+        }
+    }
+
+    private void finish(Throwable failure) {
+        int unused;
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            done = true;
+            unused = outstanding;
+            outstanding = 0;
+        }
+        budget.release(producer, unused);
+        try {
+            writer.flush();
+            commit();
+        } catch (RuntimeException e) {
+            log.warn("Unable to store acknowledged offset for topic {}", topic, e);
+        } finally {
+            writer.close();
+        }
+        onEnd.accept(failure);
+    }
+}
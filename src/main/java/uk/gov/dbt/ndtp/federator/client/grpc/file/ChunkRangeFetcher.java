@@ -0,0 +1,24 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.grpc.file;
+
+import java.util.Iterator;
+import uk.gov.dbt.ndtp.grpc.FileChunk;
+
+/**
+ * Asks the producer to send part of a file again. Used by {@link FileChunkAssembler} to replace chunks whose CRC32C
+ * did not match, instead of failing the whole file.
+ */
+@FunctionalInterface
+public interface ChunkRangeFetcher {
+
+    /**
+     * @param fileSequenceId sequence id of the file
+     * @param offset first byte to resend
+     * @param length number of bytes to resend
+     * @return chunks covering the range, each carrying its offset and CRC32C
+     */
+    Iterator<FileChunk> fetch(long fileSequenceId, long offset, long length);
+}
@@ -18,9 +18,16 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.zip.CRC32C;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import uk.gov.dbt.ndtp.federator.client.storage.ReceivedFileStorage;
@@ -28,9 +35,12 @@ import uk.gov.dbt.ndtp.federator.client.storage.ReceivedFileStorageFactory;
 import uk.gov.dbt.ndtp.federator.client.storage.StoredFileResult;
 import uk.gov.dbt.ndtp.federator.client.storage.impl.GCPReceivedFileStorage;
 import uk.gov.dbt.ndtp.federator.client.storage.impl.S3ReceivedFileStorage;
-import uk.gov.dbt.ndtp.federator.common.utils.GRPCUtils;
+import uk.gov.dbt.ndtp.federator.common.utils.FileChecksums;
 import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
 import uk.gov.dbt.ndtp.federator.exceptions.FileAssemblyException;
+import uk.gov.dbt.ndtp.grpc.BundledFile;
+import uk.gov.dbt.ndtp.grpc.FileBundle;
+import uk.gov.dbt.ndtp.grpc.FileChecksumAlgorithm;
 import uk.gov.dbt.ndtp.grpc.FileChunk;
 
 /**
@@ -39,13 +49,25 @@ import uk.gov.dbt.ndtp.grpc.FileChunk;
  * Completed files are stored in a temp directory that defaults to
  * {@code client.files.temp.dir} (from client.properties). If the property is blank or missing,
  * falls back to {@code ${java.io.tmpdir}/federator-files}.
+ * <p>
+ * Chunks that carry a CRC32C are checked as they arrive. With a {@link ChunkRangeFetcher} a corrupt chunk is still
+ * written, to keep offsets aligned, and its byte range is fetched again before the whole-file checksum is verified;
+ * without one the file fails straight away.
+ * <p>
+ * Small files sent together in a {@link FileBundle} arrive whole and are stored one by one by
+ * {@link #acceptBundle(FileBundle)}.
  */
 @Slf4j
 public class FileChunkAssembler {
 
+    public static final String RETRANSMIT_MAX_ATTEMPTS = "client.files.chunkRetransmit.maxAttempts";
+    private static final int DEFAULT_RETRANSMIT_MAX_ATTEMPTS = 3;
+
     private final Path baseTempDir;
     private final Map<String, AssemblyState> assemblies = new HashMap<>();
     private final String destination;
+    private final ChunkRangeFetcher rangeFetcher;
+    private final int retransmitMaxAttempts;
 
     /**
      * Creates an assembler that writes to the default temp directory resolved from
@@ -84,12 +106,51 @@ public class FileChunkAssembler {
      * @param destination destination to be forwarded to storage provider (e.g., local file path or S3 key/prefix)
      */
     public FileChunkAssembler(Path baseTempDir, String destination) {
+        this(baseTempDir, destination, null);
+    }
+
+    /**
+     * Creates an assembler for the default temp directory that repairs corrupt chunks through {@code rangeFetcher}.
+     *
+     * @param destination destination to be forwarded to storage provider
+     * @param rangeFetcher fetches byte ranges of a file again
+     */
+    public FileChunkAssembler(String destination, ChunkRangeFetcher rangeFetcher) {
+        this(resolveDefaultTempDir(), destination, rangeFetcher);
+        if (destination == null || destination.isBlank()) {
+            throw new IllegalArgumentException("Destination is required and cannot be null/blank");
+        }
+    }
+
+    /**
+     * Creates an assembler with explicit base directory and destination that repairs corrupt chunks through
+     * {@code rangeFetcher}.
+     *
+     * @param baseTempDir base directory used to store final files and temporary parts
+     * @param destination destination to be forwarded to storage provider
+     * @param rangeFetcher fetches byte ranges of a file again, or {@code null} to fail on the first corrupt chunk
+     */
+    public FileChunkAssembler(Path baseTempDir, String destination, ChunkRangeFetcher rangeFetcher) {
         this.baseTempDir = baseTempDir;
         this.destination = destination;
+        this.rangeFetcher = rangeFetcher;
+        this.retransmitMaxAttempts = resolveRetransmitMaxAttempts();
         ensureDir(baseTempDir);
         ensureDir(baseTempDir.resolve(".parts"));
     }
 
+    private static int resolveRetransmitMaxAttempts() {
+        try {
+            return Math.max(
+                    1,
+                    PropertyUtil.getPropertyIntValue(
+                            RETRANSMIT_MAX_ATTEMPTS, String.valueOf(DEFAULT_RETRANSMIT_MAX_ATTEMPTS)));
+        } catch (RuntimeException ignored) {
+            // PropertyUtil may not be initialized in some tests
+            return DEFAULT_RETRANSMIT_MAX_ATTEMPTS;
+        }
+    }
+
     private static Path resolveDefaultTempDir() {
         try {
             String configured = PropertyUtil.getPropertyValue("client.files.temp.dir", "");
@@ -155,7 +216,9 @@ public class FileChunkAssembler {
             state = startAssembly(fileName, seqId, chunk);
             assemblies.put(key, state);
         }
+        verifyOffsetIfProvided(chunk, state, key, fileName);
         byte[] data = chunk.getChunkData().toByteArray();
+        verifyChunkCrcIfProvided(chunk, data, state, key, fileName);
         state.out.write(data);
         state.bytesWritten += data.length;
         if (state.expectedSize < 0) state.expectedSize = chunk.getFileSize();
@@ -172,10 +235,54 @@ public class FileChunkAssembler {
         }
         closeQuietly(state);
 
+        repairCorruptRanges(state, key, fileName, seqId);
         verifyChecksumIfProvided(chunk, state, key, fileName, seqId);
         verifySizeIfProvided(chunk, state, key, fileName);
 
-        Path finalTarget = moveToFinalTarget(state, fileName);
+        assemblies.remove(key);
+        return store(state.tempFile, fileName);
+    }
+
+    /**
+     * Verifies and stores every file of a bundle, in order. Checksums are checked before anything is stored, so a
+     * corrupt bundle stores nothing and can be received again from its first file.
+     *
+     * @param bundle small files sent together by the server
+     * @return the absolute path of each stored file, in bundle order, with {@code null} for a file whose remote upload
+     *     failed
+     * @throws FileAssemblyException when a file's checksum does not match
+     */
+    @SneakyThrows
+    public synchronized List<Path> acceptBundle(FileBundle bundle) {
+        for (BundledFile file : bundle.getFilesList()) {
+            String expectedChecksum = file.getFileChecksum();
+            String actualChecksum = FileChecksums.calculate(file.getData().toByteArray(), file.getChecksumAlgorithm());
+            if (!expectedChecksum.isBlank() && !expectedChecksum.equalsIgnoreCase(actualChecksum)) {
+                throw new FileAssemblyException("Checksum mismatch for file " + file.getFileName() + " (seq="
+                        + file.getFileSequenceId() + ") in bundle");
+            }
+        }
+        Path partsDir = baseTempDir.resolve(".parts");
+        ensureDir(partsDir);
+        List<Path> stored = new ArrayList<>(bundle.getFilesCount());
+        for (BundledFile file : bundle.getFilesList()) {
+            Path temp = partsDir.resolve(sanitize(file.getFileName()) + "." + file.getFileSequenceId() + ".part");
+            try (OutputStream out = new FileOutputStream(temp.toFile())) {
+                file.getData().writeTo(out);
+            }
+            stored.add(store(temp, file.getFileName()));
+        }
+        log.info("Stored bundle of {} files", stored.size());
+        return stored;
+    }
+
+    /**
+     * Moves a complete, verified temp file to its final name and hands it to the configured storage provider.
+     *
+     * @return the absolute path of the stored file, or {@code null} if the remote upload failed
+     */
+    private Path store(Path tempFile, String fileName) {
+        Path finalTarget = moveToFinalTarget(tempFile, fileName);
 
         // Delegate storage (LOCAL, S3, AZURE, or GCP) based on configuration
         ReceivedFileStorage storage = ReceivedFileStorageFactory.get();
@@ -185,7 +292,6 @@ public class FileChunkAssembler {
         // If provider is S3/GCP and remote URI is absent, treat as failure: do NOT signal completion to caller
         if ((storage instanceof S3ReceivedFileStorage || storage instanceof GCPReceivedFileStorage)
                 && storeResult.remoteUriOpt().isEmpty()) {
-            assemblies.remove(key);
             Path failedPath = storeResult.localPath().toAbsolutePath();
             String providerName = storage instanceof S3ReceivedFileStorage ? "S3" : "GCP";
             log.info(
@@ -196,7 +302,6 @@ public class FileChunkAssembler {
             return null; // signal to GRPCFileClient that offset must NOT be advanced
         }
 
-        assemblies.remove(key);
         Path localStoredPath = storeResult.localPath();
         Path absolutePath = localStoredPath.toAbsolutePath();
         logStoredFileInfo(absolutePath);
@@ -215,11 +320,103 @@ public class FileChunkAssembler {
         }
     }
 
+    /**
+     * Chunk sizes may vary within a file, so a chunk's offset must match the bytes already written. Servers that do
+     * not send offsets leave the field at 0, which is not checked.
+     */
+    private void verifyOffsetIfProvided(FileChunk chunk, AssemblyState state, String key, String fileName) {
+        long offset = chunk.getChunkOffset();
+        if (offset > 0 && offset != state.bytesWritten) {
+            cleanupOnError(key, state);
+            throw new FileAssemblyException("Unexpected chunk offset for file " + fileName + ": expected "
+                    + state.bytesWritten + ", got " + offset + " (chunk " + chunk.getChunkIndex() + ")");
+        }
+    }
+
+    /**
+     * A corrupt chunk fails the file unless it can be fetched again; then its range is remembered and the bytes are
+     * written anyway so later chunks land at the right offsets.
+     */
+    private void verifyChunkCrcIfProvided(
+            FileChunk chunk, byte[] data, AssemblyState state, String key, String fileName) {
+        if (!chunk.hasChunkCrc32C() || crc32c(data) == chunk.getChunkCrc32C()) {
+            return;
+        }
+        if (rangeFetcher == null) {
+            cleanupOnError(key, state);
+            throw new FileAssemblyException(
+                    "CRC32C mismatch for file " + fileName + " (chunk " + chunk.getChunkIndex() + ")");
+        }
+        log.warn(
+                "CRC32C mismatch for file {} chunk {} ({} bytes at offset {}); will fetch it again",
+                fileName,
+                chunk.getChunkIndex(),
+                data.length,
+                state.bytesWritten);
+        state.corruptRanges.add(new ByteRange(state.bytesWritten, data.length));
+    }
+
+    private void repairCorruptRanges(AssemblyState state, String key, String fileName, long seqId) {
+        for (ByteRange range : state.corruptRanges) {
+            int attempt = 1;
+            while (!refetch(state, range, seqId)) {
+                if (attempt++ >= retransmitMaxAttempts) {
+                    cleanupOnError(key, state);
+                    throw new FileAssemblyException("Unable to repair " + range.length() + " bytes at offset "
+                            + range.offset() + " of file " + fileName + " after " + retransmitMaxAttempts
+                            + " attempts");
+                }
+                log.warn("Retransmission of offset {} for file {} failed, retrying", range.offset(), fileName);
+            }
+            log.info("Repaired {} bytes at offset {} of file {}", range.length(), range.offset(), fileName);
+        }
+        state.corruptRanges.clear();
+    }
+
+    /**
+     * Fetches one range and writes it over the corrupt bytes in the part file.
+     *
+     * @return true if every byte of the range arrived with a matching CRC32C
+     */
+    private boolean refetch(AssemblyState state, ByteRange range, long seqId) {
+        long end = range.offset() + range.length();
+        long next = range.offset();
+        try (FileChannel channel = FileChannel.open(state.tempFile, StandardOpenOption.WRITE)) {
+            Iterator<FileChunk> chunks = rangeFetcher.fetch(seqId, range.offset(), range.length());
+            while (chunks.hasNext() && next < end) {
+                FileChunk chunk = chunks.next();
+                byte[] data = chunk.getChunkData().toByteArray();
+                if (chunk.getChunkOffset() != next
+                        || next + data.length > end
+                        || !chunk.hasChunkCrc32C()
+                        || crc32c(data) != chunk.getChunkCrc32C()) {
+                    return false;
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, next + buffer.position());
+                }
+                next += data.length;
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Retransmission of offset {} for {} failed", range.offset(), state.fileName, e);
+            return false;
+        }
+        return next == end;
+    }
+
+    private static int crc32c(byte[] data) {
+        CRC32C crc = new CRC32C();
+        crc.update(data);
+        return (int) crc.getValue();
+    }
+
     private void verifyChecksumIfProvided(
             FileChunk chunk, AssemblyState state, String key, String fileName, long seqId) {
         String expectedChecksum = chunk.getFileChecksum();
-        String actualChecksum = GRPCUtils.calculateSha256Checksum(state.tempFile);
-        log.info("Expected checksum: {}, actual checksum: {}", expectedChecksum, actualChecksum);
+        FileChecksumAlgorithm algorithm = chunk.getChecksumAlgorithm();
+        String actualChecksum = FileChecksums.calculate(state.tempFile, algorithm);
+        log.info("Expected {} checksum: {}, actual checksum: {}", algorithm, expectedChecksum, actualChecksum);
         if (!expectedChecksum.isBlank() && !expectedChecksum.equalsIgnoreCase(actualChecksum)) {
             cleanupOnError(key, state);
             throw new FileAssemblyException("Checksum mismatch for file " + fileName + " (seq=" + seqId + ")");
@@ -240,13 +437,13 @@ public class FileChunkAssembler {
     }
 
     @SneakyThrows
-    private Path moveToFinalTarget(AssemblyState state, String fileName) {
+    private Path moveToFinalTarget(Path tempFile, String fileName) {
         Path finalTarget = baseTempDir.resolve(sanitize(fileName));
         try {
-            move(state.tempFile, finalTarget, REPLACE_EXISTING, ATOMIC_MOVE);
+            move(tempFile, finalTarget, REPLACE_EXISTING, ATOMIC_MOVE);
         } catch (IOException moveEx) {
             // Retry without ATOMIC_MOVE in case filesystem doesn't support it
-            move(state.tempFile, finalTarget, REPLACE_EXISTING);
+            move(tempFile, finalTarget, REPLACE_EXISTING);
         }
         return finalTarget;
     }
@@ -306,10 +503,13 @@ public class FileChunkAssembler {
         long expectedSize = -1;
         int expectedChunks = -1;
         long bytesWritten = 0;
+        final List<ByteRange> corruptRanges = new ArrayList<>();
 
         AssemblyState(String fileName, long sequenceId) {
             this.sequenceId = sequenceId;
             this.fileName = fileName;
         }
     }
+
+    private record ByteRange(long offset, long length) {}
 }
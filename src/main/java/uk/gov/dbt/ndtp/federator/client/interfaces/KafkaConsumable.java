@@ -26,6 +26,8 @@
 
 package uk.gov.dbt.ndtp.federator.client.interfaces;
 
+import java.util.Map;
+
 /**
  * Gets the topics to be read and processes out the data for an offset.
  */
@@ -45,6 +47,23 @@ public interface KafkaConsumable extends AutoCloseable {
      */
     void processTopic(String topic, long offset);
 
+    /**
+     * for a specific topic keep reading new data from a stated offset as it arrives, until the stream fails or is
+     * ended by the server.
+     *
+     * @param topic  to read from
+     * @param offset to start reading from
+     */
+    void followTopic(String topic, long offset);
+
+    /**
+     * read several topics, each from its own stated offset, on a single stream.
+     *
+     * @param topicOffsets offset to start reading from, per topic
+     * @param follow       true to keep reading new data as it arrives, as {@link #followTopic} does
+     */
+    void processTopics(Map<String, Long> topicOffsets, boolean follow);
+
     /**
      * Simple method for testing connectivity to Kafka
      */
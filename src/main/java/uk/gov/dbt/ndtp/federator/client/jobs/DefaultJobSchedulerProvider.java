@@ -4,22 +4,28 @@
 
 package uk.gov.dbt.ndtp.federator.client.jobs;
 
+import java.time.Duration;
 import java.time.ZoneId;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.extern.slf4j.Slf4j;
+import org.h2.jdbcx.JdbcDataSource;
 import org.jobrunr.configuration.JobRunr;
 import org.jobrunr.jobs.RecurringJob;
 import org.jobrunr.scheduling.JobScheduler;
 import org.jobrunr.scheduling.RecurringJobBuilder;
 import org.jobrunr.storage.AbstractStorageProvider;
 import org.jobrunr.storage.InMemoryStorageProvider;
+import org.jobrunr.storage.StorageProvider;
+import org.jobrunr.storage.sql.common.SqlStorageProviderFactory;
 import uk.gov.dbt.ndtp.federator.client.jobs.params.JobParams;
 import uk.gov.dbt.ndtp.federator.client.jobs.params.RecurrentJobRequest;
 import uk.gov.dbt.ndtp.federator.client.lifecycle.ShutdownThread;
 import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
+import uk.gov.dbt.ndtp.federator.exceptions.ConfigurationException;
 
 /**
  * Singleton provider to configure and manage the lifecycle of JobRunr background job scheduler.
@@ -37,26 +43,44 @@ import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
  *   <li>jobs.dashboard.enabled = true</li>
  *   <li>jobs.background.enabled = true</li>
  *   <li>jobs.storage.provider = memory</li>
+ *   <li>jobs.storage.sql.url = jdbc:h2:file:./jobrunr/jobs</li>
  * </ul>
- * Currently only the in-memory storage provider is supported without additional dependencies.
+ * {@code memory} keeps jobs for the life of the process. {@code sql} keeps them in an embedded, file-based H2
+ * database, so that a restarted client resumes its recurring jobs straight away instead of waiting for the Management
+ * Node configuration and re-registering every job. Any other value falls back to {@code memory}.
+ * </p>
+ * <p>
+ * Recurring jobs are tracked in an in-memory index of job id to params and params hash, kept up to date by
+ * {@link #registerJob} and {@link #removeRecurringJob}. The index is seeded from storage on the first reload, after
+ * which {@link #reloadRecurrentJobs} diffs requests against the index and touches only jobs that were added,
+ * removed or changed, instead of scanning and inspecting every stored recurring job.
  * </p>
  */
 @Slf4j
 public final class DefaultJobSchedulerProvider implements JobSchedulerProvider {
 
     public static final String CONSTANT_PROVIDER_TYPE_MEMORY = "memory";
+    public static final String CONSTANT_PROVIDER_TYPE_SQL = "sql";
     private static final DefaultJobSchedulerProvider INSTANCE = new DefaultJobSchedulerProvider();
     // Property keys
     private static final String PROP_DASHBOARD_ENABLED = "jobs.dashboard.enabled";
     private static final String PROP_DASHBOARD_PORT = "jobs.dashboard.port";
     private static final String PROP_BACKGROUND_ENABLED = "jobs.background.enabled";
-    private static final String PROP_STORAGE_PROVIDER = "jobs.storage.provider"; // memory (default), future: redis, sql
+    private static final String PROP_STORAGE_PROVIDER = "jobs.storage.provider"; // memory (default), sql
+    private static final String PROP_STORAGE_SQL_URL = "jobs.storage.sql.url";
+    private static final String PROP_STORAGE_SQL_USER = "jobs.storage.sql.user";
+    private static final String PROP_STORAGE_SQL_PASSWORD = "jobs.storage.sql.password";
+    private static final String DEFAULT_SQL_URL = "jdbc:h2:file:./jobrunr/jobs";
     private final Object lifecycleLock = new Object();
     private boolean started = false;
     // Keep reference so we can close when stopping (for in-memory case)
     private AbstractStorageProvider storageProvider;
     private JobScheduler jobScheduler;
     private RecurringJobsAccess recurringJobsAccess;
+    private final Object reloadLock = new Object();
+    private final Map<String, IndexedJob> jobIndex = new ConcurrentHashMap<>();
+    private boolean jobIndexSeeded = false;
+    private volatile Duration lastReloadDuration = Duration.ZERO;
 
     public DefaultJobSchedulerProvider() {
         // public constructor; instantiate and call ensureStarted() when needed
@@ -107,12 +131,8 @@ public final class DefaultJobSchedulerProvider implements JobSchedulerProvider {
                     .toLowerCase();
             int dashboardPort = PropertyUtil.getPropertyIntValue(PROP_DASHBOARD_PORT, "8080");
 
-            // Only memory supported by default. If unsupported, fall back to in-memory to keep tests and runtime
-            // stable.
-            if (!CONSTANT_PROVIDER_TYPE_MEMORY.equals(storage)) {
-                log.warn("Unsupported jobs.storage.provider='{}', falling back to 'memory'", storage);
-            }
-            storageProvider = new InMemoryStorageProvider();
+            storageProvider = createStorageProvider(storage);
+            resetJobIndex();
 
             // set default recurring jobs access if not provided externally
             if (recurringJobsAccess == null) {
@@ -132,7 +152,7 @@ public final class DefaultJobSchedulerProvider implements JobSchedulerProvider {
 
             log.info(
                     "JobRunr initialised (storage={}, background={}, dashboard={})",
-                    CONSTANT_PROVIDER_TYPE_MEMORY,
+                    storageProvider.getClass().getSimpleName(),
                     backgroundEnabled,
                     dashboardEnabled);
 
@@ -144,6 +164,34 @@ public final class DefaultJobSchedulerProvider implements JobSchedulerProvider {
         }
     }
 
+    /**
+     * Creates the storage provider for {@code storage}. Unsupported values fall back to in-memory to keep tests and
+     * runtime stable.
+     *
+     * @throws ConfigurationException if {@code sql} is chosen without a database password: the database holds every
+     *     job's parameters, connection properties included
+     */
+    static AbstractStorageProvider createStorageProvider(final String storage) {
+        if (CONSTANT_PROVIDER_TYPE_SQL.equals(storage)) {
+            final String password = PropertyUtil.getPropertyValue(PROP_STORAGE_SQL_PASSWORD, "");
+            if (password == null || password.isBlank()) {
+                throw new ConfigurationException(PROP_STORAGE_SQL_PASSWORD
+                        + " must be set when jobs are stored in a database; job parameters are kept there");
+            }
+            final JdbcDataSource dataSource = new JdbcDataSource();
+            dataSource.setURL(PropertyUtil.getPropertyValue(PROP_STORAGE_SQL_URL, DEFAULT_SQL_URL));
+            dataSource.setUser(PropertyUtil.getPropertyValue(PROP_STORAGE_SQL_USER, "sa"));
+            dataSource.setPassword(password);
+            final StorageProvider sql = SqlStorageProviderFactory.using(dataSource);
+            log.info("Using SQL job storage at {}", dataSource.getURL());
+            return (AbstractStorageProvider) sql;
+        }
+        if (!CONSTANT_PROVIDER_TYPE_MEMORY.equals(storage)) {
+            log.warn("Unsupported jobs.storage.provider='{}', falling back to 'memory'", storage);
+        }
+        return new InMemoryStorageProvider();
+    }
+
     private void shutdown() {
         try {
             JobRunr.destroy();
@@ -233,6 +281,7 @@ public final class DefaultJobSchedulerProvider implements JobSchedulerProvider {
             recurringJobBuilder.withAmountOfRetries(params.getAmountOfRetries());
 
         jobScheduler.createRecurrently(recurringJobBuilder);
+        jobIndex.put(params.getJobId(), IndexedJob.of(params));
         log.info(
                 "Registered recurring job id={} name={} interval={} retries={}",
                 params.getJobId(),
@@ -245,6 +294,7 @@ public final class DefaultJobSchedulerProvider implements JobSchedulerProvider {
     public void removeRecurringJob(String jobId) {
         log.info("Removing recurring job {}", jobId);
         jobScheduler.deleteRecurringJob(jobId);
+        jobIndex.remove(jobId);
         log.info("Deleted recurring job {}", jobId);
     }
 
@@ -253,17 +303,63 @@ public final class DefaultJobSchedulerProvider implements JobSchedulerProvider {
         Objects.requireNonNull(managementNodeId, "Management Node Id can not be null");
         Objects.requireNonNull(requests, "params can not be null");
 
-        // 1) Build a quick lookup of the requested jobs for this management node
-        //    Key = jobId, Value = JobParams
-        final Map<String, JobParams> requestedForNode = buildRequestedJobMapForNode(managementNodeId, requests);
+        synchronized (reloadLock) {
+            final long start = System.nanoTime();
+            seedJobIndexIfNeeded();
+
+            // 1) Build a quick lookup of the requested jobs for this management node
+            //    Key = jobId, Value = JobParams
+            final Map<String, JobParams> requestedForNode = buildRequestedJobMapForNode(managementNodeId, requests);
+
+            // 2) Remove jobs for this node that are no longer requested or whose params changed
+            //    - Skip jobs that belong to other nodes
+            //    - Skip jobs if we cannot safely read their JobParams
+            final int removed = removeObsoleteOrModifiedJobs(managementNodeId, requestedForNode);
+
+            // 3) Add any requested jobs for this node that are not currently scheduled
+            final int added = addMissingJobs(managementNodeId, requests);
+
+            lastReloadDuration = Duration.ofNanos(System.nanoTime() - start);
+            log.info(
+                    "Reloaded recurring jobs for management node={} in {} ms (requested={}, removed={}, added={})",
+                    managementNodeId,
+                    lastReloadDuration.toMillis(),
+                    requestedForNode.size(),
+                    removed,
+                    added);
+        }
+    }
+
+    /**
+     * @return how long the most recent {@link #reloadRecurrentJobs} took, or zero if there has been none
+     */
+    public Duration getLastReloadDuration() {
+        return lastReloadDuration;
+    }
 
-        // 2) Remove jobs for this node that are no longer requested or whose params changed
-        //    - Skip jobs that belong to other nodes
-        //    - Skip jobs if we cannot safely read their JobParams
-        removeObsoleteOrModifiedJobs(managementNodeId, requestedForNode);
+    // A fresh storage provider starts without the jobs the index describes
+    private void resetJobIndex() {
+        synchronized (reloadLock) {
+            jobIndex.clear();
+            jobIndexSeeded = false;
+        }
+    }
 
-        // 3) Add any requested jobs for this node that are not currently scheduled
-        addMissingJobs(managementNodeId, requests);
+    /**
+     * Loads recurring jobs already in storage into the index, once. Jobs whose params cannot be read are indexed
+     * without params, so that reloads skip them as they did before the index existed.
+     */
+    private void seedJobIndexIfNeeded() {
+        if (jobIndexSeeded) {
+            return;
+        }
+        final Map<String, JobParams> stored = recurringJobsAccess.paramsById(storageProvider);
+        stored.forEach((id, params) -> jobIndex.putIfAbsent(id, IndexedJob.of(params)));
+        for (String id : recurringJobsAccess.ids(storageProvider)) {
+            jobIndex.putIfAbsent(id, IndexedJob.of(null));
+        }
+        jobIndexSeeded = true;
+        log.debug("Seeded recurring job index with {} job(s) from storage", jobIndex.size());
     }
 
     /**
@@ -286,14 +382,16 @@ public final class DefaultJobSchedulerProvider implements JobSchedulerProvider {
      * - belong to another node (Skip), or
      * - have unreadable params (Skip for safety).
      * If a job is unchanged, we Skip it (keep it as-is).
+     *
+     * @return the number of jobs removed
      */
-    private void removeObsoleteOrModifiedJobs(
+    private int removeObsoleteOrModifiedJobs(
             final String managementNodeId, final Map<String, JobParams> requestedForNode) {
-        final java.util.Map<String, JobParams> existingMap = getExistingJobsMap();
-
-        for (java.util.Map.Entry<String, JobParams> entry : existingMap.entrySet()) {
+        int removed = 0;
+        for (java.util.Map.Entry<String, IndexedJob> entry : List.copyOf(jobIndex.entrySet())) {
             final String existingId = entry.getKey();
-            final JobParams existingParams = entry.getValue();
+            final IndexedJob existing = entry.getValue();
+            final JobParams existingParams = existing.params();
 
             final boolean manageable =
                     existingParams != null && managementNodeId.equals(existingParams.getManagementNodeId());
@@ -313,8 +411,9 @@ public final class DefaultJobSchedulerProvider implements JobSchedulerProvider {
                         existingId,
                         managementNodeId);
                 removeRecurringJob(existingId);
+                removed++;
             } else {
-                boolean unchanged = requestedParams.equals(existingParams);
+                boolean unchanged = existing.matches(requestedParams);
 
                 if (!unchanged) {
                     // Parameters changed -> Remove (we will add it back with new params in the Add phase)
@@ -323,6 +422,7 @@ public final class DefaultJobSchedulerProvider implements JobSchedulerProvider {
                             existingId,
                             managementNodeId);
                     removeRecurringJob(existingId);
+                    removed++;
                 } else {
                     // Parameters unchanged -> Skip
                     log.debug(
@@ -332,22 +432,24 @@ public final class DefaultJobSchedulerProvider implements JobSchedulerProvider {
                 }
             }
         }
+        return removed;
     }
 
     /**
      * Adds any requested jobs for the node that are not currently scheduled after the removal phase.
      * - Add: job requested for this node but not present after removals
      * - Skip: job already present (unchanged) or belongs to a different node
+     *
+     * @return the number of jobs registered
      */
-    private void addMissingJobs(final String managementNodeId, final List<RecurrentJobRequest> requests) {
-        final java.util.Set<String> existingIdsAfterDeletion = recurringJobsAccess.ids(storageProvider);
-
+    private int addMissingJobs(final String managementNodeId, final List<RecurrentJobRequest> requests) {
+        int added = 0;
         for (RecurrentJobRequest req : requests) {
             final JobParams jobParams = req.getJobParams();
             final boolean manageable = jobParams != null && managementNodeId.equals(jobParams.getManagementNodeId());
             if (manageable) {
                 final String id = jobParams.getJobId();
-                final boolean alreadyPresent = existingIdsAfterDeletion.contains(id);
+                final boolean alreadyPresent = jobIndex.containsKey(id);
                 if (!alreadyPresent) {
                     try {
                         // Add
@@ -356,6 +458,7 @@ public final class DefaultJobSchedulerProvider implements JobSchedulerProvider {
                                 id,
                                 managementNodeId);
                         registerJob(req.getJob(), jobParams);
+                        added++;
                     } catch (Exception e) {
                         log.error(
                                 "Failed to register recurring job id={} (management node={})", id, managementNodeId, e);
@@ -363,6 +466,7 @@ public final class DefaultJobSchedulerProvider implements JobSchedulerProvider {
                 }
             }
         }
+        return added;
     }
 
     /**
@@ -384,8 +488,15 @@ public final class DefaultJobSchedulerProvider implements JobSchedulerProvider {
         return null;
     }
 
-    private java.util.Map<String, JobParams> getExistingJobsMap() {
-        return new java.util.HashMap<>(recurringJobsAccess.paramsById(storageProvider));
+    // Index entry: params are null when they could not be read from storage
+    private record IndexedJob(JobParams params, int paramsHash) {
+        static IndexedJob of(final JobParams params) {
+            return new IndexedJob(params, Objects.hashCode(params));
+        }
+
+        boolean matches(final JobParams requested) {
+            return paramsHash == requested.hashCode() && requested.equals(params);
+        }
     }
 
     // Strategy to retrieve existing recurring jobs and their parameters
@@ -0,0 +1,54 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.jobs;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Measures how long after the client process started its first topic or file transfer began. This is the figure
+ * persistent job storage ({@code jobs.storage.provider=sql}) is meant to reduce: with in-memory storage no transfer can
+ * start until the Management Node configuration has been fetched and every recurring job registered again.
+ */
+@Slf4j
+public final class FirstTransferTimer {
+
+    private static final AtomicReference<Duration> FIRST_TRANSFER = new AtomicReference<>();
+
+    private FirstTransferTimer() {}
+
+    /**
+     * Records the start of a transfer; only the first call after start-up is kept and logged.
+     *
+     * @param jobId the job starting the transfer
+     */
+    public static void recordTransferStart(String jobId) {
+        if (FIRST_TRANSFER.get() != null) {
+            return;
+        }
+        long startedAt = ManagementFactory.getRuntimeMXBean().getStartTime();
+        Duration sinceStart = Duration.ofMillis(Math.max(0, System.currentTimeMillis() - startedAt));
+        if (FIRST_TRANSFER.compareAndSet(null, sinceStart)) {
+            log.info("First transfer (job {}) started {} ms after client start", jobId, sinceStart.toMillis());
+        }
+    }
+
+    /**
+     * @return time from process start to the first transfer, if one has started
+     */
+    public static Optional<Duration> timeToFirstTransfer() {
+        return Optional.ofNullable(FIRST_TRANSFER.get());
+    }
+
+    /**
+     * Testing helper to forget the recorded transfer.
+     */
+    public static void clearForTests() {
+        FIRST_TRANSFER.set(null);
+    }
+}
@@ -0,0 +1,197 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.jobs;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
+
+/**
+ * Stops runs of the same job from overlapping.
+ * <p>
+ * When a run outlasts its schedule interval, the scheduler starts the next run while the first is still streaming,
+ * and both read the same range and race on the stored offset. The guard keeps one lock per job id. A trigger that
+ * finds the lock held is handled according to {@value #CLIENT_JOBS_OVERLAP_POLICY}:
+ * <ul>
+ *   <li>{@code ALLOW} (default): run anyway, as before</li>
+ *   <li>{@code SKIP}: drop the trigger</li>
+ *   <li>{@code COALESCE}: drop the trigger but have the active run go round once more when it finishes, so that
+ *       however many triggers overlap, one follow-up run picks up what arrived meanwhile</li>
+ * </ul>
+ * Skipped and coalesced triggers are counted, see {@link #skippedRuns()} and {@link #coalescedRuns()}, and exposed
+ * over JMX as {@value #OBJECT_NAME}.
+ */
+@Slf4j
+public final class JobOverlapGuard implements JobOverlapMXBean {
+
+    public static final String CLIENT_JOBS_OVERLAP_POLICY = "client.jobs.overlapPolicy";
+    public static final String OBJECT_NAME = "uk.gov.dbt.ndtp.federator:type=JobOverlap";
+
+    private static final String DEFAULT_POLICY = "ALLOW";
+
+    private static final AtomicReference<JobOverlapGuard> INSTANCE = new AtomicReference<>();
+    private static final ReentrantLock INSTANCE_LOCK = new ReentrantLock();
+
+    private final OverlapPolicy policy;
+    private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+    private final Set<String> rerunRequested = ConcurrentHashMap.newKeySet();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    JobOverlapGuard(OverlapPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * @return the process-wide guard, using the policy from client properties
+     */
+    public static JobOverlapGuard getInstance() {
+        JobOverlapGuard guard = INSTANCE.get();
+        if (guard != null) {
+            return guard;
+        }
+        // Created under a lock, as creating it registers the MBean
+        INSTANCE_LOCK.lock();
+        try {
+            if (INSTANCE.get() == null) {
+                JobOverlapGuard created = new JobOverlapGuard(policyFromProperties());
+                register(created);
+                INSTANCE.set(created);
+            }
+            return INSTANCE.get();
+        } finally {
+            INSTANCE_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Testing helper to reset the singleton.
+     */
+    public static void clearForTests() {
+        INSTANCE.set(null);
+    }
+
+    private static void register(JobOverlapGuard guard) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(guard, name);
+        } catch (JMException e) {
+            log.warn("Unable to register job overlap MBean", e);
+        }
+    }
+
+    private static OverlapPolicy policyFromProperties() {
+        try {
+            String value = PropertyUtil.getPropertyValue(CLIENT_JOBS_OVERLAP_POLICY, DEFAULT_POLICY);
+            return value == null ? OverlapPolicy.ALLOW : OverlapPolicy.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (PropertyUtil.PropertyUtilException e) {
+            return OverlapPolicy.ALLOW;
+        }
+    }
+
+    /**
+     * Runs {@code body} unless a run of {@code jobId} is already active, in which case the policy decides.
+     *
+     * @param jobId the job whose runs must not overlap; {@code null} runs {@code body} unguarded
+     * @param body the run
+     */
+    public void run(String jobId, Runnable body) {
+        if (policy == OverlapPolicy.ALLOW || jobId == null) {
+            body.run();
+            return;
+        }
+        ReentrantLock lock = locks.computeIfAbsent(jobId, id -> new ReentrantLock());
+        boolean triggered = true;
+        while (true) {
+            if (!lock.tryLock()) {
+                if (triggered) {
+                    recordOverlap(jobId);
+                }
+                return;
+            }
+            try {
+                do {
+                    rerunRequested.remove(jobId);
+                    body.run();
+                } while (policy == OverlapPolicy.COALESCE && rerunRequested.remove(jobId));
+            } finally {
+                lock.unlock();
+            }
+            // A trigger may have arrived between the last check and the unlock
+            if (policy != OverlapPolicy.COALESCE || !rerunRequested.contains(jobId)) {
+                return;
+            }
+            triggered = false;
+        }
+    }
+
+    private void recordOverlap(String jobId) {
+        if (policy == OverlapPolicy.COALESCE) {
+            rerunRequested.add(jobId);
+            log.info("Job {} is still running; trigger coalesced into a follow-up run", jobId);
+            coalesced.incrementAndGet();
+        } else {
+            log.info("Job {} is still running; trigger skipped", jobId);
+            skipped.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return the policy in force
+     */
+    public OverlapPolicy policy() {
+        return policy;
+    }
+
+    /**
+     * @return how many triggers were dropped because a run of the same job was active
+     */
+    public long skippedRuns() {
+        return skipped.get();
+    }
+
+    /**
+     * @return how many triggers were folded into a follow-up run because a run of the same job was active
+     */
+    public long coalescedRuns() {
+        return coalesced.get();
+    }
+
+    @Override
+    public String getPolicy() {
+        return policy.name();
+    }
+
+    @Override
+    public long getSkippedRuns() {
+        return skippedRuns();
+    }
+
+    @Override
+    public long getCoalescedRuns() {
+        return coalescedRuns();
+    }
+
+    /** What to do with a trigger for a job that is already running. */
+    public enum OverlapPolicy {
+        ALLOW,
+        SKIP,
+        COALESCE
+    }
+}
@@ -0,0 +1,17 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.jobs;
+
+/**
+ * JMX view of job overlap handling, registered as {@value JobOverlapGuard#OBJECT_NAME}.
+ */
+public interface JobOverlapMXBean {
+
+    String getPolicy();
+
+    long getSkippedRuns();
+
+    long getCoalescedRuns();
+}
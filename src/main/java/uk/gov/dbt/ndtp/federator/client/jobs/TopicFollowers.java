@@ -0,0 +1,171 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.jobs;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.dbt.ndtp.federator.client.lifecycle.AutoClosableShutdownTask;
+import uk.gov.dbt.ndtp.federator.client.lifecycle.ShutdownThread;
+import uk.gov.dbt.ndtp.federator.common.utils.ThreadFactoryWithNamePrefix;
+
+/**
+ * Runs followed topic streams on threads owned by the client rather than on scheduler workers.
+ * <p>
+ * A followed stream stays open until it is stopped, so running it inside its job would pin a JobRunr worker for good
+ * and leave every later trigger to pile up behind it. Instead the job hands its follow loop to {@link #follow} and
+ * returns; later triggers find the loop running and do nothing, or restart it if it has ended. A loop that ended with
+ * a failure reports it to the next trigger. Configuration reloads {@link #retain} the jobs still configured.
+ */
+@Slf4j
+public final class TopicFollowers implements AutoCloseable {
+
+    private static final AtomicReference<TopicFollowers> INSTANCE = new AtomicReference<>();
+    private static final ReentrantLock INSTANCE_LOCK = new ReentrantLock();
+
+    private final ExecutorService threads;
+    private final Map<String, Follower> followers = new ConcurrentHashMap<>();
+
+    TopicFollowers(ExecutorService threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * @return the process-wide followers, created on first use
+     */
+    public static TopicFollowers getInstance() {
+        TopicFollowers followers = INSTANCE.get();
+        if (followers != null) {
+            return followers;
+        }
+        INSTANCE_LOCK.lock();
+        try {
+            if (INSTANCE.get() == null) {
+                TopicFollowers created =
+                        new TopicFollowers(Executors.newCachedThreadPool(new ThreadFactoryWithNamePrefix("Follow")));
+                ShutdownThread.register(new AutoClosableShutdownTask(created));
+                INSTANCE.set(created);
+            }
+            return INSTANCE.get();
+        } finally {
+            INSTANCE_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Testing helper to stop all loops and reset the singleton.
+     */
+    public static void clearForTests() {
+        TopicFollowers followers = INSTANCE.getAndSet(null);
+        if (followers != null) {
+            followers.close();
+        }
+    }
+
+    /**
+     * Starts {@code loop} for {@code jobId} unless a loop for that job is still running.
+     *
+     * @param jobId the followed topic job
+     * @param managementNodeId the node whose configuration the job came from
+     * @param loop the follow loop; it should return once its thread is interrupted
+     * @return true if a new loop was started
+     * @throws RuntimeException the failure the previous loop for the job ended with; the next call starts a new one
+     */
+    public synchronized boolean follow(String jobId, String managementNodeId, Runnable loop) {
+        Follower previous = followers.get(jobId);
+        if (previous != null) {
+            if (!previous.future().isDone()) {
+                return false;
+            }
+            followers.remove(jobId);
+            previous.rethrowFailure(jobId);
+        }
+        Future<?> future = threads.submit(() -> {
+            log.info("Following {} on a client thread", jobId);
+            loop.run();
+        });
+        followers.put(jobId, new Follower(managementNodeId, future));
+        return true;
+    }
+
+    /**
+     * Interrupts the loop for {@code jobId}, if any.
+     */
+    public synchronized void stop(String jobId) {
+        Follower follower = followers.remove(jobId);
+        if (follower != null) {
+            follower.future().cancel(true);
+        }
+    }
+
+    /**
+     * Stops the loops started for {@code managementNodeId} whose job is not in {@code jobIds}.
+     *
+     * @param managementNodeId the node whose configuration was reloaded
+     * @param jobIds the topic jobs still configured for that node
+     */
+    public void retain(String managementNodeId, Collection<String> jobIds) {
+        List<String> obsolete = followers.entrySet().stream()
+                .filter(e -> Objects.equals(e.getValue().managementNodeId(), managementNodeId))
+                .map(Map.Entry::getKey)
+                .filter(id -> !jobIds.contains(id))
+                .toList();
+        obsolete.forEach(this::stop);
+        if (!obsolete.isEmpty()) {
+            log.info(
+                    "Stopped following {} topic(s) no longer configured for node {}", obsolete.size(), managementNodeId);
+        }
+    }
+
+    /**
+     * @return true if a loop for {@code jobId} is running
+     */
+    public boolean isFollowing(String jobId) {
+        Follower follower = followers.get(jobId);
+        return follower != null && !follower.future().isDone();
+    }
+
+    @Override
+    public void close() {
+        List.copyOf(followers.keySet()).forEach(this::stop);
+        threads.shutdownNow();
+        try {
+            if (!threads.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("Follow loops did not stop within 5s");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Follower(String managementNodeId, Future<?> future) {
+
+        private void rethrowFailure(String jobId) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException failure) {
+                    throw failure;
+                }
+                throw new IllegalStateException("Follow loop for " + jobId + " failed", e.getCause());
+            } catch (CancellationException e) {
+                log.debug("Follow loop for {} was stopped", jobId);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -5,30 +5,49 @@ package uk.gov.dbt.ndtp.federator.client.jobs.handlers;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import uk.gov.dbt.ndtp.federator.client.connection.ConnectionProperties;
+import uk.gov.dbt.ndtp.federator.client.grpc.FollowMode;
+import uk.gov.dbt.ndtp.federator.client.grpc.ReactiveTopicEngine;
 import uk.gov.dbt.ndtp.federator.client.jobs.Job;
 import uk.gov.dbt.ndtp.federator.client.jobs.JobSchedulerProvider;
 import uk.gov.dbt.ndtp.federator.client.jobs.JobsConstants;
+import uk.gov.dbt.ndtp.federator.client.jobs.TopicFollowers;
 import uk.gov.dbt.ndtp.federator.client.jobs.params.ClientFileExchangeGRPCJobParams;
 import uk.gov.dbt.ndtp.federator.client.jobs.params.ClientGRPCJobParams;
+import uk.gov.dbt.ndtp.federator.client.jobs.params.ClientGRPCMultiTopicJobParams;
 import uk.gov.dbt.ndtp.federator.client.jobs.params.FileExchangeProperties;
 import uk.gov.dbt.ndtp.federator.client.jobs.params.JobParams;
 import uk.gov.dbt.ndtp.federator.client.jobs.params.RecurrentJobRequest;
 import uk.gov.dbt.ndtp.federator.client.jobs.schedule.ScheduleAttributesResolver;
 import uk.gov.dbt.ndtp.federator.common.management.ManagementNodeDataException;
+import uk.gov.dbt.ndtp.federator.common.management.ManagementNodeDataHandler;
+import uk.gov.dbt.ndtp.federator.common.model.dto.ConfigChangeDTO;
 import uk.gov.dbt.ndtp.federator.common.model.dto.ConsumerConfigDTO;
 import uk.gov.dbt.ndtp.federator.common.model.dto.ProducerDTO;
 import uk.gov.dbt.ndtp.federator.common.model.dto.ProductConsumerDTO;
 import uk.gov.dbt.ndtp.federator.common.model.dto.ProductDTO;
 import uk.gov.dbt.ndtp.federator.common.service.config.ConsumerConfigService;
+import uk.gov.dbt.ndtp.federator.common.utils.GRPCUtils;
+import uk.gov.dbt.ndtp.federator.common.utils.ObjectMapperUtil;
 import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
 
 /**
  * Job handler for dynamic configuration updates from Management Node. Fetches producer
  * configurations from the Management Node and creates GRPC jobs for each producer/product
  * combination.
+ * <p>
+ * With {@value ManagementNodeDataHandler#CONDITIONAL_FETCH_PROP} enabled, a SHA-256 of the applied configuration
+ * is kept per node, and a run whose configuration hashes the same skips rebuilding and reloading the jobs.
+ * <p>
+ * With {@value ClientGRPCMultiTopicJob#MULTI_TOPIC_ENABLED} enabled, topic products of one producer that share a
+ * schedule are read by a single {@link ClientGRPCMultiTopicJob} on one stream instead of a job per topic.
  */
 @Slf4j
 public class ClientDynamicConfigJob implements Job {
@@ -52,9 +71,14 @@ public class ClientDynamicConfigJob implements Job {
     private static final String LOG_SUCCESS = "Config fetched [producers={}, nodeId={}]";
     private static final String LOG_NO_CONFIG = "No config data received [nodeId={}]";
     private static final String LOG_JOB = "Job created [id={}, type={}, topic={}, host={}, port={}]";
+    private static final String LOG_MULTI_TOPIC_JOB = "Multi-topic job created [id={}, topics={}]";
     private static final String LOG_NULL = "Null producer skipped";
     private static final String LOG_CONNECTION = "Connection [server={}, host={}, port={}, tls={}]";
     private static final String LOG_ERROR_UNEXP = "Unexpected error [nodeId={}, error={}]";
+    private static final String LOG_UNCHANGED = "Config unchanged, jobs not reloaded [nodeId={}]";
+    private static final Map<String, String> APPLIED_CONFIG_HASHES = new ConcurrentHashMap<>();
+    // Scheduled runs and pushed changes run on different threads; one of them reloads the jobs at a time
+    private static final Object RUN_LOCK = new Object();
     private static ConsumerConfigService staticService;
     private static JobSchedulerProvider staticScheduler;
     private final ConsumerConfigService configService;
@@ -104,6 +128,12 @@ public class ClientDynamicConfigJob implements Job {
      */
     @Override
     public void run(final JobParams value) {
+        synchronized (RUN_LOCK) {
+            runOnce(value);
+        }
+    }
+
+    private void runOnce(final JobParams value) {
         final String nodeId = resolveNodeId(value);
         log.info(LOG_START, nodeId);
 
@@ -113,8 +143,16 @@ public class ClientDynamicConfigJob implements Job {
                 log.warn(LOG_NO_CONFIG, nodeId);
                 return;
             }
+            final String hash = configHash(config);
+            if (hash != null && hash.equals(APPLIED_CONFIG_HASHES.get(nodeId))) {
+                log.debug(LOG_UNCHANGED, nodeId);
+                return;
+            }
             updateDynamicConfigJob();
             reloadJobs(config, nodeId);
+            if (hash != null) {
+                APPLIED_CONFIG_HASHES.put(nodeId, hash);
+            }
         } catch (ManagementNodeDataException e) {
             log.error(LOG_ERROR, nodeId, e.getMessage(), e);
         } catch (Exception e) {
@@ -122,10 +160,50 @@ public class ClientDynamicConfigJob implements Job {
         }
     }
 
+    /**
+     * Applies a configuration change pushed by the Management Node straight away instead of waiting for the next
+     * scheduled run. Changes that do not name this consumer are ignored. A scheduled run in progress finishes first.
+     *
+     * @param change the pushed change
+     */
+    public void onConfigChange(final ConfigChangeDTO change) {
+        if (!configService.isAffectedBy(change.getConsumers())) {
+            return;
+        }
+        configService.refreshConfigurations();
+        run(null);
+    }
+
     private void reloadJobs(final ConsumerConfigDTO config, final String nodeId) {
         final List<RecurrentJobRequest> requests = buildJobRequests(config, nodeId);
         log.info(LOG_RELOAD, requests.size(), nodeId);
         scheduler.reloadRecurrentJobs(nodeId, requests);
+        final boolean reactive = ReactiveTopicEngine.isEnabled();
+        if (!reactive && !FollowMode.fromProperties().enabled()) {
+            return;
+        }
+        final Set<String> topicJobIds = requests.stream()
+                .map(RecurrentJobRequest::getJobParams)
+                .filter(p -> p instanceof ClientGRPCJobParams || p instanceof ClientGRPCMultiTopicJobParams)
+                .map(JobParams::getJobId)
+                .collect(Collectors.toSet());
+        if (reactive) {
+            ReactiveTopicEngine.getInstance().retain(nodeId, topicJobIds);
+        } else {
+            TopicFollowers.getInstance().retain(nodeId, topicJobIds);
+        }
+    }
+
+    private String configHash(final ConsumerConfigDTO config) {
+        if (!ManagementNodeDataHandler.isConditionalFetchEnabled()) {
+            return null;
+        }
+        try {
+            return GRPCUtils.calculateSha256Checksum(ObjectMapperUtil.getInstance().writeValueAsBytes(config));
+        } catch (Exception e) {
+            log.warn("Could not hash config, jobs will be reloaded [error={}]", e.getMessage());
+            return null;
+        }
     }
 
     private String resolveNodeId(final JobParams params) {
@@ -186,9 +264,57 @@ public class ClientDynamicConfigJob implements Job {
             log.info(LOG_SUCCESS, config.getProducers().size(), nodeId);
             processProducers(config, nodeId, requests);
         }
+        // The reactive engine already multiplexes its streams per producer
+        if (ClientGRPCMultiTopicJob.isEnabled() && !ReactiveTopicEngine.isEnabled()) {
+            return groupTopicJobs(requests, nodeId);
+        }
         return requests;
     }
 
+    /**
+     * Replaces the topic jobs of each producer that share a schedule with one multi-topic job. Topics on their own
+     * schedule keep their own job.
+     */
+    private List<RecurrentJobRequest> groupTopicJobs(final List<RecurrentJobRequest> requests, final String nodeId) {
+        final Map<TopicJobGroup, List<RecurrentJobRequest>> groups = new LinkedHashMap<>();
+        final List<RecurrentJobRequest> grouped = new ArrayList<>();
+        for (RecurrentJobRequest request : requests) {
+            if (request.getJobParams().getClass() == ClientGRPCJobParams.class) {
+                final ClientGRPCJobParams params = (ClientGRPCJobParams) request.getJobParams();
+                groups.computeIfAbsent(TopicJobGroup.of(params), g -> new ArrayList<>()).add(request);
+            } else {
+                grouped.add(request);
+            }
+        }
+        for (List<RecurrentJobRequest> group : groups.values()) {
+            if (group.size() == 1) {
+                grouped.add(group.getFirst());
+                continue;
+            }
+            final List<ClientGRPCJobParams> topicParams = group.stream()
+                    .map(request -> (ClientGRPCJobParams) request.getJobParams())
+                    .toList();
+            final ClientGRPCJobParams first = topicParams.getFirst();
+            final ClientGRPCMultiTopicJobParams params = new ClientGRPCMultiTopicJobParams(
+                    topicParams.stream().map(ClientGRPCJobParams::getTopic).toList(),
+                    first.getConnectionProperties(),
+                    nodeId);
+            params.setJobName(first.getJobName());
+            params.setScheduleExpression(first.getScheduleExpression());
+            params.setJobScheduleType(first.getJobScheduleType());
+            log.debug(LOG_MULTI_TOPIC_JOB, params.getJobId(), params.getTopics());
+            grouped.add(buildRecurrentJobRequest(new ClientGRPCMultiTopicJob(params), params));
+        }
+        return grouped;
+    }
+
+    private record TopicJobGroup(ConnectionProperties connection, String scheduleType, String scheduleExpression) {
+        static TopicJobGroup of(final ClientGRPCJobParams params) {
+            return new TopicJobGroup(
+                    params.getConnectionProperties(), params.getJobScheduleType(), params.getScheduleExpression());
+        }
+    }
+
     private void processProducers(
             final ConsumerConfigDTO config, final String nodeId, final List<RecurrentJobRequest> requests) {
         for (ProducerDTO producer : config.getProducers()) {
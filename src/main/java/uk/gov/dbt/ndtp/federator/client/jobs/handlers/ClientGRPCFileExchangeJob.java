@@ -4,11 +4,13 @@ import java.util.function.Supplier;
 import java.util.function.ToLongBiFunction;
 import lombok.extern.slf4j.Slf4j;
 import uk.gov.dbt.ndtp.federator.client.grpc.GRPCFileClient;
+import uk.gov.dbt.ndtp.federator.client.jobs.FirstTransferTimer;
 import uk.gov.dbt.ndtp.federator.client.jobs.Job;
+import uk.gov.dbt.ndtp.federator.client.jobs.JobOverlapGuard;
 import uk.gov.dbt.ndtp.federator.client.jobs.params.ClientFileExchangeGRPCJobParams;
 import uk.gov.dbt.ndtp.federator.client.jobs.params.JobParams;
+import uk.gov.dbt.ndtp.federator.client.offsets.OffsetStoreFactory;
 import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
-import uk.gov.dbt.ndtp.federator.common.utils.RedisUtil;
 import uk.gov.dbt.ndtp.federator.exceptions.ClientGRPCJobException;
 
 @Slf4j
@@ -22,7 +24,7 @@ public class ClientGRPCFileExchangeJob implements Job {
     /** Default constructor wires real implementations for backward compatibility. */
     public ClientGRPCFileExchangeJob() {
         this.prefixSupplier = () -> PropertyUtil.getPropertyValue(KAFKA_TOPIC_PREFIX, "");
-        this.offsetProvider = (prefix, topic) -> RedisUtil.getInstance().getOffset(prefix, topic);
+        this.offsetProvider = (prefix, topic) -> OffsetStoreFactory.getInstance().getOffset(prefix, topic);
     }
 
     /** Convenience constructor to set initial request using default wiring. */
@@ -36,7 +38,11 @@ public class ClientGRPCFileExchangeJob implements Job {
         if (request == null) {
             request = (ClientFileExchangeGRPCJobParams) value;
         }
+        JobOverlapGuard.getInstance().run(request.getJobId(), this::runOnce);
+    }
 
+    private void runOnce() {
+        FirstTransferTimer.recordTransferStart(request.getJobId());
         log.info("running File Exchange Job:");
         String topic = request.getTopic();
         String destinationPath = request.getFileExchangeProperties().getDestinationPath();
@@ -1,5 +1,8 @@
 package uk.gov.dbt.ndtp.federator.client.jobs.handlers;
 
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import java.time.Duration;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
 import java.util.function.ToLongBiFunction;
@@ -7,12 +10,17 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import uk.gov.dbt.ndtp.federator.WrappedGRPCClient;
 import uk.gov.dbt.ndtp.federator.client.connection.ConnectionProperties;
+import uk.gov.dbt.ndtp.federator.client.grpc.FollowMode;
 import uk.gov.dbt.ndtp.federator.client.grpc.GRPCTopicClient;
+import uk.gov.dbt.ndtp.federator.client.grpc.ReactiveTopicEngine;
+import uk.gov.dbt.ndtp.federator.client.jobs.FirstTransferTimer;
 import uk.gov.dbt.ndtp.federator.client.jobs.Job;
+import uk.gov.dbt.ndtp.federator.client.jobs.JobOverlapGuard;
+import uk.gov.dbt.ndtp.federator.client.jobs.TopicFollowers;
 import uk.gov.dbt.ndtp.federator.client.jobs.params.ClientGRPCJobParams;
 import uk.gov.dbt.ndtp.federator.client.jobs.params.JobParams;
+import uk.gov.dbt.ndtp.federator.client.offsets.OffsetStoreFactory;
 import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
-import uk.gov.dbt.ndtp.federator.common.utils.RedisUtil;
 import uk.gov.dbt.ndtp.federator.exceptions.ClientGRPCJobException;
 
 @Slf4j
@@ -33,11 +41,23 @@ public class ClientGRPCJob implements Job {
     @Setter
     private ClientGRPCJobParams request;
 
+    @Setter
+    private FollowMode followMode;
+
+    @Setter
+    private Sleeper sleeper;
+
+    // Resolved on first follow so that jobs which never follow do not start the follower threads
+    @Setter
+    private TopicFollowers followers;
+
     /** Default constructor wires real implementations for backward compatibility. */
     public ClientGRPCJob() {
         this.prefixSupplier = () -> PropertyUtil.getPropertyValue(KAFKA_TOPIC_PREFIX, "");
-        this.offsetProvider = (prefix, topic) -> RedisUtil.getInstance().getOffset(prefix, topic);
+        this.offsetProvider = (prefix, topic) -> OffsetStoreFactory.getInstance().getOffset(prefix, topic);
         this.clientFactory = (config, prefix) -> new WrappedGRPCClient(new GRPCTopicClient(config, prefix));
+        this.followMode = FollowMode.fromProperties();
+        this.sleeper = Thread::sleep;
     }
 
     /** Convenience constructor to set initial request using default wiring. */
@@ -48,11 +68,15 @@ public class ClientGRPCJob implements Job {
 
     @Override
     public void run(JobParams value) {
-        final String prefix = prefixSupplier.get();
-
         if (request == null) {
             request = (ClientGRPCJobParams) value;
         }
+        JobOverlapGuard.getInstance().run(request.getJobId(), this::runOnce);
+    }
+
+    private void runOnce() {
+        FirstTransferTimer.recordTransferStart(request.getJobId());
+        final String prefix = prefixSupplier.get();
 
         ConnectionProperties connectionProperties = request.getConnectionProperties();
         log.info(
@@ -60,6 +84,31 @@ public class ClientGRPCJob implements Job {
                 connectionProperties.serverHost(),
                 request.getTopic());
 
+        // The engine keeps the stream open on its own event loop; the schedule only makes sure it is subscribed
+        if (ReactiveTopicEngine.isEnabled()) {
+            ReactiveTopicEngine.getInstance().subscribe(request, prefix);
+            return;
+        }
+
+        // The stream stays open on a client thread; the schedule only makes sure it is running
+        if (followMode.enabled()) {
+            if (followers == null) {
+                followers = TopicFollowers.getInstance();
+            }
+            try {
+                followers.follow(
+                        request.getJobId(),
+                        request.getManagementNodeId(),
+                        () -> follow(connectionProperties, prefix));
+            } catch (ClientGRPCJobException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                throw new ClientGRPCJobException(
+                        "Failed to follow topic '" + request.getTopic() + "' via GRPC client", e);
+            }
+            return;
+        }
+
         try (WrappedGRPCClient grpcClient = clientFactory.apply(connectionProperties, prefix)) {
             long offset = offsetProvider.applyAsLong(grpcClient.getRedisPrefix(), request.getTopic());
             grpcClient.processTopic(request.getTopic(), offset);
@@ -68,6 +117,66 @@ public class ClientGRPCJob implements Job {
         }
     }
 
+    /**
+     * Keeps one followed stream open for the topic; runs on a {@link TopicFollowers} thread. Each (re)connect resumes
+     * from the offset stored in Redis. A stream the server ends cleanly is reopened straight away; a failed one is
+     * reopened after an exponential backoff. Returns when the thread is interrupted, and throws if the server reports
+     * the topic is no longer available to us.
+     */
+    private void follow(ConnectionProperties connectionProperties, String prefix) {
+        final String topic = request.getTopic();
+        int failures = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            try (WrappedGRPCClient grpcClient = clientFactory.apply(connectionProperties, prefix)) {
+                long offset = offsetProvider.applyAsLong(grpcClient.getRedisPrefix(), topic);
+                grpcClient.followTopic(topic, offset);
+                failures = 0;
+                log.info("Followed stream for topic {} ended by the server, reconnecting", topic);
+            } catch (Exception e) {
+                if (isPermanent(e)) {
+                    throw new ClientGRPCJobException("Failed to follow topic '" + topic + "' via GRPC client", e);
+                }
+                failures++;
+                Duration delay = followMode.backoff(failures);
+                log.warn(
+                        "Followed stream for topic {} failed ({} in a row), reconnecting in {}",
+                        topic,
+                        failures,
+                        delay);
+                log.debug("Follow failure for topic {}", topic, e);
+                pause(delay);
+            }
+        }
+        log.info("Stopped following topic {}", topic);
+    }
+
+    private void pause(Duration delay) {
+        try {
+            sleeper.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return true if the failure will not go away by reconnecting: the server rejected the topic or our access to it
+     */
+    static boolean isPermanent(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof StatusRuntimeException sre) {
+                Status.Code code = sre.getStatus().getCode();
+                return code == Status.Code.INVALID_ARGUMENT || code == Status.Code.PERMISSION_DENIED;
+            }
+        }
+        return false;
+    }
+
+    /** Waits between follow-mode reconnects. */
+    @FunctionalInterface
+    public interface Sleeper {
+        void sleep(Duration duration) throws InterruptedException;
+    }
+
     @Override
     public String toString() {
         return "Client GRPC Job";
@@ -0,0 +1,175 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.jobs.handlers;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.function.ToLongBiFunction;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.dbt.ndtp.federator.WrappedGRPCClient;
+import uk.gov.dbt.ndtp.federator.client.connection.ConnectionProperties;
+import uk.gov.dbt.ndtp.federator.client.grpc.FollowMode;
+import uk.gov.dbt.ndtp.federator.client.grpc.GRPCTopicClient;
+import uk.gov.dbt.ndtp.federator.client.jobs.FirstTransferTimer;
+import uk.gov.dbt.ndtp.federator.client.jobs.Job;
+import uk.gov.dbt.ndtp.federator.client.jobs.JobOverlapGuard;
+import uk.gov.dbt.ndtp.federator.client.jobs.TopicFollowers;
+import uk.gov.dbt.ndtp.federator.client.jobs.params.ClientGRPCMultiTopicJobParams;
+import uk.gov.dbt.ndtp.federator.client.jobs.params.JobParams;
+import uk.gov.dbt.ndtp.federator.client.offsets.OffsetStoreFactory;
+import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
+import uk.gov.dbt.ndtp.federator.exceptions.ClientGRPCJobException;
+
+/**
+ * Reads several topics of one producer on a single stream, each from its own stored offset. Used in place of one
+ * {@link ClientGRPCJob} per topic when {@value #MULTI_TOPIC_ENABLED} is set. Follow mode behaves as for
+ * {@link ClientGRPCJob}: the stream is reopened from the stored offsets on a {@link TopicFollowers} thread until that
+ * thread is interrupted.
+ */
+@Slf4j
+public class ClientGRPCMultiTopicJob implements Job {
+
+    public static final String MULTI_TOPIC_ENABLED = "client.multiTopic.enabled";
+
+    @Setter
+    private Supplier<String> prefixSupplier;
+
+    @Setter
+    private ToLongBiFunction<String, String> offsetProvider;
+
+    @Setter
+    private BiFunction<ConnectionProperties, String, WrappedGRPCClient> clientFactory;
+
+    @Setter
+    private ClientGRPCMultiTopicJobParams request;
+
+    @Setter
+    private FollowMode followMode;
+
+    @Setter
+    private ClientGRPCJob.Sleeper sleeper;
+
+    @Setter
+    private TopicFollowers followers;
+
+    public ClientGRPCMultiTopicJob() {
+        this.prefixSupplier = () -> PropertyUtil.getPropertyValue(ClientGRPCJob.KAFKA_TOPIC_PREFIX, "");
+        this.offsetProvider = (prefix, topic) -> OffsetStoreFactory.getInstance().getOffset(prefix, topic);
+        this.clientFactory = (config, prefix) -> new WrappedGRPCClient(new GRPCTopicClient(config, prefix));
+        this.followMode = FollowMode.fromProperties();
+        this.sleeper = Thread::sleep;
+    }
+
+    public ClientGRPCMultiTopicJob(ClientGRPCMultiTopicJobParams request) {
+        this();
+        this.request = request;
+    }
+
+    /**
+     * @return true if topic products of one producer with the same schedule should share a stream; false when
+     *     properties are not loaded
+     */
+    public static boolean isEnabled() {
+        try {
+            return PropertyUtil.getPropertyBooleanValue(MULTI_TOPIC_ENABLED, "false");
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void run(JobParams value) {
+        if (request == null) {
+            request = (ClientGRPCMultiTopicJobParams) value;
+        }
+        JobOverlapGuard.getInstance().run(request.getJobId(), this::runOnce);
+    }
+
+    private void runOnce() {
+        FirstTransferTimer.recordTransferStart(request.getJobId());
+        final String prefix = prefixSupplier.get();
+        ConnectionProperties connectionProperties = request.getConnectionProperties();
+        log.info(
+                "Calling GRPC endpoint of producer:{} , Topics {}",
+                connectionProperties.serverHost(),
+                request.getTopics());
+
+        // The stream stays open on a client thread; the schedule only makes sure it is running
+        if (followMode.enabled()) {
+            if (followers == null) {
+                followers = TopicFollowers.getInstance();
+            }
+            try {
+                followers.follow(
+                        request.getJobId(),
+                        request.getManagementNodeId(),
+                        () -> follow(connectionProperties, prefix));
+            } catch (ClientGRPCJobException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                throw new ClientGRPCJobException(
+                        "Failed to follow topics " + request.getTopics() + " via GRPC client", e);
+            }
+            return;
+        }
+
+        try (WrappedGRPCClient grpcClient = clientFactory.apply(connectionProperties, prefix)) {
+            grpcClient.processTopics(storedOffsets(grpcClient), false);
+        } catch (Exception e) {
+            throw new ClientGRPCJobException(
+                    "Failed to process topics " + request.getTopics() + " via GRPC client", e);
+        }
+    }
+
+    private void follow(ConnectionProperties connectionProperties, String prefix) {
+        int failures = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            try (WrappedGRPCClient grpcClient = clientFactory.apply(connectionProperties, prefix)) {
+                grpcClient.processTopics(storedOffsets(grpcClient), true);
+                failures = 0;
+                log.info("Followed stream for topics {} ended by the server, reconnecting", request.getTopics());
+            } catch (Exception e) {
+                if (ClientGRPCJob.isPermanent(e)) {
+                    throw new ClientGRPCJobException(
+                            "Failed to follow topics " + request.getTopics() + " via GRPC client", e);
+                }
+                failures++;
+                Duration delay = followMode.backoff(failures);
+                log.warn(
+                        "Followed stream for topics {} failed ({} in a row), reconnecting in {}",
+                        request.getTopics(),
+                        failures,
+                        delay);
+                pause(delay);
+            }
+        }
+        log.info("Stopped following topics {}", request.getTopics());
+    }
+
+    private Map<String, Long> storedOffsets(WrappedGRPCClient grpcClient) {
+        Map<String, Long> offsets = new LinkedHashMap<>();
+        for (String topic : request.getTopics()) {
+            offsets.put(topic, offsetProvider.applyAsLong(grpcClient.getRedisPrefix(), topic));
+        }
+        return offsets;
+    }
+
+    private void pause(Duration delay) {
+        try {
+            sleeper.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Client GRPC Multi-Topic Job";
+    }
+}
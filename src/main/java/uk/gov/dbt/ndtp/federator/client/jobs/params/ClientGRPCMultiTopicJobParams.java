@@ -0,0 +1,50 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.jobs.params;
+
+import java.util.List;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import uk.gov.dbt.ndtp.federator.client.connection.ConnectionProperties;
+
+/**
+ * Job parameters for reading several topics of one producer on a single stream. The topics are kept sorted so the
+ * job id stays the same however the Management Node orders the products.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class ClientGRPCMultiTopicJobParams extends JobParams {
+
+    private List<String> topics;
+
+    public ClientGRPCMultiTopicJobParams(List<String> topics, ConnectionProperties config, String managementNodeId) {
+        super();
+        this.topics = topics.stream().sorted().toList();
+        this.setConnectionProperties(config);
+        this.setManagementNodeId(managementNodeId);
+    }
+
+    @Override
+    public String getJobId() {
+        return getJobName() + "-" + String.join("+", topics);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+}
@@ -0,0 +1,230 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.kafka;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.utils.Bytes;
+import uk.gov.dbt.ndtp.federator.common.utils.KafkaUtil;
+import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
+import uk.gov.dbt.ndtp.federator.exceptions.RetryableException;
+import uk.gov.dbt.ndtp.grpc.KafkaByteBatch;
+
+/**
+ * Writes records to Kafka without waiting for each acknowledgement, so the producer can batch them.
+ * <p>
+ * Every record is tracked until the broker acknowledges it. {@link #committableOffset()} only moves past a record
+ * once it and every record before it have been acknowledged, so the stored offset never skips a record that
+ * has not reached Kafka. If a send fails, the committable offset stops in front of the failed record and the next
+ * {@link #write} or {@link #flush} throws a {@link RetryableException}; the retried job resumes from that record.
+ */
+@Slf4j
+public final class AsyncTopicWriter implements TopicWriter {
+
+    public static final String CLIENT_KAFKA_ASYNC_ENABLED = "client.kafka.async.enabled";
+    public static final String CLIENT_KAFKA_ASYNC_LINGER_MS = "client.kafka.async.lingerMs";
+    public static final String CLIENT_KAFKA_ASYNC_BATCH_SIZE = "client.kafka.async.batchSize";
+
+    private static final String DEFAULT_ENABLED = "false";
+    private static final String DEFAULT_LINGER_MS = "20";
+    private static final String DEFAULT_BATCH_SIZE = "262144";
+
+    private final Producer<Bytes, Bytes> producer;
+    private final String topic;
+    private final boolean ownsProducer;
+    private final Runnable onClose;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<PendingRecord> pending = new ArrayDeque<>();
+    private long committableOffset = -1L;
+    private Exception failure;
+    private boolean closed;
+
+    AsyncTopicWriter(Producer<Bytes, Bytes> producer, String topic) {
+        this.producer = producer;
+        this.topic = topic;
+        this.ownsProducer = true;
+        this.onClose = producer::close;
+    }
+
+    /**
+     * @param release hands the shared producer back when this writer is closed; the producer itself stays open
+     */
+    AsyncTopicWriter(Producer<Bytes, Bytes> producer, String topic, Runnable release) {
+        this.producer = producer;
+        this.topic = topic;
+        this.ownsProducer = false;
+        this.onClose = release;
+    }
+
+    /**
+     * @return true if topic clients should write through an {@code AsyncTopicWriter}
+     */
+    public static boolean isEnabled() {
+        try {
+            return PropertyUtil.getPropertyBooleanValue(CLIENT_KAFKA_ASYNC_ENABLED, DEFAULT_ENABLED);
+        } catch (PropertyUtil.PropertyUtilException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param topic the local topic to write to
+     * @return a writer on the shared producer from {@link KafkaProducerCache} when the cache is enabled, otherwise a
+     *     writer with its own producer. Closing the writer releases the shared producer or closes its own
+     */
+    public static AsyncTopicWriter create(String topic) {
+        if (KafkaProducerCache.isEnabled()) {
+            KafkaProducerCache cache = KafkaProducerCache.getInstance();
+            Producer<Bytes, Bytes> shared = cache.producer();
+            return new AsyncTopicWriter(shared, topic, () -> cache.release(shared));
+        }
+        return new AsyncTopicWriter(new KafkaProducer<>(producerConfig()), topic);
+    }
+
+    /**
+     * @return true if this writer created its producer and closes it with the writer
+     */
+    public boolean ownsProducer() {
+        return ownsProducer;
+    }
+
+    /**
+     * @return the producer this writer sends through
+     */
+    public Producer<Bytes, Bytes> producer() {
+        return producer;
+    }
+
+    /**
+     * The shared producer settings plus linger and batch size for batching. Values set through
+     * {@code kafka.additional.*} take precedence.
+     */
+    static Properties producerConfig() {
+        Properties properties = KafkaUtil.getKafkaProducerConfig();
+        properties.putIfAbsent(
+                ProducerConfig.LINGER_MS_CONFIG,
+                PropertyUtil.getPropertyValue(CLIENT_KAFKA_ASYNC_LINGER_MS, DEFAULT_LINGER_MS));
+        properties.putIfAbsent(
+                ProducerConfig.BATCH_SIZE_CONFIG,
+                PropertyUtil.getPropertyValue(CLIENT_KAFKA_ASYNC_BATCH_SIZE, DEFAULT_BATCH_SIZE));
+        return properties;
+    }
+
+    @Override
+    public void write(KafkaByteBatch batch) {
+        throwIfFailed();
+        PendingRecord pendingRecord = new PendingRecord(batch.getOffset() + 1);
+        lock.lock();
+        try {
+            pending.addLast(pendingRecord);
+        } finally {
+            lock.unlock();
+        }
+        try {
+            producer.send(toRecord(batch), (metadata, exception) -> acknowledge(pendingRecord, exception));
+        } catch (KafkaException e) {
+            acknowledge(pendingRecord, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void flush() {
+        producer.flush();
+        throwIfFailed();
+    }
+
+    @Override
+    public long committableOffset() {
+        lock.lock();
+        try {
+            return committableOffset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            lock.unlock();
+        }
+        onClose.run();
+    }
+
+    private ProducerRecord<Bytes, Bytes> toRecord(KafkaByteBatch batch) {
+        List<Header> headers = batch.getSharedList().stream()
+                .map(h -> (Header) new RecordHeader(h.getKey(), h.getValue().getBytes(StandardCharsets.UTF_8)))
+                .toList();
+        return new ProducerRecord<>(
+                topic,
+                null,
+                new Bytes(batch.getKey().toByteArray()),
+                new Bytes(batch.getValue().toByteArray()),
+                headers);
+    }
+
+    // Runs on the producer's I/O thread
+    private void acknowledge(PendingRecord pendingRecord, Exception exception) {
+        lock.lock();
+        try {
+            if (exception != null) {
+                if (failure == null) {
+                    failure = exception;
+                    log.error(
+                            "Failed to write record before offset {} to topic {}",
+                            pendingRecord.nextOffset,
+                            topic,
+                            exception);
+                }
+                return;
+            }
+            pendingRecord.acked = true;
+            while (!pending.isEmpty() && pending.peekFirst().acked) {
+                committableOffset = pending.pollFirst().nextOffset;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void throwIfFailed() {
+        lock.lock();
+        try {
+            if (failure != null) {
+                throw new RetryableException("Kafka producer failed to write to topic " + topic, failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class PendingRecord {
+        private final long nextOffset;
+        private boolean acked;
+
+        private PendingRecord(long nextOffset) {
+            this.nextOffset = nextOffset;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.kafka;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.common.utils.Bytes;
+import uk.gov.dbt.ndtp.federator.client.lifecycle.AutoClosableShutdownTask;
+import uk.gov.dbt.ndtp.federator.client.lifecycle.ShutdownThread;
+import uk.gov.dbt.ndtp.federator.common.utils.KafkaUtil;
+import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
+import uk.gov.dbt.ndtp.secure.agent.sources.kafka.sinks.KafkaSink;
+
+/**
+ * Keeps Kafka producers open between job runs so that each run does not pay for producer start-up (metadata fetch,
+ * buffer allocation, I/O thread) and the producer keeps its batching state.
+ * <p>
+ * Synchronous writes get one {@link KafkaSink} per compound topic name. Asynchronous writes share a single
+ * {@link Producer}, because they name the topic on every record. Callers must not close what they get from the
+ * cache; a producer that has failed is dropped with {@link #invalidate} or {@link #invalidateProducer} and rebuilt on
+ * next use. The shared producer is counted out with {@link #producer()} and back with {@link #release}, so that a
+ * dropped producer is only closed once the writers still using it have released it. Everything is closed when the
+ * client shuts down.
+ */
+@Slf4j
+public final class KafkaProducerCache implements AutoCloseable {
+
+    public static final String CLIENT_KAFKA_PRODUCER_CACHE_ENABLED = "client.kafka.producerCache.enabled";
+
+    private static final String DEFAULT_ENABLED = "false";
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final AtomicReference<KafkaProducerCache> INSTANCE = new AtomicReference<>();
+    private static final ReentrantLock INSTANCE_LOCK = new ReentrantLock();
+
+    private final Function<String, KafkaSink<Bytes, Bytes>> sinkFactory;
+    private final Supplier<Producer<Bytes, Bytes>> producerFactory;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, KafkaSink<Bytes, Bytes>> sinks = new HashMap<>();
+    // Writers holding each shared producer, including dropped ones that are not yet closed
+    private final Map<Producer<Bytes, Bytes>, Integer> producerUsers = new IdentityHashMap<>();
+    private Producer<Bytes, Bytes> producer;
+    private boolean closed;
+
+    KafkaProducerCache(
+            Function<String, KafkaSink<Bytes, Bytes>> sinkFactory, Supplier<Producer<Bytes, Bytes>> producerFactory) {
+        this.sinkFactory = sinkFactory;
+        this.producerFactory = producerFactory;
+    }
+
+    /**
+     * @return true if topic clients should take producers from the cache rather than create their own
+     */
+    public static boolean isEnabled() {
+        try {
+            return PropertyUtil.getPropertyBooleanValue(CLIENT_KAFKA_PRODUCER_CACHE_ENABLED, DEFAULT_ENABLED);
+        } catch (PropertyUtil.PropertyUtilException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return the process-wide cache, created on first use and closed at shutdown
+     */
+    public static KafkaProducerCache getInstance() {
+        KafkaProducerCache cache = INSTANCE.get();
+        if (cache != null) {
+            return cache;
+        }
+        INSTANCE_LOCK.lock();
+        try {
+            if (INSTANCE.get() == null) {
+                INSTANCE.set(create());
+            }
+            return INSTANCE.get();
+        } finally {
+            INSTANCE_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Testing helper to close and reset the singleton.
+     */
+    public static void clearForTests() {
+        KafkaProducerCache cache = INSTANCE.getAndSet(null);
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    private static KafkaProducerCache create() {
+        KafkaProducerCache cache = new KafkaProducerCache(
+                KafkaUtil::getKafkaSink, () -> new KafkaProducer<>(AsyncTopicWriter.producerConfig()));
+        ShutdownThread.register(new AutoClosableShutdownTask(cache));
+        log.info("Kafka producer cache enabled");
+        return cache;
+    }
+
+    /**
+     * @param compoundTopic the local topic name, see {@code GRPCTopicClient.concatCompoundTopicName}
+     * @return the cached sink for the topic, created if there is none
+     */
+    public KafkaSink<Bytes, Bytes> sink(String compoundTopic) {
+        lock.lock();
+        try {
+            checkOpen();
+            return sinks.computeIfAbsent(compoundTopic, sinkFactory);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the producer shared by all asynchronous writers, creating it if there is none. Each call must be matched
+     * by a {@link #release}.
+     *
+     * @return the shared producer
+     */
+    public Producer<Bytes, Bytes> producer() {
+        lock.lock();
+        try {
+            checkOpen();
+            if (producer == null) {
+                producer = producerFactory.get();
+            }
+            producerUsers.merge(producer, 1, Integer::sum);
+            return producer;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands back a producer taken with {@link #producer()}. A producer that has been dropped meanwhile is closed once
+     * its last writer releases it.
+     *
+     * @param shared the producer the writer used
+     */
+    public void release(Producer<Bytes, Bytes> shared) {
+        lock.lock();
+        try {
+            Integer users = producerUsers.get(shared);
+            if (users == null) {
+                return;
+            }
+            if (users > 1) {
+                producerUsers.put(shared, users - 1);
+                return;
+            }
+            producerUsers.remove(shared);
+            if (shared == producer) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        log.info("Closing discarded Kafka producer after its last writer released it");
+        closeQuietly(null, shared);
+    }
+
+    /**
+     * Closes and forgets the sink for {@code compoundTopic}, so that the next run after a Kafka failure starts with a
+     * fresh producer.
+     *
+     * @param compoundTopic the local topic whose write failed
+     */
+    public void invalidate(String compoundTopic) {
+        KafkaSink<Bytes, Bytes> sink;
+        lock.lock();
+        try {
+            sink = sinks.remove(compoundTopic);
+        } finally {
+            lock.unlock();
+        }
+        if (sink != null) {
+            log.info("Discarding cached Kafka sink for topic {}", compoundTopic);
+            closeQuietly(sink, null);
+        }
+    }
+
+    /**
+     * Forgets the shared producer if it is still {@code failed}, so that the next writer gets a new one. The failed
+     * producer is closed straight away if no writer holds it, otherwise when the last one releases it; writers on
+     * other topics are not cut off mid-run.
+     *
+     * @param failed the shared producer a write failed on
+     */
+    public void invalidateProducer(Producer<Bytes, Bytes> failed) {
+        int users;
+        lock.lock();
+        try {
+            if (producer != failed) {
+                return;
+            }
+            producer = null;
+            users = producerUsers.getOrDefault(failed, 0);
+        } finally {
+            lock.unlock();
+        }
+        if (users > 0) {
+            log.info("Discarding shared Kafka producer; closing it once {} writer(s) release it", users);
+            return;
+        }
+        log.info("Discarding shared Kafka producer");
+        closeQuietly(null, failed);
+    }
+
+    /**
+     * @return the number of cached per-topic sinks
+     */
+    int size() {
+        lock.lock();
+        try {
+            return sinks.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        List<KafkaSink<Bytes, Bytes>> toClose;
+        List<Producer<Bytes, Bytes>> producers;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toClose = new ArrayList<>(sinks.values());
+            sinks.clear();
+            producers = new ArrayList<>(producerUsers.keySet());
+            if (producer != null && !producerUsers.containsKey(producer)) {
+                producers.add(producer);
+            }
+            producerUsers.clear();
+            producer = null;
+        } finally {
+            lock.unlock();
+        }
+        toClose.forEach(sink -> closeQuietly(sink, null));
+        producers.forEach(shared -> closeQuietly(null, shared));
+        log.info("Kafka producer cache closed ({} sink(s))", toClose.size());
+    }
+
+    // Called with the lock held
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Kafka producer cache is closed");
+        }
+    }
+
+    private static void closeQuietly(KafkaSink<Bytes, Bytes> sink, Producer<Bytes, Bytes> shared) {
+        try {
+            if (sink != null) {
+                sink.close();
+            }
+            if (shared != null) {
+                shared.close(CLOSE_TIMEOUT);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Error closing Kafka producer", e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.kafka;
+
+import uk.gov.dbt.ndtp.grpc.KafkaByteBatch;
+
+/**
+ * Writes records received from a producer to the local Kafka topic and reports how far the client may safely move
+ * its stored offset.
+ */
+public interface TopicWriter extends AutoCloseable {
+
+    /**
+     * Hands a record to Kafka. Depending on the implementation it may not have been acknowledged when this returns.
+     *
+     * @param batch the record received from the producer
+     */
+    void write(KafkaByteBatch batch);
+
+    /**
+     * Waits until every record written so far has been acknowledged or has failed.
+     */
+    void flush();
+
+    /**
+     * @return the next offset to read such that every earlier record has been acknowledged, or -1 if no record has
+     *     been acknowledged yet
+     */
+    long committableOffset();
+
+    @Override
+    void close();
+}
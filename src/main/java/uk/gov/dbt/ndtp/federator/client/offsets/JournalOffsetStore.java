@@ -0,0 +1,383 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.offsets;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps offsets in a local append-only journal that is memory-mapped, so reads and writes never leave the process.
+ * <p>
+ * Every {@link #setOffset} appends one checksummed record to the mapped file; the latest value for each topic is also
+ * held in memory and {@link #getOffset} reads only that. Writes land in the page cache, so they survive the client
+ * process crashing; they are forced to disk on every {@link #sync()} and on close. On open the journal is replayed up
+ * to the first incomplete or corrupt record, which is where the next append goes.
+ * <p>
+ * {@link #compact()} rewrites the journal as one record per topic into a temporary file and moves it over the old one,
+ * so the journal never grows beyond the number of topics. If a mirror store is given, changed offsets are copied to it
+ * by {@link #mirror()} off the write path, and offsets missing from the journal are read from it once, so a client can
+ * move from the Redis store without starting its topics again.
+ */
+@Slf4j
+public final class JournalOffsetStore implements OffsetStore {
+
+    static final int MAX_NAME_BYTES = 0xFFFF;
+
+    // Unwritten space in the mapped file is zero, so a record starts with a non-zero marker
+    private static final byte RECORD_MARKER = 1;
+
+    // marker, prefix length, topic length, offset, checksum
+    private static final int RECORD_OVERHEAD = 1 + Integer.BYTES * 2 + Long.BYTES + Integer.BYTES;
+
+    private final Path path;
+    private final int initialCapacity;
+    private final OffsetStore mirror;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<OffsetKey, Long> offsets = new ConcurrentHashMap<>();
+    private final Map<OffsetKey, Long> unmirrored = new ConcurrentHashMap<>();
+    private FileChannel channel;
+    private MappedByteBuffer journal;
+    private int records;
+    private ScheduledExecutorService scheduler;
+    private boolean closed;
+
+    /**
+     * Opens or creates the journal at {@code path} and replays it.
+     *
+     * @param path the journal file
+     * @param capacity the size in bytes to map; the journal is compacted when it is full and grown if compaction
+     *     does not free enough space
+     * @param mirror the store to copy offsets to, or null
+     */
+    JournalOffsetStore(Path path, int capacity, OffsetStore mirror) {
+        this.path = path;
+        this.initialCapacity = capacity;
+        this.mirror = mirror;
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            map(Math.max(capacity, (int) Math.min(Files.exists(path) ? Files.size(path) : 0L, Integer.MAX_VALUE)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open offset journal " + path, e);
+        }
+        replay();
+        log.info("Offset journal {} opened with {} topic offset(s)", path, offsets.size());
+    }
+
+    /**
+     * Opens the journal and schedules {@link #sync()} and, if there is a mirror, {@link #mirror()} on a background
+     * thread until the store is closed.
+     */
+    static JournalOffsetStore open(
+            Path path, int capacity, OffsetStore mirror, Duration compactInterval, Duration mirrorInterval) {
+        JournalOffsetStore store = new JournalOffsetStore(path, capacity, mirror);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "offset-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long compactMillis = compactInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(store::syncQuietly, compactMillis, compactMillis, TimeUnit.MILLISECONDS);
+        if (mirror != null) {
+            long mirrorMillis = mirrorInterval.toMillis();
+            scheduler.scheduleWithFixedDelay(store::mirror, mirrorMillis, mirrorMillis, TimeUnit.MILLISECONDS);
+        }
+        store.scheduler = scheduler;
+        return store;
+    }
+
+    @Override
+    public long getOffset(String prefix, String topic) {
+        OffsetKey key = new OffsetKey(prefix, topic);
+        Long offset = offsets.get(key);
+        if (offset != null) {
+            return offset;
+        }
+        if (mirror == null) {
+            return 0L;
+        }
+        long mirrored = mirror.getOffset(prefix, topic);
+        lock.lock();
+        try {
+            checkOpen();
+            if (!offsets.containsKey(key)) {
+                append(key, mirrored);
+            }
+            return offsets.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void setOffset(String prefix, String topic, long offset) {
+        OffsetKey key = new OffsetKey(prefix, topic);
+        lock.lock();
+        try {
+            checkOpen();
+            Long current = offsets.get(key);
+            if (current != null && current == offset) {
+                return;
+            }
+            append(key, offset);
+            if (mirror != null) {
+                unmirrored.put(key, offset);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forces the journal to disk and compacts it if it holds superseded records.
+     */
+    public void sync() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            journal.force();
+            if (records > offsets.size()) {
+                compact();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rewrites the journal with only the latest offset for each topic.
+     */
+    public void compact() {
+        lock.lock();
+        try {
+            checkOpen();
+            int before = journal.position();
+            ByteBuffer snapshot = ByteBuffer.allocate(offsets.entrySet().stream()
+                    .mapToInt(e -> encodedSize(e.getKey()))
+                    .sum());
+            offsets.forEach((key, offset) -> encode(snapshot, key, offset));
+            snapshot.flip();
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(
+                    temp,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE)) {
+                while (snapshot.hasRemaining()) {
+                    out.write(snapshot);
+                }
+                out.force(true);
+            }
+            channel.close();
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            map(Math.max(initialCapacity, snapshot.limit() * 2));
+            journal.position(snapshot.limit());
+            records = offsets.size();
+            log.debug("Compacted offset journal {} from {} to {} bytes", path, before, snapshot.limit());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compact offset journal " + path, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Copies offsets changed since the last call to the mirror store. A failure is logged and the offsets are copied
+     * on the next call.
+     */
+    public void mirror() {
+        if (mirror == null) {
+            return;
+        }
+        for (Map.Entry<OffsetKey, Long> entry : unmirrored.entrySet()) {
+            OffsetKey key = entry.getKey();
+            long offset = entry.getValue();
+            try {
+                mirror.setOffset(key.prefix(), key.topic(), offset);
+            } catch (RuntimeException e) {
+                log.warn("Failed to mirror offsets; will retry", e);
+                return;
+            }
+            unmirrored.remove(key, offset);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        mirror();
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            journal.force();
+            closed = true;
+            channel.close();
+            log.info("Offset journal {} closed", path);
+        } catch (IOException e) {
+            log.warn("Error closing offset journal {}", path, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            log.warn("Failed to sync offset journal {}", path, e);
+        }
+    }
+
+    // Called with the lock held
+    private void append(OffsetKey key, long offset) {
+        int size = encodedSize(key);
+        if (journal.remaining() < size) {
+            compact();
+            if (journal.remaining() < size) {
+                int position = journal.position();
+                map(Math.max(journal.capacity() * 2, position + size));
+                journal.position(position);
+            }
+        }
+        encode(journal, key, offset);
+        offsets.put(key, offset);
+        records++;
+    }
+
+    private void replay() {
+        journal.position(0);
+        while (true) {
+            int start = journal.position();
+            OffsetRecord next = decode(journal);
+            if (next == null) {
+                journal.position(start);
+                return;
+            }
+            offsets.put(next.key(), next.offset());
+            records++;
+        }
+    }
+
+    private void map(int capacity) {
+        try {
+            if (channel == null || !channel.isOpen()) {
+                channel = FileChannel.open(
+                        path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            journal = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map offset journal " + path, e);
+        }
+    }
+
+    // Called with the lock held
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Offset journal " + path + " is closed");
+        }
+    }
+
+    private static int encodedSize(OffsetKey key) {
+        return RECORD_OVERHEAD + key.prefixBytes().length + key.topicBytes().length;
+    }
+
+    private static void encode(ByteBuffer buffer, OffsetKey key, long offset) {
+        byte[] prefix = key.prefixBytes();
+        byte[] topic = key.topicBytes();
+        buffer.put(RECORD_MARKER).putInt(prefix.length).put(prefix).putInt(topic.length).put(topic).putLong(offset);
+        buffer.putInt(checksum(prefix, topic, offset));
+    }
+
+    // Returns null at the end of the journal or at a record that was not completely written
+    private static OffsetRecord decode(ByteBuffer buffer) {
+        if (!buffer.hasRemaining() || buffer.get() != RECORD_MARKER) {
+            return null;
+        }
+        byte[] prefix = readName(buffer);
+        if (prefix == null) {
+            return null;
+        }
+        byte[] topic = readName(buffer);
+        if (topic == null || buffer.remaining() < Long.BYTES + Integer.BYTES) {
+            return null;
+        }
+        long offset = buffer.getLong();
+        if (buffer.getInt() != checksum(prefix, topic, offset)) {
+            return null;
+        }
+        return new OffsetRecord(
+                new OffsetKey(new String(prefix, StandardCharsets.UTF_8), new String(topic, StandardCharsets.UTF_8)),
+                offset);
+    }
+
+    private static byte[] readName(ByteBuffer buffer) {
+        if (buffer.remaining() < Integer.BYTES) {
+            return null;
+        }
+        int length = buffer.getInt();
+        if (length < 0 || length > MAX_NAME_BYTES || length > buffer.remaining()) {
+            return null;
+        }
+        byte[] name = new byte[length];
+        buffer.get(name);
+        return name;
+    }
+
+    private static int checksum(byte[] prefix, byte[] topic, long offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(prefix);
+        crc.update(topic);
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, offset));
+        return (int) crc.getValue();
+    }
+
+    private record OffsetKey(String prefix, String topic) {
+
+        OffsetKey {
+            if (utf8(prefix).length > MAX_NAME_BYTES || utf8(topic).length > MAX_NAME_BYTES) {
+                throw new IllegalArgumentException("Offset key too long: '" + prefix + "', '" + topic + "'");
+            }
+        }
+
+        byte[] prefixBytes() {
+            return utf8(prefix);
+        }
+
+        byte[] topicBytes() {
+            return utf8(topic);
+        }
+
+        private static byte[] utf8(String name) {
+            return name.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private record OffsetRecord(OffsetKey key, long offset) {}
+}
@@ -0,0 +1,36 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.offsets;
+
+/**
+ * Where clients keep the next offset to request for each topic they consume from a server.
+ * <p>
+ * Offsets are keyed by the client's prefix (see {@code GRPCClient.getRedisPrefix}) and the server topic name. Use
+ * {@link OffsetStoreFactory#getInstance()} to obtain the configured store.
+ */
+public interface OffsetStore extends AutoCloseable {
+
+    /**
+     * @param prefix the client prefix
+     * @param topic the server topic
+     * @return the next offset to request, or 0 if none has been stored
+     */
+    long getOffset(String prefix, String topic);
+
+    /**
+     * @param prefix the client prefix
+     * @param topic the server topic
+     * @param offset the next offset to request
+     */
+    void setOffset(String prefix, String topic, long offset);
+
+    /**
+     * Fails fast if the store cannot be used, so that a job does not open a stream it cannot record progress for.
+     */
+    default void checkAvailable() {}
+
+    @Override
+    default void close() {}
+}
@@ -0,0 +1,101 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.offsets;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.dbt.ndtp.federator.client.lifecycle.AutoClosableShutdownTask;
+import uk.gov.dbt.ndtp.federator.client.lifecycle.ShutdownThread;
+import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
+
+/**
+ * Selects the {@link OffsetStore} named by {@code client.offsets.store} (REDIS | JOURNAL).
+ *
+ * <p>Defaults to REDIS when the property is missing. The journal store is opened once, shared by all jobs and
+ * closed when the client shuts down.</p>
+ */
+@Slf4j
+public final class OffsetStoreFactory {
+
+    public static final String CLIENT_OFFSETS_STORE = "client.offsets.store";
+    public static final String CLIENT_OFFSETS_JOURNAL_PATH = "client.offsets.journal.path";
+    public static final String CLIENT_OFFSETS_JOURNAL_CAPACITY_BYTES = "client.offsets.journal.capacityBytes";
+    public static final String CLIENT_OFFSETS_JOURNAL_COMPACT_INTERVAL = "client.offsets.journal.compactInterval";
+    public static final String CLIENT_OFFSETS_JOURNAL_MIRROR_TO_REDIS = "client.offsets.journal.mirrorToRedis";
+    public static final String CLIENT_OFFSETS_JOURNAL_MIRROR_INTERVAL = "client.offsets.journal.mirrorInterval";
+
+    private static final String DEFAULT_STORE = "REDIS";
+    private static final String DEFAULT_JOURNAL_PATH = "offsets.journal";
+    private static final String DEFAULT_CAPACITY_BYTES = "1048576";
+    private static final String DEFAULT_COMPACT_INTERVAL = "PT1M";
+    private static final String DEFAULT_MIRROR_TO_REDIS = "false";
+    private static final String DEFAULT_MIRROR_INTERVAL = "PT5S";
+
+    private static final OffsetStore REDIS = new RedisOffsetStore();
+    private static final AtomicReference<OffsetStore> JOURNAL = new AtomicReference<>();
+    private static final ReentrantLock OPEN_LOCK = new ReentrantLock();
+
+    private OffsetStoreFactory() {}
+
+    /**
+     * @return the configured store
+     */
+    public static OffsetStore getInstance() {
+        OffsetStore journal = JOURNAL.get();
+        if (journal != null) {
+            return journal;
+        }
+        if (!"JOURNAL".equalsIgnoreCase(storeType())) {
+            return REDIS;
+        }
+        // Opened under a lock rather than in updateAndGet, which may run its function more than once
+        OPEN_LOCK.lock();
+        try {
+            if (JOURNAL.get() == null) {
+                JOURNAL.set(openJournal());
+            }
+            return JOURNAL.get();
+        } finally {
+            OPEN_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Testing helper to close and reset the journal store.
+     */
+    public static void clearForTests() {
+        OffsetStore journal = JOURNAL.getAndSet(null);
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private static String storeType() {
+        try {
+            String type = PropertyUtil.getPropertyValue(CLIENT_OFFSETS_STORE, DEFAULT_STORE);
+            return type != null ? type.trim() : DEFAULT_STORE;
+        } catch (RuntimeException ex) {
+            log.debug("Property '{}' not available; defaulting to {}", CLIENT_OFFSETS_STORE, DEFAULT_STORE, ex);
+            return DEFAULT_STORE;
+        }
+    }
+
+    private static OffsetStore openJournal() {
+        boolean mirrorToRedis =
+                PropertyUtil.getPropertyBooleanValue(CLIENT_OFFSETS_JOURNAL_MIRROR_TO_REDIS, DEFAULT_MIRROR_TO_REDIS);
+        JournalOffsetStore store = JournalOffsetStore.open(
+                Path.of(PropertyUtil.getPropertyValue(CLIENT_OFFSETS_JOURNAL_PATH, DEFAULT_JOURNAL_PATH)),
+                PropertyUtil.getPropertyIntValue(CLIENT_OFFSETS_JOURNAL_CAPACITY_BYTES, DEFAULT_CAPACITY_BYTES),
+                mirrorToRedis ? REDIS : null,
+                PropertyUtil.getPropertyDurationValue(
+                        CLIENT_OFFSETS_JOURNAL_COMPACT_INTERVAL, DEFAULT_COMPACT_INTERVAL),
+                PropertyUtil.getPropertyDurationValue(
+                        CLIENT_OFFSETS_JOURNAL_MIRROR_INTERVAL, DEFAULT_MIRROR_INTERVAL));
+        ShutdownThread.register(new AutoClosableShutdownTask(store));
+        return store;
+    }
+}
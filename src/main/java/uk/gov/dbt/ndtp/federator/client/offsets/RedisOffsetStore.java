@@ -0,0 +1,29 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.offsets;
+
+import uk.gov.dbt.ndtp.federator.common.utils.RedisUtil;
+
+/**
+ * Keeps offsets in Redis through {@link RedisUtil}. Every read and write is a network round trip, and ingest stops
+ * while Redis is unavailable.
+ */
+public final class RedisOffsetStore implements OffsetStore {
+
+    @Override
+    public long getOffset(String prefix, String topic) {
+        return RedisUtil.getInstance().getOffset(prefix, topic);
+    }
+
+    @Override
+    public void setOffset(String prefix, String topic, long offset) {
+        RedisUtil.getInstance().setOffset(prefix, topic, offset);
+    }
+
+    @Override
+    public void checkAvailable() {
+        RedisUtil.getInstance();
+    }
+}
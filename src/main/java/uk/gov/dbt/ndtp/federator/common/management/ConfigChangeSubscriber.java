@@ -0,0 +1,154 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.common.management;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.dbt.ndtp.federator.common.model.dto.ConfigChangeDTO;
+
+/**
+ * Long-polls the Management Node for configuration changes and passes each one to a listener.
+ * <p>
+ * Each request names the last version seen and how long the Management Node may hold it open. The Management Node
+ * answers {@code 200} with a {@link ConfigChangeDTO} as soon as something newer exists, or {@code 204} when the poll
+ * times out with nothing new, and the next poll starts straight away. Failed polls are retried with exponential
+ * backoff. Polling runs on a single daemon thread until {@link #close()}.
+ */
+@Slf4j
+public final class ConfigChangeSubscriber implements AutoCloseable {
+
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_NO_CONTENT = 204;
+    private static final int HTTP_NOT_MODIFIED = 304;
+    private static final String AUTH_HEADER = "Authorization";
+    private static final String BEARER = "Bearer ";
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+    private static final Duration RESPONSE_GRACE = Duration.ofSeconds(10);
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final Supplier<String> tokenSupplier;
+    private final URI changesUri;
+    private final Duration pollTimeout;
+    private final Consumer<ConfigChangeDTO> listener;
+    private final Thread thread;
+    private volatile boolean closed;
+    private volatile Long lastVersion;
+
+    ConfigChangeSubscriber(
+            HttpClient httpClient,
+            ObjectMapper objectMapper,
+            Supplier<String> tokenSupplier,
+            URI changesUri,
+            Duration pollTimeout,
+            Consumer<ConfigChangeDTO> listener) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.tokenSupplier = tokenSupplier;
+        this.changesUri = changesUri;
+        this.pollTimeout = pollTimeout;
+        this.listener = listener;
+        this.thread = new Thread(this::pollLoop, "config-change-subscriber");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        log.info("Subscribing to configuration changes [uri={}]", changesUri);
+        thread.start();
+    }
+
+    /**
+     * @return the version of the last change received, or {@code null} if none has been received yet
+     */
+    public Long lastVersion() {
+        return lastVersion;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        thread.interrupt();
+    }
+
+    private void pollLoop() {
+        Duration backoff = INITIAL_BACKOFF;
+        while (!closed) {
+            try {
+                pollOnce();
+                backoff = INITIAL_BACKOFF;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                if (closed) {
+                    return;
+                }
+                log.warn("Configuration change poll failed, retrying in {} [error={}]", backoff, e.getMessage());
+                if (!sleep(backoff)) {
+                    return;
+                }
+                final Duration doubled = backoff.multipliedBy(2);
+                backoff = doubled.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : doubled;
+            }
+        }
+    }
+
+    private void pollOnce() throws IOException, InterruptedException {
+        final HttpRequest request = HttpRequest.newBuilder()
+                .uri(pollUri())
+                .header(AUTH_HEADER, BEARER + tokenSupplier.get())
+                .timeout(pollTimeout.plus(RESPONSE_GRACE))
+                .GET()
+                .build();
+        final HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
+        final int status = response.statusCode();
+        if (status == HTTP_NO_CONTENT || status == HTTP_NOT_MODIFIED) {
+            return;
+        }
+        if (status != HTTP_OK) {
+            throw new ManagementNodeDataException("Change poll failed: " + status);
+        }
+        final ConfigChangeDTO change = objectMapper.readValue(response.body(), ConfigChangeDTO.class);
+        if (change.getVersion() != null) {
+            lastVersion = change.getVersion();
+        }
+        log.info("Configuration change received [version={}]", change.getVersion());
+        try {
+            listener.accept(change);
+        } catch (RuntimeException e) {
+            log.error("Configuration change listener failed [version={}]", change.getVersion(), e);
+        }
+    }
+
+    private URI pollUri() {
+        final StringBuilder query = new StringBuilder("timeoutSeconds=").append(pollTimeout.toSeconds());
+        final Long since = lastVersion;
+        if (since != null) {
+            query.append("&since=").append(since);
+        }
+        final String separator = changesUri.getRawQuery() == null ? "?" : "&";
+        return URI.create(changesUri + separator + query);
+    }
+
+    private static boolean sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
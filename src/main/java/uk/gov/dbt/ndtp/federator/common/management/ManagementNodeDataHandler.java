@@ -11,17 +11,27 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
+import uk.gov.dbt.ndtp.federator.common.model.dto.ConfigChangeDTO;
 import uk.gov.dbt.ndtp.federator.common.model.dto.ConsumerConfigDTO;
 import uk.gov.dbt.ndtp.federator.common.model.dto.ProducerConfigDTO;
 import uk.gov.dbt.ndtp.federator.common.service.idp.IdpTokenService;
+import uk.gov.dbt.ndtp.federator.common.utils.GRPCUtils;
 import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
 
 /**
  * Handler for retrieving configurations from Management Node.
  * Manages HTTP communication and token authentication.
+ * <p>
+ * With {@value #CONDITIONAL_FETCH_PROP} enabled, each endpoint's last response is kept and the next request is
+ * made conditional on its {@code ETag} or {@code Last-Modified}. A {@code 304 Not Modified}, or a body whose
+ * SHA-256 matches the previous one, returns the previously parsed configuration without parsing again.
  */
 @Slf4j
 @SuppressWarnings("all")
@@ -30,12 +40,23 @@ public class ManagementNodeDataHandler implements ManagementNodeDataHandlerInter
     public static final String PRODUCER_PATH = "/api/v1/configuration/producer";
     public static final String CONSUMER_PATH = "/api/v1/configuration/consumer";
 
+    public static final String CHANGES_PATH = "/api/v1/configuration/changes";
+    public static final String CONDITIONAL_FETCH_PROP = "management.node.conditionalFetch.enabled";
+    public static final String CHANGES_ENABLED_PROP = "management.node.changes.enabled";
+    public static final String CHANGES_PATH_PROP = "management.node.changes.path";
+    public static final String CHANGES_POLL_TIMEOUT_PROP = "management.node.changes.pollTimeout";
+
     private static final int HTTP_OK = 200;
+    private static final int HTTP_NOT_MODIFIED = 304;
 
     private static final String AUTH_HEADER = "Authorization";
     private static final String BEARER = "Bearer ";
     private static final String CONTENT_TYPE = "Content-Type";
     private static final String JSON_TYPE = "application/json";
+    private static final String ETAG = "ETag";
+    private static final String LAST_MODIFIED = "Last-Modified";
+    private static final String IF_NONE_MATCH = "If-None-Match";
+    private static final String IF_MODIFIED_SINCE = "If-Modified-Since";
     private static final String BASE_URL_PROP = "management.node.base.url";
     private static final String TIMEOUT_PROP = "management.node.request.timeout";
     private static final String SLASH = "/";
@@ -55,6 +76,8 @@ public class ManagementNodeDataHandler implements ManagementNodeDataHandlerInter
     private final IdpTokenService tokenService;
     private final String baseUrl;
     private final Duration requestTimeout;
+    private final boolean conditionalFetch;
+    private final Map<String, CachedResponse> lastResponses = new ConcurrentHashMap<>();
 
     /**
      * Constructs handler with required dependencies.
@@ -72,9 +95,48 @@ public class ManagementNodeDataHandler implements ManagementNodeDataHandlerInter
         this.tokenService = Objects.requireNonNull(service, ERR_NULL_SERVICE);
         this.baseUrl = loadRequiredUrl();
         this.requestTimeout = loadTimeout();
+        this.conditionalFetch = isConditionalFetchEnabled();
         log.info(LOG_INIT, baseUrl);
     }
 
+    /**
+     * @return true if configuration requests are conditional and unchanged configurations are not re-applied
+     */
+    public static boolean isConditionalFetchEnabled() {
+        try {
+            return PropertyUtil.getPropertyBooleanValue(CONDITIONAL_FETCH_PROP, "false");
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return true if configuration changes should be pushed from the Management Node through
+     *     {@link #subscribeToChanges}
+     */
+    public static boolean isChangeSubscriptionEnabled() {
+        try {
+            return PropertyUtil.getPropertyBooleanValue(CHANGES_ENABLED_PROP, "false");
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Starts long-polling the Management Node for configuration changes.
+     *
+     * @param listener called on the subscriber thread with each change
+     * @return the running subscriber; close it to stop polling
+     */
+    public ConfigChangeSubscriber subscribeToChanges(final Consumer<ConfigChangeDTO> listener) {
+        final String path = PropertyUtil.getPropertyValue(CHANGES_PATH_PROP, CHANGES_PATH);
+        final Duration pollTimeout = PropertyUtil.getPropertyDurationValue(CHANGES_POLL_TIMEOUT_PROP, "PT30S");
+        final ConfigChangeSubscriber subscriber = new ConfigChangeSubscriber(
+                httpClient, objectMapper, tokenService::fetchToken, URI.create(baseUrl + path), pollTimeout, listener);
+        subscriber.start();
+        return subscriber;
+    }
+
     /**
      * Retrieves producer configuration data.
      *
@@ -125,23 +187,33 @@ public class ManagementNodeDataHandler implements ManagementNodeDataHandlerInter
     private <T> T fetchConfiguration(final String endpoint, final Class<T> responseType)
             throws ManagementNodeDataException {
         final String token = fetchValidToken();
-        final HttpRequest request = buildRequest(endpoint, token);
-        return executeRequest(request, responseType);
+        final CachedResponse previous = conditionalFetch ? lastResponses.get(endpoint) : null;
+        final HttpRequest request = buildRequest(endpoint, token, previous);
+        return executeRequest(endpoint, request, responseType, previous);
     }
 
-    private HttpRequest buildRequest(final String endpoint, final String token) {
+    private HttpRequest buildRequest(final String endpoint, final String token, final CachedResponse previous) {
         final String url = baseUrl + endpoint;
         log.debug(LOG_FETCH, url);
-        return HttpRequest.newBuilder()
+        final HttpRequest.Builder builder = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .header(AUTH_HEADER, BEARER + token)
                 .header(CONTENT_TYPE, JSON_TYPE)
                 .timeout(requestTimeout)
-                .GET()
-                .build();
+                .GET();
+        if (previous != null && previous.etag() != null) {
+            builder.header(IF_NONE_MATCH, previous.etag());
+        } else if (previous != null && previous.lastModified() != null) {
+            builder.header(IF_MODIFIED_SINCE, previous.lastModified());
+        }
+        return builder.build();
     }
 
-    private <T> T executeRequest(final HttpRequest request, final Class<T> responseType)
+    private <T> T executeRequest(
+            final String endpoint,
+            final HttpRequest request,
+            final Class<T> responseType,
+            final CachedResponse previous)
             throws ManagementNodeDataException {
         try {
             log.debug("Send HTTPS request [uri={}]", request.uri());
@@ -150,12 +222,21 @@ public class ManagementNodeDataHandler implements ManagementNodeDataHandlerInter
                     "Response [status={}, body-length={}]",
                     response.statusCode(),
                     response.body() != null ? response.body().length() : 0);
+            if (previous != null
+                    && response.statusCode() == HTTP_NOT_MODIFIED
+                    && responseType.isInstance(previous.value())) {
+                log.debug("Not modified [uri={}]", request.uri());
+                return responseType.cast(previous.value());
+            }
             validateResponse(response);
             if (response.body() == null || response.body().isEmpty()) {
                 log.error("Empty response body [uri={}]", request.uri());
                 throw new ManagementNodeDataException("Empty response");
             }
-            return objectMapper.readValue(response.body(), responseType);
+            if (!conditionalFetch) {
+                return objectMapper.readValue(response.body(), responseType);
+            }
+            return readIfChanged(endpoint, response, responseType, previous);
         } catch (ConnectException e) {
             log.error("Connection failed [uri={}, msg={}, exception={}]", request.uri(), e.getMessage(), e.toString());
             throw new ManagementNodeDataException("Cannot connect (check HTTPS/TLS): " + e.getMessage(), e);
@@ -176,6 +257,26 @@ public class ManagementNodeDataHandler implements ManagementNodeDataHandlerInter
         }
     }
 
+    private <T> T readIfChanged(
+            final String endpoint,
+            final HttpResponse<String> response,
+            final Class<T> responseType,
+            final CachedResponse previous)
+            throws IOException {
+        final String hash = GRPCUtils.calculateSha256Checksum(response.body().getBytes(StandardCharsets.UTF_8));
+        final T value;
+        if (previous != null && hash.equals(previous.hash()) && responseType.isInstance(previous.value())) {
+            log.debug("Configuration unchanged [uri={}]", response.uri());
+            value = responseType.cast(previous.value());
+        } else {
+            value = objectMapper.readValue(response.body(), responseType);
+        }
+        final String etag = response.headers().firstValue(ETAG).orElse(null);
+        final String lastModified = response.headers().firstValue(LAST_MODIFIED).orElse(null);
+        lastResponses.put(endpoint, new CachedResponse(etag, lastModified, hash, value));
+        return value;
+    }
+
     private void validateResponse(final HttpResponse<String> response) throws ManagementNodeDataException {
         if (response.statusCode() != HTTP_OK) {
             log.error("HTTP error [status={}, uri={}]", response.statusCode(), response.uri());
@@ -201,4 +302,6 @@ public class ManagementNodeDataHandler implements ManagementNodeDataHandlerInter
         final String trimmed = url.trim();
         return trimmed.endsWith(SLASH) ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
     }
+
+    private record CachedResponse(String etag, String lastModified, String hash, Object value) {}
 }
@@ -0,0 +1,29 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme and is legally
+ * attributed to the Department for Business and Trade (UK) as the governing entity.
+ */
+
+package uk.gov.dbt.ndtp.federator.common.model.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * A configuration change announced by the Management Node. {@code producers} and {@code consumers} hold the ids
+ * whose configuration changed: {@code null} means nothing changed on that side, and an empty list means every
+ * client on that side is affected.
+ */
+@Builder
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfigChangeDTO {
+
+    private Long version;
+    private List<String> producers;
+    private List<String> consumers;
+}
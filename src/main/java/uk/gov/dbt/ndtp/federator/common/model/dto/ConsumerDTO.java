@@ -39,4 +39,14 @@ public class ConsumerDTO {
     private String scheduleExpression;
 
     private String idpClientId;
+
+    /**
+     * Optional cap, in bytes per second, on all of this consumer's topic streams. Null or 0 means unlimited.
+     */
+    private Long topicBytesPerSecond;
+
+    /**
+     * Optional cap, in bytes per second, on all of this consumer's file streams. Null or 0 means unlimited.
+     */
+    private Long fileBytesPerSecond;
 }
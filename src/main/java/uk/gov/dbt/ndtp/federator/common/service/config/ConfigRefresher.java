@@ -0,0 +1,198 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.common.service.config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.dbt.ndtp.federator.common.service.config.exception.ConfigFetchException;
+import uk.gov.dbt.ndtp.federator.common.utils.ResilienceSupport;
+
+/**
+ * Runs at most one configuration fetch per cache key at a time.
+ * <p>
+ * Callers that find nothing usable in the cache wait for the fetch already in flight for their key instead of
+ * starting their own, so an expired entry causes one request to the management node rather than one per caller.
+ * Refresh-ahead fetches run on a background thread while callers keep using the cached value.
+ * <p>
+ * {@link #getWithin} is for callers that must not wait on management node retries: its fetches go through
+ * {@link ResilienceSupport#decorateAndExecuteAsync}, and it serves the last-known-good configuration while they run.
+ */
+@Slf4j
+final class ConfigRefresher {
+
+    private static final Map<String, CompletableFuture<Object>> IN_FLIGHT = new ConcurrentHashMap<>();
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "config-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ConfigRefresher() {}
+
+    /**
+     * Fetches and caches the configuration for {@code key}, or waits for the fetch already in flight for it.
+     *
+     * @return the fetched configuration
+     * @throws RuntimeException the exception the fetch failed with
+     */
+    static <T> T load(ConfigService<T> service, String key) {
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> existing = IN_FLIGHT.putIfAbsent(key, created);
+        if (existing == null) {
+            fetch(service, key, created);
+            return await(service, created);
+        }
+        log.debug("Waiting for configuration fetch already in flight for key: {}", key);
+        return await(service, existing);
+    }
+
+    /**
+     * Starts a background fetch for {@code key} unless one is already in flight. Failures are logged; the cached
+     * value stays in place until a later refresh succeeds or it passes its stale period.
+     */
+    static void refreshInBackground(ConfigService<?> service, String key) {
+        if (IN_FLIGHT.containsKey(key)) {
+            return;
+        }
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        if (IN_FLIGHT.putIfAbsent(key, created) != null) {
+            return;
+        }
+        log.debug("Refreshing configuration ahead of expiry for key: {}", key);
+        created.whenComplete((cfg, ex) -> {
+            if (ex != null) {
+                log.warn("Background configuration refresh failed for key: {}", key, ex);
+            }
+        });
+        EXECUTOR.execute(() -> fetch(service, key, created));
+    }
+
+    /**
+     * Returns the cached configuration if it is fresh, otherwise the last-known-good configuration while an
+     * asynchronous fetch runs in the background. With neither, waits at most {@code budget} for that fetch.
+     *
+     * @throws ConfigFetchException if there is no configuration within the budget
+     */
+    static <T> T getWithin(ConfigService<T> service, Duration budget) {
+        final String key = service.buildCacheKey();
+        Optional<T> cached = service.getCachedConfiguration();
+        if (cached.isPresent()) {
+            if (service.getConfigStore().isRefreshDue(key)) {
+                loadAsync(service, key);
+            }
+            return cached.get();
+        }
+        CompletableFuture<T> fetch = loadAsync(service, key);
+        Optional<T> lastKnownGood = service.getConfigStore().getLastKnownGood(key, service.getDtoClass());
+        if (lastKnownGood.isPresent()) {
+            log.debug("Serving last-known-good configuration for key: {} while it is fetched", key);
+            return lastKnownGood.get();
+        }
+        try {
+            return fetch.get(budget.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new ConfigFetchException("No configuration for " + key + " within " + budget, ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConfigFetchException("Interrupted waiting for configuration for " + key, ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ConfigFetchException("Failed to fetch configuration for " + key, ex.getCause());
+        }
+    }
+
+    /**
+     * Starts an asynchronous fetch for {@code key} unless one is already in flight, and returns the fetch in flight.
+     * Failures are logged here, so callers may ignore the result.
+     */
+    static <T> CompletableFuture<T> loadAsync(ConfigService<T> service, String key) {
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> existing = IN_FLIGHT.putIfAbsent(key, created);
+        if (existing == null) {
+            created.whenComplete((cfg, ex) -> {
+                if (ex != null) {
+                    log.warn("Asynchronous configuration fetch failed for key: {}", key, ex);
+                }
+            });
+            fetchAsync(service, key, created);
+            existing = created;
+        }
+        return existing.thenApply(service.getDtoClass()::cast);
+    }
+
+    // Every path must complete the future, Errors included, or the callers joining it wait forever
+    private static <T> void fetchAsync(ConfigService<T> service, String key, CompletableFuture<Object> future) {
+        final String componentName = service.getKeyPrefix();
+        final CompletableFuture<T> attempt;
+        try {
+            attempt = ResilienceSupport.decorateAndExecuteAsync(
+                    componentName, "fetch configuration", null, service::fetchConfiguration);
+        } catch (RuntimeException | Error ex) {
+            IN_FLIGHT.remove(key, future);
+            future.completeExceptionally(ex);
+            return;
+        }
+        attempt.whenComplete((cfg, ex) -> {
+            try {
+                if (ex != null) {
+                    future.completeExceptionally(new ConfigFetchException(
+                            "Failed to fetch configuration after resilience protections for component: "
+                                    + componentName,
+                            ex));
+                    return;
+                }
+                service.getConfigStore().store(key, cfg);
+                future.complete(cfg);
+            } catch (RuntimeException | Error storeFailure) {
+                future.completeExceptionally(storeFailure);
+            } finally {
+                IN_FLIGHT.remove(key, future);
+            }
+        });
+    }
+
+    private static <T> void fetch(ConfigService<T> service, String key, CompletableFuture<Object> future) {
+        try {
+            T cfg = service.fetchWithResilience();
+            service.getConfigStore().store(key, cfg);
+            future.complete(cfg);
+        } catch (RuntimeException ex) {
+            future.completeExceptionally(ex);
+        } catch (Error error) {
+            // Fail the callers waiting on this fetch too, then let the Error carry on
+            future.completeExceptionally(error);
+            throw error;
+        } finally {
+            IN_FLIGHT.remove(key, future);
+        }
+    }
+
+    private static <T> T await(ConfigService<T> service, CompletableFuture<Object> future) {
+        try {
+            return service.getDtoClass().cast(future.join());
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+}
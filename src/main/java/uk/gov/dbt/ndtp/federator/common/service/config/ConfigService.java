@@ -1,5 +1,7 @@
 package uk.gov.dbt.ndtp.federator.common.service.config;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.function.Supplier;
 import uk.gov.dbt.ndtp.federator.common.service.config.exception.ConfigFetchException;
@@ -57,25 +59,64 @@ public interface ConfigService<T> {
         return getConfigStore().get(buildCacheKey(), getDtoClass());
     }
 
-    /** Returns configuration from cache or fetches (with resilience) and stores it when missing. */
+    /**
+     * Returns configuration from cache, or fetches (with resilience) and stores it when missing. Concurrent callers
+     * share a single fetch per cache key. With refresh-ahead enabled in the store, an entry due for refresh is
+     * refreshed in the background, and an expired entry is served stale until the refresh completes.
+     */
     default T getConfiguration() {
+        final String key = buildCacheKey();
         Optional<T> cached = getCachedConfiguration();
         if (cached.isPresent()) {
+            if (getConfigStore().isRefreshDue(key)) {
+                ConfigRefresher.refreshInBackground(this, key);
+            }
             return cached.get();
         }
-        T cfg = fetchWithResilience();
-        getConfigStore().store(buildCacheKey(), cfg);
-        return cfg;
+        Optional<T> stale = getConfigStore().getStale(key, getDtoClass());
+        if (stale.isPresent()) {
+            ConfigRefresher.refreshInBackground(this, key);
+            return stale.get();
+        }
+        return ConfigRefresher.load(this, key);
+    }
+
+    /**
+     * Returns configuration without waiting on management node retries. A fresh cached value is returned as-is;
+     * otherwise the last-known-good value is returned while an asynchronous fetch (bounded by a bulkhead) runs in
+     * the background. Only when there has never been a value does the caller wait, and then for at most
+     * {@code budget}.
+     *
+     * @param budget the longest time to wait when there is no last-known-good configuration
+     * @throws ConfigFetchException if no configuration is available within the budget
+     */
+    default T getConfigurationWithin(Duration budget) {
+        return ConfigRefresher.getWithin(this, budget);
     }
 
-    /** Refresh the configuration by clearing cache and fetching anew. */
+    /**
+     * Refresh the configuration by fetching anew and replacing the cached entry. The cache is not cleared first, so
+     * other callers keep the previous value until the new one is stored.
+     */
     default void refreshConfigurations() {
-        getConfigStore().clearCache();
-        // populate cache
         T cfg = fetchWithResilience();
         getConfigStore().store(buildCacheKey(), cfg);
     }
 
+    /**
+     * Whether a pushed configuration change applies to this service. A service without a configured client id
+     * holds the configuration for every client on its side, so any change on that side applies to it.
+     *
+     * @param changedIds the ids whose configuration changed; {@code null} for none, empty for all
+     */
+    default boolean isAffectedBy(Collection<String> changedIds) {
+        if (changedIds == null) {
+            return false;
+        }
+        String clientId = getConfiguredClientId();
+        return changedIds.isEmpty() || clientId == null || changedIds.contains(clientId);
+    }
+
     /** Clear the entire configuration cache. */
     default void clearCache() {
         getConfigStore().clearCache();
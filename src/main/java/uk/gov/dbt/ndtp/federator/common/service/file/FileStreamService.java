@@ -10,6 +10,9 @@ import uk.gov.dbt.ndtp.federator.common.model.dto.AttributesDTO;
 import uk.gov.dbt.ndtp.federator.common.model.dto.ProducerConfigDTO;
 import uk.gov.dbt.ndtp.federator.common.service.stream.CloseableFederatorStreamService;
 import uk.gov.dbt.ndtp.federator.common.utils.ThreadUtil;
+import uk.gov.dbt.ndtp.federator.server.admission.StreamAdmissionController;
+import uk.gov.dbt.ndtp.federator.server.bandwidth.BandwidthScheduler;
+import uk.gov.dbt.ndtp.federator.server.bandwidth.StreamType;
 import uk.gov.dbt.ndtp.federator.server.conductor.FileConductor;
 import uk.gov.dbt.ndtp.federator.server.conductor.MessageConductor;
 import uk.gov.dbt.ndtp.federator.server.consumer.ClientTopicOffsets;
@@ -34,30 +37,51 @@ public class FileStreamService extends CloseableFederatorStreamService<FileStrea
         List<AttributesDTO> filterAttributes = getFilterAttributesForConsumer(consumerId, topic, producerConfigDTO);
 
         ClientTopicOffsets topicData = new ClientTopicOffsets(consumerId, fileRequest.getTopic(), offset);
-        MessageConductor messageConductor = new FileConductor(topicData, streamObservable, filterAttributes);
-        messageConductors.add(messageConductor);
-
-        List<Future<?>> futures = new ArrayList<>();
-        futures.add(executorService.submit(messageConductor::processMessages));
-
-        try {
-            LOGGER.info(
-                    "Awaiting FileStreamRequest finished for Client: {}, Topic: {}, Offset: {}",
-                    consumerId,
-                    topicData.getTopic(),
-                    topicData.getOffset());
-
-            ThreadUtil.awaitFutures(futures);
-
-            LOGGER.info(
-                    "Finished FileStreamRequest processed for Client: {}, Topic: {}, Offset: {}",
-                    consumerId,
-                    topicData.getTopic(),
-                    topicData.getOffset());
-        } finally {
-            messageConductors.remove(messageConductor);
+        try (StreamAdmissionController.Permit ignored = admit(fileRequest, consumerId)) {
+            StreamObservable<FileStreamEvent> pacedObservable = BandwidthScheduler.getInstance()
+                    .throttle(
+                            streamObservable,
+                            consumerId,
+                            StreamType.FILE,
+                            getBandwidthLimitForConsumer(consumerId, topic, producerConfigDTO, StreamType.FILE),
+                            FileStreamEvent::getSerializedSize);
+            MessageConductor messageConductor =
+                    new FileConductor(topicData, pacedObservable, filterAttributes, fileRequest);
+            messageConductors.add(messageConductor);
+
+            List<Future<?>> futures = new ArrayList<>();
+            futures.add(executorService.submit(messageConductor::processMessages));
+
+            try {
+                LOGGER.info(
+                        "Awaiting FileStreamRequest finished for Client: {}, Topic: {}, Offset: {}",
+                        consumerId,
+                        topicData.getTopic(),
+                        topicData.getOffset());
+
+                ThreadUtil.awaitFutures(futures);
+
+                LOGGER.info(
+                        "Finished FileStreamRequest processed for Client: {}, Topic: {}, Offset: {}",
+                        consumerId,
+                        topicData.getTopic(),
+                        topicData.getOffset());
+            } finally {
+                messageConductors.remove(messageConductor);
+            }
         }
 
         streamObservable.onCompleted();
     }
+
+    /**
+     * A retransmission range is requested by a client from inside the file stream it is assembling, so it is admitted
+     * alongside that stream rather than queued behind the slot the stream holds.
+     */
+    private static StreamAdmissionController.Permit admit(FileStreamRequest fileRequest, String consumerId) {
+        if (fileRequest.getRangeLength() > 0) {
+            return StreamAdmissionController.getInstance().acquireNested(consumerId);
+        }
+        return StreamAdmissionController.getInstance().acquire(consumerId);
+    }
 }
@@ -1,11 +1,20 @@
 package uk.gov.dbt.ndtp.federator.common.service.kafka;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Stream;
 import org.apache.kafka.common.errors.InvalidTopicException;
 import org.slf4j.Logger;
@@ -15,18 +24,57 @@ import uk.gov.dbt.ndtp.federator.common.model.dto.ConsumerDTO;
 import uk.gov.dbt.ndtp.federator.common.model.dto.ProducerConfigDTO;
 import uk.gov.dbt.ndtp.federator.common.model.dto.ProductDTO;
 import uk.gov.dbt.ndtp.federator.common.service.stream.CloseableFederatorStreamService;
+import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
+import uk.gov.dbt.ndtp.federator.common.utils.ThreadFactoryWithNamePrefix;
 import uk.gov.dbt.ndtp.federator.common.utils.ThreadUtil;
+import uk.gov.dbt.ndtp.federator.server.admission.StreamAdmissionController;
+import uk.gov.dbt.ndtp.federator.server.bandwidth.BandwidthScheduler;
+import uk.gov.dbt.ndtp.federator.server.bandwidth.StreamType;
 import uk.gov.dbt.ndtp.federator.server.conductor.MessageConductor;
 import uk.gov.dbt.ndtp.federator.server.conductor.RdfMessageConductor;
+import uk.gov.dbt.ndtp.federator.server.conductor.ReadyDrivenConductorDriver;
 import uk.gov.dbt.ndtp.federator.server.consumer.ClientTopicOffsets;
 import uk.gov.dbt.ndtp.federator.server.grpc.GRPCContextKeys;
 import uk.gov.dbt.ndtp.federator.server.interfaces.StreamObservable;
 import uk.gov.dbt.ndtp.grpc.KafkaByteBatch;
+import uk.gov.dbt.ndtp.grpc.MultiTopicRequest;
+import uk.gov.dbt.ndtp.grpc.TopicOffset;
 import uk.gov.dbt.ndtp.grpc.TopicRequest;
 
 public class KafkaStreamService extends CloseableFederatorStreamService<TopicRequest, KafkaByteBatch> {
     public static final Logger LOGGER = LoggerFactory.getLogger("KafkaStreamService");
+
+    // Number of worker threads shared by all streams for filter/serialise; 1 keeps processing on the stream thread
+    public static final String PIPELINE_PARALLELISM = "server.pipeline.parallelism";
+    public static final String DEFAULT_PIPELINE_PARALLELISM = "1";
+    // Maximum number of records each stream may have in flight on the worker pool
+    public static final String PIPELINE_DEPTH = "server.pipeline.depth";
+    public static final String DEFAULT_PIPELINE_DEPTH = "64";
+    // Threads shared by all ready-driven streams (server.streaming.mode=ready-driven)
+    public static final String STREAMING_THREADS = "server.streaming.threads";
+    // How long an idle ready-driven stream waits before polling Kafka again
+    public static final String STREAMING_IDLE_DELAY = "server.streaming.idleDelay";
+    public static final String DEFAULT_STREAMING_IDLE_DELAY = "PT0.1S";
+    // Maximum records sent by one ready-driven stream before yielding to others
+    public static final String STREAMING_MAX_MESSAGES_PER_TURN = "server.streaming.maxMessagesPerTurn";
+    public static final String DEFAULT_STREAMING_MAX_MESSAGES_PER_TURN = "256";
+    // Whether clients may ask for a followed stream that stays open while the topic is idle
+    public static final String FOLLOW_ENABLED = "server.follow.enabled";
+    public static final String DEFAULT_FOLLOW_ENABLED = "true";
+    // How often a followed stream sends a heartbeat
+    public static final String FOLLOW_HEARTBEAT_INTERVAL = "server.follow.heartbeatInterval";
+    public static final String DEFAULT_FOLLOW_HEARTBEAT_INTERVAL = "PT10S";
+
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(5);
+
     private final Set<String> sharedHeaders;
+    private final Map<MessageConductor, ReadyDrivenConductorDriver> readyDrivenStreams = new ConcurrentHashMap<>();
+    // A lock rather than synchronized so stream threads never pin a virtual-thread carrier
+    private final ReentrantLock lifecycleLock = new ReentrantLock();
+    private boolean pipelineConfigured;
+    private ExecutorService pipelineExecutor;
+    private int pipelineDepth = 1;
+    private ScheduledExecutorService streamScheduler;
 
     public KafkaStreamService(Set<String> sharedHeaders) {
         this.sharedHeaders = sharedHeaders;
@@ -50,33 +98,275 @@ public class KafkaStreamService extends CloseableFederatorStreamService<TopicReq
         }
 
         List<AttributesDTO> filterAttributes = getFilterAttributesForConsumer(consumerId, topic, producerConfigDTO);
-        ClientTopicOffsets topicData = new ClientTopicOffsets(consumerId, topic, offset);
-        MessageConductor messageConductor =
-                new RdfMessageConductor(topicData, streamObservable, filterAttributes, this.sharedHeaders);
+        boolean follow = resolveFollow(request.getFollow(), consumerId);
+        ClientTopicOffsets topicData = new ClientTopicOffsets(consumerId, topic, offset, follow);
+        runStream(
+                streamObservable,
+                consumerId,
+                getBandwidthLimitForConsumer(consumerId, topic, producerConfigDTO, StreamType.TOPIC),
+                String.format("Topic: %s, Offset: %d", topic, offset),
+                follow,
+                (pacedObservable, executor, depth) -> new RdfMessageConductor(
+                        topicData,
+                        pacedObservable,
+                        filterAttributes,
+                        this.sharedHeaders,
+                        executor,
+                        depth,
+                        heartbeatInterval()),
+                executorService);
+    }
+
+    /**
+     * Streams several topics to the client on one stream, read by one Kafka consumer, so that the cost of a stream on
+     * both sides does not grow with the number of topics. Every topic is checked as in {@link #streamToClient}, and
+     * the whole request is refused if any topic is not available to the client. Records keep their topic name and are
+     * filtered with their own topic's attributes. The stream is admitted once and is paced at the tightest bandwidth
+     * limit of its topics.
+     */
+    public void streamTopicsToClient(
+            MultiTopicRequest request,
+            StreamObservable<KafkaByteBatch> streamObservable,
+            ExecutorService executorService)
+            throws InvalidTopicException {
+        String consumerId = GRPCContextKeys.CLIENT_ID.get();
+        streamObservable.setOnCancelHandler(() -> LOGGER.info("Cancel called by client: {}", consumerId));
+        if (request.getTopicsCount() == 0) {
+            throw new InvalidTopicException(String.format("No topics requested by client (%s).", consumerId));
+        }
+
+        ProducerConfigDTO producerConfigDTO = getProducerConfiguration();
+        Map<String, Long> topicOffsets = new LinkedHashMap<>();
+        Map<String, List<AttributesDTO>> filterAttributesByTopic = new HashMap<>();
+        long bandwidthLimit = 0L;
+        for (TopicOffset requested : request.getTopicsList()) {
+            String topic = requested.getTopic();
+            if (!hasConsumerAccessToTopic(consumerId, topic, producerConfigDTO)) {
+                String errMsg = String.format("Topic (%s) is not valid for client (%s).", topic, consumerId);
+                LOGGER.error(errMsg);
+                throw new InvalidTopicException(errMsg);
+            }
+            topicOffsets.put(topic, requested.getOffset());
+            filterAttributesByTopic.put(
+                    topic,
+                    Objects.requireNonNullElse(
+                            getFilterAttributesForConsumer(consumerId, topic, producerConfigDTO), List.of()));
+            long limit = getBandwidthLimitForConsumer(consumerId, topic, producerConfigDTO, StreamType.TOPIC);
+            if (limit > 0 && (bandwidthLimit == 0 || limit < bandwidthLimit)) {
+                bandwidthLimit = limit;
+            }
+        }
+        boolean follow = resolveFollow(request.getFollow(), consumerId);
+        runStream(
+                streamObservable,
+                consumerId,
+                bandwidthLimit,
+                "Topics: " + topicOffsets,
+                follow,
+                (pacedObservable, executor, depth) -> RdfMessageConductor.forTopics(
+                        topicOffsets,
+                        filterAttributesByTopic,
+                        follow,
+                        pacedObservable,
+                        this.sharedHeaders,
+                        executor,
+                        depth,
+                        heartbeatInterval()),
+                executorService);
+    }
+
+    /**
+     * Admits and paces a checked stream, then runs the conductor built for it, on the calling thread or ready-driven
+     * as the observable asks.
+     *
+     * @param bandwidthLimit pacing limit in bytes per second, 0 for none
+     * @param label the stream's topics and offsets, as shown in log messages
+     * @param conductorFactory builds the conductor for the paced observable once the pipeline is configured
+     */
+    private void runStream(
+            StreamObservable<KafkaByteBatch> streamObservable,
+            String consumerId,
+            long bandwidthLimit,
+            String label,
+            boolean follow,
+            ConductorFactory conductorFactory,
+            ExecutorService executorService) {
+        StreamObservable<KafkaByteBatch> pacedObservable = BandwidthScheduler.getInstance()
+                .throttle(
+                        streamObservable,
+                        consumerId,
+                        StreamType.TOPIC,
+                        bandwidthLimit,
+                        KafkaByteBatch::getSerializedSize);
+        StreamAdmissionController.Permit permit = StreamAdmissionController.getInstance().acquire(consumerId);
+        boolean handedOff = false;
+        try {
+            configurePipeline();
+
+            if (streamObservable.isReadyDriven()) {
+                // A turn must never wait on the worker pool, as that would hold a shared streaming thread
+                MessageConductor messageConductor = conductorFactory.create(pacedObservable, null, 1);
+                startReadyDriven(messageConductor, pacedObservable, consumerId, label, permit);
+                handedOff = true;
+                return;
+            }
+            MessageConductor messageConductor =
+                    conductorFactory.create(pacedObservable, pipelineExecutor, pipelineDepth);
+            streamBlocking(messageConductor, consumerId, label, follow, executorService);
+        } finally {
+            if (!handedOff) {
+                permit.close();
+            }
+        }
+
+        streamObservable.onCompleted();
+    }
+
+    /**
+     * Builds the conductor of a stream, given the worker pool to filter and serialise on, or {@code null} to process
+     * sequentially, and the number of records it may have in flight on the pool.
+     */
+    @FunctionalInterface
+    private interface ConductorFactory {
+        MessageConductor create(
+                StreamObservable<KafkaByteBatch> pacedObservable, ExecutorService pipelineExecutor, int pipelineDepth);
+    }
+
+    private static Duration heartbeatInterval() {
+        return PropertyUtil.getPropertyDurationValue(FOLLOW_HEARTBEAT_INTERVAL, DEFAULT_FOLLOW_HEARTBEAT_INTERVAL);
+    }
+
+    private static boolean resolveFollow(boolean requested, String consumerId) {
+        boolean follow = requested && PropertyUtil.getPropertyBooleanValue(FOLLOW_ENABLED, DEFAULT_FOLLOW_ENABLED);
+        if (requested && !follow) {
+            LOGGER.info("Follow mode is disabled; stream for client {} will close on inactivity", consumerId);
+        }
+        return follow;
+    }
+
+    private void streamBlocking(
+            MessageConductor messageConductor,
+            String client,
+            String label,
+            boolean follow,
+            ExecutorService executorService) {
         messageConductors.add(messageConductor);
 
         List<Future<?>> futures = new ArrayList<>();
         futures.add(executorService.submit(messageConductor::processMessages));
 
         try {
-            LOGGER.info(
-                    "Awaiting TopicRequest finished for Client: {}, Topic: {}, Offset: {}",
-                    consumerId,
-                    topicData.getTopic(),
-                    topicData.getOffset());
+            LOGGER.info("Awaiting TopicRequest finished for Client: {}, {}, Follow: {}", client, label, follow);
 
             ThreadUtil.awaitFutures(futures);
 
-            LOGGER.info(
-                    "Finished TopicRequest processed for Client: {}, Topic: {}, Offset: {}",
-                    consumerId,
-                    topicData.getTopic(),
-                    topicData.getOffset());
+            LOGGER.info("Finished TopicRequest processed for Client: {}, {}", client, label);
         } finally {
             messageConductors.remove(messageConductor);
         }
+    }
 
-        streamObservable.onCompleted();
+    /**
+     * Hands the conductor to a {@link ReadyDrivenConductorDriver} and returns straight away; the stream is completed
+     * by the driver, so the calling gRPC thread is not held for the lifetime of the stream. The admission permit is
+     * released once the driver finishes.
+     */
+    private void startReadyDriven(
+            MessageConductor messageConductor,
+            StreamObservable<KafkaByteBatch> streamObservable,
+            String client,
+            String label,
+            StreamAdmissionController.Permit permit) {
+        ReadyDrivenConductorDriver driver = new ReadyDrivenConductorDriver(
+                messageConductor,
+                streamObservable,
+                streamScheduler(),
+                PropertyUtil.getPropertyDurationValue(STREAMING_IDLE_DELAY, DEFAULT_STREAMING_IDLE_DELAY),
+                PropertyUtil.getPropertyIntValue(
+                        STREAMING_MAX_MESSAGES_PER_TURN, DEFAULT_STREAMING_MAX_MESSAGES_PER_TURN));
+        readyDrivenStreams.put(messageConductor, driver);
+        LOGGER.info("Started ready-driven TopicRequest for Client: {}, {}", client, label);
+        driver.start().whenComplete((ignored, error) -> {
+            readyDrivenStreams.remove(messageConductor);
+            permit.close();
+            LOGGER.info("Finished ready-driven TopicRequest for Client: {}, {}", client, label);
+        });
+    }
+
+    @Override
+    public void close() {
+        readyDrivenStreams.values().forEach(ReadyDrivenConductorDriver::stop);
+        super.close();
+        lifecycleLock.lock();
+        try {
+            if (pipelineExecutor != null) {
+                pipelineExecutor.shutdownNow();
+            }
+            if (streamScheduler != null) {
+                // Let the drivers run their final turn so each conductor is closed on its own thread
+                streamScheduler.shutdown();
+                awaitSchedulerTermination();
+            }
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    private void awaitSchedulerTermination() {
+        try {
+            if (!streamScheduler.awaitTermination(CLOSE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                streamScheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            streamScheduler.shutdownNow();
+        }
+    }
+
+    private ScheduledExecutorService streamScheduler() {
+        lifecycleLock.lock();
+        try {
+            if (streamScheduler == null) {
+                int threads = Math.max(
+                        1,
+                        PropertyUtil.getPropertyIntValue(
+                                STREAMING_THREADS, String.valueOf(Runtime.getRuntime().availableProcessors())));
+                streamScheduler =
+                        Executors.newScheduledThreadPool(threads, new ThreadFactoryWithNamePrefix("StreamDriver"));
+                LOGGER.info("Ready-driven streaming using {} threads", threads);
+                if (pipelineExecutor != null) {
+                    LOGGER.info(
+                            "Ready-driven streams process records sequentially; {} applies to blocking streams only",
+                            PIPELINE_PARALLELISM);
+                }
+            }
+            return streamScheduler;
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    /**
+     * Reads the pipeline settings on first use and creates the worker pool shared by every stream of this service.
+     * A parallelism of 1 (the default) leaves filtering and serialisation on the stream's own thread.
+     */
+    private void configurePipeline() {
+        lifecycleLock.lock();
+        try {
+            if (pipelineConfigured) {
+                return;
+            }
+            int parallelism = PropertyUtil.getPropertyIntValue(PIPELINE_PARALLELISM, DEFAULT_PIPELINE_PARALLELISM);
+            pipelineDepth = Math.max(1, PropertyUtil.getPropertyIntValue(PIPELINE_DEPTH, DEFAULT_PIPELINE_DEPTH));
+            if (parallelism > 1) {
+                pipelineExecutor =
+                        Executors.newFixedThreadPool(parallelism, new ThreadFactoryWithNamePrefix("RdfPipeline"));
+            }
+            pipelineConfigured = true;
+            LOGGER.info("RDF stream pipeline parallelism: {}, depth: {}", Math.max(1, parallelism), pipelineDepth);
+        } finally {
+            lifecycleLock.unlock();
+        }
     }
 
     /**
@@ -11,6 +11,7 @@ import uk.gov.dbt.ndtp.federator.common.model.dto.ConsumerDTO;
 import uk.gov.dbt.ndtp.federator.common.model.dto.ProducerConfigDTO;
 import uk.gov.dbt.ndtp.federator.common.model.dto.ProductDTO;
 import uk.gov.dbt.ndtp.federator.common.utils.ProducerConsumerConfigServiceFactory;
+import uk.gov.dbt.ndtp.federator.server.bandwidth.StreamType;
 import uk.gov.dbt.ndtp.federator.server.interfaces.StreamObservable;
 
 public interface FederatorStreamService<R, T> {
@@ -54,24 +55,7 @@ public interface FederatorStreamService<R, T> {
             return Collections.emptyList();
         }
 
-        List<AttributesDTO> attributes = producerConfigDTO.getProducers().stream()
-                .filter(Objects::nonNull)
-                .flatMap(producer -> {
-                    List<ProductDTO> products = producer.getProducts();
-                    return products == null ? Stream.empty() : products.stream();
-                })
-                .filter(product -> product != null
-                        && topic != null
-                        && ((product.getTopic() != null && product.getTopic().equalsIgnoreCase(topic))
-                                || (product.getName() != null
-                                        && product.getName().equalsIgnoreCase(topic))))
-                .flatMap(product -> {
-                    List<ConsumerDTO> consumers = product.getConsumers();
-                    return consumers == null ? Stream.empty() : consumers.stream();
-                })
-                .filter(consumer -> consumer != null
-                        && consumer.getIdpClientId() != null
-                        && consumer.getIdpClientId().equalsIgnoreCase(consumerId))
+        List<AttributesDTO> attributes = matchingConsumers(consumerId, topic, producerConfigDTO)
                 .flatMap(consumer -> {
                     List<AttributesDTO> attrs = consumer.getAttributes();
                     return attrs == null ? Stream.empty() : attrs.stream();
@@ -90,4 +74,49 @@ public interface FederatorStreamService<R, T> {
         }
         return attributes;
     }
+
+    /**
+     * Returns the bandwidth limit for a consumer's streams of the given type on a topic, taken from the consumer's
+     * entries in the producer configuration. If the consumer appears more than once, the tightest limit wins.
+     *
+     * @param consumerId the consumer's IDP client id to match (case-insensitive)
+     * @param topic the Kafka topic to match against products
+     * @param producerConfigDTO the producer configuration to search
+     * @param type whether the limit is for topic or file streams
+     * @return the limit in bytes per second, or 0 if the consumer is unlimited
+     */
+    default long getBandwidthLimitForConsumer(
+            String consumerId, String topic, ProducerConfigDTO producerConfigDTO, StreamType type) {
+        if (producerConfigDTO == null || producerConfigDTO.getProducers() == null) {
+            return 0L;
+        }
+        return matchingConsumers(consumerId, topic, producerConfigDTO)
+                .map(consumer ->
+                        type == StreamType.FILE ? consumer.getFileBytesPerSecond() : consumer.getTopicBytesPerSecond())
+                .filter(limit -> limit != null && limit > 0)
+                .mapToLong(Long::longValue)
+                .min()
+                .orElse(0L);
+    }
+
+    private Stream<ConsumerDTO> matchingConsumers(String consumerId, String topic, ProducerConfigDTO producerConfigDTO) {
+        return producerConfigDTO.getProducers().stream()
+                .filter(Objects::nonNull)
+                .flatMap(producer -> {
+                    List<ProductDTO> products = producer.getProducts();
+                    return products == null ? Stream.empty() : products.stream();
+                })
+                .filter(product -> product != null
+                        && topic != null
+                        && ((product.getTopic() != null && product.getTopic().equalsIgnoreCase(topic))
+                                || (product.getName() != null
+                                        && product.getName().equalsIgnoreCase(topic))))
+                .flatMap(product -> {
+                    List<ConsumerDTO> consumers = product.getConsumers();
+                    return consumers == null ? Stream.empty() : consumers.stream();
+                })
+                .filter(consumer -> consumer != null
+                        && consumer.getIdpClientId() != null
+                        && consumer.getIdpClientId().equalsIgnoreCase(consumerId));
+    }
 }
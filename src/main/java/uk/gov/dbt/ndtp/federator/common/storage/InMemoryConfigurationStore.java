@@ -3,6 +3,7 @@
 // and maintained by the National Digital Twin Programme.
 package uk.gov.dbt.ndtp.federator.common.storage;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Map;
 import java.util.Objects;
@@ -15,6 +16,10 @@ import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
 /**
  * Thread-safe in-memory cache for configuration data.
  * Provides temporary storage for configurations with TTL support.
+ * <p>
+ * With refresh-ahead enabled, an entry becomes due for refresh part way through its TTL and is kept for a stale
+ * period after it expires, so that callers can keep using it while a single refresh runs in the background (see
+ * {@code ConfigService#getConfiguration}).
  */
 @Slf4j
 @SuppressWarnings("java:S6548") // Singleton is intentional
@@ -30,19 +35,68 @@ public class InMemoryConfigurationStore {
      */
     private static final String CACHE_TTL_PROPERTY = "management.node.cache.ttl.seconds";
 
+    /**
+     * Property key enabling refresh-ahead.
+     */
+    private static final String REFRESH_AHEAD_ENABLED_PROPERTY = "management.node.cache.refreshAhead.enabled";
+
+    /**
+     * Property key for the fraction of the TTL after which an entry is due for refresh.
+     */
+    private static final String REFRESH_AHEAD_RATIO_PROPERTY = "management.node.cache.refreshAhead.ratio";
+
+    /**
+     * Property key for how long an expired entry may still be served while it is refreshed; defaults to the TTL.
+     */
+    private static final String MAX_STALE_PROPERTY = "management.node.cache.maxStale.seconds";
+
+    private static final String DEFAULT_REFRESH_AHEAD_ENABLED = "false";
+    private static final String DEFAULT_REFRESH_AHEAD_RATIO = "0.8";
+
     private static final AtomicReference<InMemoryConfigurationStore> configurationStore = new AtomicReference<>();
     /**
      * Thread-safe cache storage.
      */
     private final Map<String, CacheEntry<?>> cache = new ConcurrentHashMap<>();
+    /**
+     * Most recent value stored for each key. It never expires and is not removed by {@link #clearCache()}, so it can
+     * still be served while the management node is unreachable.
+     */
+    private final Map<String, Object> lastKnownGood = new ConcurrentHashMap<>();
     /**
      * Time-to-live for cache entries in seconds.
      */
     private final long ttlSeconds;
+    /**
+     * Time after storing at which an entry is due for refresh; equal to the TTL without refresh-ahead.
+     */
+    private final Duration refreshAfter;
+    /**
+     * Time after expiry for which an entry may still be served stale; zero without refresh-ahead.
+     */
+    private final Duration maxStale;
 
     private InMemoryConfigurationStore() {
         this.ttlSeconds = PropertyUtil.getPropertyLongValue(CACHE_TTL_PROPERTY, DEFAULT_TTL_SECONDS);
-        log.info("Cache initialized with TTL: {} seconds", ttlSeconds);
+        final Duration ttl = Duration.ofSeconds(ttlSeconds);
+        if (PropertyUtil.getPropertyBooleanValue(REFRESH_AHEAD_ENABLED_PROPERTY, DEFAULT_REFRESH_AHEAD_ENABLED)) {
+            final double ratio = Double.parseDouble(
+                    PropertyUtil.getPropertyValue(REFRESH_AHEAD_RATIO_PROPERTY, DEFAULT_REFRESH_AHEAD_RATIO));
+            if (ratio <= 0 || ratio > 1) {
+                throw new IllegalArgumentException(REFRESH_AHEAD_RATIO_PROPERTY + " must be in (0, 1]: " + ratio);
+            }
+            this.refreshAfter = Duration.ofMillis((long) (ttl.toMillis() * ratio));
+            this.maxStale = Duration.ofSeconds(
+                    PropertyUtil.getPropertyLongValue(MAX_STALE_PROPERTY, String.valueOf(ttlSeconds)));
+        } else {
+            this.refreshAfter = ttl;
+            this.maxStale = Duration.ZERO;
+        }
+        log.info(
+                "Cache initialized with TTL: {} seconds, refresh after: {}, max stale: {}",
+                ttlSeconds,
+                refreshAfter,
+                maxStale);
     }
 
     public static InMemoryConfigurationStore getInstance() {
@@ -69,7 +123,10 @@ public class InMemoryConfigurationStore {
         Objects.requireNonNull(key, "Cache key must not be null");
         Objects.requireNonNull(config, "Configuration must not be null");
 
-        cache.put(key, new CacheEntry<>(config, Instant.now().plusSeconds(ttlSeconds)));
+        final Instant now = Instant.now();
+        // put replaces the entry in one step, so readers see either the old or the new value
+        cache.put(key, new CacheEntry<>(config, now.plus(refreshAfter), now.plusSeconds(ttlSeconds)));
+        lastKnownGood.put(key, config);
         log.debug("Stored configuration for key: {}", key);
     }
 
@@ -93,11 +150,77 @@ public class InMemoryConfigurationStore {
         }
 
         if (Instant.now().isAfter(entry.expiresAt())) {
-            cache.remove(key);
+            removeIfPastStale(key, entry);
             log.debug("Cache entry expired for key: {}", key);
             return Optional.empty();
         }
 
+        return cast(key, entry, type);
+    }
+
+    /**
+     * Retrieves configuration from cache by key even if it has expired, as long as it is within the stale period
+     * allowed by {@code management.node.cache.maxStale.seconds}.
+     *
+     * @param key cache key, must not be null
+     * @param type expected type of configuration
+     * @param <T> type of configuration
+     * @return Optional containing config if present and not past the stale period
+     * @throws NullPointerException if key or type is null
+     */
+    public <T> Optional<T> getStale(final String key, final Class<T> type) {
+        Objects.requireNonNull(key, "Cache key must not be null");
+        Objects.requireNonNull(type, "Type must not be null");
+
+        final CacheEntry<?> entry = cache.get(key);
+
+        if (entry == null || removeIfPastStale(key, entry)) {
+            return Optional.empty();
+        }
+
+        return cast(key, entry, type);
+    }
+
+    /**
+     * Retrieves the most recently stored configuration for a key, however old.
+     *
+     * @param key cache key, must not be null
+     * @param type expected type of configuration
+     * @param <T> type of configuration
+     * @return Optional containing the last configuration stored for the key, if any
+     * @throws NullPointerException if key or type is null
+     */
+    public <T> Optional<T> getLastKnownGood(final String key, final Class<T> type) {
+        Objects.requireNonNull(key, "Cache key must not be null");
+        Objects.requireNonNull(type, "Type must not be null");
+
+        final Object value = lastKnownGood.get(key);
+        return type.isInstance(value) ? Optional.of(type.cast(value)) : Optional.empty();
+    }
+
+    /**
+     * Checks whether the entry for a key should be refreshed: it is past the refresh-ahead point of its TTL.
+     *
+     * @param key cache key, must not be null
+     * @return true if an entry exists and is due for refresh
+     * @throws NullPointerException if key is null
+     */
+    public boolean isRefreshDue(final String key) {
+        Objects.requireNonNull(key, "Cache key must not be null");
+
+        final CacheEntry<?> entry = cache.get(key);
+        return entry != null && !Instant.now().isBefore(entry.refreshAt());
+    }
+
+    private boolean removeIfPastStale(final String key, final CacheEntry<?> entry) {
+        if (Instant.now().isAfter(entry.expiresAt().plus(maxStale))) {
+            cache.remove(key, entry);
+            return true;
+        }
+        return false;
+    }
+
+    private <T> Optional<T> cast(final String key, final CacheEntry<?> entry, final Class<T> type) {
         try {
             return Optional.ofNullable(type.cast(entry.value()));
         } catch (ClassCastException e) {
@@ -130,11 +253,13 @@ public class InMemoryConfigurationStore {
      *
      * @param <T> type of cached value
      * @param value cached value
+     * @param refreshAt time from which the entry is due for refresh
      * @param expiresAt expiration timestamp
      */
-    private record CacheEntry<T>(T value, Instant expiresAt) {
+    private record CacheEntry<T>(T value, Instant refreshAt, Instant expiresAt) {
         CacheEntry {
             Objects.requireNonNull(value, "Value must not be null");
+            Objects.requireNonNull(refreshAt, "Refresh time must not be null");
             Objects.requireNonNull(expiresAt, "Expiration time must not be null");
         }
     }
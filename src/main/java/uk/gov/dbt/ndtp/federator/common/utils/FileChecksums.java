@@ -0,0 +1,112 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.common.utils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.stream.IntStream;
+import uk.gov.dbt.ndtp.grpc.FileChecksumAlgorithm;
+
+/**
+ * Whole-file checksums for file transfers. {@code SHA_256} is the default; {@code XXH64_TREE} is a non-cryptographic
+ * alternative for fast links, where SHA-256 on a CPU without SHA extensions holds a single stream back.
+ */
+public final class FileChecksums {
+
+    private static final ThreadLocal<byte[]> BLOCK_BUFFER =
+            ThreadLocal.withInitial(() -> new byte[Xxh64TreeDigest.BLOCK_SIZE]);
+
+    private FileChecksums() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * @return a digest for {@code algorithm}; its output, hex encoded, is the file checksum
+     */
+    public static MessageDigest newDigest(FileChecksumAlgorithm algorithm) {
+        if (algorithm == FileChecksumAlgorithm.XXH64_TREE) {
+            return new Xxh64TreeDigest();
+        }
+        try {
+            return MessageDigest.getInstance(GRPCUtils.SHA_256);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+
+    /**
+     * @return the hex checksum of {@code data}
+     */
+    public static String calculate(byte[] data, FileChecksumAlgorithm algorithm) {
+        return GRPCUtils.bytesToHex(newDigest(algorithm).digest(data));
+    }
+
+    /**
+     * Calculates the checksum of a file. {@code XXH64_TREE} hashes the file's blocks in parallel.
+     *
+     * @return the hex checksum of the file
+     */
+    public static String calculate(Path file, FileChecksumAlgorithm algorithm) {
+        if (algorithm != FileChecksumAlgorithm.XXH64_TREE) {
+            return GRPCUtils.calculateSha256Checksum(file);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int blocks = Math.toIntExact((size + Xxh64TreeDigest.BLOCK_SIZE - 1) / Xxh64TreeDigest.BLOCK_SIZE);
+            long[] blockHashes = IntStream.range(0, blocks)
+                    .parallel()
+                    .mapToLong(i -> hashBlock(channel, (long) i * Xxh64TreeDigest.BLOCK_SIZE, size))
+                    .toArray();
+            Xxh64 root = new Xxh64();
+            for (long blockHash : blockHashes) {
+                root.updateLong(blockHash);
+            }
+            return GRPCUtils.bytesToHex(ByteBuffer.allocate(Long.BYTES).putLong(root.digest()).array());
+        } catch (IOException | UncheckedIOException e) {
+            throw new IllegalStateException("Failed to calculate XXH64_TREE checksum for file: " + file, e);
+        }
+    }
+
+    /**
+     * @return the algorithm called {@code name}, or {@code SHA_256} if it is blank or unknown
+     */
+    public static FileChecksumAlgorithm parse(String name) {
+        if (name == null || name.isBlank()) {
+            return FileChecksumAlgorithm.SHA_256;
+        }
+        try {
+            FileChecksumAlgorithm algorithm = FileChecksumAlgorithm.valueOf(name.trim().toUpperCase(Locale.ROOT));
+            return algorithm == FileChecksumAlgorithm.UNRECOGNIZED ? FileChecksumAlgorithm.SHA_256 : algorithm;
+        } catch (IllegalArgumentException e) {
+            return FileChecksumAlgorithm.SHA_256;
+        }
+    }
+
+    private static long hashBlock(FileChannel channel, long start, long size) {
+        int length = (int) Math.min(Xxh64TreeDigest.BLOCK_SIZE, size - start);
+        byte[] bytes = BLOCK_BUFFER.get();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    throw new EOFException("File shrank while hashing");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Xxh64 block = new Xxh64();
+        block.update(bytes, 0, length);
+        return block.digest();
+    }
+}
@@ -29,6 +29,8 @@ package uk.gov.dbt.ndtp.federator.common.utils;
 import java.time.Duration;
 import java.util.Optional;
 import java.util.Properties;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.gov.dbt.ndtp.secure.agent.sources.kafka.KafkaEventSource;
@@ -79,6 +81,31 @@ public class KafkaUtil {
         return builder;
     }
 
+    /**
+     * Consumer configuration for reading a topic by manual partition assignment rather than group membership: the same
+     * servers, poll size and {@code kafka.additional.*} settings as {@link #getKafkaSourceBuilder()}, but without a
+     * {@code group.id} and with offset commits to Kafka disabled.
+     *
+     * @param keyDeserializer key deserializer class
+     * @param valueDeserializer value deserializer class
+     * @return properties for a groupless {@code KafkaConsumer}
+     */
+    public static Properties getAssignedConsumerConfig(Class<?> keyDeserializer, Class<?> valueDeserializer) {
+        Properties properties = new Properties();
+        properties.setProperty(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, PropertyUtil.getPropertyValue(KAFKA_BOOTSTRAP_SERVERS));
+        properties.setProperty(
+                ConsumerConfig.MAX_POLL_RECORDS_CONFIG,
+                String.valueOf(PropertyUtil.getPropertyIntValue(KAFKA_POLLRECORDS)));
+        getAdditionalProperties().ifPresent(properties::putAll);
+        properties.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        properties.setProperty(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, keyDeserializer.getName());
+        properties.setProperty(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, valueDeserializer.getName());
+        properties.setProperty(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        properties.setProperty(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        return properties;
+    }
+
     public static <K, V> KafkaReadPolicy<K, V> getReadPolicy() {
         long offset = PropertyUtil.getPropertyLongValue(KAFKA_OFFSET, ZERO);
         return getReadPolicy(offset);
@@ -103,6 +130,26 @@ public class KafkaUtil {
         return builder;
     }
 
+    /**
+     * Producer configuration with the same servers, serializers and {@code kafka.additional.*} settings as
+     * {@link #getKafkaSinkBuilder()}, for code that needs a {@code KafkaProducer} directly.
+     *
+     * @return properties for a {@code KafkaProducer}
+     */
+    public static Properties getKafkaProducerConfig() {
+        Properties properties = new Properties();
+        properties.setProperty(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, PropertyUtil.getPropertyValue(KAFKA_BOOTSTRAP_SERVERS));
+        properties.setProperty(
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG,
+                PropertyUtil.getPropertyValue(KAFKA_SENDER_DEFAULT_KEY_SERIALIZER_CLASS));
+        properties.setProperty(
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
+                PropertyUtil.getPropertyValue(KAFKA_SENDER_DEFAULT_VALUE_SERIALIZER_CLASS));
+        getAdditionalProperties().ifPresent(properties::putAll);
+        return properties;
+    }
+
     public static <K, V> KafkaSink<K, V> getKafkaSink(String topic) {
         return KafkaUtil.<K, V>getKafkaSinkBuilder().topic(topic).build();
     }
@@ -10,6 +10,7 @@ package uk.gov.dbt.ndtp.federator.common.utils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.net.http.HttpClient;
 import java.util.Properties;
+import uk.gov.dbt.ndtp.federator.common.management.ConfigChangeSubscriber;
 import uk.gov.dbt.ndtp.federator.common.management.ManagementNodeDataHandler;
 import uk.gov.dbt.ndtp.federator.common.service.config.ProducerConfigService;
 import uk.gov.dbt.ndtp.federator.common.service.idp.IdpTokenService;
@@ -17,7 +18,9 @@ import uk.gov.dbt.ndtp.federator.common.storage.InMemoryConfigurationStore;
 
 public class ProducerConsumerConfigServiceFactory {
     private static final String COMMON_CONFIG_PROPERTIES = "common.configuration";
-    private static ProducerConfigService producerConfigService;
+    private static volatile ProducerConfigService producerConfigService;
+    // Kept so that polling stops when the server shuts down
+    private static ConfigChangeSubscriber changeSubscriber;
 
     private ProducerConsumerConfigServiceFactory() {}
 
@@ -28,17 +31,37 @@ public class ProducerConsumerConfigServiceFactory {
      * @return Singleton instance of ProducerConsumerConfigService
      */
     public static ProducerConfigService getProducerConfigService() {
-        if (producerConfigService == null) {
-            synchronized (ProducerConsumerConfigServiceFactory.class) {
+        ProducerConfigService service = producerConfigService;
+        if (service != null) {
+            return service;
+        }
+        synchronized (ProducerConsumerConfigServiceFactory.class) {
+            if (producerConfigService == null) {
                 ObjectMapper mapper = ObjectMapperUtil.getInstance();
                 Properties properties = PropertyUtil.getPropertiesFromFilePath(COMMON_CONFIG_PROPERTIES);
                 IdpTokenService tokenService = GRPCUtils.createIdpTokenService();
                 HttpClient httpClient = HttpClientFactoryUtils.createHttpClientWithMtls(properties);
                 var managementNodeDataHandler = new ManagementNodeDataHandler(httpClient, mapper, tokenService);
                 InMemoryConfigurationStore store = InMemoryConfigurationStore.getInstance();
-                producerConfigService = new ProducerConfigService(managementNodeDataHandler, store);
+                ProducerConfigService created = new ProducerConfigService(managementNodeDataHandler, store);
+                subscribeToChanges(managementNodeDataHandler, created);
+                producerConfigService = created;
             }
+            return producerConfigService;
         }
-        return producerConfigService;
+    }
+
+    // Called with the class lock held
+    private static void subscribeToChanges(ManagementNodeDataHandler handler, ProducerConfigService service) {
+        if (!ManagementNodeDataHandler.isChangeSubscriptionEnabled() || changeSubscriber != null) {
+            return;
+        }
+        ConfigChangeSubscriber subscriber = handler.subscribeToChanges(change -> {
+            if (service.isAffectedBy(change.getProducers())) {
+                service.refreshConfigurations();
+            }
+        });
+        changeSubscriber = subscriber;
+        Runtime.getRuntime().addShutdownHook(new Thread(subscriber::close, "config-change-subscriber-shutdown"));
     }
 }
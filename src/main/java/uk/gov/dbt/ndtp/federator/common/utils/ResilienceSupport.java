@@ -17,6 +17,14 @@ import io.github.resilience4j.retry.RetryConfig;
 import io.github.resilience4j.retry.RetryRegistry;
 import java.time.Duration;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 import org.jspecify.annotations.NonNull;
@@ -29,6 +37,10 @@ import uk.gov.dbt.ndtp.federator.exceptions.RebuildableRuntimeException;
  * Centralized Resilience4j configuration and decoration helpers.
  * Uses PropertyUtil for configuration under prefix:
  * management.node.resilience.*
+ * <p>
+ * {@link #decorateAndExecute} retries on the calling thread, sleeping between attempts.
+ * {@link #decorateAndExecuteAsync} runs attempts on a background executor and schedules the waits between them, so
+ * the caller never blocks; a bulkhead caps how many asynchronous operations may be in progress at once.
  */
 public final class ResilienceSupport {
 
@@ -49,8 +61,18 @@ public final class ResilienceSupport {
     private static final String PROP_CB_WAIT_DURATION_OPEN =
             "management.node.resilience.circuitBreaker.waitDurationInOpenState";
 
+    private static final String PROP_ASYNC_ENABLED = "management.node.resilience.async.enabled";
+    private static final String PROP_ASYNC_TIME_BUDGET = "management.node.resilience.async.timeBudget";
+    private static final String PROP_BULKHEAD_MAX_CONCURRENT_CALLS =
+            "management.node.resilience.bulkhead.maxConcurrentCalls";
+
     private static final AtomicReference<RetryRegistry> retryRegistry = new AtomicReference<>();
     private static final AtomicReference<CircuitBreakerRegistry> circuitBreakerRegistry = new AtomicReference<>();
+    private static final AtomicReference<Semaphore> bulkhead = new AtomicReference<>();
+
+    private static final ExecutorService ASYNC_EXECUTOR = Executors.newCachedThreadPool(daemon("resilience-async"));
+    private static final ScheduledExecutorService RETRY_SCHEDULER =
+            Executors.newSingleThreadScheduledExecutor(daemon("resilience-retry"));
 
     private ResilienceSupport() {}
 
@@ -58,6 +80,20 @@ public final class ResilienceSupport {
         return retryRegistry.updateAndGet(current -> current != null ? current : RetryRegistry.of(buildRetryConfig()));
     }
 
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static Semaphore getBulkhead() {
+        return bulkhead.updateAndGet(current -> current != null
+                ? current
+                : new Semaphore(PropertyUtil.getPropertyIntValue(PROP_BULKHEAD_MAX_CONCURRENT_CALLS, "4")));
+    }
+
     private static CircuitBreakerRegistry getCircuitBreakerRegistry() {
         return circuitBreakerRegistry.updateAndGet(
                 current -> current != null ? current : CircuitBreakerRegistry.of(buildCircuitBreakerConfig()));
@@ -149,6 +185,26 @@ public final class ResilienceSupport {
     public static void clearForTests() {
         retryRegistry.set(null);
         circuitBreakerRegistry.set(null);
+        bulkhead.set(null);
+    }
+
+    /**
+     * @return true if callers on latency-sensitive paths should use {@link #decorateAndExecuteAsync} and wait at
+     *     most {@link #getAsyncTimeBudget()}; false if properties are not loaded
+     */
+    public static boolean isAsyncEnabled() {
+        try {
+            return PropertyUtil.getPropertyBooleanValue(PROP_ASYNC_ENABLED, "false");
+        } catch (PropertyUtil.PropertyUtilException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return the longest a caller should wait for an asynchronous operation to complete
+     */
+    public static Duration getAsyncTimeBudget() {
+        return PropertyUtil.getPropertyDurationValue(PROP_ASYNC_TIME_BUDGET, Duration.ofSeconds(2).toString());
     }
 
     public static <T> T decorateAndExecute(
@@ -167,6 +223,55 @@ public final class ResilienceSupport {
         }
     }
 
+    /**
+     * Asynchronous counterpart of {@link #decorateAndExecute}, sharing its retry and circuit breaker for the
+     * component. Each attempt runs {@code supplier} on a background executor, and the backoff between attempts is
+     * scheduled rather than slept, so no thread is held while waiting. If the bulkhead is full the returned future
+     * fails straight away with a {@link RejectedExecutionException}.
+     *
+     * @return a future completed with the supplier's result, or with the enriched exception of the last attempt
+     */
+    public static <T> CompletableFuture<T> decorateAndExecuteAsync(
+            String componentName, String operation, String targetId, Supplier<T> supplier) {
+        Semaphore permits = getBulkhead();
+        if (!permits.tryAcquire()) {
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("Bulkhead full; cannot " + operation + " for " + componentName));
+        }
+        Retry retry = getRetry(componentName);
+        CircuitBreaker circuitBreaker = getCircuitBreaker(componentName);
+
+        Supplier<CompletionStage<T>> withCb =
+                CircuitBreaker.decorateCompletionStage(circuitBreaker, () -> runAsync(supplier));
+        Supplier<CompletionStage<T>> withRetry = Retry.decorateCompletionStage(retry, RETRY_SCHEDULER, withCb);
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        withRetry.get().whenComplete((value, ex) -> {
+            permits.release();
+            if (ex == null) {
+                result.complete(value);
+            } else if (ex instanceof RuntimeException runtimeException) {
+                result.completeExceptionally(enrich(runtimeException, componentName, operation, targetId));
+            } else {
+                result.completeExceptionally(ex);
+            }
+        });
+        return result;
+    }
+
+    // Completes with the supplier's own exception rather than a CompletionException, so retry predicates see it
+    private static <T> CompletableFuture<T> runAsync(Supplier<T> supplier) {
+        CompletableFuture<T> attempt = new CompletableFuture<>();
+        ASYNC_EXECUTOR.execute(() -> {
+            try {
+                attempt.complete(supplier.get());
+            } catch (RuntimeException ex) {
+                attempt.completeExceptionally(ex);
+            }
+        });
+        return attempt;
+    }
+
     private static Class<?>[] parseExceptionClasses(String csv) {
         if (csv == null || csv.trim().isEmpty()) return new Class<?>[0];
         String[] parts = csv.split(",");
@@ -283,11 +388,19 @@ public final class ResilienceSupport {
      * @param targetId the id of the target involved in the exception
      */
     private static void enrichAndRethrow(RuntimeException ex, String componentName, String operation, String targetId) {
+        throw enrich(ex, componentName, operation, targetId);
+    }
+
+    /**
+     * Returns a RebuildableRuntimeException rebuilt with an enriched message, or any other exception as-is.
+     */
+    private static RuntimeException enrich(
+            RuntimeException ex, String componentName, String operation, String targetId) {
         if (!(ex instanceof RebuildableRuntimeException rebuildableRuntimeException)) {
-            throw ex;
+            return ex;
         }
 
         String enrichedMessage = buildFailureMessage(ex, componentName, operation, targetId);
-        throw rebuildableRuntimeException.rebuild(enrichedMessage, ex);
+        return rebuildableRuntimeException.rebuild(enrichedMessage, ex);
     }
 }
@@ -41,6 +41,10 @@ public class ThreadUtil {
 
     public static final Logger LOGGER = LoggerFactory.getLogger("ThreadUtil");
 
+    // Run the server's stream and gRPC executors on virtual threads instead of a cached platform-thread pool
+    public static final String SERVER_VIRTUAL_THREADS = "server.virtualThreads.enabled";
+    public static final String DEFAULT_SERVER_VIRTUAL_THREADS = "false";
+
     private ThreadUtil() {}
 
     public static void awaitShutdown(
@@ -79,4 +83,31 @@ public class ThreadUtil {
     public static ExecutorService threadExecutor(String threadNamePrefix) {
         return Executors.newCachedThreadPool(new ThreadFactoryWithNamePrefix(threadNamePrefix));
     }
+
+    /**
+     * Creates an executor that starts one new virtual thread per task, named {@code <prefix>-virtual-N}.
+     */
+    public static ExecutorService virtualThreadExecutor(String threadNamePrefix) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(threadNamePrefix + "-virtual-", 1).factory());
+    }
+
+    /**
+     * Creates an executor for server-side work, using virtual threads when {@value #SERVER_VIRTUAL_THREADS} is true
+     * and a cached platform-thread pool otherwise. Falls back to platform threads if properties are not loaded.
+     */
+    public static ExecutorService serverThreadExecutor(String threadNamePrefix) {
+        if (serverVirtualThreadsEnabled()) {
+            LOGGER.info("Using virtual threads for '{}' executor", threadNamePrefix);
+            return virtualThreadExecutor(threadNamePrefix);
+        }
+        return threadExecutor(threadNamePrefix);
+    }
+
+    private static boolean serverVirtualThreadsEnabled() {
+        try {
+            return PropertyUtil.getPropertyBooleanValue(SERVER_VIRTUAL_THREADS, DEFAULT_SERVER_VIRTUAL_THREADS);
+        } catch (PropertyUtil.PropertyUtilException e) {
+            return false;
+        }
+    }
 }
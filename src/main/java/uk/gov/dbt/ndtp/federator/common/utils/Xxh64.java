@@ -0,0 +1,132 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.common.utils;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Streaming XXH64 (seed 0), a fast non-cryptographic 64-bit hash. The output matches the reference implementation, so
+ * digests can be checked with the {@code xxhsum -H1} tool.
+ */
+final class Xxh64 {
+
+    private static final long P1 = 0x9E3779B185EBCA87L;
+    private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long P3 = 0x165667B19E3779F9L;
+    private static final long P4 = 0x85EBCA77C2B2AE63L;
+    private static final long P5 = 0x27D4EB2F165667C5L;
+    private static final int STRIPE = 32;
+    private static final VarHandle LONG_LE =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final byte[] buffer = new byte[STRIPE];
+    private int buffered;
+    private long total;
+    private long v1;
+    private long v2;
+    private long v3;
+    private long v4;
+
+    Xxh64() {
+        reset();
+    }
+
+    void reset() {
+        v1 = P1 + P2;
+        v2 = P2;
+        v3 = 0;
+        v4 = -P1;
+        buffered = 0;
+        total = 0;
+    }
+
+    void update(byte[] input, int offset, int length) {
+        total += length;
+        if (buffered + length < STRIPE) {
+            System.arraycopy(input, offset, buffer, buffered, length);
+            buffered += length;
+            return;
+        }
+        int position = offset;
+        int end = offset + length;
+        if (buffered > 0) {
+            int fill = STRIPE - buffered;
+            System.arraycopy(input, position, buffer, buffered, fill);
+            stripe(buffer, 0);
+            position += fill;
+            buffered = 0;
+        }
+        while (end - position >= STRIPE) {
+            stripe(input, position);
+            position += STRIPE;
+        }
+        buffered = end - position;
+        System.arraycopy(input, position, buffer, 0, buffered);
+    }
+
+    /**
+     * Adds {@code value} as eight little-endian bytes.
+     */
+    void updateLong(long value) {
+        byte[] bytes = new byte[Long.BYTES];
+        LONG_LE.set(bytes, 0, value);
+        update(bytes, 0, bytes.length);
+    }
+
+    /**
+     * @return the hash of everything added since the last reset; the state is left unchanged
+     */
+    long digest() {
+        long h;
+        if (total >= STRIPE) {
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = merge(h, v1);
+            h = merge(h, v2);
+            h = merge(h, v3);
+            h = merge(h, v4);
+        } else {
+            h = P5;
+        }
+        h += total;
+        int i = 0;
+        for (; i + Long.BYTES <= buffered; i += Long.BYTES) {
+            h ^= round(0, (long) LONG_LE.get(buffer, i));
+            h = Long.rotateLeft(h, 27) * P1 + P4;
+        }
+        if (i + Integer.BYTES <= buffered) {
+            h ^= ((int) INT_LE.get(buffer, i) & 0xFFFFFFFFL) * P1;
+            h = Long.rotateLeft(h, 23) * P2 + P3;
+            i += Integer.BYTES;
+        }
+        for (; i < buffered; i++) {
+            h ^= (buffer[i] & 0xFFL) * P5;
+            h = Long.rotateLeft(h, 11) * P1;
+        }
+        h ^= h >>> 33;
+        h *= P2;
+        h ^= h >>> 29;
+        h *= P3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    private void stripe(byte[] input, int offset) {
+        v1 = round(v1, (long) LONG_LE.get(input, offset));
+        v2 = round(v2, (long) LONG_LE.get(input, offset + 8));
+        v3 = round(v3, (long) LONG_LE.get(input, offset + 16));
+        v4 = round(v4, (long) LONG_LE.get(input, offset + 24));
+    }
+
+    private static long round(long acc, long input) {
+        return Long.rotateLeft(acc + input * P2, 31) * P1;
+    }
+
+    private static long merge(long acc, long value) {
+        return (acc ^ round(0, value)) * P1 + P4;
+    }
+}
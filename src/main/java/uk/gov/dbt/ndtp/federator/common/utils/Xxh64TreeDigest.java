@@ -0,0 +1,75 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.common.utils;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+
+/**
+ * {@link MessageDigest} for {@code XXH64_TREE}: the input is cut into {@link #BLOCK_SIZE} blocks, each block is hashed
+ * with XXH64, and the digest is the XXH64 of those block hashes as little-endian longs. Fed sequentially it gives the
+ * same result as {@link FileChecksums#calculate} hashing the blocks of a file in parallel.
+ */
+final class Xxh64TreeDigest extends MessageDigest {
+
+    static final int BLOCK_SIZE = 1 << 20;
+
+    private final Xxh64 block = new Xxh64();
+    private final Xxh64 root = new Xxh64();
+    private int blockBytes;
+
+    Xxh64TreeDigest() {
+        super("XXH64-TREE");
+    }
+
+    @Override
+    protected void engineUpdate(byte input) {
+        engineUpdate(new byte[] {input}, 0, 1);
+    }
+
+    @Override
+    protected void engineUpdate(byte[] input, int offset, int length) {
+        int position = offset;
+        int remaining = length;
+        while (remaining > 0) {
+            int n = Math.min(remaining, BLOCK_SIZE - blockBytes);
+            block.update(input, position, n);
+            blockBytes += n;
+            position += n;
+            remaining -= n;
+            if (blockBytes == BLOCK_SIZE) {
+                completeBlock();
+            }
+        }
+    }
+
+    @Override
+    protected int engineGetDigestLength() {
+        return Long.BYTES;
+    }
+
+    @Override
+    protected byte[] engineDigest() {
+        if (blockBytes > 0) {
+            completeBlock();
+        }
+        byte[] digest = ByteBuffer.allocate(Long.BYTES).putLong(root.digest()).array();
+        engineReset();
+        return digest;
+    }
+
+    @Override
+    protected void engineReset() {
+        block.reset();
+        root.reset();
+        blockBytes = 0;
+    }
+
+    private void completeBlock() {
+        root.updateLong(block.digest());
+        block.reset();
+        blockBytes = 0;
+    }
+}
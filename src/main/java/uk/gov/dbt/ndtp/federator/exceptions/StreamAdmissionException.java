@@ -0,0 +1,23 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.exceptions;
+
+import java.time.Duration;
+import lombok.Getter;
+
+/**
+ * Thrown when a stream request is refused because the server (or the requesting consumer) is at its concurrent
+ * stream limit. Carries a hint for when the caller should try again.
+ */
+@Getter
+public class StreamAdmissionException extends RuntimeException {
+
+    private final transient Duration retryAfter;
+
+    public StreamAdmissionException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,329 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.server.admission;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
+import uk.gov.dbt.ndtp.federator.exceptions.StreamAdmissionException;
+
+/**
+ * Limits how many streams (topic and file) the server runs at once, globally and per consumer.
+ * <p>
+ * A request over the per-consumer limit is refused straight away, so one misbehaving client cannot fill the queue.
+ * A request over the global limit waits in a bounded FIFO queue for up to the queue timeout, and is refused if the
+ * queue is full or the wait expires. Each waiter has its own condition and a freed slot goes to the oldest one, so
+ * queued streams are admitted in arrival order and new requests do not overtake them. Refusals carry a retry-after
+ * hint. A limit of 0 means unlimited, which is the default, so existing deployments behave as before until limits are
+ * configured.
+ * <p>
+ * Short follow-up streams that a client opens from inside a stream it already holds, such as a file retransmission
+ * range, are admitted with {@link #acquireNested} instead, so that they never wait for a slot held by their own outer
+ * stream. A consumer may hold at most one such nested stream for each outer stream it holds.
+ */
+@Slf4j
+public final class StreamAdmissionController implements StreamAdmissionMXBean {
+
+    public static final String MAX_STREAMS = "server.admission.maxStreams";
+    public static final String MAX_STREAMS_PER_CONSUMER = "server.admission.maxStreamsPerConsumer";
+    public static final String QUEUE_SIZE = "server.admission.queueSize";
+    public static final String QUEUE_TIMEOUT = "server.admission.queueTimeout";
+    public static final String RETRY_AFTER = "server.admission.retryAfter";
+    public static final String OBJECT_NAME = "uk.gov.dbt.ndtp.federator:type=StreamAdmission";
+
+    private static final String UNLIMITED = "0";
+    private static final String DEFAULT_QUEUE_SIZE = "0";
+    private static final String DEFAULT_QUEUE_TIMEOUT = "PT5S";
+    private static final String DEFAULT_RETRY_AFTER = "PT30S";
+
+    private static final AtomicReference<StreamAdmissionController> INSTANCE = new AtomicReference<>();
+    private static final ReentrantLock INSTANCE_LOCK = new ReentrantLock();
+
+    private final int maxStreams;
+    private final int maxStreamsPerConsumer;
+    private final int queueSize;
+    private final long queueTimeoutNanos;
+    private final Duration retryAfter;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Deque<Condition> waiters = new ArrayDeque<>();
+    private final Map<String, Integer> activeByConsumer = new HashMap<>();
+    private final Map<String, Integer> nestedByConsumer = new HashMap<>();
+    private final AtomicLong rejected = new AtomicLong();
+    private int active;
+
+    public StreamAdmissionController(
+            int maxStreams, int maxStreamsPerConsumer, int queueSize, Duration queueTimeout, Duration retryAfter) {
+        this.maxStreams = Math.max(0, maxStreams);
+        this.maxStreamsPerConsumer = Math.max(0, maxStreamsPerConsumer);
+        this.queueSize = Math.max(0, queueSize);
+        this.queueTimeoutNanos = Math.max(0L, queueTimeout.toNanos());
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return the process-wide controller, created from server properties on first use
+     */
+    public static StreamAdmissionController getInstance() {
+        StreamAdmissionController controller = INSTANCE.get();
+        if (controller != null) {
+            return controller;
+        }
+        // Created under a lock, as creating it registers the MBean
+        INSTANCE_LOCK.lock();
+        try {
+            if (INSTANCE.get() == null) {
+                INSTANCE.set(fromProperties());
+            }
+            return INSTANCE.get();
+        } finally {
+            INSTANCE_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Testing helper to reset the singleton so limits can be reconfigured per test.
+     */
+    public static void clearForTests() {
+        INSTANCE.set(null);
+    }
+
+    private static StreamAdmissionController fromProperties() {
+        StreamAdmissionController controller;
+        try {
+            controller = new StreamAdmissionController(
+                    PropertyUtil.getPropertyIntValue(MAX_STREAMS, UNLIMITED),
+                    PropertyUtil.getPropertyIntValue(MAX_STREAMS_PER_CONSUMER, UNLIMITED),
+                    PropertyUtil.getPropertyIntValue(QUEUE_SIZE, DEFAULT_QUEUE_SIZE),
+                    PropertyUtil.getPropertyDurationValue(QUEUE_TIMEOUT, DEFAULT_QUEUE_TIMEOUT),
+                    PropertyUtil.getPropertyDurationValue(RETRY_AFTER, DEFAULT_RETRY_AFTER));
+        } catch (PropertyUtil.PropertyUtilException e) {
+            log.warn("Properties not loaded, stream admission is unlimited");
+            controller = new StreamAdmissionController(0, 0, 0, Duration.ZERO, Duration.parse(DEFAULT_RETRY_AFTER));
+        }
+        log.info(
+                "Stream admission: maxStreams={}, maxStreamsPerConsumer={}, queueSize={}",
+                controller.maxStreams,
+                controller.maxStreamsPerConsumer,
+                controller.queueSize);
+        register(controller);
+        return controller;
+    }
+
+    private static void register(StreamAdmissionController controller) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(controller, name);
+        } catch (JMException e) {
+            log.warn("Unable to register stream admission MBean", e);
+        }
+    }
+
+    /**
+     * Admits a stream for the given consumer, waiting in the queue if the server is at its global limit.
+     *
+     * @param consumerId the consumer requesting the stream
+     * @return a permit that must be closed when the stream ends
+     * @throws StreamAdmissionException if the stream cannot be admitted
+     */
+    public Permit acquire(String consumerId) {
+        String consumer = consumerId == null ? "" : consumerId;
+        lock.lock();
+        try {
+            if (consumerAtLimit(consumer)) {
+                throw reject(consumer, "Too many concurrent streams for consumer " + consumer);
+            }
+            if (globalAtLimit() || !waiters.isEmpty()) {
+                awaitSlot(consumer);
+            }
+            active++;
+            activeByConsumer.merge(consumer, 1, Integer::sum);
+            log.debug("Admitted stream for {}. Active: {}, queued: {}", consumer, active, waiters.size());
+            return new Permit(consumer, false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Admits a short follow-up stream for a consumer that already holds an admitted stream, without checking the
+     * limits: the consumer's outer stream is waiting on it, so queueing it behind that stream's own slot could only
+     * time out. It is still counted while it runs. Each outer stream may have only one nested stream open at a time,
+     * so a consumer cannot use them to get round the limits. A consumer with no admitted stream is admitted as by
+     * {@link #acquire}.
+     *
+     * @param consumerId the consumer requesting the stream
+     * @return a permit that must be closed when the stream ends
+     * @throws StreamAdmissionException if every outer stream of the consumer already has a nested stream open, or the
+     *     consumer holds no stream and the stream cannot be admitted
+     */
+    public Permit acquireNested(String consumerId) {
+        String consumer = consumerId == null ? "" : consumerId;
+        lock.lock();
+        try {
+            int nested = nestedByConsumer.getOrDefault(consumer, 0);
+            int outer = activeByConsumer.getOrDefault(consumer, 0) - nested;
+            if (outer == 0) {
+                return acquire(consumerId);
+            }
+            if (nested >= outer) {
+                throw reject(consumer, "Too many concurrent nested streams for consumer " + consumer);
+            }
+            active++;
+            activeByConsumer.merge(consumer, 1, Integer::sum);
+            nestedByConsumer.merge(consumer, 1, Integer::sum);
+            log.debug("Admitted nested stream for {}. Active: {}, queued: {}", consumer, active, waiters.size());
+            return new Permit(consumer, true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitSlot(String consumer) {
+        if (waiters.size() >= queueSize) {
+            throw reject(consumer, "Server is at its concurrent stream limit");
+        }
+        Condition turn = lock.newCondition();
+        waiters.addLast(turn);
+        try {
+            long remaining = queueTimeoutNanos;
+            while (waiters.peekFirst() != turn || globalAtLimit()) {
+                if (remaining <= 0L) {
+                    throw reject(consumer, "Timed out waiting for a stream slot");
+                }
+                remaining = turn.awaitNanos(remaining);
+            }
+            if (consumerAtLimit(consumer)) {
+                throw reject(consumer, "Too many concurrent streams for consumer " + consumer);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject(consumer, "Interrupted waiting for a stream slot");
+        } finally {
+            // Admitted or given up: either way the next waiter may now be at the head with a slot free
+            waiters.remove(turn);
+            signalNextWaiter();
+        }
+    }
+
+    private void signalNextWaiter() {
+        Condition next = waiters.peekFirst();
+        if (next != null) {
+            next.signal();
+        }
+    }
+
+    private void release(String consumer, boolean nested) {
+        lock.lock();
+        try {
+            active--;
+            activeByConsumer.computeIfPresent(consumer, (k, v) -> v <= 1 ? null : v - 1);
+            if (nested) {
+                nestedByConsumer.computeIfPresent(consumer, (k, v) -> v <= 1 ? null : v - 1);
+            }
+            signalNextWaiter();
+            log.debug("Released stream for {}. Active: {}, queued: {}", consumer, active, waiters.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean globalAtLimit() {
+        return maxStreams > 0 && active >= maxStreams;
+    }
+
+    private boolean consumerAtLimit(String consumer) {
+        return maxStreamsPerConsumer > 0 && activeByConsumer.getOrDefault(consumer, 0) >= maxStreamsPerConsumer;
+    }
+
+    private StreamAdmissionException reject(String consumer, String reason) {
+        rejected.incrementAndGet();
+        log.warn("Rejected stream for {}: {}. Active: {}, queued: {}", consumer, reason, active, waiters.size());
+        return new StreamAdmissionException(reason, retryAfter);
+    }
+
+    @Override
+    public int getActiveStreams() {
+        lock.lock();
+        try {
+            return active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getQueuedStreams() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getMaxStreams() {
+        return maxStreams;
+    }
+
+    @Override
+    public int getMaxStreamsPerConsumer() {
+        return maxStreamsPerConsumer;
+    }
+
+    @Override
+    public long getRejectedStreams() {
+        return rejected.get();
+    }
+
+    @Override
+    public Map<String, Integer> getActiveStreamsByConsumer() {
+        lock.lock();
+        try {
+            return Map.copyOf(activeByConsumer);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Held for the lifetime of an admitted stream. Closing it more than once has no further effect.
+     */
+    public final class Permit implements AutoCloseable {
+        private final String consumer;
+        private final boolean nested;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Permit(String consumer, boolean nested) {
+            this.consumer = consumer;
+            this.nested = nested;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release(consumer, nested);
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.server.admission;
+
+import java.util.Map;
+
+/**
+ * JMX view of stream admission, registered as {@value StreamAdmissionController#OBJECT_NAME}.
+ */
+public interface StreamAdmissionMXBean {
+
+    int getActiveStreams();
+
+    int getQueuedStreams();
+
+    int getMaxStreams();
+
+    int getMaxStreamsPerConsumer();
+
+    long getRejectedStreams();
+
+    Map<String, Integer> getActiveStreamsByConsumer();
+}
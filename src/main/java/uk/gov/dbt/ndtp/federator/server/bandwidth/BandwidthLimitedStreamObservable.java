@@ -0,0 +1,84 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.server.bandwidth;
+
+import java.util.Objects;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+import uk.gov.dbt.ndtp.federator.server.interfaces.StreamObservable;
+
+/**
+ * Passes each message through the {@link BandwidthScheduler} before handing it to the wrapped stream. While the
+ * scheduler reports a debt the stream is not ready, and {@link #readyDelayNanos()} says when to try again.
+ *
+ * @param <T> stream message type
+ */
+final class BandwidthLimitedStreamObservable<T> implements StreamObservable<T> {
+
+    private final StreamObservable<T> delegate;
+    private final ToIntFunction<T> sizer;
+    private final LongConsumer pacer;
+    private final LongSupplier debt;
+
+    /**
+     * @param pacer charges, and for blocking streams waits for, the bytes of each message
+     * @param debt nanoseconds until the stream may send again; always 0 for blocking streams
+     */
+    BandwidthLimitedStreamObservable(
+            StreamObservable<T> delegate, ToIntFunction<T> sizer, LongConsumer pacer, LongSupplier debt) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.sizer = Objects.requireNonNull(sizer, "sizer");
+        this.pacer = Objects.requireNonNull(pacer, "pacer");
+        this.debt = Objects.requireNonNull(debt, "debt");
+    }
+
+    @Override
+    public void onNext(T value) {
+        pacer.accept(sizer.applyAsInt(value));
+        delegate.onNext(value);
+    }
+
+    @Override
+    public boolean isReady() {
+        return debt.getAsLong() <= 0 && delegate.isReady();
+    }
+
+    @Override
+    public long readyDelayNanos() {
+        long wait = debt.getAsLong();
+        return wait > 0 ? wait : delegate.readyDelayNanos();
+    }
+
+    @Override
+    public void setOnCancelHandler(Runnable onCancelHandler) {
+        delegate.setOnCancelHandler(onCancelHandler);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return delegate.isCancelled();
+    }
+
+    @Override
+    public void onError(Exception e) {
+        delegate.onError(e);
+    }
+
+    @Override
+    public void onCompleted() {
+        delegate.onCompleted();
+    }
+
+    @Override
+    public void setOnReadyHandler(Runnable onReadyHandler) {
+        delegate.setOnReadyHandler(onReadyHandler);
+    }
+
+    @Override
+    public boolean isReadyDriven() {
+        return delegate.isReadyDriven();
+    }
+}
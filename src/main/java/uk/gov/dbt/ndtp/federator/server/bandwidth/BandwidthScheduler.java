@@ -0,0 +1,262 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.server.bandwidth;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
+import uk.gov.dbt.ndtp.federator.server.interfaces.StreamObservable;
+
+/**
+ * Shares server uplink bandwidth between streams using token buckets.
+ * <p>
+ * Two kinds of bucket apply to each message:
+ * <ul>
+ *   <li>a per-consumer bucket for each {@link StreamType}, shared by all of that consumer's streams of that type and
+ *   sized from the consumer's entry in the producer configuration;</li>
+ *   <li>a server-wide bucket ({@value #BYTES_PER_SECOND}). Topic streams are charged for it but never wait on it, so
+ *   they keep their latency; file streams wait until it is back in credit, so bulk transfers only use the capacity
+ *   topic streams leave.</li>
+ * </ul>
+ * Streams with no applicable limit are returned unwrapped and pay nothing.
+ * <p>
+ * Ready-driven streams never block their shared thread. Instead they report not ready while the buckets they would
+ * wait on are in debt, together with the delay until they are back in credit, so their driver tries again then.
+ * <p>
+ * A consumer bucket that has refilled completely is the same as a new one, so such buckets are dropped from time to
+ * time to keep the map from growing with every consumer ever seen.
+ */
+@Slf4j
+public final class BandwidthScheduler {
+
+    // Server-wide uplink budget in bytes per second; 0 (default) disables the server-wide limit
+    public static final String BYTES_PER_SECOND = "server.bandwidth.bytesPerSecond";
+    public static final String DEFAULT_BYTES_PER_SECOND = "0";
+
+    // Longest single sleep, so a cancelled stream stops waiting promptly
+    private static final long MAX_PAUSE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    // How often full consumer buckets are dropped
+    private static final long EVICTION_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final AtomicReference<BandwidthScheduler> INSTANCE = new AtomicReference<>();
+    private static final ReentrantLock INSTANCE_LOCK = new ReentrantLock();
+
+    private final TokenBucket server;
+    private final Map<ConsumerKey, TokenBucket> consumers = new ConcurrentHashMap<>();
+    private final LongSupplier nanoClock;
+    private final LongConsumer pauser;
+    private final AtomicLong lastEvictionNanos;
+
+    public BandwidthScheduler(long serverBytesPerSecond) {
+        this(serverBytesPerSecond, System::nanoTime, BandwidthScheduler::sleepNanos);
+    }
+
+    BandwidthScheduler(long serverBytesPerSecond, LongSupplier nanoClock, LongConsumer pauser) {
+        this.nanoClock = nanoClock;
+        this.pauser = pauser;
+        this.server = serverBytesPerSecond > 0 ? new TokenBucket(serverBytesPerSecond, nanoClock) : null;
+        this.lastEvictionNanos = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * @return the process-wide scheduler, created from server properties on first use
+     */
+    public static BandwidthScheduler getInstance() {
+        BandwidthScheduler scheduler = INSTANCE.get();
+        if (scheduler != null) {
+            return scheduler;
+        }
+        INSTANCE_LOCK.lock();
+        try {
+            if (INSTANCE.get() == null) {
+                INSTANCE.set(fromProperties());
+            }
+            return INSTANCE.get();
+        } finally {
+            INSTANCE_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Testing helper to reset the singleton so the limit can be reconfigured per test.
+     */
+    public static void clearForTests() {
+        INSTANCE.set(null);
+    }
+
+    private static BandwidthScheduler fromProperties() {
+        long bytesPerSecond;
+        try {
+            bytesPerSecond = PropertyUtil.getPropertyLongValue(BYTES_PER_SECOND, DEFAULT_BYTES_PER_SECOND);
+        } catch (PropertyUtil.PropertyUtilException e) {
+            log.warn("Properties not loaded, server bandwidth is unlimited");
+            bytesPerSecond = 0L;
+        }
+        log.info("Server bandwidth limit: {} bytes/s", bytesPerSecond > 0 ? bytesPerSecond : "unlimited");
+        return new BandwidthScheduler(bytesPerSecond);
+    }
+
+    /**
+     * Wraps a stream so every message is paced by the consumer's and the server's buckets.
+     *
+     * @param observable the stream to pace
+     * @param consumerId the consumer the stream belongs to
+     * @param type the kind of stream
+     * @param consumerBytesPerSecond the consumer's limit for this stream type; 0 or less for none
+     * @param sizer returns the wire size of a message
+     * @return the paced stream, or {@code observable} itself if no limit applies
+     */
+    public <T> StreamObservable<T> throttle(
+            StreamObservable<T> observable,
+            String consumerId,
+            StreamType type,
+            long consumerBytesPerSecond,
+            ToIntFunction<T> sizer) {
+        evictFullBuckets();
+        ConsumerLimit own = consumerLimit(consumerId, type, consumerBytesPerSecond);
+        TokenBucket shared = server;
+        TokenBucket held = type == StreamType.FILE ? shared : null;
+        if (own == null && shared == null) {
+            return observable;
+        }
+        log.debug(
+                "Pacing {} stream for {} (consumer limit: {} bytes/s, server limit: {} bytes/s)",
+                type,
+                consumerId,
+                own == null ? "none" : own.bytesPerSecond(),
+                shared == null ? "none" : shared.bytesPerSecond());
+        if (observable.isReadyDriven()) {
+            return new BandwidthLimitedStreamObservable<>(
+                    observable, sizer, bytes -> charge(own, shared, bytes), () -> debtNanos(own, held));
+        }
+        return new BandwidthLimitedStreamObservable<>(
+                observable, sizer, bytes -> await(own, shared, held, bytes, observable::isCancelled), () -> 0L);
+    }
+
+    private ConsumerLimit consumerLimit(String consumerId, StreamType type, long bytesPerSecond) {
+        ConsumerKey key = new ConsumerKey(consumerId == null ? "" : consumerId.toLowerCase(Locale.ROOT), type);
+        if (bytesPerSecond <= 0) {
+            consumers.remove(key);
+            return null;
+        }
+        // Rebuild the bucket if the configured rate has changed since the consumer's last stream
+        consumers.compute(
+                key,
+                (k, existing) -> existing != null && existing.bytesPerSecond() == bytesPerSecond
+                        ? existing
+                        : new TokenBucket(bytesPerSecond, nanoClock));
+        return new ConsumerLimit(key, bytesPerSecond);
+    }
+
+    /**
+     * Takes {@code bytes} from the consumer's bucket, recreating it if it was dropped while full. Done inside
+     * {@code compute} so it cannot land on a bucket that is being dropped.
+     *
+     * @return how long, in nanoseconds, until the bucket is back in credit
+     */
+    private long takeFromConsumer(ConsumerLimit own, long bytes) {
+        TokenBucket bucket = consumers.compute(own.key(), (k, existing) -> {
+            TokenBucket current = existing != null ? existing : new TokenBucket(own.bytesPerSecond(), nanoClock);
+            current.take(bytes);
+            return current;
+        });
+        return bucket.waitNanos();
+    }
+
+    private void evictFullBuckets() {
+        long now = nanoClock.getAsLong();
+        long last = lastEvictionNanos.get();
+        if (now - last < EVICTION_INTERVAL_NANOS || !lastEvictionNanos.compareAndSet(last, now)) {
+            return;
+        }
+        for (ConsumerKey key : consumers.keySet()) {
+            consumers.computeIfPresent(key, (k, bucket) -> bucket.isFull() ? null : bucket);
+        }
+    }
+
+    /**
+     * @return how long, in nanoseconds, until neither the consumer's bucket nor {@code held} is in debt
+     */
+    private long debtNanos(ConsumerLimit own, TokenBucket held) {
+        long wait = 0L;
+        if (own != null) {
+            TokenBucket bucket = consumers.get(own.key());
+            if (bucket != null) {
+                wait = bucket.waitNanos();
+            }
+        }
+        if (held != null) {
+            wait = Math.max(wait, held.waitNanos());
+        }
+        return wait;
+    }
+
+    /**
+     * Ready-driven streams must not block their shared thread, so they are charged without waiting and are held
+     * back through {@link StreamObservable#isReady()} instead.
+     */
+    private void charge(ConsumerLimit own, TokenBucket shared, long bytes) {
+        if (own != null) {
+            takeFromConsumer(own, bytes);
+        }
+        if (shared != null) {
+            shared.take(bytes);
+        }
+    }
+
+    /**
+     * @param held the server-wide bucket if this stream waits for it (file streams), otherwise {@code null}
+     */
+    private void await(ConsumerLimit own, TokenBucket shared, TokenBucket held, long bytes, BooleanSupplier cancelled) {
+        if (own != null) {
+            pause(takeFromConsumer(own, bytes), cancelled);
+        }
+        if (shared == null) {
+            return;
+        }
+        if (held != null) {
+            long wait;
+            while ((wait = held.waitNanos()) > 0 && !stopWaiting(cancelled)) {
+                pause(wait, cancelled);
+            }
+        }
+        shared.take(bytes);
+    }
+
+    private void pause(long nanos, BooleanSupplier cancelled) {
+        long remaining = nanos;
+        while (remaining > 0 && !stopWaiting(cancelled)) {
+            long slice = Math.min(remaining, MAX_PAUSE_NANOS);
+            pauser.accept(slice);
+            remaining -= slice;
+        }
+    }
+
+    private static boolean stopWaiting(BooleanSupplier cancelled) {
+        return cancelled.getAsBoolean() || Thread.currentThread().isInterrupted();
+    }
+
+    private static void sleepNanos(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record ConsumerKey(String consumerId, StreamType type) {}
+
+    private record ConsumerLimit(ConsumerKey key, long bytesPerSecond) {}
+}
@@ -0,0 +1,15 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.server.bandwidth;
+
+/**
+ * The kinds of stream that share server bandwidth.
+ */
+public enum StreamType {
+    /** Latency-sensitive Kafka topic streams; never held back by the server-wide limit. */
+    TOPIC,
+    /** Bulk file transfers; use whatever server-wide capacity topic streams leave. */
+    FILE
+}
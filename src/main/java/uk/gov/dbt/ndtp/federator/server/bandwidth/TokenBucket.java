@@ -0,0 +1,94 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.server.bandwidth;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Byte-rate token bucket that allows debt: a message larger than the remaining tokens is always accepted, and the
+ * caller is told how long to wait before the bucket is back in credit. This keeps chunk sizes independent of the
+ * configured rate.
+ */
+final class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long bytesPerSecond;
+    private final long burstBytes;
+    private final LongSupplier nanoClock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private double tokens;
+    private long lastRefillNanos;
+
+    TokenBucket(long bytesPerSecond, LongSupplier nanoClock) {
+        this.bytesPerSecond = bytesPerSecond;
+        // One second of traffic may be sent in a burst
+        this.burstBytes = bytesPerSecond;
+        this.nanoClock = nanoClock;
+        this.tokens = burstBytes;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    long bytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    /**
+     * Takes {@code bytes} from the bucket.
+     *
+     * @return how long, in nanoseconds, the caller should wait before sending; 0 if the bucket is still in credit
+     */
+    long take(long bytes) {
+        lock.lock();
+        try {
+            refill();
+            tokens -= bytes;
+            return debtNanos();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return how long, in nanoseconds, until the bucket is back in credit; 0 if it is in credit now
+     */
+    long waitNanos() {
+        lock.lock();
+        try {
+            refill();
+            return debtNanos();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return true if the bucket holds a full burst, so it is no different from a new one
+     */
+    boolean isFull() {
+        lock.lock();
+        try {
+            refill();
+            return tokens >= burstBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long debtNanos() {
+        return tokens >= 0 ? 0L : (long) Math.ceil(-tokens * NANOS_PER_SECOND / bytesPerSecond);
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(burstBytes, tokens + (double) elapsed * bytesPerSecond / NANOS_PER_SECOND);
+            lastRefillNanos = now;
+        }
+    }
+}
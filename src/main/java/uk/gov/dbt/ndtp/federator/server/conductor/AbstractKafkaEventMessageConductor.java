@@ -65,18 +65,44 @@ public abstract class AbstractKafkaEventMessageConductor<K, V>
             while (continueProcessing()) {
                 processMessage();
             }
+            finishProcessing();
         } catch (Exception e) {
             throw new MessageProcessingException(e);
         } finally {
-            super.close();
+            close();
         }
     }
 
+    /**
+     * Called once the processing loop ends normally, before the conductor is closed.
+     * Subclasses that buffer work (e.g. a parallel pipeline) flush it here.
+     */
+    @Override
+    @SuppressWarnings("java:S1186") // empty method by design
+    public void finishProcessing() {
+        // nothing buffered by default
+    }
+
     @Override
     public void processMessage() {
         LOGGER.debug("Before messageConsumer.getNextMessage() .... ");
         KafkaEvent<K, V> kafkaEvent = messageConsumer.getNextMessage();
         LOGGER.debug("After messageConsumer.getNextMessage() .... ");
+        processEvent(kafkaEvent);
+    }
+
+    @Override
+    public boolean processAvailableMessage() {
+        KafkaEvent<K, V> kafkaEvent = messageConsumer.getAvailableMessage();
+        processEvent(kafkaEvent);
+        return kafkaEvent != null;
+    }
+
+    /**
+     * Filters and processes a single polled event.
+     * @param kafkaEvent the event returned by the consumer, or null if the poll timed out
+     */
+    protected void processEvent(KafkaEvent<K, V> kafkaEvent) {
         if (kafkaEvent == null) {
             LOGGER.debug("Timed out waiting for Consumer to return more events, continue waiting");
         } else {
@@ -94,6 +120,13 @@ public abstract class AbstractKafkaEventMessageConductor<K, V>
         }
     }
 
+    /**
+     * @return the attribute filter that applies to {@code kafkaEvent}; the conductor's filter unless overridden
+     */
+    protected List<AttributesDTO> filterAttributesFor(KafkaEvent<K, V> kafkaEvent) {
+        return filterAttributes;
+    }
+
     /**
      * Determines whether the given Kafka event should be allowed through based on header attributes.
      * Rules:
@@ -102,7 +135,8 @@ public abstract class AbstractKafkaEventMessageConductor<K, V>
      * 3) If multiple attributes are set, require ALL of them to match (AND semantics).
      */
     protected boolean isEventAllowed(KafkaEvent<K, V> kafkaEvent) {
-        if (filterAttributes == null || filterAttributes.isEmpty()) {
+        List<AttributesDTO> attributes = filterAttributesFor(kafkaEvent);
+        if (attributes == null || attributes.isEmpty()) {
             return true; // Rule 1
         }
 
@@ -110,10 +144,10 @@ public abstract class AbstractKafkaEventMessageConductor<K, V>
         LOGGER.debug("Processing Message. SecLabel for message {}", secLabel);
 
         Map<String, String> headerMap = getMapFromSecurityLabel(secLabel);
-        LOGGER.debug("Headers map: {} , Filtering attributes: {}", headerMap, filterAttributes);
+        LOGGER.debug("Headers map: {} , Filtering attributes: {}", headerMap, attributes);
 
         // AND semantics across all configured attributes
-        for (AttributesDTO attr : filterAttributes) {
+        for (AttributesDTO attr : attributes) {
             if (attr == null) continue; // ignore null entries defensively
             String name = attr.getName();
             String expectedValue = attr.getValue();
@@ -7,17 +7,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.gov.dbt.ndtp.federator.common.model.dto.AttributesDTO;
 import uk.gov.dbt.ndtp.federator.server.consumer.ClientTopicOffsets;
-import uk.gov.dbt.ndtp.federator.server.consumer.KafkaEventMessageConsumer;
+import uk.gov.dbt.ndtp.federator.server.consumer.KafkaMessageConsumers;
 import uk.gov.dbt.ndtp.federator.server.consumer.MessageConsumer;
 import uk.gov.dbt.ndtp.federator.server.interfaces.StreamObservable;
 import uk.gov.dbt.ndtp.federator.server.processor.MessageProcessor;
 import uk.gov.dbt.ndtp.federator.server.processor.file.FileKafkaEventMessageProcessor;
+import uk.gov.dbt.ndtp.federator.server.processor.file.FileRange;
 import uk.gov.dbt.ndtp.grpc.FileStreamEvent;
+import uk.gov.dbt.ndtp.grpc.FileStreamRequest;
 import uk.gov.dbt.ndtp.secure.agent.sources.kafka.KafkaEvent;
 
 /**
  * Reads a file path from the Kafka event value (plain string),
  * streams the file contents into a KafkaByteBatch and forwards it to the server call stream observer.
+ * <p>
+ * A conductor given a {@link FileRange} serves one retransmission and then stops. It always reads with an assigned
+ * consumer: the client's file stream is still open while it asks for the range, and a second member of the client's
+ * consumer group would rebalance the partitions away from that stream.
  */
 public class FileConductor extends AbstractKafkaEventMessageConductor<String, byte[]> {
 
@@ -29,17 +35,33 @@ public class FileConductor extends AbstractKafkaEventMessageConductor<String, by
             ClientTopicOffsets topicData,
             StreamObservable<FileStreamEvent> serverCallStreamObserver,
             List<AttributesDTO> filterAttributes) {
+        this(topicData, serverCallStreamObserver, filterAttributes, FileStreamRequest.getDefaultInstance());
+    }
+
+    /**
+     * @param fileRequest the client's request, for its retransmission range, checksum algorithm and bundle support
+     */
+    public FileConductor(
+            ClientTopicOffsets topicData,
+            StreamObservable<FileStreamEvent> serverCallStreamObserver,
+            List<AttributesDTO> filterAttributes,
+            FileStreamRequest fileRequest) {
 
         this(
                 serverCallStreamObserver,
-                new KafkaEventMessageConsumer<>(
+                KafkaMessageConsumers.create(
                         StringDeserializer.class,
                         ByteArrayDeserializer.class,
-                        topicData.getTopic(),
-                        topicData.getOffset(),
-                        topicData.getClient()),
+                        topicData,
+                        FileRange.of(fileRequest) != null
+                                ? KafkaMessageConsumers.Mode.ASSIGN
+                                : KafkaMessageConsumers.mode()),
                 filterAttributes,
-                new FileKafkaEventMessageProcessor(serverCallStreamObserver));
+                new FileKafkaEventMessageProcessor(
+                        serverCallStreamObserver,
+                        FileRange.of(fileRequest),
+                        fileRequest.getChecksumAlgorithm(),
+                        fileRequest.getAcceptBundles()));
     }
 
     private FileConductor(
@@ -58,6 +80,29 @@ public class FileConductor extends AbstractKafkaEventMessageConductor<String, by
             LOGGER.info("Observer is closed on client end. Stop further processing.");
             return false;
         }
+        if (messageProcessor instanceof FileKafkaEventMessageProcessor fileProcessor && fileProcessor.isRangeServed()) {
+            return false;
+        }
         return messageConsumer.stillAvailable();
     }
+
+    @Override
+    protected void processEvent(KafkaEvent<String, byte[]> kafkaEvent) {
+        super.processEvent(kafkaEvent);
+        if (kafkaEvent == null) {
+            // The poll came back empty, so send what has been bundled rather than wait for more small files
+            flushBundle();
+        }
+    }
+
+    @Override
+    public void finishProcessing() {
+        flushBundle();
+    }
+
+    private void flushBundle() {
+        if (messageProcessor instanceof FileKafkaEventMessageProcessor fileProcessor) {
+            fileProcessor.flushBundle();
+        }
+    }
 }
@@ -48,6 +48,28 @@ public interface MessageConductor extends AutoCloseable {
      */
     void processMessage() throws MessageProcessingException;
 
+    /**
+     * Process a single message only if one is available without waiting for the source.
+     * Used when the stream is driven by transport readiness rather than a dedicated thread.
+     *
+     * @return true if a message was consumed, false if none was available
+     * @throws MessageProcessingException Thrown if there is an issue with the message or processing
+     */
+    default boolean processAvailableMessage() throws MessageProcessingException {
+        processMessage();
+        return true;
+    }
+
+    /**
+     * Completes any work still buffered once processing has ended normally, before {@link #close()} is called.
+     * Conductors that hand records to a worker pool emit the ones still in flight here.
+     *
+     * @throws MessageProcessingException Thrown if the buffered work cannot be completed
+     */
+    default void finishProcessing() throws MessageProcessingException {
+        // nothing buffered by default
+    }
+
     /**
      * Checks whether we should continue processing messages
      *
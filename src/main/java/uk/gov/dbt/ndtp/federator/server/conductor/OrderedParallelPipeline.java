@@ -0,0 +1,132 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.server.conductor;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.dbt.ndtp.federator.exceptions.MessageProcessingException;
+
+/**
+ * Runs a CPU-bound stage (e.g. filter + serialise) for a single stream on a shared worker pool while
+ * preserving the order in which items were submitted.
+ * <p>
+ * Each submitted item is tagged with a monotonically increasing sequence number and at most {@code depth}
+ * items are in flight at once. Results are handed to the sink strictly in sequence order, always on the
+ * submitting (conductor) thread, so the sink never needs to be thread-safe. A stage returning {@code null}
+ * drops the item (e.g. filtered out) without breaking ordering.
+ * <p>
+ * Instances are not thread-safe; they are owned by exactly one conductor.
+ *
+ * @param <T> the input type
+ * @param <R> the output type passed to the sink
+ */
+@Slf4j
+public class OrderedParallelPipeline<T, R> implements AutoCloseable {
+
+    private final ExecutorService workers;
+    private final Function<T, R> stage;
+    private final Consumer<R> sink;
+    private final int depth;
+    private final Deque<Slot<R>> inFlight;
+    private long nextSequence;
+    private long nextToEmit;
+
+    public OrderedParallelPipeline(ExecutorService workers, int depth, Function<T, R> stage, Consumer<R> sink) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Pipeline depth must be at least 1, was " + depth);
+        }
+        this.workers = Objects.requireNonNull(workers, "workers");
+        this.stage = Objects.requireNonNull(stage, "stage");
+        this.sink = Objects.requireNonNull(sink, "sink");
+        this.depth = depth;
+        this.inFlight = new ArrayDeque<>(depth);
+    }
+
+    /**
+     * Submits an item to the worker pool. Blocks (emitting the oldest result) while the pipeline is full, then
+     * emits any further results that are already complete at the head of the queue.
+     *
+     * @param item the item to process
+     * @throws MessageProcessingException if an earlier item failed in the stage
+     */
+    public void submit(T item) {
+        while (inFlight.size() >= depth) {
+            emitHead();
+        }
+        long sequence = nextSequence++;
+        inFlight.addLast(new Slot<>(sequence, workers.submit(() -> stage.apply(item))));
+        while (!inFlight.isEmpty() && inFlight.peekFirst().result().isDone()) {
+            emitHead();
+        }
+    }
+
+    /**
+     * Waits for all in-flight items and emits them in order.
+     *
+     * @throws MessageProcessingException if any item failed in the stage
+     */
+    public void drain() {
+        while (!inFlight.isEmpty()) {
+            emitHead();
+        }
+    }
+
+    /**
+     * @return the number of submitted items not yet handed to the sink
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Cancels anything still in flight without emitting it. The worker pool is shared and is not shut down.
+     */
+    @Override
+    public void close() {
+        Slot<R> slot;
+        while ((slot = inFlight.pollFirst()) != null) {
+            slot.result().cancel(true);
+        }
+    }
+
+    private void emitHead() {
+        Slot<R> slot = inFlight.pollFirst();
+        if (slot == null) {
+            return;
+        }
+        if (slot.sequence() != nextToEmit) {
+            // Cannot happen while the deque is only appended to in sequence order, guard against future changes.
+            throw new IllegalStateException(
+                    "Pipeline out of order: expected sequence " + nextToEmit + " but found " + slot.sequence());
+        }
+        nextToEmit++;
+        R value;
+        try {
+            value = slot.result().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new MessageProcessingException("Interrupted waiting for pipeline stage", e);
+        } catch (ExecutionException e) {
+            close();
+            throw new MessageProcessingException(
+                    "Pipeline stage failed for sequence " + slot.sequence(), e.getCause());
+        }
+        if (value != null) {
+            sink.accept(value);
+        } else {
+            log.debug("Pipeline item {} dropped by stage", slot.sequence());
+        }
+    }
+
+    private record Slot<R>(long sequence, Future<R> result) {}
+}
@@ -26,17 +26,21 @@
 
 package uk.gov.dbt.ndtp.federator.server.conductor;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.gov.dbt.ndtp.federator.common.model.dto.AttributesDTO;
+import uk.gov.dbt.ndtp.federator.exceptions.MessageProcessingException;
+import uk.gov.dbt.ndtp.federator.server.consumer.AssignedKafkaEventMessageConsumer;
 import uk.gov.dbt.ndtp.federator.server.consumer.ClientTopicOffsets;
-import uk.gov.dbt.ndtp.federator.server.consumer.KafkaEventMessageConsumer;
+import uk.gov.dbt.ndtp.federator.server.consumer.KafkaMessageConsumers;
 import uk.gov.dbt.ndtp.federator.server.consumer.MessageConsumer;
 import uk.gov.dbt.ndtp.federator.server.interfaces.StreamObservable;
-import uk.gov.dbt.ndtp.federator.server.processor.MessageProcessor;
 import uk.gov.dbt.ndtp.federator.server.processor.kafka.RdfKafkaEventMessageProcessor;
 import uk.gov.dbt.ndtp.grpc.KafkaByteBatch;
 import uk.gov.dbt.ndtp.secure.agent.payloads.RdfPayload;
@@ -45,38 +49,174 @@ import uk.gov.dbt.ndtp.secure.agent.sources.kafka.serializers.RdfPayloadDeserial
 
 /**
  * Message processor for Kafka Events (of RDF Payloads)
+ * <p>
+ * When constructed with a pipeline executor, filtering and RDF serialisation run on that pool through an
+ * {@link OrderedParallelPipeline}, so a single stream can use more than one core. Records are still sent to the
+ * client in offset order.
+ * <p>
+ * For a followed stream ({@link ClientTopicOffsets#isFollow()}) the consumer never closes on inactivity, and a
+ * heartbeat batch is sent at the configured interval so the client can tell an idle topic from a dead connection.
+ * <p>
+ * {@link #forTopics} builds a conductor for a multi-topic stream: one consumer reads all the topics, records keep
+ * their topic name, and each record is filtered with the attributes configured for its own topic.
  */
 public class RdfMessageConductor extends AbstractKafkaEventMessageConductor<String, RdfPayload> {
 
     public static final Logger LOGGER = LoggerFactory.getLogger("RdfMessageProcessor");
 
     private final StreamObservable<KafkaByteBatch> serverCallStreamObserver;
+    private final OrderedParallelPipeline<KafkaEvent<String, RdfPayload>, KafkaByteBatch> pipeline;
+    private final KafkaByteBatch heartbeat;
+    private final long heartbeatIntervalNanos;
+    // Per-topic filters of a multi-topic stream; null for a single-topic stream
+    private final Map<String, List<AttributesDTO>> filterAttributesByTopic;
+    private long lastHeartbeatNanos = System.nanoTime();
 
     public RdfMessageConductor(
             ClientTopicOffsets topicData,
             StreamObservable<KafkaByteBatch> serverCallStreamObserver,
             List<AttributesDTO> filterAttributes,
             Set<String> sharedHeaders) {
+        this(topicData, serverCallStreamObserver, filterAttributes, sharedHeaders, null, 1);
+    }
+
+    /**
+     * @param pipelineExecutor worker pool for filter/serialise, or {@code null} to process sequentially
+     * @param pipelineDepth maximum number of records in flight on the pool for this stream
+     */
+    public RdfMessageConductor(
+            ClientTopicOffsets topicData,
+            StreamObservable<KafkaByteBatch> serverCallStreamObserver,
+            List<AttributesDTO> filterAttributes,
+            Set<String> sharedHeaders,
+            ExecutorService pipelineExecutor,
+            int pipelineDepth) {
         this(
+                topicData,
                 serverCallStreamObserver,
-                new KafkaEventMessageConsumer<>(
-                        StringDeserializer.class,
-                        RdfPayloadDeserializer.class,
-                        topicData.getTopic(),
-                        topicData.getOffset(),
-                        topicData.getClient()),
                 filterAttributes,
-                new RdfKafkaEventMessageProcessor(serverCallStreamObserver, sharedHeaders));
+                sharedHeaders,
+                pipelineExecutor,
+                pipelineDepth,
+                Duration.ZERO);
+    }
+
+    /**
+     * @param heartbeatInterval how often a followed stream sends a heartbeat; zero disables heartbeats
+     */
+    public RdfMessageConductor(
+            ClientTopicOffsets topicData,
+            StreamObservable<KafkaByteBatch> serverCallStreamObserver,
+            List<AttributesDTO> filterAttributes,
+            Set<String> sharedHeaders,
+            ExecutorService pipelineExecutor,
+            int pipelineDepth,
+            Duration heartbeatInterval) {
+        this(
+                serverCallStreamObserver,
+                KafkaMessageConsumers.create(StringDeserializer.class, RdfPayloadDeserializer.class, topicData),
+                filterAttributes,
+                new RdfKafkaEventMessageProcessor(serverCallStreamObserver, sharedHeaders),
+                pipelineExecutor,
+                pipelineDepth,
+                heartbeatFor(topicData, heartbeatInterval),
+                heartbeatInterval,
+                null);
     }
 
     private RdfMessageConductor(
             StreamObservable<KafkaByteBatch> serverCallStreamObserver,
             MessageConsumer<KafkaEvent<String, RdfPayload>> consumer,
             List<AttributesDTO> filterAttributes,
-            MessageProcessor<KafkaEvent<String, RdfPayload>> postProcessor) {
+            RdfKafkaEventMessageProcessor postProcessor,
+            ExecutorService pipelineExecutor,
+            int pipelineDepth,
+            KafkaByteBatch heartbeat,
+            Duration heartbeatInterval,
+            Map<String, List<AttributesDTO>> filterAttributesByTopic) {
 
         super(consumer, postProcessor, filterAttributes);
         this.serverCallStreamObserver = serverCallStreamObserver;
+        this.filterAttributesByTopic = filterAttributesByTopic;
+        this.heartbeat = heartbeat;
+        this.heartbeatIntervalNanos = heartbeatInterval.toNanos();
+        this.pipeline = pipelineExecutor == null
+                ? null
+                : new OrderedParallelPipeline<>(
+                        pipelineExecutor,
+                        pipelineDepth,
+                        event -> filterAndSerialise(event, postProcessor),
+                        serverCallStreamObserver::onNext);
+    }
+
+    /**
+     * Builds the conductor for a multi-topic stream. A followed stream's heartbeats carry no topic.
+     *
+     * @param topicOffsets offset to start from per topic
+     * @param filterAttributesByTopic attribute filter per topic
+     * @param follow true to keep the stream open while every topic is idle
+     */
+    public static RdfMessageConductor forTopics(
+            Map<String, Long> topicOffsets,
+            Map<String, List<AttributesDTO>> filterAttributesByTopic,
+            boolean follow,
+            StreamObservable<KafkaByteBatch> serverCallStreamObserver,
+            Set<String> sharedHeaders,
+            ExecutorService pipelineExecutor,
+            int pipelineDepth,
+            Duration heartbeatInterval) {
+        return forTopics(
+                new AssignedKafkaEventMessageConsumer<>(
+                        StringDeserializer.class, RdfPayloadDeserializer.class, topicOffsets, follow),
+                filterAttributesByTopic,
+                follow,
+                serverCallStreamObserver,
+                sharedHeaders,
+                pipelineExecutor,
+                pipelineDepth,
+                heartbeatInterval);
+    }
+
+    static RdfMessageConductor forTopics(
+            MessageConsumer<KafkaEvent<String, RdfPayload>> consumer,
+            Map<String, List<AttributesDTO>> filterAttributesByTopic,
+            boolean follow,
+            StreamObservable<KafkaByteBatch> serverCallStreamObserver,
+            Set<String> sharedHeaders,
+            ExecutorService pipelineExecutor,
+            int pipelineDepth,
+            Duration heartbeatInterval) {
+        KafkaByteBatch heartbeat = follow && heartbeatInterval.isPositive()
+                ? KafkaByteBatch.newBuilder().setHeartbeat(true).build()
+                : null;
+        return new RdfMessageConductor(
+                serverCallStreamObserver,
+                consumer,
+                List.of(),
+                new RdfKafkaEventMessageProcessor(serverCallStreamObserver, sharedHeaders),
+                pipelineExecutor,
+                pipelineDepth,
+                heartbeat,
+                heartbeatInterval,
+                Map.copyOf(filterAttributesByTopic));
+    }
+
+    private static KafkaByteBatch heartbeatFor(ClientTopicOffsets topicData, Duration heartbeatInterval) {
+        if (!topicData.isFollow() || !heartbeatInterval.isPositive()) {
+            return null;
+        }
+        return KafkaByteBatch.newBuilder()
+                .setTopic(topicData.getTopic())
+                .setHeartbeat(true)
+                .build();
+    }
+
+    @Override
+    protected List<AttributesDTO> filterAttributesFor(KafkaEvent<String, RdfPayload> kafkaEvent) {
+        if (filterAttributesByTopic == null) {
+            return super.filterAttributesFor(kafkaEvent);
+        }
+        return filterAttributesByTopic.getOrDefault(kafkaEvent.getConsumerRecord().topic(), List.of());
     }
 
     @Override
@@ -87,4 +227,72 @@ public class RdfMessageConductor extends AbstractKafkaEventMessageConductor<Stri
         }
         return messageConsumer.stillAvailable();
     }
+
+    @Override
+    protected void processEvent(KafkaEvent<String, RdfPayload> kafkaEvent) {
+        if (pipeline == null) {
+            super.processEvent(kafkaEvent);
+        } else {
+            submitToPipeline(kafkaEvent);
+        }
+        sendHeartbeatIfDue();
+    }
+
+    private void submitToPipeline(KafkaEvent<String, RdfPayload> kafkaEvent) {
+        try {
+            if (kafkaEvent == null) {
+                // Nothing new arrived within the poll window, so flush what is in flight rather than holding it back.
+                pipeline.drain();
+            } else {
+                pipeline.submit(kafkaEvent);
+            }
+        } catch (MessageProcessingException e) {
+            LOGGER.error("Exception encountered processing message", e);
+            serverCallStreamObserver.onError(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Sends a heartbeat on a followed stream once the interval has passed since the last one. Runs on the conductor
+     * thread, which is also where pipeline output is emitted, so it never interleaves with a record batch.
+     */
+    private void sendHeartbeatIfDue() {
+        if (heartbeat == null || serverCallStreamObserver.isCancelled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (now - lastHeartbeatNanos >= heartbeatIntervalNanos) {
+            lastHeartbeatNanos = now;
+            serverCallStreamObserver.onNext(heartbeat);
+        }
+    }
+
+    @Override
+    public void finishProcessing() {
+        if (pipeline != null && !serverCallStreamObserver.isCancelled()) {
+            pipeline.drain();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (pipeline != null) {
+            pipeline.close();
+        }
+        super.close();
+    }
+
+    private KafkaByteBatch filterAndSerialise(
+            KafkaEvent<String, RdfPayload> kafkaEvent, RdfKafkaEventMessageProcessor processor) {
+        long offset = kafkaEvent.getConsumerRecord().offset();
+        if (!isEventAllowed(kafkaEvent)) {
+            LOGGER.warn(
+                    "Filtering out message due to attribute filter. Offset: '{}'. Key: '{}'", offset, kafkaEvent.key());
+            return null;
+        }
+        KafkaByteBatch batch = processor.toBatch(kafkaEvent);
+        LOGGER.debug("Serialised message. Offset: '{}'. Key: '{}'", offset, kafkaEvent.key());
+        return batch;
+    }
 }
@@ -0,0 +1,170 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.server.conductor;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.dbt.ndtp.federator.server.interfaces.StreamObservable;
+
+/**
+ * Drives a {@link MessageConductor} from transport readiness instead of a dedicated thread.
+ * <p>
+ * Each "turn" runs on a shared scheduler and processes messages while the observer is ready, up to a fairness
+ * limit. When the transport pushes back the turn simply ends and the next one is triggered by the observer's
+ * onReady callback; when the source has nothing available the next turn is scheduled after an idle delay.
+ * Turns for one stream never overlap, so the conductor (and its Kafka consumer) is only ever used by one thread
+ * at a time, and no thread is parked while a stream is idle or blocked.
+ */
+@Slf4j
+public final class ReadyDrivenConductorDriver {
+
+    private final MessageConductor conductor;
+    private final StreamObservable<?> observer;
+    private final ScheduledExecutorService scheduler;
+    private final long idleDelayNanos;
+    private final int maxMessagesPerTurn;
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicBoolean finished = new AtomicBoolean(false);
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private volatile ScheduledFuture<?> idleWake;
+    private volatile boolean stopRequested;
+
+    public ReadyDrivenConductorDriver(
+            MessageConductor conductor,
+            StreamObservable<?> observer,
+            ScheduledExecutorService scheduler,
+            Duration idleDelay,
+            int maxMessagesPerTurn) {
+        this.conductor = Objects.requireNonNull(conductor, "conductor");
+        this.observer = Objects.requireNonNull(observer, "observer");
+        this.scheduler = Objects.requireNonNull(scheduler, "scheduler");
+        this.idleDelayNanos = Math.max(1L, idleDelay.toNanos());
+        this.maxMessagesPerTurn = Math.max(1, maxMessagesPerTurn);
+    }
+
+    /**
+     * Registers for onReady callbacks and schedules the first turn.
+     *
+     * @return a future completed once the stream has finished (normally, by cancellation or with an error)
+     */
+    public CompletableFuture<Void> start() {
+        observer.setOnReadyHandler(this::signal);
+        signal();
+        return completion;
+    }
+
+    /**
+     * Requests another turn. Safe to call from any thread, including gRPC transport callbacks.
+     */
+    public void signal() {
+        if (finished.get()) {
+            return;
+        }
+        if (pending.getAndIncrement() == 0) {
+            try {
+                scheduler.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                finish(e);
+            }
+        }
+    }
+
+    /**
+     * Stops the stream from the server side, e.g. on shutdown. The conductor is closed on the next turn so that it
+     * is never used by two threads at once.
+     */
+    public void stop() {
+        stopRequested = true;
+        signal();
+    }
+
+    private void drain() {
+        int missed = 1;
+        do {
+            turn();
+            missed = pending.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void turn() {
+        if (finished.get()) {
+            return;
+        }
+        try {
+            for (int processed = 0; processed < maxMessagesPerTurn; processed++) {
+                if (stopRequested || observer.isCancelled() || !conductor.continueProcessing()) {
+                    finish(null);
+                    return;
+                }
+                if (!observer.isReady()) {
+                    long delay = observer.readyDelayNanos();
+                    if (delay > 0) {
+                        // Held back by something other than transport flow control, e.g. a bandwidth limit
+                        scheduleWake(delay);
+                    }
+                    // otherwise onReady will signal the next turn
+                    return;
+                }
+                if (!conductor.processAvailableMessage()) {
+                    scheduleWake(idleDelayNanos);
+                    return;
+                }
+            }
+            // Fairness: let other streams on the scheduler run before continuing with this one
+            scheduler.execute(this::signal);
+        } catch (Exception e) {
+            finish(e);
+        }
+    }
+
+    private void scheduleWake(long delayNanos) {
+        ScheduledFuture<?> previous = idleWake;
+        if (previous != null && !previous.isDone()) {
+            return;
+        }
+        idleWake = scheduler.schedule(this::signal, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void finish(Exception error) {
+        if (!finished.compareAndSet(false, true)) {
+            return;
+        }
+        ScheduledFuture<?> wake = idleWake;
+        if (wake != null) {
+            wake.cancel(false);
+        }
+        Exception failure = error;
+        if (failure == null && !observer.isCancelled()) {
+            try {
+                // Emit what the conductor still holds, e.g. records in flight on a parallel pipeline
+                conductor.finishProcessing();
+            } catch (Exception e) {
+                failure = e;
+            }
+        }
+        try {
+            conductor.close();
+        } catch (Exception e) {
+            log.info("Error whilst closing conductor, ignoring.", e);
+        }
+        if (failure == null) {
+            observer.onCompleted();
+            completion.complete(null);
+        } else {
+            log.error("Error in processing: {}", failure.getMessage());
+            observer.onError(failure);
+            completion.completeExceptionally(failure);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.server.consumer;
+
+import static uk.gov.dbt.ndtp.federator.server.consumer.KafkaEventMessageConsumer.CONSUMER_INACTIVITY_TIMEOUT;
+import static uk.gov.dbt.ndtp.federator.server.consumer.KafkaEventMessageConsumer.DEFAULT_INACTIVITY_TIMEOUT;
+import static uk.gov.dbt.ndtp.federator.server.consumer.KafkaEventMessageConsumer.DEFAULT_POLL_DURATION;
+import static uk.gov.dbt.ndtp.federator.server.consumer.KafkaEventMessageConsumer.KAFKA_POLL_DURATION_KEY;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.dbt.ndtp.federator.common.utils.KafkaUtil;
+import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
+import uk.gov.dbt.ndtp.secure.agent.sources.kafka.KafkaEvent;
+
+/**
+ * Reads a topic without joining a consumer group. All partitions of the topic are assigned directly and the consumer
+ * seeks to the client's offset, so a new stream does not wait for group coordination and a rebalance before its first
+ * record. Nothing is committed to Kafka; the client already tracks its own offsets.
+ * <p>
+ * Offsets behave as for {@link KafkaEventMessageConsumer}: an offset of 0 reads from the beginning, any other offset
+ * is applied to every partition. An offset past the end of a partition starts at its end, and one before its log start
+ * starts at the earliest record still retained.
+ * <p>
+ * One consumer can also read several topics, each from its own offset, for a multi-topic stream.
+ */
+public class AssignedKafkaEventMessageConsumer<K, V> implements MessageConsumer<KafkaEvent<K, V>> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AssignedKafkaEventMessageConsumer.class);
+
+    private final Consumer<K, V> consumer;
+    private final Duration pollDuration;
+    // null when the consumer follows the topic and never closes on inactivity
+    private final Duration inactivityTimeout;
+    private final Deque<ConsumerRecord<K, V>> buffered = new ArrayDeque<>();
+    private Instant lastMessageInstant;
+    private boolean closed;
+
+    /**
+     * @param follow true to keep the consumer open however long the topic is idle
+     */
+    public AssignedKafkaEventMessageConsumer(
+            Class<?> keyDeserializer, Class<?> valueDeserializer, String topic, long offset, boolean follow) {
+        this(
+                new KafkaConsumer<>(KafkaUtil.getAssignedConsumerConfig(keyDeserializer, valueDeserializer)),
+                topic,
+                offset,
+                PropertyUtil.getPropertyDurationValue(KAFKA_POLL_DURATION_KEY, DEFAULT_POLL_DURATION),
+                follow
+                        ? null
+                        : PropertyUtil.getPropertyDurationValue(
+                                CONSUMER_INACTIVITY_TIMEOUT, DEFAULT_INACTIVITY_TIMEOUT));
+    }
+
+    /**
+     * Reads several topics through one consumer, each from its own offset. Records of different topics are
+     * interleaved in poll order.
+     *
+     * @param topicOffsets offset to start from per topic
+     * @param follow true to keep the consumer open however long the topics are idle
+     */
+    public AssignedKafkaEventMessageConsumer(
+            Class<?> keyDeserializer, Class<?> valueDeserializer, Map<String, Long> topicOffsets, boolean follow) {
+        this(
+                new KafkaConsumer<>(KafkaUtil.getAssignedConsumerConfig(keyDeserializer, valueDeserializer)),
+                topicOffsets,
+                PropertyUtil.getPropertyDurationValue(KAFKA_POLL_DURATION_KEY, DEFAULT_POLL_DURATION),
+                follow
+                        ? null
+                        : PropertyUtil.getPropertyDurationValue(
+                                CONSUMER_INACTIVITY_TIMEOUT, DEFAULT_INACTIVITY_TIMEOUT));
+    }
+
+    AssignedKafkaEventMessageConsumer(
+            Consumer<K, V> consumer, String topic, long offset, Duration pollDuration, Duration inactivityTimeout) {
+        this(consumer, Map.of(topic, offset), pollDuration, inactivityTimeout);
+    }
+
+    AssignedKafkaEventMessageConsumer(
+            Consumer<K, V> consumer,
+            Map<String, Long> topicOffsets,
+            Duration pollDuration,
+            Duration inactivityTimeout) {
+        this.consumer = consumer;
+        this.pollDuration = pollDuration;
+        this.inactivityTimeout = inactivityTimeout;
+        try {
+            assignAndSeek(topicOffsets);
+        } catch (RuntimeException e) {
+            consumer.close();
+            throw e;
+        }
+        lastMessageInstant = Instant.now();
+    }
+
+    private void assignAndSeek(Map<String, Long> topicOffsets) {
+        Map<String, List<TopicPartition>> partitionsByTopic = new HashMap<>();
+        for (String topic : topicOffsets.keySet()) {
+            List<PartitionInfo> partitionInfos = consumer.partitionsFor(topic);
+            if (partitionInfos == null || partitionInfos.isEmpty()) {
+                LOGGER.warn("Topic {} has no partitions; nothing to stream", topic);
+                continue;
+            }
+            partitionsByTopic.put(
+                    topic,
+                    partitionInfos.stream()
+                            .map(info -> new TopicPartition(info.topic(), info.partition()))
+                            .toList());
+        }
+        if (partitionsByTopic.isEmpty()) {
+            closed = true;
+            consumer.close();
+            return;
+        }
+        List<TopicPartition> assigned = new ArrayList<>();
+        partitionsByTopic.values().forEach(assigned::addAll);
+        consumer.assign(assigned);
+        partitionsByTopic.forEach((topic, partitions) -> seek(topic, partitions, topicOffsets.get(topic)));
+    }
+
+    private void seek(String topic, List<TopicPartition> partitions, long offset) {
+        if (offset == 0L) {
+            consumer.seekToBeginning(partitions);
+        } else {
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            for (TopicPartition partition : partitions) {
+                consumer.seek(partition, Math.min(offset, endOffsets.getOrDefault(partition, offset)));
+            }
+        }
+        LOGGER.debug("Assigned {} partition(s) of topic {} from offset {}", partitions.size(), topic, offset);
+    }
+
+    @Override
+    public boolean stillAvailable() {
+        if (closed) return false;
+        if (inactivityTimeout != null
+                && buffered.isEmpty()
+                && Duration.between(lastMessageInstant, Instant.now()).compareTo(inactivityTimeout) >= 0) {
+            LOGGER.info("Closing AssignedKafkaEventMessageConsumer due to inactivity timeout of {}", inactivityTimeout);
+            close();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public KafkaEvent<K, V> getNextMessage() {
+        return next(pollDuration);
+    }
+
+    @Override
+    public KafkaEvent<K, V> getAvailableMessage() {
+        return next(Duration.ZERO);
+    }
+
+    private KafkaEvent<K, V> next(Duration timeout) {
+        if (buffered.isEmpty() && !closed) {
+            consumer.poll(timeout).forEach(buffered::add);
+        }
+        ConsumerRecord<K, V> consumerRecord = buffered.poll();
+        if (consumerRecord == null) {
+            return null;
+        }
+        lastMessageInstant = Instant.now();
+        return new KafkaEvent<>(consumerRecord, null);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        buffered.clear();
+        try {
+            consumer.close();
+        } catch (Exception e) {
+            LOGGER.debug("Error while closing Kafka consumer", e);
+        }
+    }
+}
@@ -34,11 +34,20 @@ public class ClientTopicOffsets {
     private final String client;
     private final String topic;
     private final long offset;
+    private final boolean follow;
 
     public ClientTopicOffsets(String client, String topic, long offset) {
+        this(client, topic, offset, false);
+    }
+
+    /**
+     * @param follow true if the stream should stay open while the topic is idle rather than close on inactivity
+     */
+    public ClientTopicOffsets(String client, String topic, long offset, boolean follow) {
         this.client = client;
         this.topic = topic;
         this.offset = offset;
+        this.follow = follow;
     }
 
     public String getClient() {
@@ -52,4 +61,8 @@ public class ClientTopicOffsets {
     public long getOffset() {
         return offset;
     }
+
+    public boolean isFollow() {
+        return follow;
+    }
 }
@@ -40,18 +40,33 @@ public class KafkaEventMessageConsumer<K, V> implements MessageConsumer<KafkaEve
     private static final Logger LOGGER = LoggerFactory.getLogger(KafkaEventMessageConsumer.class);
 
     // Property key for inactivity timeout; if no messages are received for this duration, close the source
-    private static final String CONSUMER_INACTIVITY_TIMEOUT = "consumer.inactivity.timeout";
-    private static final String DEFAULT_INACTIVITY_TIMEOUT = "PT30S";
-    private static final String KAFKA_POLL_DURATION_KEY = "kafka.pollDuration";
-    private static final String DEFAULT_POLL_DURATION = "PT2S";
+    static final String CONSUMER_INACTIVITY_TIMEOUT = "consumer.inactivity.timeout";
+    static final String DEFAULT_INACTIVITY_TIMEOUT = "PT30S";
+    static final String KAFKA_POLL_DURATION_KEY = "kafka.pollDuration";
+    static final String DEFAULT_POLL_DURATION = "PT2S";
 
     private final KafkaEventSource<K, V> source;
     private final Duration pollDuration;
+    // null when the consumer follows the topic and never closes on inactivity
     private final Duration inactivityTimeout;
     private Instant lastMessageInstant;
 
     public KafkaEventMessageConsumer(
             Class<?> keyDeserializer, Class<?> valueDeserializer, String topic, long offset, String consumerGroup) {
+        this(keyDeserializer, valueDeserializer, topic, offset, consumerGroup, false);
+    }
+
+    /**
+     * @param follow true to keep the source open however long the topic is idle; the stream then ends only when the
+     *     client cancels or the server shuts down
+     */
+    public KafkaEventMessageConsumer(
+            Class<?> keyDeserializer,
+            Class<?> valueDeserializer,
+            String topic,
+            long offset,
+            String consumerGroup,
+            boolean follow) {
         source = KafkaUtil.<K, V>getKafkaSourceBuilder()
                 .keyDeserializer(keyDeserializer)
                 .valueDeserializer(valueDeserializer)
@@ -60,8 +75,9 @@ public class KafkaEventMessageConsumer<K, V> implements MessageConsumer<KafkaEve
                 .readPolicy(KafkaUtil.getReadPolicy(offset))
                 .build();
         pollDuration = PropertyUtil.getPropertyDurationValue(KAFKA_POLL_DURATION_KEY, DEFAULT_POLL_DURATION);
-        inactivityTimeout =
-                PropertyUtil.getPropertyDurationValue(CONSUMER_INACTIVITY_TIMEOUT, DEFAULT_INACTIVITY_TIMEOUT);
+        inactivityTimeout = follow
+                ? null
+                : PropertyUtil.getPropertyDurationValue(CONSUMER_INACTIVITY_TIMEOUT, DEFAULT_INACTIVITY_TIMEOUT);
         lastMessageInstant = Instant.now();
     }
 
@@ -70,7 +86,8 @@ public class KafkaEventMessageConsumer<K, V> implements MessageConsumer<KafkaEve
         // If source already closed, short-circuit
         if (source.isClosed()) return false;
         // If we've been idle for longer than inactivityTimeout, close and return false
-        if (Duration.between(lastMessageInstant, Instant.now()).compareTo(inactivityTimeout) >= 0) {
+        if (inactivityTimeout != null
+                && Duration.between(lastMessageInstant, Instant.now()).compareTo(inactivityTimeout) >= 0) {
             LOGGER.info("Closing KafkaEventMessageConsumer due to inactivity timeout of {}", inactivityTimeout);
             try {
                 source.close();
@@ -91,6 +108,15 @@ public class KafkaEventMessageConsumer<K, V> implements MessageConsumer<KafkaEve
         return event;
     }
 
+    @Override
+    public KafkaEvent<K, V> getAvailableMessage() {
+        KafkaEvent<K, V> event = (KafkaEvent<K, V>) source.poll(Duration.ZERO);
+        if (event != null) {
+            lastMessageInstant = Instant.now();
+        }
+        return event;
+    }
+
     @Override
     public void close() {
         source.close();
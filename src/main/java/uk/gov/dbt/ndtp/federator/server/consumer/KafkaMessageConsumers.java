@@ -0,0 +1,76 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.server.consumer;
+
+import java.util.Locale;
+import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
+import uk.gov.dbt.ndtp.secure.agent.sources.kafka.KafkaEvent;
+
+/**
+ * Creates the Kafka consumer for a stream according to {@code server.kafka.consumerMode}:
+ * <ul>
+ *   <li>{@code group} (default) joins a consumer group named after the client, see
+ *   {@link KafkaEventMessageConsumer};</li>
+ *   <li>{@code assign} assigns the topic's partitions directly and seeks to the requested offset, see
+ *   {@link AssignedKafkaEventMessageConsumer}.</li>
+ * </ul>
+ */
+public final class KafkaMessageConsumers {
+
+    public static final String SERVER_KAFKA_CONSUMER_MODE = "server.kafka.consumerMode";
+    private static final String DEFAULT_CONSUMER_MODE = "group";
+
+    public enum Mode {
+        GROUP,
+        ASSIGN
+    }
+
+    private KafkaMessageConsumers() {}
+
+    /**
+     * @return the configured consumer mode
+     */
+    public static Mode mode() {
+        String mode = PropertyUtil.getPropertyValue(SERVER_KAFKA_CONSUMER_MODE, DEFAULT_CONSUMER_MODE);
+        return Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * @param keyDeserializer key deserializer class
+     * @param valueDeserializer value deserializer class
+     * @param topicData the client, topic, offset and follow flag of the stream
+     * @return a consumer positioned at the requested offset
+     */
+    public static <K, V> MessageConsumer<KafkaEvent<K, V>> create(
+            Class<?> keyDeserializer, Class<?> valueDeserializer, ClientTopicOffsets topicData) {
+        return create(keyDeserializer, valueDeserializer, topicData, mode());
+    }
+
+    /**
+     * @param keyDeserializer key deserializer class
+     * @param valueDeserializer value deserializer class
+     * @param topicData the client, topic, offset and follow flag of the stream
+     * @param mode how the consumer reads the topic, whatever mode is configured
+     * @return a consumer positioned at the requested offset
+     */
+    public static <K, V> MessageConsumer<KafkaEvent<K, V>> create(
+            Class<?> keyDeserializer, Class<?> valueDeserializer, ClientTopicOffsets topicData, Mode mode) {
+        return switch (mode) {
+            case ASSIGN -> new AssignedKafkaEventMessageConsumer<>(
+                    keyDeserializer,
+                    valueDeserializer,
+                    topicData.getTopic(),
+                    topicData.getOffset(),
+                    topicData.isFollow());
+            case GROUP -> new KafkaEventMessageConsumer<>(
+                    keyDeserializer,
+                    valueDeserializer,
+                    topicData.getTopic(),
+                    topicData.getOffset(),
+                    topicData.getClient(),
+                    topicData.isFollow());
+        };
+    }
+}
@@ -43,6 +43,15 @@ public interface MessageConsumer<T> extends AutoCloseable {
      */
     T getNextMessage();
 
+    /**
+     * Acquire the next message only if one is available without waiting.
+     * Implementations that cannot poll without waiting fall back to {@link #getNextMessage()}.
+     * @return A single message of MessageType, or null if none is available.
+     */
+    default T getAvailableMessage() {
+        return getNextMessage();
+    }
+
     /**
      * Stop consuming messages and clean-up any resources.
      *
@@ -0,0 +1,186 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * © Crown Copyright 2026. This work has been developed by the National Digital Twin Programme and is legally
+ * attributed to the Department for Business and Trade (UK) as the governing entity.
+ */
+
+package uk.gov.dbt.ndtp.federator.server.grpc;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import io.grpc.Drainable;
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerMethodDefinition;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.ServiceDescriptor;
+import io.grpc.protobuf.ProtoUtils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import uk.gov.dbt.ndtp.grpc.FederatorServiceGrpc;
+import uk.gov.dbt.ndtp.grpc.FileChunk;
+import uk.gov.dbt.ndtp.grpc.FileStreamEvent;
+import uk.gov.dbt.ndtp.grpc.FileStreamRequest;
+
+/**
+ * Response marshaller for {@code GetFilesStream} that keeps file chunk payloads out of protobuf's encoder.
+ * <p>
+ * The generated marshaller serialises the whole {@link FileStreamEvent}, payload included, through a
+ * {@link CodedOutputStream}. This one encodes only the small header fields, then hands the transport the
+ * {@code chunk_data} bytes exactly as the streamer wrapped them. The result is a {@link Drainable} and
+ * {@link KnownLength} stream, so gRPC frames it without buffering it first. The wire bytes are still a valid
+ * {@code FileStreamEvent}; only the field order differs (the payload is written last), which protobuf parsers accept.
+ * Events without a chunk payload, and all parsing, go through the generated marshaller.
+ */
+public final class FileStreamEventMarshaller implements MethodDescriptor.Marshaller<FileStreamEvent> {
+
+    private static final int EVENT_CHUNK_TAG =
+            WireFormat.makeTag(FileStreamEvent.CHUNK_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int CHUNK_DATA_TAG =
+            WireFormat.makeTag(FileChunk.CHUNK_DATA_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+
+    private final MethodDescriptor.Marshaller<FileStreamEvent> delegate =
+            ProtoUtils.marshaller(FileStreamEvent.getDefaultInstance());
+
+    /**
+     * Returns a copy of {@code definition} whose {@code GetFilesStream} method uses this marshaller for responses.
+     * Other methods, and the call handlers (including any interceptors), are unchanged.
+     *
+     * @param definition the bound federator service
+     * @return the service with the file stream responses re-bound
+     */
+    public static ServerServiceDefinition bindTo(ServerServiceDefinition definition) {
+        String target = FederatorServiceGrpc.getGetFilesStreamMethod().getFullMethodName();
+        ServiceDescriptor original = definition.getServiceDescriptor();
+        ServiceDescriptor.Builder descriptor =
+                ServiceDescriptor.newBuilder(original.getName()).setSchemaDescriptor(original.getSchemaDescriptor());
+        List<ServerMethodDefinition<?, ?>> methods = new ArrayList<>();
+        for (ServerMethodDefinition<?, ?> method : definition.getMethods()) {
+            ServerMethodDefinition<?, ?> bound =
+                    target.equals(method.getMethodDescriptor().getFullMethodName()) ? rebind(method) : method;
+            descriptor.addMethod(bound.getMethodDescriptor());
+            methods.add(bound);
+        }
+        ServerServiceDefinition.Builder builder = ServerServiceDefinition.builder(descriptor.build());
+        for (ServerMethodDefinition<?, ?> method : methods) {
+            builder.addMethod(method);
+        }
+        return builder.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ServerMethodDefinition<?, ?> rebind(ServerMethodDefinition<?, ?> method) {
+        ServerMethodDefinition<FileStreamRequest, FileStreamEvent> typed =
+                (ServerMethodDefinition<FileStreamRequest, FileStreamEvent>) method;
+        MethodDescriptor<FileStreamRequest, FileStreamEvent> descriptor = typed.getMethodDescriptor()
+                .toBuilder(typed.getMethodDescriptor().getRequestMarshaller(), new FileStreamEventMarshaller())
+                .build();
+        return ServerMethodDefinition.create(descriptor, typed.getServerCallHandler());
+    }
+
+    @Override
+    public InputStream stream(FileStreamEvent value) {
+        if (!value.hasChunk() || value.getChunk().getChunkData().isEmpty()) {
+            return delegate.stream(value);
+        }
+        FileChunk chunk = value.getChunk();
+        ByteString payload = chunk.getChunkData();
+        FileChunk header = chunk.toBuilder().clearChunkData().build();
+
+        int payloadSize = payload.size();
+        int chunkSize = header.getSerializedSize()
+                + CodedOutputStream.computeUInt32SizeNoTag(CHUNK_DATA_TAG)
+                + CodedOutputStream.computeUInt32SizeNoTag(payloadSize)
+                + payloadSize;
+        byte[] prefix = new byte[CodedOutputStream.computeUInt32SizeNoTag(EVENT_CHUNK_TAG)
+                + CodedOutputStream.computeUInt32SizeNoTag(chunkSize)
+                + chunkSize
+                - payloadSize];
+        try {
+            CodedOutputStream out = CodedOutputStream.newInstance(prefix);
+            out.writeUInt32NoTag(EVENT_CHUNK_TAG);
+            out.writeUInt32NoTag(chunkSize);
+            header.writeTo(out);
+            out.writeUInt32NoTag(CHUNK_DATA_TAG);
+            out.writeUInt32NoTag(payloadSize);
+            out.checkNoSpaceLeft();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to encode file chunk header", e);
+        }
+        return new ChunkInputStream(prefix, payload);
+    }
+
+    @Override
+    public FileStreamEvent parse(InputStream stream) {
+        return delegate.parse(stream);
+    }
+
+    /**
+     * Header bytes followed by the untouched payload. Draining writes the payload straight from its backing array.
+     */
+    static final class ChunkInputStream extends InputStream implements Drainable, KnownLength {
+        private final byte[] prefix;
+        private final ByteString payload;
+        private final int length;
+        private int position;
+
+        ChunkInputStream(byte[] prefix, ByteString payload) {
+            this.prefix = prefix;
+            this.payload = payload;
+            this.length = prefix.length + payload.size();
+        }
+
+        @Override
+        public int drainTo(OutputStream target) throws IOException {
+            int written = available();
+            if (position < prefix.length) {
+                target.write(prefix, position, prefix.length - position);
+                payload.writeTo(target);
+            } else if (position < length) {
+                payload.substring(position - prefix.length).writeTo(target);
+            }
+            position = length;
+            return written;
+        }
+
+        @Override
+        public int read() {
+            if (position >= length) {
+                return -1;
+            }
+            int value = position < prefix.length ? prefix[position] : payload.byteAt(position - prefix.length);
+            position++;
+            return value & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= length) {
+                return -1;
+            }
+            int count = Math.min(len, length - position);
+            int fromPrefix = Math.max(0, Math.min(count, prefix.length - position));
+            if (fromPrefix > 0) {
+                System.arraycopy(prefix, position, b, off, fromPrefix);
+            }
+            if (count > fromPrefix) {
+                payload.copyTo(b, position + fromPrefix - prefix.length, off + fromPrefix, count - fromPrefix);
+            }
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return length - position;
+        }
+    }
+}
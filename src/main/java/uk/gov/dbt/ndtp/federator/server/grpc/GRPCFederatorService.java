@@ -26,7 +26,9 @@
 
 package uk.gov.dbt.ndtp.federator.server.grpc;
 
+import io.grpc.Metadata;
 import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
 import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import java.util.Set;
@@ -35,11 +37,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.gov.dbt.ndtp.federator.FederatorService;
 import uk.gov.dbt.ndtp.federator.common.annotations.ExcludeFromJacocoGeneratedReport;
+import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
+import uk.gov.dbt.ndtp.federator.exceptions.StreamAdmissionException;
 import uk.gov.dbt.ndtp.federator.server.interfaces.StreamObservable;
 import uk.gov.dbt.ndtp.grpc.FederatorServiceGrpc;
 import uk.gov.dbt.ndtp.grpc.FileStreamEvent;
 import uk.gov.dbt.ndtp.grpc.FileStreamRequest;
 import uk.gov.dbt.ndtp.grpc.KafkaByteBatch;
+import uk.gov.dbt.ndtp.grpc.MultiTopicRequest;
 import uk.gov.dbt.ndtp.grpc.TopicRequest;
 
 /**
@@ -49,7 +54,19 @@ public class GRPCFederatorService extends FederatorServiceGrpc.FederatorServiceI
 
     public static final Logger LOGGER = LoggerFactory.getLogger("GRPCFederatorService");
 
+    // "blocking" (default) parks a thread per topic stream; "ready-driven" drives topic streams from onReady callbacks
+    public static final String STREAMING_MODE = "server.streaming.mode";
+    public static final String STREAMING_MODE_BLOCKING = "blocking";
+    public static final String STREAMING_MODE_READY_DRIVEN = "ready-driven";
+
+    // Sent with RESOURCE_EXHAUSTED when a stream is refused by admission control
+    public static final Metadata.Key<String> RETRY_AFTER_KEY =
+            Metadata.Key.of("retry-after", Metadata.ASCII_STRING_MARSHALLER);
+    public static final Metadata.Key<String> RETRY_PUSHBACK_KEY =
+            Metadata.Key.of("grpc-retry-pushback-ms", Metadata.ASCII_STRING_MARSHALLER);
+
     private final FederatorService federator;
+    private final boolean readyDriven;
 
     /**
      * Constructor to generate the FederatorService using GRPC
@@ -60,6 +77,9 @@ public class GRPCFederatorService extends FederatorServiceGrpc.FederatorServiceI
     public GRPCFederatorService(Set<String> sharedHeaders) {
         LOGGER.info("Creating FederatorService in GRPC");
         this.federator = new FederatorService(sharedHeaders);
+        this.readyDriven = STREAMING_MODE_READY_DRIVEN.equalsIgnoreCase(
+                PropertyUtil.getPropertyValue(STREAMING_MODE, STREAMING_MODE_BLOCKING));
+        LOGGER.info("Topic streaming mode: {}", readyDriven ? STREAMING_MODE_READY_DRIVEN : STREAMING_MODE_BLOCKING);
     }
 
     @Override
@@ -68,14 +88,36 @@ public class GRPCFederatorService extends FederatorServiceGrpc.FederatorServiceI
         LOGGER.info("Started processing consumer request for topic: {}", request.getTopic());
         ServerCallStreamObserver<KafkaByteBatch> serverCallStreamObserver =
                 (ServerCallStreamObserver<KafkaByteBatch>) responseObserver;
-        StreamObservable<KafkaByteBatch> streamObservable =
-                new LimitedServerCallStreamObserver<>(serverCallStreamObserver);
+        StreamObservable<KafkaByteBatch> streamObservable = readyDriven
+                ? new ReadyDrivenServerCallStreamObserver<>(serverCallStreamObserver)
+                : new LimitedServerCallStreamObserver<>(serverCallStreamObserver);
         try {
             federator.getKafkaConsumer(request, streamObservable);
         } catch (InvalidTopicException e) {
             LOGGER.error("Invalid topic", e);
             responseObserver.onError(
                     Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+        } catch (StreamAdmissionException e) {
+            responseObserver.onError(resourceExhausted(e));
+        }
+    }
+
+    @Override
+    public void getKafkaConsumers(MultiTopicRequest request, StreamObserver<KafkaByteBatch> responseObserver) {
+        LOGGER.info("Started processing consumer request for {} topics", request.getTopicsCount());
+        ServerCallStreamObserver<KafkaByteBatch> serverCallStreamObserver =
+                (ServerCallStreamObserver<KafkaByteBatch>) responseObserver;
+        StreamObservable<KafkaByteBatch> streamObservable = readyDriven
+                ? new ReadyDrivenServerCallStreamObserver<>(serverCallStreamObserver)
+                : new LimitedServerCallStreamObserver<>(serverCallStreamObserver);
+        try {
+            federator.getKafkaConsumers(request, streamObservable);
+        } catch (InvalidTopicException e) {
+            LOGGER.error("Invalid topic", e);
+            responseObserver.onError(
+                    Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+        } catch (StreamAdmissionException e) {
+            responseObserver.onError(resourceExhausted(e));
         }
     }
 
@@ -89,7 +131,23 @@ public class GRPCFederatorService extends FederatorServiceGrpc.FederatorServiceI
                 (ServerCallStreamObserver<FileStreamEvent>) responseObserver;
         StreamObservable<FileStreamEvent> streamObservable =
                 new LimitedServerCallStreamObserver<>(serverCallStreamObserver);
-        federator.getFileConsumer(request, streamObservable);
+        try {
+            federator.getFileConsumer(request, streamObservable);
+        } catch (StreamAdmissionException e) {
+            responseObserver.onError(resourceExhausted(e));
+        }
+    }
+
+    /**
+     * Maps an admission refusal to RESOURCE_EXHAUSTED, telling the client when to try again both as a plain
+     * {@code retry-after} (seconds) and as the {@code grpc-retry-pushback-ms} hint honoured by gRPC retry policies.
+     */
+    static StatusRuntimeException resourceExhausted(StreamAdmissionException e) {
+        long retryAfterMillis = Math.max(0L, e.getRetryAfter().toMillis());
+        Metadata trailers = new Metadata();
+        trailers.put(RETRY_AFTER_KEY, String.valueOf(Math.max(1L, (retryAfterMillis + 999L) / 1000L)));
+        trailers.put(RETRY_PUSHBACK_KEY, String.valueOf(retryAfterMillis));
+        return Status.RESOURCE_EXHAUSTED.withDescription(e.getMessage()).asRuntimeException(trailers);
     }
 
     @ExcludeFromJacocoGeneratedReport
@@ -33,6 +33,7 @@ import io.grpc.Server;
 import io.grpc.ServerBuilder;
 import io.grpc.ServerCredentials;
 import io.grpc.ServerInterceptors;
+import io.grpc.ServerServiceDefinition;
 import io.grpc.TlsServerCredentials;
 import java.io.IOException;
 import java.util.Properties;
@@ -68,6 +69,8 @@ public class GRPCServer implements AutoCloseable {
     public static final String SERVER_KEEP_ALIVE_TIME = "server.keepAliveTime";
     public static final String SERVER_KEEP_ALIVE_TIMEOUT = "server.keepAliveTimeout";
     public static final String SERVER_MTLS_ENABLED = "server.mtlsEnabled";
+    // Send file chunk payloads without re-encoding them through protobuf (see FileStreamEventMarshaller)
+    public static final String SERVER_FILES_ZERO_COPY = "server.files.zeroCopy";
     public static final String FIVE = "5";
     public static final String ONE = "1";
     public static final String FALSE = "false";
@@ -106,14 +109,19 @@ public class GRPCServer implements AutoCloseable {
     private ServerBuilder<?> configureServerBuilder(ServerBuilder<?> builder, Set<String> sharedHeaders) {
         IdpTokenService tokenService = GRPCUtils.createIdpTokenService();
         Properties commonProperties = PropertyUtil.getPropertiesFromFilePath(COMMON_CONFIG_PROPERTIES);
-        return builder.executor(ThreadUtil.threadExecutor(GRPC_SERVER))
+        ServerServiceDefinition service = ServerInterceptors.intercept(
+                new GRPCFederatorService(sharedHeaders),
+                new ConsumerVerificationServerInterceptor(tokenService, commonProperties),
+                new AuthServerInterceptor(tokenService),
+                new CustomServerInterceptor());
+        if (PropertyUtil.getPropertyBooleanValue(SERVER_FILES_ZERO_COPY, FALSE)) {
+            LOGGER.info("File stream chunks are sent with the zero-copy marshaller");
+            service = FileStreamEventMarshaller.bindTo(service);
+        }
+        return builder.executor(ThreadUtil.serverThreadExecutor(GRPC_SERVER))
                 .keepAliveTime(PropertyUtil.getPropertyIntValue(SERVER_KEEP_ALIVE_TIME, FIVE), TimeUnit.SECONDS)
                 .keepAliveTimeout(PropertyUtil.getPropertyIntValue(SERVER_KEEP_ALIVE_TIMEOUT, ONE), TimeUnit.SECONDS)
-                .addService(ServerInterceptors.intercept(
-                        new GRPCFederatorService(sharedHeaders),
-                        new ConsumerVerificationServerInterceptor(tokenService, commonProperties),
-                        new AuthServerInterceptor(tokenService),
-                        new CustomServerInterceptor()));
+                .addService(service);
     }
 
     @SneakyThrows
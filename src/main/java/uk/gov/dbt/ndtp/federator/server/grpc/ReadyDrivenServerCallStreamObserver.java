@@ -0,0 +1,113 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * © Crown Copyright 2026. This work has been developed by the National Digital Twin Programme and is legally
+ * attributed to the Department for Business and Trade (UK) as the governing entity.
+ */
+
+package uk.gov.dbt.ndtp.federator.server.grpc;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.dbt.ndtp.federator.server.interfaces.StreamObservable;
+
+/**
+ * Non-blocking counterpart of {@link LimitedServerCallStreamObserver}.
+ *
+ * <p>Key behaviours:
+ * <ul>
+ *   <li>{@link #onNext(Object)} never parks the caller; flow control is left to whoever drives the stream,
+ *       which is expected to send only while {@link #isReady()} and resume from the onReady handler.</li>
+ *   <li>Client cancellation also fires the onReady handler, so a driver waiting for readiness notices promptly.</li>
+ *   <li>Makes terminal signalling idempotent to avoid "call already closed" races.</li>
+ * </ul>
+ *
+ * @param <T> stream message type
+ */
+@Slf4j
+public final class ReadyDrivenServerCallStreamObserver<T> implements StreamObservable<T> {
+
+    private final ServerCallStreamObserver<T> delegate;
+
+    private final AtomicReference<Runnable> externalOnReady = new AtomicReference<>();
+    private final AtomicReference<Runnable> externalOnCancel = new AtomicReference<>();
+
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private volatile boolean cancelled = false;
+
+    public ReadyDrivenServerCallStreamObserver(ServerCallStreamObserver<T> delegate) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+
+        // Internal gRPC onReady handler (do not overwrite elsewhere)
+        this.delegate.setOnReadyHandler(this::runOnReady);
+
+        // Internal gRPC onCancel handler (do not overwrite elsewhere)
+        this.delegate.setOnCancelHandler(() -> {
+            cancelled = true;
+            Runnable r = externalOnCancel.get();
+            if (r != null) r.run();
+            runOnReady();
+        });
+    }
+
+    @Override
+    public void onNext(T value) {
+        if (closed.get() || isCancelled()) {
+            throw Status.CANCELLED.withDescription("gRPC call already closed").asRuntimeException();
+        }
+        delegate.onNext(value);
+    }
+
+    @Override
+    public boolean isReady() {
+        return !closed.get() && delegate.isReady();
+    }
+
+    @Override
+    public void setOnCancelHandler(Runnable onCancelHandler) {
+        externalOnCancel.set(onCancelHandler);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled || delegate.isCancelled();
+    }
+
+    @Override
+    public void onError(Exception e) {
+        if (!closed.compareAndSet(false, true)) return;
+        cancelled = true;
+        delegate.onError(e);
+    }
+
+    @Override
+    public void onCompleted() {
+        if (!closed.compareAndSet(false, true)) return;
+        cancelled = true;
+        delegate.onCompleted();
+    }
+
+    @Override
+    public void setOnReadyHandler(Runnable onReadyHandler) {
+        externalOnReady.set(onReadyHandler);
+    }
+
+    @Override
+    public boolean isReadyDriven() {
+        return true;
+    }
+
+    private void runOnReady() {
+        Runnable r = externalOnReady.get();
+        if (r == null) return;
+        try {
+            r.run();
+        } catch (RuntimeException e) {
+            // Never let a driver failure escape onto the gRPC transport thread
+            log.warn("onReady handler failed", e);
+        }
+    }
+}
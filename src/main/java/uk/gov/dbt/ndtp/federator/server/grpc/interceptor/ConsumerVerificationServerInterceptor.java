@@ -23,8 +23,11 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import uk.gov.dbt.ndtp.federator.common.model.dto.ProducerConfigDTO;
+import uk.gov.dbt.ndtp.federator.common.service.config.ProducerConfigService;
+import uk.gov.dbt.ndtp.federator.common.service.config.exception.ConfigFetchException;
 import uk.gov.dbt.ndtp.federator.common.service.idp.IdpTokenService;
 import uk.gov.dbt.ndtp.federator.common.utils.ProducerConsumerConfigServiceFactory;
+import uk.gov.dbt.ndtp.federator.common.utils.ResilienceSupport;
 import uk.gov.dbt.ndtp.federator.server.grpc.GRPCContextKeys;
 
 @Slf4j
@@ -66,7 +69,14 @@ public class ConsumerVerificationServerInterceptor implements ServerInterceptor
             return new ServerCall.Listener<>() {};
         }
 
-        final ProducerConfigDTO producerConfiguration = fetchProducerConfig();
+        final ProducerConfigDTO producerConfiguration;
+        try {
+            producerConfiguration = fetchProducerConfig();
+        } catch (ConfigFetchException e) {
+            log.error("Producer configuration unavailable method={}", method, e);
+            call.close(Status.UNAVAILABLE.withDescription("Producer configuration unavailable"), new Metadata());
+            return new ServerCall.Listener<>() {};
+        }
         if (!authorizeOrClose(producerConfiguration, consumerId, method, call)) {
             return new ServerCall.Listener<>() {};
         }
@@ -118,8 +128,16 @@ public class ConsumerVerificationServerInterceptor implements ServerInterceptor
         return true;
     }
 
+    /**
+     * With {@code management.node.resilience.async.enabled}, the configuration is fetched off this thread and the
+     * call waits at most the configured time budget, or not at all when a last-known-good configuration exists.
+     */
     private ProducerConfigDTO fetchProducerConfig() {
-        return ProducerConsumerConfigServiceFactory.getProducerConfigService().getProducerConfiguration();
+        ProducerConfigService service = ProducerConsumerConfigServiceFactory.getProducerConfigService();
+        if (ResilienceSupport.isAsyncEnabled()) {
+            return service.getConfigurationWithin(ResilienceSupport.getAsyncTimeBudget());
+        }
+        return service.getProducerConfiguration();
     }
 
     private <T, R> boolean authorizeOrClose(
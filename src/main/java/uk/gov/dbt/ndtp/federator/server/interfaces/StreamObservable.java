@@ -68,4 +68,27 @@ public interface StreamObservable<T> {
     void onCompleted();
 
     void setOnReadyHandler(Runnable onReadyHandler);
+
+    /**
+     * Whether this observable is driven by transport readiness rather than blocking the sender.
+     * When true, {@link #onNext(Object)} never waits and callers should only send while {@link #isReady()},
+     * resuming from the handler given to {@link #setOnReadyHandler(Runnable)}.
+     *
+     * @return true if onNext is non-blocking
+     */
+    default boolean isReadyDriven() {
+        return false;
+    }
+
+    /**
+     * When {@link #isReady()} is false for a reason the transport will not signal, such as a bandwidth budget in
+     * debt, how long until it may be ready again. The onReady handler is not called when that time has passed, so a
+     * ready-driven sender must schedule its own retry.
+     *
+     * @return nanoseconds until the stream may be ready again, or 0 if readiness will be signalled through the
+     *     onReady handler
+     */
+    default long readyDelayNanos() {
+        return 0L;
+    }
 }
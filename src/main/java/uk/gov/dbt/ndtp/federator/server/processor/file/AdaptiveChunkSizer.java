@@ -0,0 +1,96 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.server.processor.file;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chooses the size of the next file chunk for one stream from how long the previous {@code onNext} took.
+ * <p>
+ * {@code onNext} blocks while the transport pushes back, so its duration is a per-stream measure of the link:
+ * <ul>
+ *   <li>a send well under the target time means the link is not the bottleneck, so the chunk size doubles to cut
+ *   per-message framing and call overhead;</li>
+ *   <li>otherwise the observed throughput (bytes / send time) is used to pick the size that would take about the
+ *   target time to send, so a slow link gets small chunks and short stalls.</li>
+ * </ul>
+ * Each step changes the size by at most a factor of two and the result always stays within the configured bounds.
+ * With equal bounds the size never changes. Not thread-safe; each stream has its own instance.
+ */
+public class AdaptiveChunkSizer {
+
+    private static final double SMOOTHING = 0.3;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long targetSendNanos;
+    private int currentSize;
+    private double bytesPerNano = -1;
+
+    public AdaptiveChunkSizer(int minSize, int maxSize, int initialSize, Duration targetSendTime) {
+        if (minSize <= 0 || maxSize < minSize) {
+            throw new IllegalArgumentException("Invalid chunk size bounds: min=" + minSize + ", max=" + maxSize);
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetSendNanos = Math.max(1L, targetSendTime.toNanos());
+        this.currentSize = clamp(initialSize);
+    }
+
+    /**
+     * @return a sizer that always returns {@code chunkSize}
+     */
+    public static AdaptiveChunkSizer fixed(int chunkSize) {
+        return new AdaptiveChunkSizer(chunkSize, chunkSize, chunkSize, Duration.ofSeconds(1));
+    }
+
+    /**
+     * @return true if the chunk size can change between chunks
+     */
+    public boolean isAdaptive() {
+        return minSize < maxSize;
+    }
+
+    /**
+     * @return the size to use for the next chunk
+     */
+    public int nextChunkSize() {
+        return currentSize;
+    }
+
+    /**
+     * Feeds back how long a chunk took to hand to the transport.
+     *
+     * @param bytes size of the chunk that was sent
+     * @param sendNanos time spent in {@code onNext} for that chunk
+     */
+    public void record(int bytes, long sendNanos) {
+        if (!isAdaptive() || bytes <= 0) {
+            return;
+        }
+        if (sendNanos < targetSendNanos / 4) {
+            currentSize = clamp((long) currentSize * 2);
+            return;
+        }
+        double sample = (double) bytes / sendNanos;
+        bytesPerNano = bytesPerNano < 0 ? sample : SMOOTHING * sample + (1 - SMOOTHING) * bytesPerNano;
+        long wanted = (long) (bytesPerNano * targetSendNanos);
+        long bounded = Math.max(currentSize / 2L, Math.min((long) currentSize * 2, wanted));
+        currentSize = clamp(bounded);
+    }
+
+    /**
+     * @return the smoothed throughput observed while the transport was pushing back, in bytes per second, or -1 if
+     * the stream has not been throttled yet
+     */
+    public long observedBytesPerSecond() {
+        return bytesPerNano < 0 ? -1 : (long) (bytesPerNano * TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private int clamp(long size) {
+        return (int) Math.max(minSize, Math.min(maxSize, size));
+    }
+}
@@ -0,0 +1,86 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.server.processor.file;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.dbt.ndtp.federator.server.interfaces.StreamObservable;
+import uk.gov.dbt.ndtp.grpc.BundledFile;
+import uk.gov.dbt.ndtp.grpc.FileBundle;
+import uk.gov.dbt.ndtp.grpc.FileStreamEvent;
+
+/**
+ * Collects consecutive small files into one {@link FileBundle} event, so the client can store them together and move
+ * its offset once per bundle instead of once per file. A bundle is sent when it reaches its file or byte limit, or when
+ * {@link #flush} is called. Used from the single thread driving a file stream.
+ */
+class FileBundler {
+    private static final Logger LOGGER = LoggerFactory.getLogger("FileBundler");
+
+    private final int maxFiles;
+    private final long maxBytes;
+    private final long maxFileSize;
+    private final List<BundledFile> files = new ArrayList<>();
+    private long bytes;
+
+    /**
+     * @param maxFiles most files in one bundle
+     * @param maxBytes most payload bytes in one bundle; must stay below the client's maximum message size
+     * @param maxFileSize largest file that is bundled; larger files are streamed in chunks
+     */
+    FileBundler(int maxFiles, long maxBytes, long maxFileSize) {
+        if (maxFiles < 1 || maxBytes < 1 || maxFileSize < 0) {
+            throw new IllegalArgumentException("Bundle limits must be positive");
+        }
+        this.maxFiles = maxFiles;
+        this.maxBytes = maxBytes;
+        this.maxFileSize = Math.min(maxFileSize, maxBytes);
+    }
+
+    long maxFileSize() {
+        return maxFileSize;
+    }
+
+    /**
+     * Adds a file, sending the pending bundle first if the file would take it over its byte limit, and afterwards if
+     * the bundle is full.
+     */
+    void add(BundledFile file, StreamObservable<FileStreamEvent> observer) {
+        long size = file.getData().size();
+        if (!files.isEmpty() && bytes + size > maxBytes) {
+            flush(observer);
+        }
+        files.add(file);
+        bytes += size;
+        if (files.size() >= maxFiles || bytes >= maxBytes) {
+            flush(observer);
+        }
+    }
+
+    /**
+     * Sends the pending bundle, if any. Called before anything else is sent on the stream, so files stay in order.
+     */
+    void flush(StreamObservable<FileStreamEvent> observer) {
+        if (files.isEmpty()) {
+            return;
+        }
+        observer.onNext(FileStreamEvent.newBuilder()
+                .setBundle(FileBundle.newBuilder().addAllFiles(files))
+                .build());
+        LOGGER.info(
+                "Sent bundle of {} files ({} bytes) up to file sequence_id : {}",
+                files.size(),
+                bytes,
+                files.get(files.size() - 1).getFileSequenceId());
+        files.clear();
+        bytes = 0;
+    }
+
+    int pendingFiles() {
+        return files.size();
+    }
+}
@@ -6,31 +6,57 @@ package uk.gov.dbt.ndtp.federator.server.processor.file;
 
 import com.google.protobuf.UnsafeByteOperations;
 import io.grpc.Status;
+import java.io.EOFException;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.security.MessageDigest;
+import java.util.zip.CRC32C;
 import lombok.SneakyThrows;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.gov.dbt.ndtp.federator.common.model.FileTransferRequest;
 import uk.gov.dbt.ndtp.federator.common.storage.provider.file.FileProvider;
 import uk.gov.dbt.ndtp.federator.common.storage.provider.file.FileProviderFactory;
+import uk.gov.dbt.ndtp.federator.common.utils.FileChecksums;
 import uk.gov.dbt.ndtp.federator.common.utils.GRPCUtils;
 import uk.gov.dbt.ndtp.federator.server.interfaces.StreamObservable;
+import uk.gov.dbt.ndtp.grpc.BundledFile;
+import uk.gov.dbt.ndtp.grpc.FileChecksumAlgorithm;
 import uk.gov.dbt.ndtp.grpc.FileChunk;
 import uk.gov.dbt.ndtp.grpc.FileStreamEvent;
 
 /**
  * Streams file content in chunks to a gRPC stream observer.
  * Extracted from FileKafkaEventMessageProcessor to keep responsibilities modular.
+ * <p>
+ * With an adaptive {@link AdaptiveChunkSizer} the chunk size can change from one chunk to the next, so data chunks
+ * carry their byte offset and report {@code total_chunks} as 0 (unknown); the final chunk carries the real count.
+ * <p>
+ * With chunk checksums enabled each data chunk also carries the CRC32C of its bytes, so the client can find a damaged
+ * chunk and ask for just that byte range again ({@link #streamRange}).
  */
 public class FileChunkStreamer {
     private static final Logger LOGGER = LoggerFactory.getLogger("FileChunkStreamer");
 
-    private final int chunkSize;
+    private final AdaptiveChunkSizer chunkSizer;
+    private final boolean chunkChecksums;
 
     public FileChunkStreamer(int chunkSize) {
-        this.chunkSize = chunkSize;
+        this(AdaptiveChunkSizer.fixed(chunkSize));
+    }
+
+    public FileChunkStreamer(AdaptiveChunkSizer chunkSizer) {
+        this(chunkSizer, false);
+    }
+
+    /**
+     * @param chunkSizer picks the size of each chunk
+     * @param chunkChecksums true to send the CRC32C of every data chunk
+     */
+    public FileChunkStreamer(AdaptiveChunkSizer chunkSizer, boolean chunkChecksums) {
+        this.chunkSizer = chunkSizer;
+        this.chunkChecksums = chunkChecksums;
     }
 
     /**
@@ -44,31 +70,191 @@ public class FileChunkStreamer {
             long fileSequenceId,
             FileTransferRequest fileTransferRequest,
             StreamObservable<FileStreamEvent> streamObserver) {
-        File file = new File(fileTransferRequest.path());
+        stream(fileSequenceId, fileTransferRequest, FileChecksumAlgorithm.SHA_256, streamObserver);
+    }
+
+    /**
+     * Streams the file as {@link #stream(long, FileTransferRequest, StreamObservable)} does, with the last chunk
+     * carrying a whole-file checksum of the given algorithm.
+     * @param fileSequenceId
+     * @param fileTransferRequest
+     * @param checksumAlgorithm algorithm of the whole-file checksum
+     * @param streamObserver
+     */
+    public void stream(
+            long fileSequenceId,
+            FileTransferRequest fileTransferRequest,
+            FileChecksumAlgorithm checksumAlgorithm,
+            StreamObservable<FileStreamEvent> streamObserver) {
+        try (FileTransferResult fetchResult = fetch(fileTransferRequest)) {
+            streamFetched(fileSequenceId, fileTransferRequest, fetchResult, checksumAlgorithm, streamObserver);
+        } catch (Exception e) {
+            handleError(fileSequenceId, e, streamObserver);
+        }
+    }
 
+    /**
+     * Fetches the file once and either adds it to {@code bundler}, if it is small enough to be read whole, or sends
+     * the pending bundle and then streams the file in chunks from the same fetch, as {@link #stream} does. A file of
+     * unknown size is streamed. A small file that cannot be read whole, or that changes size while being read, is
+     * fetched again and streamed, which reports any error as usual.
+     *
+     * @param fileSequenceId sequence id of the file
+     * @param fileTransferRequest where the file is
+     * @param checksumAlgorithm algorithm of the whole-file checksum
+     * @param bundler collects small files; flushed before a file is streamed so files stay in sequence order
+     * @param streamObserver receives the bundle and the chunks
+     */
+    void bundleOrStream(
+            long fileSequenceId,
+            FileTransferRequest fileTransferRequest,
+            FileChecksumAlgorithm checksumAlgorithm,
+            FileBundler bundler,
+            StreamObservable<FileStreamEvent> streamObserver) {
+        BundledFile smallFile;
         try (FileTransferResult fetchResult = fetch(fileTransferRequest)) {
             long fileSize = fetchResult.fileSize();
-            int totalChunks = computeTotalChunks(fileSize);
-            try (InputStream is = fetchResult.stream()) {
-                MessageDigest digest = MessageDigest.getInstance("SHA-256");
-                int lastChunkIndex = readAndStreamChunks(
-                        is, file.getName(), fileSize, totalChunks, fileSequenceId, streamObserver, digest);
-                String checksum = encodeChecksum(digest);
-                streamObserver.onNext(buildLastChunk(
-                        file.getName(), lastChunkIndex, fileSize, checksum, fileSequenceId, totalChunks));
-                LOGGER.info("Completed sending file sequence_id : {} ", fileSequenceId);
+            if (fileSize < 0 || fileSize > bundler.maxFileSize()) {
+                bundler.flush(streamObserver);
+                streamFetched(fileSequenceId, fileTransferRequest, fetchResult, checksumAlgorithm, streamObserver);
+                return;
+            }
+            smallFile = readWhole(fileSequenceId, fileTransferRequest, fetchResult, checksumAlgorithm);
+        } catch (Exception e) {
+            bundler.flush(streamObserver);
+            handleError(fileSequenceId, e, streamObserver);
+            return;
+        }
+        if (smallFile != null) {
+            bundler.add(smallFile, streamObserver);
+            return;
+        }
+        // Some of the file may already have been read, so it is fetched again
+        bundler.flush(streamObserver);
+        stream(fileSequenceId, fileTransferRequest, checksumAlgorithm, streamObserver);
+    }
+
+    private void streamFetched(
+            long fileSequenceId,
+            FileTransferRequest fileTransferRequest,
+            FileTransferResult fetchResult,
+            FileChecksumAlgorithm checksumAlgorithm,
+            StreamObservable<FileStreamEvent> streamObserver)
+            throws IOException {
+        String fileName = new File(fileTransferRequest.path()).getName();
+        long fileSize = fetchResult.fileSize();
+        int totalChunks = chunkSizer.isAdaptive() ? 0 : computeTotalChunks(fileSize);
+        try (InputStream is = fetchResult.stream()) {
+            MessageDigest digest = FileChecksums.newDigest(checksumAlgorithm);
+            int lastChunkIndex =
+                    readAndStreamChunks(is, fileName, fileSize, totalChunks, fileSequenceId, streamObserver, digest);
+            String checksum = encodeChecksum(digest);
+            streamObserver.onNext(buildLastChunk(
+                    fileName,
+                    lastChunkIndex,
+                    fileSize,
+                    checksum,
+                    checksumAlgorithm,
+                    fileSequenceId,
+                    chunkSizer.isAdaptive() ? lastChunkIndex : totalChunks));
+            LOGGER.info("Completed sending file sequence_id : {} ", fileSequenceId);
+        }
+    }
+
+    /**
+     * Streams only bytes {@code [rangeOffset, rangeOffset + rangeLength)} of the file, for a client that found a
+     * damaged chunk. Chunks carry their file offset and always their CRC32C. No last chunk is sent: the client already
+     * has the file's checksum and size.
+     *
+     * @param fileSequenceId sequence id of the file
+     * @param fileTransferRequest where the file is
+     * @param rangeOffset first byte to send
+     * @param rangeLength number of bytes to send; fewer are sent if the file ends first
+     * @param streamObserver receives the chunks
+     */
+    public void streamRange(
+            long fileSequenceId,
+            FileTransferRequest fileTransferRequest,
+            long rangeOffset,
+            long rangeLength,
+            StreamObservable<FileStreamEvent> streamObserver) {
+        String fileName = new File(fileTransferRequest.path()).getName();
+        try (FileTransferResult fetchResult = fetch(fileTransferRequest);
+                InputStream is = fetchResult.stream()) {
+            // The size may be unknown (-1), so skip to the offset and let a range past the end send nothing
+            long chunkOffset = rangeOffset;
+            long remaining = skipTo(is, rangeOffset) ? rangeLength : 0L;
+            int chunkIndex = 0;
+            while (remaining > 0) {
+                byte[] bytes = is.readNBytes((int) Math.min(remaining, chunkSizer.nextChunkSize()));
+                if (bytes.length == 0) {
+                    break;
+                }
+                FileChunk.Builder chunk = dataChunk(
+                        fileName, bytes, chunkIndex, 0, fetchResult.fileSize(), fileSequenceId, chunkOffset);
+                streamObserver.onNext(FileStreamEvent.newBuilder()
+                        .setChunk(chunk.setChunkCrc32C(crc32c(bytes)))
+                        .build());
+                chunkIndex++;
+                chunkOffset += bytes.length;
+                remaining -= bytes.length;
             }
+            LOGGER.info("Resent bytes {}-{} of file sequence_id : {} ", rangeOffset, chunkOffset, fileSequenceId);
         } catch (Exception e) {
             handleError(fileSequenceId, e, streamObserver);
         }
     }
 
+    /**
+     * @return false if the stream ended before {@code offset}
+     */
+    private static boolean skipTo(InputStream is, long offset) throws IOException {
+        try {
+            is.skipNBytes(offset);
+            return true;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads a fetched file of known size whole, with its checksum, so it can be sent in a {@link FileBundler} bundle.
+     *
+     * @return the file, or {@code null} if it cannot be read or changes size while being read
+     */
+    private BundledFile readWhole(
+            long fileSequenceId,
+            FileTransferRequest fileTransferRequest,
+            FileTransferResult fetchResult,
+            FileChecksumAlgorithm checksumAlgorithm) {
+        try {
+            InputStream is = fetchResult.stream();
+            long fileSize = fetchResult.fileSize();
+            byte[] bytes = is.readNBytes((int) fileSize);
+            if (bytes.length != fileSize || is.read() != -1) {
+                LOGGER.warn("File sequence_id : {} changed size while being read for a bundle", fileSequenceId);
+                return null;
+            }
+            return BundledFile.newBuilder()
+                    .setFileName(new File(fileTransferRequest.path()).getName())
+                    .setFileSequenceId(fileSequenceId)
+                    .setData(UnsafeByteOperations.unsafeWrap(bytes))
+                    .setFileChecksum(FileChecksums.calculate(bytes, checksumAlgorithm))
+                    .setChecksumAlgorithm(checksumAlgorithm)
+                    .build();
+        } catch (Exception e) {
+            LOGGER.warn("Unable to read file sequence_id : {} for a bundle, streaming it instead", fileSequenceId, e);
+            return null;
+        }
+    }
+
     private FileTransferResult fetch(FileTransferRequest request) {
         FileProvider fileProvider = FileProviderFactory.getProvider(request.sourceType());
         return fileProvider.get(request);
     }
 
     private int computeTotalChunks(long fileSize) {
+        int chunkSize = chunkSizer.nextChunkSize();
         return Math.toIntExact(fileSize / chunkSize + (fileSize % chunkSize == 0 ? 0 : 1));
     }
 
@@ -82,20 +268,33 @@ public class FileChunkStreamer {
             StreamObservable<FileStreamEvent> observer,
             MessageDigest digest) {
         int chunkIndex = 0;
+        long chunkOffset = 0;
 
         while (true) {
-            byte[] bytes = is.readNBytes(chunkSize);
+            byte[] bytes = is.readNBytes(chunkSizer.nextChunkSize());
             if (bytes.length == 0) {
                 break;
             }
 
             digest.update(bytes, 0, bytes.length);
 
-            observer.onNext(
-                    buildDataChunk(fileName, bytes, bytes.length, chunkIndex, totalChunks, fileSize, fileSequenceId));
+            FileStreamEvent event =
+                    buildDataChunk(fileName, bytes, chunkIndex, totalChunks, fileSize, fileSequenceId, chunkOffset);
+            long sendStarted = System.nanoTime();
+            observer.onNext(event);
+            chunkSizer.record(bytes.length, System.nanoTime() - sendStarted);
 
             logProgress(chunkIndex, totalChunks, fileSequenceId);
             chunkIndex++;
+            chunkOffset += bytes.length;
+        }
+        if (chunkSizer.isAdaptive()) {
+            LOGGER.debug(
+                    "File sequence_id : {} sent in {} chunks, next chunk size {} bytes, observed {} bytes/s",
+                    fileSequenceId,
+                    chunkIndex,
+                    chunkSizer.nextChunkSize(),
+                    chunkSizer.observedBytesPerSecond());
         }
         return chunkIndex;
     }
@@ -103,22 +302,43 @@ public class FileChunkStreamer {
     private FileStreamEvent buildDataChunk(
             String fileName,
             byte[] buffer,
-            int bytesRead,
             int chunkIndex,
             int totalChunks,
             long fileSize,
-            long fileSequenceId) {
-        return FileStreamEvent.newBuilder()
-                .setChunk(FileChunk.newBuilder()
-                        .setFileName(fileName)
-                        .setChunkData(UnsafeByteOperations.unsafeWrap(buffer, 0, bytesRead))
-                        .setChunkIndex(chunkIndex)
-                        .setTotalChunks(totalChunks)
-                        .setFileSize(fileSize)
-                        .setIsLastChunk(false)
-                        .setFileSequenceId(fileSequenceId)
-                        .build())
-                .build();
+            long fileSequenceId,
+            long chunkOffset) {
+        FileChunk.Builder chunk =
+                dataChunk(fileName, buffer, chunkIndex, totalChunks, fileSize, fileSequenceId, chunkOffset);
+        if (chunkChecksums) {
+            chunk.setChunkCrc32C(crc32c(buffer));
+        }
+        return FileStreamEvent.newBuilder().setChunk(chunk).build();
+    }
+
+    private static FileChunk.Builder dataChunk(
+            String fileName,
+            byte[] buffer,
+            int chunkIndex,
+            int totalChunks,
+            long fileSize,
+            long fileSequenceId,
+            long chunkOffset) {
+        return FileChunk.newBuilder()
+                .setFileName(fileName)
+                .setChunkData(UnsafeByteOperations.unsafeWrap(buffer))
+                .setChunkOffset(chunkOffset)
+                .setChunkIndex(chunkIndex)
+                .setTotalChunks(totalChunks)
+                .setFileSize(fileSize)
+                .setIsLastChunk(false)
+                .setFileSequenceId(fileSequenceId);
+    }
+
+    // CRC32C is intrinsified on current JVMs, so this costs far less than the SHA-256 the file already pays for
+    private static int crc32c(byte[] bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, bytes.length);
+        return (int) crc.getValue();
     }
 
     private FileStreamEvent buildLastChunk(
@@ -126,6 +346,7 @@ public class FileChunkStreamer {
             int nextChunkIndex,
             long fileSize,
             String fileChecksum,
+            FileChecksumAlgorithm checksumAlgorithm,
             long fileSequenceId,
             int totalChunks) {
         return FileStreamEvent.newBuilder()
@@ -134,6 +355,7 @@ public class FileChunkStreamer {
                         .setChunkIndex(nextChunkIndex)
                         .setIsLastChunk(true)
                         .setFileChecksum(fileChecksum)
+                        .setChecksumAlgorithm(checksumAlgorithm)
                         .setFileSize(fileSize)
                         .setFileSequenceId(fileSequenceId)
                         .setTotalChunks(totalChunks)
@@ -10,6 +10,7 @@ import uk.gov.dbt.ndtp.federator.common.utils.ObjectMapperUtil;
 import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
 import uk.gov.dbt.ndtp.federator.server.interfaces.StreamObservable;
 import uk.gov.dbt.ndtp.federator.server.processor.MessageProcessor;
+import uk.gov.dbt.ndtp.grpc.FileChecksumAlgorithm;
 import uk.gov.dbt.ndtp.grpc.FileStreamEvent;
 import uk.gov.dbt.ndtp.grpc.KafkaByteBatch;
 import uk.gov.dbt.ndtp.grpc.StreamWarning;
@@ -20,24 +21,148 @@ import uk.gov.dbt.ndtp.secure.agent.sources.kafka.KafkaEvent;
  * {@link KafkaByteBatch} messages to the provided {@link StreamObservable}.
  * <p>
  * The processor reads files in configurable chunk sizes to avoid loading entire files into memory.
+ * <p>
+ * Given a {@link FileRange}, the processor serves a retransmission instead: it sends only those bytes of the first
+ * file, and only if that file is the one asked for, then reports {@link #isRangeServed()}.
+ * <p>
+ * For a client that accepts bundles, and with {@code file.stream.bundle.enabled}, small files are read whole and sent
+ * together in {@link FileBundler} bundles. A pending bundle is sent before any other event, so files stay in order.
  */
 public class FileKafkaEventMessageProcessor implements MessageProcessor<KafkaEvent<String, byte[]>> {
     public static final String DEFAULT_ONE_MB_SIZE = "1000000";
     private static final Logger LOGGER = LoggerFactory.getLogger("FileKafkaEventMessageProcessor");
     private static final String CHUNK_SIZE = "file.stream.chunk.size";
+    // When true, each stream grows or shrinks its chunk size between the min and max below
+    private static final String CHUNK_ADAPTIVE = "file.stream.chunk.adaptive";
+    private static final String CHUNK_MIN_SIZE = "file.stream.chunk.minSize";
+    private static final String CHUNK_MAX_SIZE = "file.stream.chunk.maxSize";
+    // Send time per chunk the adaptive sizing aims for when the transport is pushing back
+    private static final String CHUNK_TARGET_SEND_TIME = "file.stream.chunk.targetSendTime";
+    private static final String DEFAULT_CHUNK_MIN_SIZE = "65536";
+    // gRPC clients refuse messages over 4 MiB unless configured otherwise; 64 KiB is left for the chunk's other fields
+    static final String DEFAULT_CHUNK_MAX_SIZE = "4128768";
+    private static final String DEFAULT_CHUNK_TARGET_SEND_TIME = "PT0.2S";
+    // When true, every data chunk carries the CRC32C of its bytes
+    private static final String CHUNK_CRC32C = "file.stream.chunk.crc32c";
+    // When true, clients may ask for a non-cryptographic whole-file checksum instead of SHA-256
+    private static final String CHECKSUM_ALLOW_FAST = "file.stream.checksum.allowFast";
+    // When true, consecutive small files are sent together to clients that accept bundles
+    private static final String BUNDLE_ENABLED = "file.stream.bundle.enabled";
+    private static final String BUNDLE_MAX_FILE_SIZE = "file.stream.bundle.maxFileSize";
+    private static final String BUNDLE_MAX_FILES = "file.stream.bundle.maxFiles";
+    private static final String BUNDLE_MAX_BYTES = "file.stream.bundle.maxBytes";
+    private static final String DEFAULT_BUNDLE_MAX_FILE_SIZE = "102400";
+    private static final String DEFAULT_BUNDLE_MAX_FILES = "100";
     private final StreamObservable<FileStreamEvent> serverCallStreamObserver;
     private final FileChunkStreamer fileChunkStreamer;
     private final FileTransferRequestValidator validator;
+    private final FileRange range;
+    private final FileChecksumAlgorithm checksumAlgorithm;
+    private final FileBundler bundler;
+    private volatile boolean rangeServed;
 
     /**
      * Constructor for FileKafkaEventMessageProcessor.
      * @param serverCallStreamObserver
      */
     public FileKafkaEventMessageProcessor(StreamObservable<FileStreamEvent> serverCallStreamObserver) {
-        int chunkSize = PropertyUtil.getPropertyIntValue(CHUNK_SIZE, DEFAULT_ONE_MB_SIZE);
+        this(serverCallStreamObserver, null);
+    }
+
+    /**
+     * Constructor for FileKafkaEventMessageProcessor.
+     * @param serverCallStreamObserver
+     * @param range bytes to resend, or {@code null} to stream whole files
+     */
+    public FileKafkaEventMessageProcessor(StreamObservable<FileStreamEvent> serverCallStreamObserver, FileRange range) {
+        this(serverCallStreamObserver, range, FileChecksumAlgorithm.SHA_256);
+    }
+
+    /**
+     * Constructor for FileKafkaEventMessageProcessor.
+     * @param serverCallStreamObserver
+     * @param range bytes to resend, or {@code null} to stream whole files
+     * @param requestedChecksum whole-file checksum the client asked for; SHA-256 is used unless others are allowed
+     */
+    public FileKafkaEventMessageProcessor(
+            StreamObservable<FileStreamEvent> serverCallStreamObserver,
+            FileRange range,
+            FileChecksumAlgorithm requestedChecksum) {
+        this(serverCallStreamObserver, range, requestedChecksum, false);
+    }
+
+    /**
+     * Constructor for FileKafkaEventMessageProcessor.
+     * @param serverCallStreamObserver
+     * @param range bytes to resend, or {@code null} to stream whole files
+     * @param requestedChecksum whole-file checksum the client asked for; SHA-256 is used unless others are allowed
+     * @param acceptBundles true if the client can unpack bundles of small files
+     */
+    public FileKafkaEventMessageProcessor(
+            StreamObservable<FileStreamEvent> serverCallStreamObserver,
+            FileRange range,
+            FileChecksumAlgorithm requestedChecksum,
+            boolean acceptBundles) {
         this.serverCallStreamObserver = Objects.requireNonNull(serverCallStreamObserver, "serverCallStreamObserver");
-        this.fileChunkStreamer = new FileChunkStreamer(chunkSize);
+        this.fileChunkStreamer = new FileChunkStreamer(
+                createChunkSizer(), PropertyUtil.getPropertyBooleanValue(CHUNK_CRC32C, "false"));
         this.validator = new FileTransferRequestValidator();
+        this.range = range;
+        this.checksumAlgorithm = resolveChecksumAlgorithm(requestedChecksum);
+        this.bundler = acceptBundles && range == null ? createBundler() : null;
+    }
+
+    private static FileBundler createBundler() {
+        if (!PropertyUtil.getPropertyBooleanValue(BUNDLE_ENABLED, "false")) {
+            return null;
+        }
+        return new FileBundler(
+                PropertyUtil.getPropertyIntValue(BUNDLE_MAX_FILES, DEFAULT_BUNDLE_MAX_FILES),
+                PropertyUtil.getPropertyIntValue(BUNDLE_MAX_BYTES, DEFAULT_ONE_MB_SIZE),
+                PropertyUtil.getPropertyIntValue(BUNDLE_MAX_FILE_SIZE, DEFAULT_BUNDLE_MAX_FILE_SIZE));
+    }
+
+    /**
+     * Sends any pending bundle of small files. Called when the stream has nothing more to send for now.
+     */
+    public void flushBundle() {
+        if (bundler != null) {
+            bundler.flush(serverCallStreamObserver);
+        }
+    }
+
+    private static FileChecksumAlgorithm resolveChecksumAlgorithm(FileChecksumAlgorithm requested) {
+        if (requested == null
+                || requested == FileChecksumAlgorithm.SHA_256
+                || requested == FileChecksumAlgorithm.UNRECOGNIZED) {
+            return FileChecksumAlgorithm.SHA_256;
+        }
+        if (!PropertyUtil.getPropertyBooleanValue(CHECKSUM_ALLOW_FAST, "false")) {
+            LOGGER.info("Client asked for {} file checksums, which are not allowed; using SHA_256", requested);
+            return FileChecksumAlgorithm.SHA_256;
+        }
+        return requested;
+    }
+
+    /**
+     * @return true once a retransmission has been served, or found impossible; always false when streaming whole files
+     */
+    public boolean isRangeServed() {
+        return rangeServed;
+    }
+
+    private static AdaptiveChunkSizer createChunkSizer() {
+        int chunkSize = PropertyUtil.getPropertyIntValue(CHUNK_SIZE, DEFAULT_ONE_MB_SIZE);
+        if (!PropertyUtil.getPropertyBooleanValue(CHUNK_ADAPTIVE, "false")) {
+            return AdaptiveChunkSizer.fixed(chunkSize);
+        }
+        int minSize = PropertyUtil.getPropertyIntValue(CHUNK_MIN_SIZE, DEFAULT_CHUNK_MIN_SIZE);
+        int maxSize = PropertyUtil.getPropertyIntValue(CHUNK_MAX_SIZE, DEFAULT_CHUNK_MAX_SIZE);
+        return new AdaptiveChunkSizer(
+                minSize,
+                maxSize,
+                chunkSize,
+                PropertyUtil.getPropertyDurationValue(CHUNK_TARGET_SEND_TIME, DEFAULT_CHUNK_TARGET_SEND_TIME));
     }
 
     private static String classify(Exception e) {
@@ -72,9 +197,21 @@ public class FileKafkaEventMessageProcessor implements MessageProcessor<KafkaEve
 
             validator.validate(fileTransferRequest);
 
-            fileChunkStreamer.stream(offset, fileTransferRequest, serverCallStreamObserver);
+            if (range != null) {
+                resendRange(offset, fileTransferRequest);
+                return;
+            }
+            if (bundler != null) {
+                fileChunkStreamer.bundleOrStream(
+                        offset, fileTransferRequest, checksumAlgorithm, bundler, serverCallStreamObserver);
+                LOGGER.debug("File sequence id : {} bundled or streamed path: {}", offset, fileTransferRequest.path());
+                return;
+            }
+            fileChunkStreamer.stream(offset, fileTransferRequest, checksumAlgorithm, serverCallStreamObserver);
             LOGGER.info("File sequence id : {} streamed path: {}", offset, fileTransferRequest.path());
         } catch (Exception e) {
+            rangeServed = range != null;
+            flushBundle();
             LOGGER.warn("Skipping file sequence id : {} due to {}", offset, classify(e), e);
 
             serverCallStreamObserver.onNext(FileStreamEvent.newBuilder()
@@ -86,4 +223,15 @@ public class FileKafkaEventMessageProcessor implements MessageProcessor<KafkaEve
                     .build());
         }
     }
+
+    private void resendRange(long offset, FileTransferRequest fileTransferRequest) {
+        rangeServed = true;
+        if (offset != range.fileSequenceId()) {
+            // The file asked for is no longer in the topic; send nothing so the client's repair fails
+            LOGGER.warn("File sequence id : {} not found for retransmission, got {}", range.fileSequenceId(), offset);
+            return;
+        }
+        fileChunkStreamer.streamRange(
+                offset, fileTransferRequest, range.offset(), range.length(), serverCallStreamObserver);
+    }
 }
@@ -0,0 +1,28 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.server.processor.file;
+
+import uk.gov.dbt.ndtp.grpc.FileStreamRequest;
+
+/**
+ * Bytes of one file that a client asked to be sent again after they failed their chunk checksum.
+ *
+ * @param fileSequenceId sequence id of the file
+ * @param offset first byte to send
+ * @param length number of bytes to send
+ */
+public record FileRange(long fileSequenceId, long offset, long length) {
+
+    /**
+     * @return the range asked for by {@code request}, or {@code null} if it asks for whole files
+     */
+    public static FileRange of(FileStreamRequest request) {
+        if (request.getRangeLength() <= 0) {
+            return null;
+        }
+        return new FileRange(
+                request.getStartSequenceId(), Math.max(0L, request.getRangeOffset()), request.getRangeLength());
+    }
+}
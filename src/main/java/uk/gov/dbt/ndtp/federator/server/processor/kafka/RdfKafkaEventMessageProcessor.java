@@ -66,25 +66,33 @@ public class RdfKafkaEventMessageProcessor implements MessageProcessor<KafkaEven
     public void process(KafkaEvent<String, RdfPayload> kafkaEvent) {
         try {
             LOGGER.debug("Processing message");
-            String topic = kafkaEvent.getConsumerRecord().topic();
-            long offset = kafkaEvent.getConsumerRecord().offset();
-            ByteString byteStringValue = ByteString.copyFrom(serializer.serialize(topic, kafkaEvent.value()));
-            ByteString byteStringKey = ByteString.copyFrom(
-                    (null != kafkaEvent.key())
-                            ? kafkaEvent.key().getBytes()
-                            : ("Missing Key - " + offset + " " + topic).getBytes());
-            KafkaByteBatch response = KafkaByteBatch.newBuilder()
-                    .setTopic(topic)
-                    .setOffset(offset)
-                    .setValue(byteStringValue)
-                    .setKey(byteStringKey)
-                    .addAllShared(selectHeaders(kafkaEvent.headers(), sharedHeaders))
-                    .build();
-
-            serverCallStreamObserver.onNext(response);
+            serverCallStreamObserver.onNext(toBatch(kafkaEvent));
         } catch (Exception e) {
             LOGGER.error("Exception encountered processing message", e);
             serverCallStreamObserver.onError(e);
         }
     }
+
+    /**
+     * Serialises the Kafka event into the wire representation without sending it.
+     * Safe to call from multiple threads, which allows the conductor to run it on a worker pool.
+     * @param kafkaEvent the event to serialise
+     * @return the batch to be sent to the client
+     */
+    public KafkaByteBatch toBatch(KafkaEvent<String, RdfPayload> kafkaEvent) {
+        String topic = kafkaEvent.getConsumerRecord().topic();
+        long offset = kafkaEvent.getConsumerRecord().offset();
+        ByteString byteStringValue = ByteString.copyFrom(serializer.serialize(topic, kafkaEvent.value()));
+        ByteString byteStringKey = ByteString.copyFrom(
+                (null != kafkaEvent.key())
+                        ? kafkaEvent.key().getBytes()
+                        : ("Missing Key - " + offset + " " + topic).getBytes());
+        return KafkaByteBatch.newBuilder()
+                .setTopic(topic)
+                .setOffset(offset)
+                .setValue(byteStringValue)
+                .setKey(byteStringKey)
+                .addAllShared(selectHeaders(kafkaEvent.headers(), sharedHeaders))
+                .build();
+    }
 }
@@ -31,8 +31,11 @@ import static org.mockito.Mockito.*;
 import java.util.Set;
 import org.apache.kafka.common.errors.InvalidTopicException;
 import org.junit.jupiter.api.Test;
+import uk.gov.dbt.ndtp.federator.common.service.kafka.KafkaStreamService;
 import uk.gov.dbt.ndtp.federator.common.service.stream.CloseableFederatorStreamService;
 import uk.gov.dbt.ndtp.federator.server.interfaces.StreamObservable;
+import uk.gov.dbt.ndtp.grpc.MultiTopicRequest;
+import uk.gov.dbt.ndtp.grpc.TopicOffset;
 import uk.gov.dbt.ndtp.grpc.TopicRequest;
 
 class FederatorServiceTest {
@@ -54,8 +57,7 @@ class FederatorServiceTest {
         Set<String> headers = Set.of("x-trace-id");
         FederatorService cut = new FederatorService(headers);
 
-        @SuppressWarnings("rawtypes")
-        CloseableFederatorStreamService mockKafka = mock(CloseableFederatorStreamService.class);
+        KafkaStreamService mockKafka = mock(KafkaStreamService.class);
         setPrivateField(cut, "kafkaStreamService", mockKafka);
 
         TopicRequest request =
@@ -74,8 +76,7 @@ class FederatorServiceTest {
     void test_getKafkaConsumer_propagatesInvalidTopicException() {
         // Arrange
         FederatorService cut = new FederatorService(Set.of());
-        @SuppressWarnings("rawtypes")
-        CloseableFederatorStreamService mockKafka = mock(CloseableFederatorStreamService.class);
+        KafkaStreamService mockKafka = mock(KafkaStreamService.class);
         setPrivateField(cut, "kafkaStreamService", mockKafka);
 
         TopicRequest request = TopicRequest.newBuilder().setTopic("forbidden").build();
@@ -89,6 +90,27 @@ class FederatorServiceTest {
         assertThrows(InvalidTopicException.class, () -> cut.getKafkaConsumer(request, observable));
     }
 
+    @Test
+    void test_getKafkaConsumers_delegatesToKafkaStreamService() throws Exception {
+        // Arrange
+        FederatorService cut = new FederatorService(Set.of());
+        KafkaStreamService mockKafka = mock(KafkaStreamService.class);
+        setPrivateField(cut, "kafkaStreamService", mockKafka);
+
+        MultiTopicRequest request = MultiTopicRequest.newBuilder()
+                .addTopics(TopicOffset.newBuilder().setTopic("topic-1").setOffset(5L))
+                .addTopics(TopicOffset.newBuilder().setTopic("topic-2"))
+                .build();
+        StreamObservable<uk.gov.dbt.ndtp.grpc.KafkaByteBatch> observable = mock(StreamObservable.class);
+
+        // Act
+        cut.getKafkaConsumers(request, observable);
+
+        // Assert
+        verify(mockKafka, times(1)).streamTopicsToClient(eq(request), eq(observable), any());
+        verifyNoMoreInteractions(mockKafka);
+    }
+
     @Test
     void test_getFileConsumer_delegatesToFileStreamService() {
         // Arrange
@@ -114,8 +136,7 @@ class FederatorServiceTest {
     void test_close_ClosesBothTheKafkaStreamServiceAndTheFileStreamService() {
         // Arrange
         FederatorService cut = new FederatorService(Set.of());
-        @SuppressWarnings("rawtypes")
-        CloseableFederatorStreamService mockKafka = mock(CloseableFederatorStreamService.class);
+        KafkaStreamService mockKafka = mock(KafkaStreamService.class);
         setPrivateField(cut, "kafkaStreamService", mockKafka);
         @SuppressWarnings("rawtypes")
         CloseableFederatorStreamService mockFile = mock(CloseableFederatorStreamService.class);
@@ -23,6 +23,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Map;
 import java.util.Random;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.Test;
@@ -61,6 +62,23 @@ class WrappedGRPCTopicClientTest {
         verify(delegate).processTopic(topic, offset);
     }
 
+    @Test
+    void followTopic() {
+        String topic = RandomStringUtils.insecure().next(10);
+        long offset = new Random().nextLong();
+        underTest.followTopic(topic, offset);
+
+        verify(delegate).followTopic(topic, offset);
+    }
+
+    @Test
+    void processTopics() {
+        Map<String, Long> topicOffsets = Map.of("first", 1L, "second", 2L);
+        underTest.processTopics(topicOffsets, true);
+
+        verify(delegate).processTopics(topicOffsets, true);
+    }
+
     @Test
     void testConnectivity() {
         underTest.testConnectivity();
@@ -0,0 +1,114 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32C;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import uk.gov.dbt.ndtp.federator.common.utils.FileChecksums;
+import uk.gov.dbt.ndtp.federator.common.utils.GRPCUtils;
+import uk.gov.dbt.ndtp.grpc.FileChecksumAlgorithm;
+
+/**
+ * Compares whole-file checksum throughput per core for {@code SHA_256} and {@code XXH64_TREE}, with CRC32C (the
+ * per-chunk check) for reference.
+ * <p>
+ * The streaming figures hash chunk-sized buffers on one thread, the way {@code FileChunkStreamer} does, and report MB
+ * per CPU second. The file figures time the client's check of a finished file on disk, where {@code XXH64_TREE} hashes
+ * blocks on all cores.
+ * <p>
+ * Not part of the normal build; run with:
+ * <pre>
+ * mvn test -Dtest=FileChecksumBenchmark -Dfederator.benchmark=true [-Dfederator.benchmark.chunkSize=1000000]
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "federator.benchmark", matches = "true")
+class FileChecksumBenchmark {
+
+    private static final int CHUNK_SIZE = Integer.getInteger("federator.benchmark.chunkSize", 1_000_000);
+    private static final long BYTES_PER_RUN = Long.getLong("federator.benchmark.bytes", 2L << 30);
+    private static final int FILE_SIZE = Integer.getInteger("federator.benchmark.fileSize", 512 << 20);
+    private static final double BYTES_PER_MB = 1L << 20;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void checksumThroughput() throws Exception {
+        byte[] chunk = new byte[CHUNK_SIZE];
+        ThreadLocalRandom.current().nextBytes(chunk);
+
+        // Warm up every path so the JIT does not favour the later runs
+        streamDigest(FileChecksumAlgorithm.SHA_256, chunk, BYTES_PER_RUN / 8);
+        streamDigest(FileChecksumAlgorithm.XXH64_TREE, chunk, BYTES_PER_RUN / 8);
+        streamCrc32c(chunk, BYTES_PER_RUN / 8);
+
+        double sha256 = streamDigest(FileChecksumAlgorithm.SHA_256, chunk, BYTES_PER_RUN);
+        double xxh64Tree = streamDigest(FileChecksumAlgorithm.XXH64_TREE, chunk, BYTES_PER_RUN);
+        double crc32c = streamCrc32c(chunk, BYTES_PER_RUN);
+
+        byte[] content = new byte[FILE_SIZE];
+        ThreadLocalRandom.current().nextBytes(content);
+        Path file = Files.write(tempDir.resolve("checksum.bin"), content);
+        fileChecksum(FileChecksumAlgorithm.SHA_256, file);
+        fileChecksum(FileChecksumAlgorithm.XXH64_TREE, file);
+        double sha256File = fileChecksum(FileChecksumAlgorithm.SHA_256, file);
+        double xxh64TreeFile = fileChecksum(FileChecksumAlgorithm.XXH64_TREE, file);
+        assertEquals(
+                FileChecksums.calculate(content, FileChecksumAlgorithm.XXH64_TREE),
+                FileChecksums.calculate(file, FileChecksumAlgorithm.XXH64_TREE));
+
+        System.out.printf("%n%-12s %20s %20s%n", "algorithm", "stream MB/cpu-s", "file check MB/s");
+        System.out.printf("%-12s %20.0f %20.0f%n", "SHA_256", sha256, sha256File);
+        System.out.printf("%-12s %20.0f %20.0f%n", "XXH64_TREE", xxh64Tree, xxh64TreeFile);
+        System.out.printf("%-12s %20.0f %20s%n", "CRC32C", crc32c, "-");
+        System.out.printf(
+                "XXH64_TREE streams %.1fx and checks files %.1fx as fast as SHA_256 (%d cores)%n",
+                xxh64Tree / sha256, xxh64TreeFile / sha256File, Runtime.getRuntime().availableProcessors());
+    }
+
+    private static double streamDigest(FileChecksumAlgorithm algorithm, byte[] chunk, long bytes) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long chunks = Math.max(1, bytes / chunk.length);
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        MessageDigest digest = FileChecksums.newDigest(algorithm);
+        for (long i = 0; i < chunks; i++) {
+            digest.update(chunk, 0, chunk.length);
+        }
+        GRPCUtils.bytesToHex(digest.digest());
+        return megabytesPerSecond(chunks * chunk.length, threads.getCurrentThreadCpuTime() - cpuStart);
+    }
+
+    private static double streamCrc32c(byte[] chunk, long bytes) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long chunks = Math.max(1, bytes / chunk.length);
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        CRC32C crc = new CRC32C();
+        for (long i = 0; i < chunks; i++) {
+            crc.reset();
+            crc.update(chunk, 0, chunk.length);
+        }
+        return megabytesPerSecond(chunks * chunk.length, threads.getCurrentThreadCpuTime() - cpuStart);
+    }
+
+    private static double fileChecksum(FileChecksumAlgorithm algorithm, Path file) throws Exception {
+        long started = System.nanoTime();
+        FileChecksums.calculate(file, algorithm);
+        return megabytesPerSecond(Files.size(file), System.nanoTime() - started);
+    }
+
+    private static double megabytesPerSecond(long bytes, long nanos) {
+        return bytes / BYTES_PER_MB / (nanos / 1e9);
+    }
+}
@@ -0,0 +1,117 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.protobuf.UnsafeByteOperations;
+import io.grpc.Drainable;
+import io.grpc.MethodDescriptor;
+import io.grpc.protobuf.ProtoUtils;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import uk.gov.dbt.ndtp.federator.server.grpc.FileStreamEventMarshaller;
+import uk.gov.dbt.ndtp.grpc.FileChunk;
+import uk.gov.dbt.ndtp.grpc.FileStreamEvent;
+
+/**
+ * Compares the CPU cost of marshalling file chunks with the generated protobuf marshaller and with
+ * {@link FileStreamEventMarshaller}.
+ * <p>
+ * Each chunk is drained into a sink that copies into a fixed buffer, the way gRPC's framer copies into transport
+ * buffers, so both runs include the one copy the transport always makes. Reports thread CPU time per GB sent.
+ * <p>
+ * Not part of the normal build; run with:
+ * <pre>
+ * mvn test -Dtest=FileChunkMarshallerBenchmark -Dfederator.benchmark=true [-Dfederator.benchmark.chunkSize=1000000]
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "federator.benchmark", matches = "true")
+class FileChunkMarshallerBenchmark {
+
+    private static final int CHUNK_SIZE = Integer.getInteger("federator.benchmark.chunkSize", 1_000_000);
+    private static final long BYTES_PER_RUN = Long.getLong("federator.benchmark.bytes", 4L << 30);
+    private static final double BYTES_PER_GB = 1L << 30;
+
+    @Test
+    void generatedVersusZeroCopy() throws Exception {
+        MethodDescriptor.Marshaller<FileStreamEvent> generated =
+                ProtoUtils.marshaller(FileStreamEvent.getDefaultInstance());
+        MethodDescriptor.Marshaller<FileStreamEvent> zeroCopy = new FileStreamEventMarshaller();
+        byte[] data = new byte[CHUNK_SIZE];
+        ThreadLocalRandom.current().nextBytes(data);
+
+        // Warm up both paths so the JIT does not favour the second run
+        run(generated, data, BYTES_PER_RUN / 8);
+        run(zeroCopy, data, BYTES_PER_RUN / 8);
+
+        double generatedCpu = run(generated, data, BYTES_PER_RUN);
+        double zeroCopyCpu = run(zeroCopy, data, BYTES_PER_RUN);
+
+        System.out.printf("%n%-12s %10s %14s%n", "marshaller", "chunk", "cpu ms/GB");
+        System.out.printf("%-12s %10d %14.1f%n", "generated", CHUNK_SIZE, generatedCpu);
+        System.out.printf("%-12s %10d %14.1f%n", "zero-copy", CHUNK_SIZE, zeroCopyCpu);
+        System.out.printf(
+                "saved %.1f cpu ms/GB (%.0f%%)%n", generatedCpu - zeroCopyCpu, 100 * (1 - zeroCopyCpu / generatedCpu));
+    }
+
+    private static double run(MethodDescriptor.Marshaller<FileStreamEvent> marshaller, byte[] data, long bytes)
+            throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        TransportSink sink = new TransportSink();
+        long chunks = Math.max(1, bytes / data.length);
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        for (long i = 0; i < chunks; i++) {
+            FileStreamEvent event = FileStreamEvent.newBuilder()
+                    .setChunk(FileChunk.newBuilder()
+                            .setFileName("benchmark.bin")
+                            .setChunkData(UnsafeByteOperations.unsafeWrap(data))
+                            .setChunkIndex((int) i)
+                            .setFileSize(chunks * data.length)
+                            .setFileSequenceId(1L)
+                            .setChunkOffset(i * data.length))
+                    .build();
+            try (InputStream stream = marshaller.stream(event)) {
+                ((Drainable) stream).drainTo(sink);
+            }
+        }
+        long cpu = threads.getCurrentThreadCpuTime() - cpuStart;
+        long payload = chunks * data.length;
+        assertTrue(sink.written >= payload, "every payload byte reaches the sink");
+        return (double) cpu / TimeUnit.MILLISECONDS.toNanos(1) / (payload / BYTES_PER_GB);
+    }
+
+    /**
+     * Copies everything written into a reused buffer, like gRPC's framer does into transport buffers.
+     */
+    private static final class TransportSink extends OutputStream {
+        private final byte[] buffer = new byte[64 * 1024];
+        private long written;
+
+        @Override
+        public void write(int b) {
+            buffer[(int) (written++ % buffer.length)] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            int remaining = len;
+            int from = off;
+            while (remaining > 0) {
+                int n = Math.min(remaining, buffer.length);
+                System.arraycopy(b, from, buffer, 0, n);
+                from += n;
+                remaining -= n;
+            }
+            written += len;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import uk.gov.dbt.ndtp.federator.common.utils.FileUtils;
+import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
+import uk.gov.dbt.ndtp.federator.server.consumer.AssignedKafkaEventMessageConsumer;
+import uk.gov.dbt.ndtp.federator.server.consumer.KafkaEventMessageConsumer;
+import uk.gov.dbt.ndtp.federator.server.consumer.MessageConsumer;
+import uk.gov.dbt.ndtp.secure.agent.sources.kafka.KafkaEvent;
+
+/**
+ * Measures time to first record for a short recurring job: a new consumer is created for the same client and topic
+ * on every run, as the server does for each {@code GetKafkaConsumer} stream. Compares the group consumer
+ * ({@code server.kafka.consumerMode=group}) with manual assignment ({@code server.kafka.consumerMode=assign}).
+ * <p>
+ * Needs a running Kafka broker. Not part of the normal build; run with:
+ * <pre>
+ * mvn test -Dtest=KafkaConsumerStartBenchmark -Dfederator.benchmark=true [-Dfederator.benchmark.kafka=localhost:9092]
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "federator.benchmark", matches = "true")
+class KafkaConsumerStartBenchmark {
+
+    private static final String BOOTSTRAP = System.getProperty("federator.benchmark.kafka", "localhost:9092");
+    private static final int RUNS = Integer.getInteger("federator.benchmark.runs", 20);
+    private static final int RECORDS = 100;
+    private static final long OFFSET = 1L;
+    private static final String CLIENT = "federator-benchmark-client";
+
+    @Test
+    void groupVersusAssigned() throws Exception {
+        String topic = "federator-benchmark-" + System.nanoTime();
+        initProperties();
+        createTopic(topic);
+
+        Supplier<MessageConsumer<KafkaEvent<String, String>>> group = () -> new KafkaEventMessageConsumer<>(
+                StringDeserializer.class, StringDeserializer.class, topic, OFFSET, CLIENT);
+        Supplier<MessageConsumer<KafkaEvent<String, String>>> assigned = () -> new AssignedKafkaEventMessageConsumer<>(
+                StringDeserializer.class, StringDeserializer.class, topic, OFFSET, false);
+
+        // Warm up the JIT and the broker connection for both paths
+        run(group, 2);
+        run(assigned, 2);
+
+        long[] groupMillis = run(group, RUNS);
+        long[] assignedMillis = run(assigned, RUNS);
+
+        System.out.printf("%n%-10s %6s %10s %10s %10s%n", "mode", "runs", "p50(ms)", "p95(ms)", "max(ms)");
+        print("group", groupMillis);
+        print("assign", assignedMillis);
+    }
+
+    private static long[] run(Supplier<MessageConsumer<KafkaEvent<String, String>>> factory, int runs) {
+        long[] millis = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            MessageConsumer<KafkaEvent<String, String>> consumer = factory.get();
+            try {
+                KafkaEvent<String, String> first = null;
+                while (first == null && consumer.stillAvailable()) {
+                    first = consumer.getNextMessage();
+                }
+                millis[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                assertEquals("value" + OFFSET, first == null ? null : first.value(), "first record at the offset");
+            } finally {
+                consumer.close();
+            }
+        }
+        return millis;
+    }
+
+    private static void print(String mode, long[] millis) {
+        long[] sorted = millis.clone();
+        Arrays.sort(sorted);
+        System.out.printf(
+                "%-10s %6d %10d %10d %10d%n",
+                mode,
+                sorted.length,
+                sorted[sorted.length / 2],
+                sorted[(int) Math.min(sorted.length - 1, Math.ceil(sorted.length * 0.95) - 1)],
+                sorted[sorted.length - 1]);
+    }
+
+    private static void initProperties() throws Exception {
+        Path properties = FileUtils.createSelfDeletingTmpFile(null, null);
+        Files.writeString(
+                properties,
+                """
+                kafka.bootstrapServers=%s
+                kafka.defaultKeyDeserializerClass=org.apache.kafka.common.serialization.StringDeserializer
+                kafka.defaultValueDeserializerClass=org.apache.kafka.common.serialization.StringDeserializer
+                kafka.consumerGroup=%s
+                kafka.pollDuration=PT0.05S
+                kafka.pollRecords=100
+                consumer.inactivity.timeout=PT30S
+                """
+                        .formatted(BOOTSTRAP, CLIENT));
+        PropertyUtil.clear();
+        PropertyUtil.init(properties.toFile());
+    }
+
+    private static void createTopic(String topic) throws Exception {
+        try (Admin admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, BOOTSTRAP))) {
+            admin.createTopics(List.of(new NewTopic(topic, 1, (short) 1))).all().get(30, TimeUnit.SECONDS);
+        }
+        Map<String, Object> config = Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, BOOTSTRAP,
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName(),
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+        try (KafkaProducer<String, String> producer = new KafkaProducer<>(config)) {
+            for (int i = 0; i < RECORDS; i++) {
+                producer.send(new ProducerRecord<>(topic, "key" + i, "value" + i));
+            }
+            producer.flush();
+        }
+    }
+}
@@ -0,0 +1,245 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import uk.gov.dbt.ndtp.federator.common.utils.ThreadUtil;
+import uk.gov.dbt.ndtp.federator.server.grpc.LimitedServerCallStreamObserver;
+
+/**
+ * Compares the cached platform-thread pool with the virtual-thread executor for many concurrent blocking streams.
+ * <p>
+ * Each simulated stream alternates a blocking "Kafka poll" with an {@code onNext} through
+ * {@link LimitedServerCallStreamObserver}, whose transport periodically reports not-ready so the sender has to wait
+ * for {@code onReady}. Reports peak live threads, peak RSS (Linux only) and per-record send latency.
+ * <p>
+ * Not part of the normal build; run with:
+ * <pre>
+ * mvn test -Dtest=StreamThreadScalingBenchmark -Dfederator.benchmark=true [-Dfederator.benchmark.streams=1000]
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "federator.benchmark", matches = "true")
+class StreamThreadScalingBenchmark {
+
+    private static final int STREAMS = Integer.getInteger("federator.benchmark.streams", 1000);
+    private static final int RECORDS_PER_STREAM = Integer.getInteger("federator.benchmark.records", 50);
+    private static final long POLL_MILLIS = 5;
+    private static final long NOT_READY_MILLIS = 2;
+    private static final int NOT_READY_EVERY = 10;
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        // Warm up the JIT on a small run so the first mode is not penalised
+        run("warm-up", ThreadUtil::threadExecutor, 50);
+
+        Result platform = run("platform", ThreadUtil::threadExecutor, STREAMS);
+        Result virtual = run("virtual", ThreadUtil::virtualThreadExecutor, STREAMS);
+
+        System.out.printf(
+                "%n%-10s %8s %12s %14s %10s %10s %10s%n",
+                "mode",
+                "streams",
+                "peakThreads",
+                "peakRssMiB",
+                "p50(us)",
+                "p99(us)",
+                "wall(ms)");
+        for (Result r : List.of(platform, virtual)) {
+            System.out.printf(
+                    "%-10s %8d %12d %14s %10d %10d %10d%n",
+                    r.mode,
+                    STREAMS,
+                    r.peakThreads,
+                    r.peakRssMiB < 0 ? "n/a" : String.valueOf(r.peakRssMiB),
+                    r.p50Micros,
+                    r.p99Micros,
+                    r.wallMillis);
+        }
+    }
+
+    private Result run(String mode, Function<String, ExecutorService> executorFactory, int streams) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        ExecutorService executor = executorFactory.apply("Bench-" + mode);
+        ScheduledExecutorService transport = Executors.newScheduledThreadPool(2);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        AtomicLong peakThreads = new AtomicLong();
+        AtomicLong peakRss = new AtomicLong(-1);
+        sampler.scheduleAtFixedRate(
+                () -> {
+                    peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+                    peakRss.accumulateAndGet(readRssKiB(), Math::max);
+                },
+                0,
+                20,
+                TimeUnit.MILLISECONDS);
+
+        long[] latencies = new long[streams * RECORDS_PER_STREAM];
+        AtomicLong delivered = new AtomicLong();
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(streams);
+        for (int s = 0; s < streams; s++) {
+            int stream = s;
+            futures.add(executor.submit(() -> {
+                FakeTransport fake = new FakeTransport(transport, delivered);
+                LimitedServerCallStreamObserver<Integer> observer = new LimitedServerCallStreamObserver<>(fake);
+                for (int i = 0; i < RECORDS_PER_STREAM; i++) {
+                    sleep(POLL_MILLIS);
+                    if (i % NOT_READY_EVERY == 0) {
+                        fake.pushBack(NOT_READY_MILLIS);
+                    }
+                    long sent = System.nanoTime();
+                    observer.onNext(i);
+                    latencies[stream * RECORDS_PER_STREAM + i] = System.nanoTime() - sent;
+                }
+                observer.onCompleted();
+            }));
+        }
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        long wall = System.nanoTime() - start;
+
+        sampler.shutdownNow();
+        transport.shutdownNow();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        assertEquals((long) streams * RECORDS_PER_STREAM, delivered.get());
+        Arrays.sort(latencies);
+        return new Result(
+                mode,
+                peakThreads.get(),
+                peakRss.get() < 0 ? -1 : peakRss.get() / 1024,
+                TimeUnit.NANOSECONDS.toMicros(latencies[latencies.length / 2]),
+                TimeUnit.NANOSECONDS.toMicros(latencies[(int) (latencies.length * 0.99)]),
+                TimeUnit.NANOSECONDS.toMillis(wall));
+    }
+
+    private static long readRssKiB() {
+        Path status = Path.of("/proc/self/status");
+        if (!Files.isReadable(status)) {
+            return -1;
+        }
+        try (var lines = Files.lines(status)) {
+            return lines.filter(l -> l.startsWith("VmRSS:"))
+                    .map(l -> l.replaceAll("\\D+", ""))
+                    .mapToLong(Long::parseLong)
+                    .findFirst()
+                    .orElse(-1);
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Result(
+            String mode, long peakThreads, long peakRssMiB, long p50Micros, long p99Micros, long wallMillis) {}
+
+    /**
+     * Minimal transport that can report not-ready for a while and then fire onReady, like a full HTTP/2 window.
+     */
+    private static final class FakeTransport extends ServerCallStreamObserver<Integer> {
+        private final ScheduledExecutorService transport;
+        private final AtomicLong delivered;
+        private volatile boolean ready = true;
+        private volatile Runnable onReady = () -> {};
+
+        FakeTransport(ScheduledExecutorService transport, AtomicLong delivered) {
+            this.transport = transport;
+            this.delivered = delivered;
+        }
+
+        void pushBack(long millis) {
+            ready = false;
+            transport.schedule(
+                    () -> {
+                        ready = true;
+                        onReady.run();
+                    },
+                    millis,
+                    TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public void setOnCancelHandler(Runnable onCancelHandler) {
+            // never cancelled
+        }
+
+        @Override
+        public void setCompression(String compression) {
+            // not used
+        }
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setOnReadyHandler(Runnable onReadyHandler) {
+            onReady = onReadyHandler;
+        }
+
+        @Override
+        public void disableAutoInboundFlowControl() {
+            // not used
+        }
+
+        @Override
+        public void request(int count) {
+            // not used
+        }
+
+        @Override
+        public void setMessageCompression(boolean enable) {
+            // not used
+        }
+
+        @Override
+        public void onNext(Integer value) {
+            delivered.incrementAndGet();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            // not used
+        }
+
+        @Override
+        public void onCompleted() {
+            // not used
+        }
+    }
+}
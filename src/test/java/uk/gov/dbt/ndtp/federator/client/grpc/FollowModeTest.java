@@ -0,0 +1,43 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.grpc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
+
+class FollowModeTest {
+
+    private final FollowMode followMode =
+            new FollowMode(true, Duration.ofSeconds(30), Duration.ofSeconds(1), Duration.ofSeconds(10));
+
+    @Test
+    void backoff_isZeroBeforeAnyFailure() {
+        assertEquals(Duration.ZERO, followMode.backoff(0));
+    }
+
+    @Test
+    void backoff_growsExponentiallyUpToMax() {
+        for (int i = 0; i < 100; i++) {
+            assertTrue(followMode.backoff(1).compareTo(Duration.ofSeconds(1)) <= 0);
+            assertTrue(followMode.backoff(3).compareTo(Duration.ofSeconds(4)) <= 0);
+            assertTrue(followMode.backoff(50).compareTo(Duration.ofSeconds(10)) <= 0);
+        }
+    }
+
+    @Test
+    void fromProperties_isDisabledWithoutProperties() {
+        PropertyUtil.clear();
+
+        FollowMode fromProperties = FollowMode.fromProperties();
+
+        assertFalse(fromProperties.enabled());
+        assertEquals(FollowMode.DISABLED, fromProperties);
+    }
+}
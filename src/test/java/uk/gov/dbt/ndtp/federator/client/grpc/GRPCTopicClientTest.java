@@ -19,7 +19,9 @@
 package uk.gov.dbt.ndtp.federator.client.grpc;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -27,20 +29,29 @@ import io.grpc.ManagedChannel;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 import java.util.Iterator;
+import java.util.Map;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.errors.AuthenticationException;
+import org.apache.kafka.common.errors.ProducerFencedException;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.SerializationException;
 import org.apache.kafka.common.utils.Bytes;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
 import uk.gov.dbt.ndtp.federator.client.connection.ConnectionProperties;
+import uk.gov.dbt.ndtp.federator.client.kafka.KafkaProducerCache;
+import uk.gov.dbt.ndtp.federator.client.kafka.TopicWriter;
 import uk.gov.dbt.ndtp.federator.common.utils.KafkaUtil;
 import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
 import uk.gov.dbt.ndtp.federator.common.utils.RedisUtil;
 import uk.gov.dbt.ndtp.federator.exceptions.RetryableException;
 import uk.gov.dbt.ndtp.grpc.FederatorServiceGrpc;
 import uk.gov.dbt.ndtp.grpc.KafkaByteBatch;
+import uk.gov.dbt.ndtp.grpc.MultiTopicRequest;
+import uk.gov.dbt.ndtp.grpc.TopicOffset;
 import uk.gov.dbt.ndtp.grpc.TopicRequest;
 import uk.gov.dbt.ndtp.secure.agent.sources.kafka.sinks.KafkaSink;
 
@@ -164,6 +175,92 @@ class GRPCTopicClientTest {
         }
     }
 
+    @Test
+    void processTopic_withProducerCache_reusesSinkWithoutClosing() {
+        ManagedChannel channel = mock(ManagedChannel.class);
+        when(channel.shutdown()).thenReturn(channel);
+        KafkaSink<Bytes, Bytes> sink = mock(KafkaSink.class);
+        KafkaProducerCache cache = mock(KafkaProducerCache.class);
+        when(cache.sink("pref-server-topic")).thenReturn(sink);
+
+        try (MockedStatic<KafkaProducerCache> cacheMock = mockStatic(KafkaProducerCache.class);
+                MockedStatic<RedisUtil> redisMock = mockStatic(RedisUtil.class)) {
+            cacheMock.when(KafkaProducerCache::isEnabled).thenReturn(true);
+            cacheMock.when(KafkaProducerCache::getInstance).thenReturn(cache);
+            redisMock.when(RedisUtil::getInstance).thenReturn(mock(RedisUtil.class));
+
+            GRPCTopicClient client = spy(new GRPCTopicClient("client", "key", "server", "pref", channel));
+            doNothing().when(client).consumeMessagesAndSendOn(any(), any());
+
+            client.processTopic("topic", 100L);
+            client.processTopic("topic", 100L);
+
+            verify(client, times(2)).consumeMessagesAndSendOn(any(TopicRequest.class), eq(sink));
+            verify(sink, never()).close();
+            client.close();
+        }
+    }
+
+    @Test
+    void processTopic_withProducerCache_invalidatesSinkOnFatalKafkaFailure() {
+        ManagedChannel channel = mock(ManagedChannel.class);
+        when(channel.shutdown()).thenReturn(channel);
+        KafkaProducerCache cache = mock(KafkaProducerCache.class);
+        when(cache.sink(anyString())).thenReturn(mock(KafkaSink.class));
+
+        try (MockedStatic<KafkaProducerCache> cacheMock = mockStatic(KafkaProducerCache.class);
+                MockedStatic<RedisUtil> redisMock = mockStatic(RedisUtil.class)) {
+            cacheMock.when(KafkaProducerCache::isEnabled).thenReturn(true);
+            cacheMock.when(KafkaProducerCache::getInstance).thenReturn(cache);
+            redisMock.when(RedisUtil::getInstance).thenReturn(mock(RedisUtil.class));
+
+            GRPCTopicClient client = spy(new GRPCTopicClient("client", "key", "server", "pref", channel));
+            doThrow(new RuntimeException(new AuthenticationException("credentials rejected")))
+                    .when(client)
+                    .consumeMessagesAndSendOn(any(), any());
+
+            assertThrows(RuntimeException.class, () -> client.processTopic("topic", 100L));
+            verify(cache).invalidate("pref-server-topic");
+            client.close();
+        }
+    }
+
+    @Test
+    void processTopic_withProducerCache_keepsSinkOnRecordFailure() {
+        ManagedChannel channel = mock(ManagedChannel.class);
+        when(channel.shutdown()).thenReturn(channel);
+        KafkaProducerCache cache = mock(KafkaProducerCache.class);
+        when(cache.sink(anyString())).thenReturn(mock(KafkaSink.class));
+
+        try (MockedStatic<KafkaProducerCache> cacheMock = mockStatic(KafkaProducerCache.class);
+                MockedStatic<RedisUtil> redisMock = mockStatic(RedisUtil.class)) {
+            cacheMock.when(KafkaProducerCache::isEnabled).thenReturn(true);
+            cacheMock.when(KafkaProducerCache::getInstance).thenReturn(cache);
+            redisMock.when(RedisUtil::getInstance).thenReturn(mock(RedisUtil.class));
+
+            GRPCTopicClient client = spy(new GRPCTopicClient("client", "key", "server", "pref", channel));
+            doThrow(new RuntimeException(new RecordTooLargeException("record too large")))
+                    .when(client)
+                    .consumeMessagesAndSendOn(any(), any());
+
+            assertThrows(RuntimeException.class, () -> client.processTopic("topic", 100L));
+            verify(cache, never()).invalidate(anyString());
+            client.close();
+        }
+    }
+
+    @Test
+    void isFatalKafkaFailure_onlyForBrokenProducers() {
+        assertTrue(GRPCTopicClient.isFatalKafkaFailure(new ProducerFencedException("fenced")));
+        assertTrue(GRPCTopicClient.isFatalKafkaFailure(
+                new RuntimeException(new IllegalStateException("Cannot send after the producer is closed."))));
+        assertTrue(GRPCTopicClient.isFatalKafkaFailure(
+                new org.apache.kafka.common.errors.TimeoutException("metadata not fetched")));
+        assertFalse(GRPCTopicClient.isFatalKafkaFailure(new KafkaException("broker gone")));
+        assertFalse(GRPCTopicClient.isFatalKafkaFailure(new SerializationException("bad value")));
+        assertFalse(GRPCTopicClient.isFatalKafkaFailure(new IllegalStateException("stream already started")));
+    }
+
     @Test
     void processTopic_statusRuntimeException_invalidArgument() {
         ManagedChannel channel = mock(ManagedChannel.class);
@@ -286,6 +383,158 @@ class GRPCTopicClientTest {
         }
     }
 
+    @Test
+    @org.junit.jupiter.api.Timeout(value = 10, unit = java.util.concurrent.TimeUnit.SECONDS)
+    void consumeMessagesAndSendOn_skipsHeartbeats() {
+        ManagedChannel channel = mock(ManagedChannel.class);
+        when(channel.shutdown()).thenReturn(channel);
+        KafkaSink<Bytes, Bytes> sink = mock(KafkaSink.class);
+        RedisUtil redis = mock(RedisUtil.class);
+
+        try (MockedStatic<RedisUtil> redisMock = mockStatic(RedisUtil.class);
+                MockedStatic<PropertyUtil> propertyMock = mockStatic(PropertyUtil.class)) {
+            redisMock.when(RedisUtil::getInstance).thenReturn(redis);
+            propertyMock
+                    .when(() -> PropertyUtil.getPropertyIntValue(anyString(), anyString()))
+                    .thenReturn(1);
+
+            FederatorServiceGrpc.FederatorServiceBlockingStub stub =
+                    mock(FederatorServiceGrpc.FederatorServiceBlockingStub.class);
+            GRPCTopicClient client = new GRPCTopicClient("client", "key", "server", "pref", channel) {
+                @Override
+                protected FederatorServiceGrpc.FederatorServiceBlockingStub getStub() {
+                    return stub;
+                }
+            };
+
+            KafkaByteBatch heartbeat = KafkaByteBatch.newBuilder()
+                    .setTopic("topic")
+                    .setHeartbeat(true)
+                    .build();
+            KafkaByteBatch batch = KafkaByteBatch.newBuilder()
+                    .setTopic("topic")
+                    .setOffset(100L)
+                    .setKey(com.google.protobuf.ByteString.copyFromUtf8("k"))
+                    .setValue(com.google.protobuf.ByteString.copyFromUtf8("v"))
+                    .build();
+
+            Iterator<KafkaByteBatch> iterator = mock(Iterator.class);
+            when(iterator.next()).thenReturn(heartbeat, batch, heartbeat).thenReturn(null);
+            when(stub.getKafkaConsumer(any())).thenReturn(iterator);
+
+            TopicRequest req =
+                    TopicRequest.newBuilder().setTopic("topic").setOffset(100L).build();
+            client.consumeMessagesAndSendOn(req, sink);
+
+            verify(sink, times(1)).send(any());
+            verify(redis, times(1)).setOffset(anyString(), eq("topic"), anyLong());
+            verify(redis).setOffset(anyString(), eq("topic"), eq(101L));
+            client.close();
+        }
+    }
+
+    @Test
+    @org.junit.jupiter.api.Timeout(value = 10, unit = java.util.concurrent.TimeUnit.SECONDS)
+    void consumeMessagesAndWrite_storesOnlyAcknowledgedOffsets() {
+        ManagedChannel channel = mock(ManagedChannel.class);
+        when(channel.shutdown()).thenReturn(channel);
+        TopicWriter writer = mock(TopicWriter.class);
+        // Nothing acknowledged while streaming; both records acknowledged by the final flush
+        when(writer.committableOffset()).thenReturn(-1L, -1L, 102L);
+        RedisUtil redis = mock(RedisUtil.class);
+
+        try (MockedStatic<RedisUtil> redisMock = mockStatic(RedisUtil.class);
+                MockedStatic<PropertyUtil> propertyMock = mockStatic(PropertyUtil.class)) {
+            redisMock.when(RedisUtil::getInstance).thenReturn(redis);
+            propertyMock
+                    .when(() -> PropertyUtil.getPropertyIntValue(anyString(), anyString()))
+                    .thenReturn(1);
+
+            FederatorServiceGrpc.FederatorServiceBlockingStub stub =
+                    mock(FederatorServiceGrpc.FederatorServiceBlockingStub.class);
+            GRPCTopicClient client = new GRPCTopicClient("client", "key", "server", "pref", channel) {
+                @Override
+                protected FederatorServiceGrpc.FederatorServiceBlockingStub getStub() {
+                    return stub;
+                }
+            };
+
+            Iterator<KafkaByteBatch> iterator = mock(Iterator.class);
+            when(iterator.next())
+                    .thenReturn(
+                            KafkaByteBatch.newBuilder().setOffset(100L).build(),
+                            KafkaByteBatch.newBuilder().setOffset(101L).build())
+                    .thenReturn(null);
+            when(stub.getKafkaConsumer(any())).thenReturn(iterator);
+
+            TopicRequest req =
+                    TopicRequest.newBuilder().setTopic("topic").setOffset(100L).build();
+            client.consumeMessagesAndWrite(req, writer);
+
+            verify(writer, times(2)).write(any());
+            verify(writer).flush();
+            verify(redis, times(1)).setOffset(anyString(), eq("topic"), anyLong());
+            verify(redis).setOffset(anyString(), eq("topic"), eq(102L));
+            client.close();
+        }
+    }
+
+    @Test
+    @org.junit.jupiter.api.Timeout(value = 10, unit = java.util.concurrent.TimeUnit.SECONDS)
+    void consumeTopicsAndWrite_routesRecordsAndOffsetsByTopic() {
+        ManagedChannel channel = mock(ManagedChannel.class);
+        when(channel.shutdown()).thenReturn(channel);
+        TopicWriter first = mock(TopicWriter.class);
+        TopicWriter second = mock(TopicWriter.class);
+        when(first.committableOffset()).thenReturn(11L);
+        when(second.committableOffset()).thenReturn(21L);
+        RedisUtil redis = mock(RedisUtil.class);
+
+        try (MockedStatic<RedisUtil> redisMock = mockStatic(RedisUtil.class);
+                MockedStatic<PropertyUtil> propertyMock = mockStatic(PropertyUtil.class)) {
+            redisMock.when(RedisUtil::getInstance).thenReturn(redis);
+            propertyMock
+                    .when(() -> PropertyUtil.getPropertyIntValue(anyString(), anyString()))
+                    .thenReturn(1);
+
+            FederatorServiceGrpc.FederatorServiceBlockingStub stub =
+                    mock(FederatorServiceGrpc.FederatorServiceBlockingStub.class);
+            GRPCTopicClient client = new GRPCTopicClient("client", "key", "server", "pref", channel) {
+                @Override
+                protected FederatorServiceGrpc.FederatorServiceBlockingStub getStub() {
+                    return stub;
+                }
+            };
+
+            Iterator<KafkaByteBatch> iterator = mock(Iterator.class);
+            when(iterator.next())
+                    .thenReturn(
+                            KafkaByteBatch.newBuilder()
+                                    .setTopic("first")
+                                    .setOffset(10L)
+                                    .build(),
+                            KafkaByteBatch.newBuilder().setHeartbeat(true).build(),
+                            KafkaByteBatch.newBuilder()
+                                    .setTopic("second")
+                                    .setOffset(20L)
+                                    .build())
+                    .thenReturn(null);
+            when(stub.getKafkaConsumers(any())).thenReturn(iterator);
+
+            MultiTopicRequest req = MultiTopicRequest.newBuilder()
+                    .addTopics(TopicOffset.newBuilder().setTopic("first").setOffset(10L))
+                    .addTopics(TopicOffset.newBuilder().setTopic("second").setOffset(20L))
+                    .build();
+            client.consumeTopicsAndWrite(req, Map.of("first", first, "second", second));
+
+            verify(first, times(1)).write(any());
+            verify(second, times(1)).write(any());
+            verify(redis, times(1)).setOffset(anyString(), eq("first"), eq(11L));
+            verify(redis, times(1)).setOffset(anyString(), eq("second"), eq(21L));
+            client.close();
+        }
+    }
+
     @Test
     void consumeMessagesAndSendOn_exception() {
         ManagedChannel channel = mock(ManagedChannel.class);
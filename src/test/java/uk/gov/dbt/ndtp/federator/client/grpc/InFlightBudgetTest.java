@@ -0,0 +1,73 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.grpc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class InFlightBudgetTest {
+
+    @Test
+    void limitsEachProducer() {
+        InFlightBudget budget = new InFlightBudget(2, 10, Runnable::run);
+
+        assertTrue(budget.tryAcquire("a"));
+        assertTrue(budget.tryAcquire("a"));
+        assertFalse(budget.tryAcquire("a"));
+        assertTrue(budget.tryAcquire("b"));
+        assertEquals(2, budget.inFlight("a"));
+        assertEquals(1, budget.inFlight("b"));
+    }
+
+    @Test
+    void limitsAllProducersTogether() {
+        InFlightBudget budget = new InFlightBudget(5, 3, Runnable::run);
+
+        assertTrue(budget.tryAcquire("a"));
+        assertTrue(budget.tryAcquire("a"));
+        assertTrue(budget.tryAcquire("b"));
+        assertFalse(budget.tryAcquire("b"));
+        assertEquals(1, budget.inFlight("b"), "a refused total credit is handed back to the producer");
+    }
+
+    @Test
+    void releaseWakesWaitingStreams() {
+        InFlightBudget budget = new InFlightBudget(1, 2, Runnable::run);
+        AtomicInteger sameProducer = new AtomicInteger();
+        AtomicInteger otherProducer = new AtomicInteger();
+        assertTrue(budget.tryAcquire("a"));
+        assertTrue(budget.tryAcquire("b"));
+
+        budget.awaitCredit("a", sameProducer::incrementAndGet);
+        budget.awaitCredit("c", otherProducer::incrementAndGet);
+        assertEquals(0, sameProducer.get());
+        assertEquals(0, otherProducer.get());
+
+        budget.release("a", 1);
+
+        assertEquals(1, sameProducer.get());
+        assertEquals(1, otherProducer.get(), "total credit freed up for every producer");
+    }
+
+    @Test
+    void awaitCreditRunsAtOnceIfCreditIsAlreadyBack() {
+        InFlightBudget budget = new InFlightBudget(1, 1, Runnable::run);
+        AtomicInteger woken = new AtomicInteger();
+
+        budget.awaitCredit("a", woken::incrementAndGet);
+
+        assertEquals(1, woken.get());
+    }
+
+    @Test
+    void rejectsNonPositiveLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new InFlightBudget(0, 1, Runnable::run));
+    }
+}
@@ -0,0 +1,206 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.grpc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.grpc.ManagedChannel;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import uk.gov.dbt.ndtp.federator.client.connection.ConnectionProperties;
+
+class ManagedChannelPoolTest {
+
+    private static final ConnectionProperties SERVER_A =
+            new ConnectionProperties("client", "key", "serverA", "host-a", 8080, true);
+    private static final ConnectionProperties SERVER_B =
+            new ConnectionProperties("client", "key", "serverB", "host-b", 8080, true);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicReference<Object> config = new AtomicReference<>("v1");
+    private final AtomicInteger built = new AtomicInteger();
+    private final ManagedChannelPool pool =
+            new ManagedChannelPool(Duration.ofMinutes(5), connection -> config.get(), clock::get);
+
+    private final Supplier<ManagedChannel> factory = () -> {
+        built.incrementAndGet();
+        ManagedChannel channel = mock(ManagedChannel.class);
+        when(channel.shutdown()).thenReturn(channel);
+        return channel;
+    };
+
+    @Test
+    void acquire_reusesChannelAcrossRuns() {
+        ManagedChannel first;
+        try (ManagedChannelPool.Lease lease = pool.acquire(SERVER_A, factory)) {
+            first = lease.channel();
+        }
+        try (ManagedChannelPool.Lease lease = pool.acquire(SERVER_A, factory)) {
+            assertSame(first, lease.channel());
+        }
+
+        assertEquals(1, built.get());
+        verify(first, never()).shutdown();
+    }
+
+    @Test
+    void acquire_keepsSeparateChannelsPerConnection() {
+        try (ManagedChannelPool.Lease a = pool.acquire(SERVER_A, factory);
+                ManagedChannelPool.Lease b = pool.acquire(SERVER_B, factory)) {
+            assertNotSame(a.channel(), b.channel());
+        }
+
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    void configChange_rebuildsChannelAndShutsDownOldOnceReleased() {
+        ManagedChannelPool.Lease inFlight = pool.acquire(SERVER_A, factory);
+        ManagedChannel old = inFlight.channel();
+
+        config.set("v2");
+        ManagedChannel rebuilt;
+        try (ManagedChannelPool.Lease lease = pool.acquire(SERVER_A, factory)) {
+            rebuilt = lease.channel();
+        }
+
+        assertNotSame(old, rebuilt);
+        verify(old, never()).shutdown();
+        inFlight.close();
+        verify(old).shutdown();
+        verify(rebuilt, never()).shutdown();
+    }
+
+    @Test
+    void shutDownChannel_isRebuilt() {
+        ManagedChannel old;
+        try (ManagedChannelPool.Lease lease = pool.acquire(SERVER_A, factory)) {
+            old = lease.channel();
+        }
+        when(old.isShutdown()).thenReturn(true);
+
+        try (ManagedChannelPool.Lease lease = pool.acquire(SERVER_A, factory)) {
+            assertNotSame(old, lease.channel());
+        }
+        assertEquals(2, built.get());
+    }
+
+    @Test
+    void evictIdle_shutsDownOnlyUnleasedChannelsPastMaxIdle() {
+        ManagedChannel idle;
+        try (ManagedChannelPool.Lease lease = pool.acquire(SERVER_A, factory)) {
+            idle = lease.channel();
+        }
+        ManagedChannelPool.Lease busy = pool.acquire(SERVER_B, factory);
+
+        clock.addAndGet(Duration.ofMinutes(4).toNanos());
+        assertEquals(0, pool.evictIdle());
+
+        clock.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertEquals(1, pool.evictIdle());
+        verify(idle).shutdown();
+        verify(busy.channel(), never()).shutdown();
+        assertEquals(1, pool.size());
+        busy.close();
+    }
+
+    @Test
+    void leaseClose_isIdempotent() {
+        ManagedChannelPool.Lease first = pool.acquire(SERVER_A, factory);
+        ManagedChannelPool.Lease second = pool.acquire(SERVER_A, factory);
+        first.close();
+        first.close();
+
+        clock.addAndGet(Duration.ofMinutes(10).toNanos());
+        assertEquals(0, pool.evictIdle(), "second lease still holds the channel");
+        second.close();
+        clock.addAndGet(Duration.ofMinutes(10).toNanos());
+        assertEquals(1, pool.evictIdle());
+    }
+
+    @Test
+    void slowBuild_doesNotBlockOtherConnectionsAndIsSharedBySameConnection() throws Exception {
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch finishBuild = new CountDownLatch(1);
+        Supplier<ManagedChannel> slowFactory = () -> {
+            building.countDown();
+            try {
+                finishBuild.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return factory.get();
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ManagedChannelPool.Lease> first = executor.submit(() -> pool.acquire(SERVER_A, slowFactory));
+            assertTrue(building.await(5, TimeUnit.SECONDS));
+            Future<ManagedChannelPool.Lease> second = executor.submit(() -> pool.acquire(SERVER_A, slowFactory));
+
+            try (ManagedChannelPool.Lease other = pool.acquire(SERVER_B, factory)) {
+                assertNotNull(other.channel());
+            }
+            assertFalse(first.isDone());
+
+            finishBuild.countDown();
+            assertSame(
+                    first.get(5, TimeUnit.SECONDS).channel(),
+                    second.get(5, TimeUnit.SECONDS).channel());
+            assertEquals(2, built.get());
+        } finally {
+            finishBuild.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedBuild_isNotPooled() {
+        Supplier<ManagedChannel> failing = () -> {
+            throw new IllegalStateException("bad key store");
+        };
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> pool.acquire(SERVER_A, failing));
+
+        assertEquals("bad key store", ex.getMessage());
+        assertEquals(0, pool.size());
+        try (ManagedChannelPool.Lease lease = pool.acquire(SERVER_A, factory)) {
+            assertNotNull(lease.channel());
+        }
+    }
+
+    @Test
+    void close_shutsDownAllChannelsAndRejectsNewLeases() throws Exception {
+        ManagedChannel channel;
+        try (ManagedChannelPool.Lease lease = pool.acquire(SERVER_A, factory)) {
+            channel = lease.channel();
+        }
+
+        pool.close();
+
+        verify(channel, times(1)).shutdown();
+        verify(channel).awaitTermination(5, TimeUnit.SECONDS);
+        assertThrows(IllegalStateException.class, () -> pool.acquire(SERVER_A, factory));
+    }
+}
@@ -0,0 +1,181 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.grpc;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.grpc.Status;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.dbt.ndtp.federator.client.connection.ConnectionProperties;
+import uk.gov.dbt.ndtp.federator.client.jobs.params.ClientGRPCJobParams;
+import uk.gov.dbt.ndtp.federator.client.kafka.TopicWriter;
+import uk.gov.dbt.ndtp.federator.client.offsets.OffsetStore;
+import uk.gov.dbt.ndtp.grpc.KafkaByteBatch;
+import uk.gov.dbt.ndtp.grpc.TopicRequest;
+
+class ReactiveTopicEngineTest {
+
+    private static final FollowMode FOLLOW =
+            new FollowMode(true, Duration.ofSeconds(30), Duration.ofMillis(10), Duration.ofMillis(50));
+    private static final ConnectionProperties CONNECTION =
+            new ConnectionProperties("client", "key", "server", "localhost", 8080, false);
+    private static final long WAIT_MILLIS = 5000;
+
+    private final GRPCTopicClient client = mock(GRPCTopicClient.class);
+    private final TopicWriter writer = mock(TopicWriter.class);
+    private final OffsetStore offsets = mock(OffsetStore.class);
+    private final AtomicInteger clientsCreated = new AtomicInteger();
+    private final Map<String, List<ClientResponseObserver<TopicRequest, KafkaByteBatch>>> streams =
+            new ConcurrentHashMap<>();
+
+    private ReactiveTopicEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        when(client.getRedisPrefix()).thenReturn("prefix");
+        when(writer.committableOffset()).thenReturn(6L);
+        doAnswer(invocation -> {
+                    String topic = invocation.getArgument(0);
+                    ClientResponseObserver<TopicRequest, KafkaByteBatch> observer = invocation.getArgument(3);
+                    // Like gRPC, a cancelled call ends through onError
+                    @SuppressWarnings("unchecked")
+                    ClientCallStreamObserver<TopicRequest> call = mock(ClientCallStreamObserver.class);
+                    doAnswer(cancel -> {
+                                observer.onError(Status.CANCELLED.asRuntimeException());
+                                return null;
+                            })
+                            .when(call)
+                            .cancel(any(), any());
+                    observer.beforeStart(call);
+                    streams.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>()).add(observer);
+                    return null;
+                })
+                .when(client)
+                .followTopicAsync(anyString(), anyLong(), any(), any());
+        engine = new ReactiveTopicEngine(
+                Executors.newScheduledThreadPool(1),
+                Executors.newCachedThreadPool(),
+                10,
+                100,
+                FOLLOW,
+                key -> {
+                    clientsCreated.incrementAndGet();
+                    return client;
+                },
+                (key, topic) -> writer,
+                () -> offsets);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.close();
+    }
+
+    @Test
+    void subscribe_opensStreamFromStoredOffsetAndWritesRecords() {
+        when(offsets.getOffset("prefix", "topic-a")).thenReturn(5L);
+
+        engine.subscribe(params("topic-a"), "local");
+        engine.subscribe(params("topic-a"), "local");
+
+        ClientResponseObserver<TopicRequest, KafkaByteBatch> stream = awaitStream("topic-a", 1);
+        verify(client).followTopicAsync(eq("topic-a"), eq(5L), any(), any());
+        assertEquals(1, engine.size());
+
+        KafkaByteBatch record = KafkaByteBatch.newBuilder().setTopic("topic-a").setOffset(5L).build();
+        stream.onNext(record);
+
+        verify(writer, timeout(WAIT_MILLIS)).write(record);
+        verify(offsets, timeout(WAIT_MILLIS)).setOffset("prefix", "topic-a", 6L);
+        verify(client, times(1)).followTopicAsync(anyString(), anyLong(), any(), any());
+    }
+
+    @Test
+    void streamEnd_reconnectsAfterBackoff() {
+        engine.subscribe(params("topic-a"), "local");
+
+        awaitStream("topic-a", 1).onError(Status.UNAVAILABLE.asRuntimeException());
+        awaitStream("topic-a", 2).onCompleted();
+        awaitStream("topic-a", 3);
+
+        assertEquals(1, engine.size());
+        verify(client, never()).close();
+    }
+
+    @Test
+    void permanentFailure_unsubscribesAndReleasesClient() {
+        engine.subscribe(params("topic-a"), "local");
+
+        awaitStream("topic-a", 1).onError(Status.PERMISSION_DENIED.asRuntimeException());
+
+        verify(client, timeout(WAIT_MILLIS)).close();
+        await().atMost(Duration.ofMillis(WAIT_MILLIS)).until(() -> engine.size() == 0);
+        verify(client, times(1)).followTopicAsync(anyString(), anyLong(), any(), any());
+    }
+
+    @Test
+    void topicsFromSameProducerShareOneClientUntilBothStop() {
+        engine.subscribe(params("topic-a"), "local");
+        engine.subscribe(params("topic-b"), "local");
+        awaitStream("topic-a", 1);
+        awaitStream("topic-b", 1);
+        assertEquals(1, clientsCreated.get());
+
+        engine.unsubscribe(params("topic-a").getJobId());
+        verify(writer, timeout(WAIT_MILLIS)).close();
+        verify(client, never()).close();
+
+        engine.unsubscribe(params("topic-b").getJobId());
+        verify(client, timeout(WAIT_MILLIS)).close();
+        assertEquals(0, engine.size());
+    }
+
+    @Test
+    void close_stopsStreamsAndClosesClientOnce() {
+        engine.subscribe(params("topic-a"), "local");
+        awaitStream("topic-a", 1);
+
+        engine.close();
+
+        assertEquals(0, engine.size());
+        verify(writer).close();
+        verify(client, times(1)).close();
+        assertThrows(IllegalStateException.class, () -> engine.subscribe(params("topic-b"), "local"));
+    }
+
+    private ClientResponseObserver<TopicRequest, KafkaByteBatch> awaitStream(String topic, int opens) {
+        await().atMost(Duration.ofMillis(WAIT_MILLIS))
+                .until(() -> streams.getOrDefault(topic, List.of()).size() >= opens);
+        return streams.get(topic).get(opens - 1);
+    }
+
+    private static ClientGRPCJobParams params(String topic) {
+        return new ClientGRPCJobParams(topic, CONNECTION, "node");
+    }
+}
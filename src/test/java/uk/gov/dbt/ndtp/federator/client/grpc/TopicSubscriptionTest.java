@@ -0,0 +1,246 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.grpc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import io.grpc.Status;
+import io.grpc.stub.ClientCallStreamObserver;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.dbt.ndtp.federator.client.kafka.TopicWriter;
+import uk.gov.dbt.ndtp.grpc.KafkaByteBatch;
+import uk.gov.dbt.ndtp.grpc.TopicRequest;
+
+class TopicSubscriptionTest {
+
+    private final List<Long> storedOffsets = new ArrayList<>();
+    private final AtomicReference<Throwable> ended = new AtomicReference<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final RecordingWriter writer = new RecordingWriter();
+    private int endings;
+
+    @SuppressWarnings("unchecked")
+    private final ClientCallStreamObserver<TopicRequest> call = mock(ClientCallStreamObserver.class);
+
+    private InFlightBudget budget;
+
+    @BeforeEach
+    void setUp() {
+        budget = new InFlightBudget(3, 10, Runnable::run);
+    }
+
+    @Test
+    void requestsNoMoreThanTheWindowAndTheBudgetAllow() {
+        start(2);
+
+        verify(call).disableAutoRequestWithInitial(0);
+        verify(call).request(2);
+        assertEquals(2, budget.inFlight("producer"));
+
+        @SuppressWarnings("unchecked")
+        ClientCallStreamObserver<TopicRequest> otherCall = mock(ClientCallStreamObserver.class);
+        TopicSubscription other = subscription(5);
+        other.beforeStart(otherCall);
+        other.replenish();
+
+        verify(otherCall).request(1);
+        assertEquals(3, budget.inFlight("producer"), "the producer budget caps the second stream");
+    }
+
+    @Test
+    void writesRecordsStoresOffsetsAndReturnsCredit() {
+        TopicSubscription subscription = start(1);
+
+        subscription.onNext(record(41));
+        subscription.onNext(heartbeat());
+        subscription.onNext(record(42));
+
+        assertEquals(List.of(41L, 42L), writer.offsets);
+        assertEquals(List.of(42L, 43L), storedOffsets);
+        assertEquals(1, budget.inFlight("producer"), "one record requested again after each delivery");
+    }
+
+    @Test
+    void waitsForCreditReleasedByAnotherStream() {
+        budget = new InFlightBudget(1, 10, Runnable::run);
+        TopicSubscription first = start(1);
+        ClientCallStreamObserver<TopicRequest> firstCall = call;
+        @SuppressWarnings("unchecked")
+        ClientCallStreamObserver<TopicRequest> secondCall = mock(ClientCallStreamObserver.class);
+        TopicSubscription second = subscription(1);
+        second.beforeStart(secondCall);
+        second.replenish();
+        verify(secondCall, never()).request(1);
+
+        first.onCompleted();
+
+        verify(firstCall).request(1);
+        verify(secondCall).request(1);
+        assertEquals(1, budget.inFlight("producer"));
+    }
+
+    @Test
+    void endReturnsUnusedCreditFlushesAndReportsOnce() {
+        TopicSubscription subscription = start(3);
+        subscription.onNext(record(7));
+        RuntimeException failure = Status.UNAVAILABLE.asRuntimeException();
+
+        subscription.onError(failure);
+        subscription.onCompleted();
+
+        assertEquals(0, budget.inFlight("producer"));
+        assertTrue(writer.flushed);
+        assertTrue(writer.closed);
+        assertSame(failure, ended.get());
+        assertEquals(1, endings);
+    }
+
+    @Test
+    void cleanEndIsReportedWithoutFailure() {
+        TopicSubscription subscription = start(1);
+
+        subscription.onCompleted();
+
+        assertNull(ended.get());
+        assertEquals(1, endings);
+    }
+
+    @Test
+    void writeFailureCancelsTheCall() {
+        TopicWriter failing = mock(TopicWriter.class);
+        doThrow(new IllegalStateException("kafka down")).when(failing).write(any());
+        TopicSubscription subscription = new TopicSubscription(
+                "producer", "topic", budget, 1, failing, Runnable::run, storedOffsets::add, this::onEnd, clock::get);
+        subscription.beforeStart(call);
+        subscription.replenish();
+
+        subscription.onNext(record(1));
+
+        verify(call).cancel(anyString(), any(IllegalStateException.class));
+        assertEquals(0, budget.inFlight("producer"));
+    }
+
+    @Test
+    void writesOnTheWorkerAndStoresOffsetOnceQueueDrains() {
+        List<Runnable> queued = new ArrayList<>();
+        TopicSubscription subscription = new TopicSubscription(
+                "producer", "topic", budget, 3, writer, queued::add, storedOffsets::add, this::onEnd, clock::get);
+        subscription.beforeStart(call);
+        subscription.replenish();
+
+        subscription.onNext(record(1));
+        subscription.onNext(record(2));
+        subscription.onNext(record(3));
+
+        assertTrue(writer.offsets.isEmpty(), "nothing is written on the calling thread");
+        queued.forEach(Runnable::run);
+        assertEquals(List.of(1L, 2L, 3L), writer.offsets);
+        assertEquals(List.of(4L), storedOffsets);
+    }
+
+    @Test
+    void recordsQueuedAfterFailedWriteAreNotWritten() {
+        List<Runnable> queued = new ArrayList<>();
+        TopicWriter failing = mock(TopicWriter.class);
+        doThrow(new IllegalStateException("kafka down")).when(failing).write(record(1));
+        TopicSubscription subscription = new TopicSubscription(
+                "producer", "topic", budget, 2, failing, queued::add, storedOffsets::add, this::onEnd, clock::get);
+        subscription.beforeStart(call);
+        subscription.replenish();
+
+        subscription.onNext(record(1));
+        subscription.onNext(record(2));
+        queued.forEach(Runnable::run);
+
+        verify(failing, never()).write(record(2));
+        assertEquals(0, budget.inFlight("producer"));
+    }
+
+    @Test
+    void silentOnlyWhileRecordsAreRequested() {
+        TopicSubscription subscription = start(1);
+
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertTrue(subscription.isSilentFor(Duration.ofSeconds(30)));
+
+        subscription.onCompleted();
+        assertFalse(subscription.isSilentFor(Duration.ofSeconds(30)));
+    }
+
+    private TopicSubscription start(int window) {
+        TopicSubscription subscription = subscription(window);
+        subscription.beforeStart(call);
+        subscription.replenish();
+        return subscription;
+    }
+
+    private TopicSubscription subscription(int window) {
+        return new TopicSubscription(
+                "producer",
+                "topic",
+                budget,
+                window,
+                writer,
+                Runnable::run,
+                storedOffsets::add,
+                this::onEnd,
+                clock::get);
+    }
+
+    private void onEnd(Throwable failure) {
+        ended.set(failure);
+        endings++;
+    }
+
+    private static KafkaByteBatch record(long offset) {
+        return KafkaByteBatch.newBuilder().setTopic("topic").setOffset(offset).build();
+    }
+
+    private static KafkaByteBatch heartbeat() {
+        return KafkaByteBatch.newBuilder().setHeartbeat(true).build();
+    }
+
+    private static final class RecordingWriter implements TopicWriter {
+        private final List<Long> offsets = new ArrayList<>();
+        private boolean flushed;
+        private boolean closed;
+
+        @Override
+        public void write(KafkaByteBatch batch) {
+            offsets.add(batch.getOffset());
+        }
+
+        @Override
+        public void flush() {
+            flushed = true;
+        }
+
+        @Override
+        public long committableOffset() {
+            return offsets.isEmpty() ? -1L : offsets.get(offsets.size() - 1) + 1;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -6,7 +6,12 @@ import com.google.protobuf.ByteString;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32C;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,8 +22,12 @@ import uk.gov.dbt.ndtp.federator.client.storage.ReceivedFileStorageFactory;
 import uk.gov.dbt.ndtp.federator.client.storage.StoredFileResult;
 import uk.gov.dbt.ndtp.federator.client.storage.impl.GCPReceivedFileStorage;
 import uk.gov.dbt.ndtp.federator.client.storage.impl.S3ReceivedFileStorage;
+import uk.gov.dbt.ndtp.federator.common.utils.FileChecksums;
 import uk.gov.dbt.ndtp.federator.common.utils.GRPCUtils;
 import uk.gov.dbt.ndtp.federator.exceptions.FileAssemblyException;
+import uk.gov.dbt.ndtp.grpc.BundledFile;
+import uk.gov.dbt.ndtp.grpc.FileBundle;
+import uk.gov.dbt.ndtp.grpc.FileChecksumAlgorithm;
 import uk.gov.dbt.ndtp.grpc.FileChunk;
 
 class FileChunkAssemblerTest {
@@ -201,6 +210,219 @@ class FileChunkAssemblerTest {
         assertFalse(Files.exists(expectedTemp), "Temp part should be deleted on error");
     }
 
+    @Test
+    void chunkOffsetGap_throwsAndCleansTemp() {
+        FileChunkAssembler assembler = new FileChunkAssembler(tempDir);
+        String fileName = "gap.txt";
+        long seq = 5L;
+
+        FileChunk c1 = FileChunk.newBuilder()
+                .setFileName(fileName)
+                .setFileSequenceId(seq)
+                .setChunkIndex(0)
+                .setChunkOffset(0)
+                .setFileSize(10)
+                .setChunkData(ByteString.copyFrom("ABCD".getBytes()))
+                .build();
+        assertNull(assembler.accept(c1));
+
+        // Variable-size chunks are fine as long as they are contiguous
+        FileChunk c2 = FileChunk.newBuilder()
+                .setFileName(fileName)
+                .setFileSequenceId(seq)
+                .setChunkIndex(1)
+                .setChunkOffset(4)
+                .setFileSize(10)
+                .setChunkData(ByteString.copyFrom("EF".getBytes()))
+                .build();
+        assertNull(assembler.accept(c2));
+
+        FileChunk gap = FileChunk.newBuilder()
+                .setFileName(fileName)
+                .setFileSequenceId(seq)
+                .setChunkIndex(2)
+                .setChunkOffset(8)
+                .setFileSize(10)
+                .setChunkData(ByteString.copyFrom("IJ".getBytes()))
+                .build();
+
+        FileAssemblyException ex = assertThrows(FileAssemblyException.class, () -> assembler.accept(gap));
+        assertTrue(ex.getMessage().contains("Unexpected chunk offset"));
+        assertFalse(Files.exists(tempDir.resolve(".parts").resolve(fileName + "." + seq + ".part")));
+    }
+
+    @Test
+    void fastChecksum_isVerifiedWithTheAlgorithmOnTheLastChunk() throws Exception {
+        FileChunkAssembler assembler = new FileChunkAssembler(tempDir);
+        byte[] content = "fast checksum".getBytes();
+
+        assertNull(assembler.accept(dataChunk("fast.txt", 9L, 0, 0, content).build()));
+        Path finalPath = assembler.accept(FileChunk.newBuilder()
+                .setFileName("fast.txt")
+                .setFileSequenceId(9L)
+                .setIsLastChunk(true)
+                .setFileSize(content.length)
+                .setChecksumAlgorithm(FileChecksumAlgorithm.XXH64_TREE)
+                .setFileChecksum(FileChecksums.calculate(content, FileChecksumAlgorithm.XXH64_TREE))
+                .build());
+
+        assertNotNull(finalPath);
+        assertArrayEquals(content, Files.readAllBytes(finalPath));
+    }
+
+    @Test
+    void fastChecksumMismatch_throwsAndCleansTemp() {
+        FileChunkAssembler assembler = new FileChunkAssembler(tempDir);
+        byte[] content = "fast checksum".getBytes();
+        assembler.accept(dataChunk("fastbad.txt", 10L, 0, 0, content).build());
+
+        // A SHA-256 value labelled as XXH64_TREE must not pass
+        FileChunk last = FileChunk.newBuilder()
+                .setFileName("fastbad.txt")
+                .setFileSequenceId(10L)
+                .setIsLastChunk(true)
+                .setFileSize(content.length)
+                .setChecksumAlgorithm(FileChecksumAlgorithm.XXH64_TREE)
+                .setFileChecksum(GRPCUtils.calculateSha256Checksum(content))
+                .build();
+
+        FileAssemblyException ex = assertThrows(FileAssemblyException.class, () -> assembler.accept(last));
+        assertTrue(ex.getMessage().contains("Checksum mismatch"));
+        assertFalse(Files.exists(tempDir.resolve(".parts").resolve("fastbad.txt.10.part")));
+    }
+
+    @Test
+    void bundle_storesEveryFileInOrder() throws Exception {
+        FileChunkAssembler assembler = new FileChunkAssembler(tempDir);
+        byte[] first = "first".getBytes();
+        byte[] second = "second".getBytes();
+
+        List<Path> stored = assembler.acceptBundle(FileBundle.newBuilder()
+                .addFiles(bundledFile("one.txt", 20L, first, FileChecksumAlgorithm.SHA_256))
+                .addFiles(bundledFile("two.txt", 21L, second, FileChecksumAlgorithm.XXH64_TREE))
+                .build());
+
+        assertEquals(2, stored.size());
+        assertArrayEquals(first, Files.readAllBytes(stored.get(0)));
+        assertArrayEquals(second, Files.readAllBytes(stored.get(1)));
+        assertEquals("two.txt", stored.get(1).getFileName().toString());
+    }
+
+    @Test
+    void bundle_checksumMismatch_throwsAndStoresNothing() {
+        FileChunkAssembler assembler = new FileChunkAssembler(tempDir);
+        FileBundle bundle = FileBundle.newBuilder()
+                .addFiles(bundledFile("good.txt", 22L, "good".getBytes(), FileChecksumAlgorithm.SHA_256))
+                .addFiles(bundledFile("bad.txt", 23L, "bad".getBytes(), FileChecksumAlgorithm.SHA_256).toBuilder()
+                        .setData(ByteString.copyFromUtf8("bad!")))
+                .build();
+
+        FileAssemblyException ex = assertThrows(FileAssemblyException.class, () -> assembler.acceptBundle(bundle));
+        assertTrue(ex.getMessage().contains("bad.txt"));
+        assertFalse(Files.exists(tempDir.resolve("good.txt")));
+    }
+
+    private static BundledFile bundledFile(String name, long seq, byte[] content, FileChecksumAlgorithm algorithm) {
+        return BundledFile.newBuilder()
+                .setFileName(name)
+                .setFileSequenceId(seq)
+                .setData(ByteString.copyFrom(content))
+                .setChecksumAlgorithm(algorithm)
+                .setFileChecksum(FileChecksums.calculate(content, algorithm))
+                .build();
+    }
+
+    @Test
+    void corruptChunk_withoutFetcher_throwsAndCleansTemp() {
+        FileChunkAssembler assembler = new FileChunkAssembler(tempDir);
+        FileChunk corrupt = dataChunk("crc.txt", 6L, 0, 0, "ABCD".getBytes())
+                .setChunkCrc32C(crc32c("XXXX".getBytes()))
+                .build();
+
+        FileAssemblyException ex = assertThrows(FileAssemblyException.class, () -> assembler.accept(corrupt));
+        assertTrue(ex.getMessage().contains("CRC32C mismatch"));
+        assertFalse(Files.exists(tempDir.resolve(".parts").resolve("crc.txt.6.part")));
+    }
+
+    @Test
+    void corruptChunk_withFetcher_isRepairedBeforeChecksum() throws Exception {
+        byte[] content = "ABCDEFGHIJ".getBytes();
+        List<long[]> requests = new ArrayList<>();
+        ChunkRangeFetcher fetcher = (seq, offset, length) -> {
+            requests.add(new long[] {seq, offset, length});
+            byte[] bytes = Arrays.copyOfRange(content, (int) offset, (int) (offset + length));
+            return List.of(dataChunk("repair.txt", seq, 0, offset, bytes)
+                            .setChunkCrc32C(crc32c(bytes))
+                            .build())
+                    .iterator();
+        };
+        FileChunkAssembler assembler = new FileChunkAssembler(tempDir, null, fetcher);
+
+        assertNull(assembler.accept(dataChunk("repair.txt", 7L, 0, 0, "ABCD".getBytes())
+                .setChunkCrc32C(crc32c("ABCD".getBytes()))
+                .build()));
+        // Damaged in transit: the bytes no longer match the CRC32C of the original
+        assertNull(assembler.accept(dataChunk("repair.txt", 7L, 1, 4, "EFxH".getBytes())
+                .setChunkCrc32C(crc32c("EFGH".getBytes()))
+                .build()));
+        assertNull(assembler.accept(dataChunk("repair.txt", 7L, 2, 8, "IJ".getBytes())
+                .setChunkCrc32C(crc32c("IJ".getBytes()))
+                .build()));
+        Path finalPath = assembler.accept(lastChunk("repair.txt", 7L, content));
+
+        assertNotNull(finalPath);
+        assertArrayEquals(content, Files.readAllBytes(finalPath));
+        assertEquals(1, requests.size());
+        assertArrayEquals(new long[] {7L, 4L, 4L}, requests.get(0));
+    }
+
+    @Test
+    void corruptChunk_retransmissionKeepsFailing_throwsAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+        ChunkRangeFetcher fetcher = (seq, offset, length) -> {
+            attempts.incrementAndGet();
+            return List.of(dataChunk("bad.txt", seq, 0, offset, "zzzz".getBytes())
+                            .setChunkCrc32C(crc32c("ABCD".getBytes()))
+                            .build())
+                    .iterator();
+        };
+        FileChunkAssembler assembler = new FileChunkAssembler(tempDir, null, fetcher);
+        assembler.accept(dataChunk("bad.txt", 8L, 0, 0, "zzzz".getBytes())
+                .setChunkCrc32C(crc32c("ABCD".getBytes()))
+                .build());
+
+        FileChunk last = lastChunk("bad.txt", 8L, "ABCD".getBytes());
+        FileAssemblyException ex = assertThrows(FileAssemblyException.class, () -> assembler.accept(last));
+        assertTrue(ex.getMessage().contains("Unable to repair"));
+        assertEquals(3, attempts.get());
+        assertFalse(Files.exists(tempDir.resolve(".parts").resolve("bad.txt.8.part")));
+    }
+
+    private static FileChunk.Builder dataChunk(String fileName, long seq, int index, long offset, byte[] data) {
+        return FileChunk.newBuilder()
+                .setFileName(fileName)
+                .setFileSequenceId(seq)
+                .setChunkIndex(index)
+                .setChunkOffset(offset)
+                .setChunkData(ByteString.copyFrom(data));
+    }
+
+    private static FileChunk lastChunk(String fileName, long seq, byte[] content) {
+        return FileChunk.newBuilder()
+                .setFileName(fileName)
+                .setFileSequenceId(seq)
+                .setIsLastChunk(true)
+                .setFileSize(content.length)
+                .setFileChecksum(GRPCUtils.calculateSha256Checksum(content))
+                .build();
+    }
+
+    private static int crc32c(byte[] data) {
+        CRC32C crc = new CRC32C();
+        crc.update(data);
+        return (int) crc.getValue();
+    }
+
     @Test
     void testConstructors() {
         assertNotNull(new FileChunkAssembler());
@@ -22,6 +22,7 @@ import org.mockito.MockedStatic;
 import uk.gov.dbt.ndtp.federator.client.jobs.params.JobParams;
 import uk.gov.dbt.ndtp.federator.client.jobs.params.RecurrentJobRequest;
 import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
+import uk.gov.dbt.ndtp.federator.exceptions.ConfigurationException;
 
 class DefaultJobSchedulerProviderTest {
 
@@ -213,7 +214,52 @@ class DefaultJobSchedulerProviderTest {
         verify(scheduler, never()).deleteRecurringJob("X");
 
         // Verify additions: B and C should be (re)registered -> recurrent creation each
-        verify(scheduler, times(1)).createRecurrently(any());
+        verify(scheduler, times(2)).createRecurrently(any());
+    }
+
+    @Test
+    void reloadRecurrentJobs_scansStorageOnceAndTouchesOnlyChangedJobs() {
+        JobScheduler scheduler = mock(JobScheduler.class);
+        AtomicInteger storageScans = new AtomicInteger();
+        DefaultJobSchedulerProvider provider = DefaultJobSchedulerProvider.withDependencies(
+                scheduler, mock(AbstractStorageProvider.class), new DefaultJobSchedulerProvider.RecurringJobsAccess() {
+                    @Override
+                    public Map<String, JobParams> paramsById(AbstractStorageProvider sp) {
+                        storageScans.incrementAndGet();
+                        return Map.of();
+                    }
+
+                    @Override
+                    public java.util.Set<String> ids(AbstractStorageProvider sp) {
+                        storageScans.incrementAndGet();
+                        return java.util.Set.of();
+                    }
+                });
+        Job dummy = value -> {};
+        List<RecurrentJobRequest> initial = List.of(request(dummy, "A", "PT1H"), request(dummy, "B", "PT1H"));
+        List<RecurrentJobRequest> bChanged = List.of(request(dummy, "A", "PT1H"), request(dummy, "B", "PT5M"));
+
+        provider.reloadRecurrentJobs("node-1", initial);
+        provider.reloadRecurrentJobs("node-1", initial);
+        provider.reloadRecurrentJobs("node-1", bChanged);
+
+        assertEquals(2, storageScans.get(), "storage is only read to seed the index");
+        verify(scheduler, times(3)).createRecurrently(any());
+        verify(scheduler, never()).deleteRecurringJob("A");
+        verify(scheduler, times(1)).deleteRecurringJob("B");
+        assertNotNull(provider.getLastReloadDuration());
+    }
+
+    private static RecurrentJobRequest request(Job job, String id, String schedule) {
+        return RecurrentJobRequest.builder()
+                .job(job)
+                .jobParams(JobParams.builder()
+                        .jobId(id)
+                        .jobName(id)
+                        .managementNodeId("node-1")
+                        .scheduleExpression(schedule)
+                        .build())
+                .build();
     }
 
     @Test
@@ -238,6 +284,44 @@ class DefaultJobSchedulerProviderTest {
         }
     }
 
+    @Test
+    void createStorageProvider_sqlUsesEmbeddedFileDatabase() throws Exception {
+        java.nio.file.Path dir = Files.createTempDirectory("jobrunr-sql");
+        try (MockedStatic<PropertyUtil> propMock = mockStatic(PropertyUtil.class)) {
+            propMock.when(() -> PropertyUtil.getPropertyValue(anyString(), anyString()))
+                    .thenAnswer(inv -> inv.getArgument(1));
+            propMock.when(() -> PropertyUtil.getPropertyValue(eq("jobs.storage.sql.url"), anyString()))
+                    .thenReturn("jdbc:h2:file:" + dir.resolve("jobs"));
+            propMock.when(() -> PropertyUtil.getPropertyValue(eq("jobs.storage.sql.password"), anyString()))
+                    .thenReturn("s3cret");
+
+            AbstractStorageProvider storage = DefaultJobSchedulerProvider.createStorageProvider("sql");
+            try {
+                assertFalse(storage instanceof org.jobrunr.storage.InMemoryStorageProvider);
+                assertTrue(Files.exists(dir.resolve("jobs.mv.db")), "database file is created on disk");
+            } finally {
+                storage.close();
+            }
+        }
+    }
+
+    @Test
+    void createStorageProvider_sqlRefusesDefaultEmptyPassword() {
+        try (MockedStatic<PropertyUtil> propMock = mockStatic(PropertyUtil.class)) {
+            propMock.when(() -> PropertyUtil.getPropertyValue(anyString(), anyString()))
+                    .thenAnswer(inv -> inv.getArgument(1));
+
+            assertThrows(ConfigurationException.class, () -> DefaultJobSchedulerProvider.createStorageProvider("sql"));
+        }
+    }
+
+    @Test
+    void createStorageProvider_unsupportedFallsBackToMemory() {
+        assertInstanceOf(
+                org.jobrunr.storage.InMemoryStorageProvider.class,
+                DefaultJobSchedulerProvider.createStorageProvider("redis"));
+    }
+
     @Test
     void ensureStarted_withDashboardAndBackgroundEnabled() {
         try (MockedStatic<PropertyUtil> propMock = mockStatic(PropertyUtil.class)) {
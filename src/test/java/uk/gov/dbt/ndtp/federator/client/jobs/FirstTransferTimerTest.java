@@ -0,0 +1,35 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class FirstTransferTimerTest {
+
+    @AfterEach
+    void tearDown() {
+        FirstTransferTimer.clearForTests();
+    }
+
+    @Test
+    void keepsOnlyTheFirstTransfer() throws InterruptedException {
+        FirstTransferTimer.clearForTests();
+        assertFalse(FirstTransferTimer.timeToFirstTransfer().isPresent());
+
+        FirstTransferTimer.recordTransferStart("job-1");
+        Duration first = FirstTransferTimer.timeToFirstTransfer().orElseThrow();
+        Thread.sleep(5);
+        FirstTransferTimer.recordTransferStart("job-2");
+
+        assertTrue(first.toMillis() >= 0);
+        assertEquals(first, FirstTransferTimer.timeToFirstTransfer().orElseThrow());
+    }
+}
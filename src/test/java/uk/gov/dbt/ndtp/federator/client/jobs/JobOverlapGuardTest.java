@@ -0,0 +1,125 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.dbt.ndtp.federator.client.jobs.JobOverlapGuard.OverlapPolicy;
+import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
+
+class JobOverlapGuardTest {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        JobOverlapGuard.clearForTests();
+    }
+
+    @Test
+    void skip_dropsTriggersWhileRunIsActive() throws Exception {
+        JobOverlapGuard guard = new JobOverlapGuard(OverlapPolicy.SKIP);
+        CompletableFuture<Void> first = startBlockingRun(guard, "producer-topic");
+
+        guard.run("producer-topic", runs::incrementAndGet);
+        guard.run("producer-topic", runs::incrementAndGet);
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, runs.get());
+        assertEquals(2, guard.skippedRuns());
+        assertEquals(0, guard.coalescedRuns());
+    }
+
+    @Test
+    void coalesce_foldsOverlappingTriggersIntoOneFollowUpRun() throws Exception {
+        JobOverlapGuard guard = new JobOverlapGuard(OverlapPolicy.COALESCE);
+        CompletableFuture<Void> first = startBlockingRun(guard, "producer-topic");
+
+        guard.run("producer-topic", runs::incrementAndGet);
+        guard.run("producer-topic", runs::incrementAndGet);
+        guard.run("producer-topic", runs::incrementAndGet);
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, runs.get(), "the blocked run plus one follow-up");
+        assertEquals(3, guard.coalescedRuns());
+    }
+
+    @Test
+    void guard_isPerJobId() throws Exception {
+        JobOverlapGuard guard = new JobOverlapGuard(OverlapPolicy.SKIP);
+        CompletableFuture<Void> first = startBlockingRun(guard, "producer-topic-a");
+
+        guard.run("producer-topic-b", runs::incrementAndGet);
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, runs.get());
+        assertEquals(0, guard.skippedRuns());
+    }
+
+    @Test
+    void allow_runsOverlappingTriggers() throws Exception {
+        JobOverlapGuard guard = new JobOverlapGuard(OverlapPolicy.ALLOW);
+        CompletableFuture<Void> first = startBlockingRun(guard, "producer-topic");
+
+        guard.run("producer-topic", runs::incrementAndGet);
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void getInstance_allowsWithoutProperties() {
+        PropertyUtil.clear();
+
+        assertEquals(OverlapPolicy.ALLOW, JobOverlapGuard.getInstance().policy());
+    }
+
+    @Test
+    void getInstance_exposesCountersOverJmx() throws Exception {
+        PropertyUtil.clear();
+        JobOverlapGuard guard = JobOverlapGuard.getInstance();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(JobOverlapGuard.OBJECT_NAME);
+
+        assertTrue(server.isRegistered(name));
+        assertEquals("ALLOW", server.getAttribute(name, "Policy"));
+        assertEquals(guard.skippedRuns(), server.getAttribute(name, "SkippedRuns"));
+        assertEquals(guard.coalescedRuns(), server.getAttribute(name, "CoalescedRuns"));
+    }
+
+    private CompletableFuture<Void> startBlockingRun(JobOverlapGuard guard, String jobId) throws InterruptedException {
+        CompletableFuture<Void> run = CompletableFuture.runAsync(() -> guard.run(jobId, () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            await(release);
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return run;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
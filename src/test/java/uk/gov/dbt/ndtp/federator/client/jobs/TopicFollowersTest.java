@@ -0,0 +1,91 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.jobs;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class TopicFollowersTest {
+
+    private final TopicFollowers followers = new TopicFollowers(Executors.newCachedThreadPool());
+    private final AtomicInteger starts = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        followers.close();
+        TopicFollowers.clearForTests();
+    }
+
+    @Test
+    void follow_returnsAtOnceAndIgnoresTriggersWhileLoopRuns() {
+        assertTrue(followers.follow("job-a", "node", this::loopUntilInterrupted));
+        assertFalse(followers.follow("job-a", "node", this::loopUntilInterrupted));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> starts.get() == 1);
+        assertTrue(followers.isFollowing("job-a"));
+        assertEquals(1, starts.get());
+    }
+
+    @Test
+    void follow_reportsFailureOnceThenRestarts() {
+        IllegalStateException failure = new IllegalStateException("topic rejected");
+        followers.follow("job-a", "node", () -> {
+            throw failure;
+        });
+        await().atMost(Duration.ofSeconds(5)).until(() -> !followers.isFollowing("job-a"));
+
+        IllegalStateException reported = assertThrows(
+                IllegalStateException.class, () -> followers.follow("job-a", "node", this::loopUntilInterrupted));
+
+        assertSame(failure, reported);
+        assertTrue(followers.follow("job-a", "node", this::loopUntilInterrupted));
+        await().atMost(Duration.ofSeconds(5)).until(() -> starts.get() == 1);
+    }
+
+    @Test
+    void retain_interruptsLoopsNoLongerConfiguredForNode() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        followers.follow("job-a", "node", () -> {
+            loopUntilInterrupted();
+            interrupted.countDown();
+        });
+        followers.follow("job-b", "node", this::loopUntilInterrupted);
+        followers.follow("job-c", "other", this::loopUntilInterrupted);
+
+        followers.retain("node", List.of("job-b"));
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertFalse(followers.isFollowing("job-a"));
+        assertTrue(followers.isFollowing("job-b"));
+        assertTrue(followers.isFollowing("job-c"));
+    }
+
+    @Test
+    void getInstance_returnsSameFollowers() {
+        assertSame(TopicFollowers.getInstance(), TopicFollowers.getInstance());
+    }
+
+    private void loopUntilInterrupted() {
+        starts.incrementAndGet();
+        try {
+            Thread.sleep(Long.MAX_VALUE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,18 +1,32 @@
 package uk.gov.dbt.ndtp.federator.client.jobs.handlers;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 import java.math.BigDecimal;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.jobrunr.scheduling.JobScheduler;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockedStatic;
 import uk.gov.dbt.ndtp.federator.client.jobs.JobSchedulerProvider;
+import uk.gov.dbt.ndtp.federator.client.jobs.params.ClientGRPCJobParams;
+import uk.gov.dbt.ndtp.federator.client.jobs.params.ClientGRPCMultiTopicJobParams;
 import uk.gov.dbt.ndtp.federator.client.jobs.params.JobParams;
+import uk.gov.dbt.ndtp.federator.client.jobs.params.RecurrentJobRequest;
+import uk.gov.dbt.ndtp.federator.common.management.ManagementNodeDataHandler;
+import uk.gov.dbt.ndtp.federator.common.model.dto.ConfigChangeDTO;
 import uk.gov.dbt.ndtp.federator.common.model.dto.ConsumerConfigDTO;
 import uk.gov.dbt.ndtp.federator.common.model.dto.ProducerDTO;
 import uk.gov.dbt.ndtp.federator.common.model.dto.ProductConsumerDTO;
@@ -94,6 +108,58 @@ class ClientDynamicConfigJobTest {
         verify(schedulerProvider).reloadRecurrentJobs(eq("node-x"), anyList());
     }
 
+    @Test
+    @DisplayName("run: groups topics of a producer sharing a schedule into one multi-topic job when enabled")
+    @SuppressWarnings("unchecked")
+    void run_groupsTopicsSharingScheduleWhenMultiTopicEnabled() {
+        ProductDTO hourlyB = topicProduct("topic-b", "PT1H");
+        ProductDTO hourlyA = topicProduct("topic-a", "PT1H");
+        ProductDTO daily = topicProduct("topic-c", "P1D");
+        ProducerDTO producer = ProducerDTO.builder()
+                .name("producer")
+                .host("localhost")
+                .port(new BigDecimal("8080"))
+                .products(List.of(hourlyB, hourlyA, daily))
+                .idpClientId("idp-client-id")
+                .build();
+        when(configService.getConsumerConfiguration())
+                .thenReturn(ConsumerConfigDTO.builder()
+                        .scheduleType("interval")
+                        .scheduleExpression("PT1M")
+                        .producers(List.of(producer))
+                        .build());
+        propertyUtilMockedStatic
+                .when(() -> PropertyUtil.getPropertyBooleanValue(ClientGRPCMultiTopicJob.MULTI_TOPIC_ENABLED, "false"))
+                .thenReturn(true);
+
+        new ClientDynamicConfigJob(configService, schedulerProvider)
+                .run(JobParams.builder().managementNodeId("node-1").build());
+
+        ArgumentCaptor<List<RecurrentJobRequest>> captor = ArgumentCaptor.forClass(List.class);
+        verify(schedulerProvider).reloadRecurrentJobs(eq("node-1"), captor.capture());
+        List<RecurrentJobRequest> requests = captor.getValue();
+        assertEquals(2, requests.size());
+        ClientGRPCMultiTopicJobParams grouped =
+                assertInstanceOf(ClientGRPCMultiTopicJobParams.class, requests.get(0).getJobParams());
+        assertEquals(List.of("topic-a", "topic-b"), grouped.getTopics());
+        assertEquals("producer-topic-a+topic-b", grouped.getJobId());
+        assertInstanceOf(ClientGRPCMultiTopicJob.class, requests.get(0).getJob());
+        ClientGRPCJobParams single = assertInstanceOf(ClientGRPCJobParams.class, requests.get(1).getJobParams());
+        assertEquals("topic-c", single.getTopic());
+    }
+
+    private static ProductDTO topicProduct(String topic, String schedule) {
+        return ProductDTO.builder()
+                .name(topic)
+                .topic(topic)
+                .type("topic")
+                .configurations(List.of(ProductConsumerDTO.builder()
+                        .scheduleType("interval")
+                        .scheduleExpression(schedule)
+                        .build()))
+                .build();
+    }
+
     @Test
     @DisplayName("run: processes producers and products and reloads jobs")
     void run_processesProducersAndProducts() {
@@ -191,6 +257,94 @@ class ClientDynamicConfigJobTest {
         verify(schedulerProvider).reloadRecurrentJobs(eq("prop-node"), anyList());
     }
 
+    @Test
+    @DisplayName("run: skips reload when the config hash is unchanged and conditional fetch is enabled")
+    void run_skipsReloadWhenConfigUnchanged() {
+        propertyUtilMockedStatic
+                .when(() -> PropertyUtil.getPropertyBooleanValue(
+                        eq(ManagementNodeDataHandler.CONDITIONAL_FETCH_PROP), anyString()))
+                .thenReturn(true);
+        ConsumerConfigDTO cfg = ConsumerConfigDTO.builder()
+                .scheduleType("interval")
+                .scheduleExpression("PT1M")
+                .build();
+        ConsumerConfigDTO sameContent = ConsumerConfigDTO.builder()
+                .scheduleType("interval")
+                .scheduleExpression("PT1M")
+                .build();
+        ConsumerConfigDTO changed = ConsumerConfigDTO.builder()
+                .scheduleType("interval")
+                .scheduleExpression("PT5M")
+                .build();
+        when(configService.getConsumerConfiguration()).thenReturn(cfg, sameContent, changed);
+
+        ClientDynamicConfigJob job = new ClientDynamicConfigJob(configService, schedulerProvider);
+        JobParams params = JobParams.builder().managementNodeId("node-unchanged").build();
+        job.run(params);
+        job.run(params);
+        job.run(params);
+
+        verify(schedulerProvider, times(2)).reloadRecurrentJobs(eq("node-unchanged"), anyList());
+    }
+
+    @Test
+    @DisplayName("onConfigChange: refreshes and reloads only when the change names this consumer")
+    void onConfigChange_refreshesWhenAffected() {
+        ConsumerConfigDTO cfg = ConsumerConfigDTO.builder()
+                .scheduleType("interval")
+                .scheduleExpression("PT1M")
+                .build();
+        when(configService.getConsumerConfiguration()).thenReturn(cfg);
+        when(configService.isAffectedBy(List.of("other"))).thenReturn(false);
+        when(configService.isAffectedBy(List.of("consumer-1"))).thenReturn(true);
+        propertyUtilMockedStatic
+                .when(() -> PropertyUtil.getPropertyValue("management.node.id"))
+                .thenReturn("pushed-node");
+        ClientDynamicConfigJob job = new ClientDynamicConfigJob(configService, schedulerProvider);
+
+        job.onConfigChange(ConfigChangeDTO.builder().consumers(List.of("other")).build());
+        verify(configService, never()).refreshConfigurations();
+
+        job.onConfigChange(ConfigChangeDTO.builder().consumers(List.of("consumer-1")).build());
+        verify(configService).refreshConfigurations();
+        verify(schedulerProvider).reloadRecurrentJobs(eq("pushed-node"), anyList());
+    }
+
+    @Test
+    @DisplayName("onConfigChange: waits for a scheduled run in progress instead of reloading alongside it")
+    void onConfigChange_serialisedWithScheduledRun() throws Exception {
+        ConsumerConfigDTO cfg = ConsumerConfigDTO.builder()
+                .scheduleType("interval")
+                .scheduleExpression("PT1M")
+                .build();
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        when(configService.getConsumerConfiguration()).thenAnswer(invocation -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            Thread.sleep(100);
+            active.decrementAndGet();
+            return cfg;
+        });
+        when(configService.isAffectedBy(List.of("consumer-1"))).thenReturn(true);
+        ClientDynamicConfigJob job = new ClientDynamicConfigJob(configService, schedulerProvider);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> scheduled = executor.submit(() -> job.run(JobParams.builder()
+                    .managementNodeId("node-1")
+                    .build()));
+            Future<?> pushed = executor.submit(() -> job.onConfigChange(
+                    ConfigChangeDTO.builder().consumers(List.of("consumer-1")).build()));
+            scheduled.get(5, TimeUnit.SECONDS);
+            pushed.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, maxActive.get());
+        verify(configService, times(2)).getConsumerConfiguration();
+    }
+
     @Test
     @DisplayName("toString returns expected format")
     void testToString() {
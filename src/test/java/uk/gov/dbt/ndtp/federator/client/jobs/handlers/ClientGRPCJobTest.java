@@ -1,20 +1,40 @@
 package uk.gov.dbt.ndtp.federator.client.jobs.handlers;
 
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
 import java.util.function.ToLongBiFunction;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
 import uk.gov.dbt.ndtp.federator.WrappedGRPCClient;
 import uk.gov.dbt.ndtp.federator.client.connection.ConnectionProperties;
+import uk.gov.dbt.ndtp.federator.client.grpc.FollowMode;
+import uk.gov.dbt.ndtp.federator.client.grpc.ReactiveTopicEngine;
+import uk.gov.dbt.ndtp.federator.client.jobs.TopicFollowers;
 import uk.gov.dbt.ndtp.federator.client.jobs.params.ClientGRPCJobParams;
 import uk.gov.dbt.ndtp.federator.exceptions.ClientGRPCJobException;
 
 class ClientGRPCJobTest {
 
+    @AfterEach
+    void tearDown() {
+        TopicFollowers.clearForTests();
+    }
+
     @Test
     void run_invokes_wrapped_client_with_prefix_and_offset_from_injected_dependencies() throws Exception {
         // Arrange
@@ -48,6 +68,28 @@ class ClientGRPCJobTest {
         verifyNoMoreInteractions(wrapped);
     }
 
+    @Test
+    void run_subscribes_through_reactive_engine_when_enabled() {
+        BiFunction<ConnectionProperties, String, WrappedGRPCClient> clientFactory = mock(BiFunction.class);
+        ReactiveTopicEngine engine = mock(ReactiveTopicEngine.class);
+        ConnectionProperties cp = new ConnectionProperties("c", "k", "S", "127.0.0.1", 8081, false);
+        ClientGRPCJobParams params = new ClientGRPCJobParams("t", cp, "nodeX");
+
+        ClientGRPCJob job = new ClientGRPCJob();
+        job.setPrefixSupplier(() -> "pref");
+        job.setClientFactory(clientFactory);
+
+        try (MockedStatic<ReactiveTopicEngine> engineMock = mockStatic(ReactiveTopicEngine.class)) {
+            engineMock.when(ReactiveTopicEngine::isEnabled).thenReturn(true);
+            engineMock.when(ReactiveTopicEngine::getInstance).thenReturn(engine);
+
+            assertDoesNotThrow(() -> job.run(params));
+        }
+
+        verify(engine).subscribe(params, "pref");
+        verifyNoInteractions(clientFactory);
+    }
+
     @Test
     void run_works_with_empty_prefix() {
         // Arrange
@@ -106,4 +148,108 @@ class ClientGRPCJobTest {
         verify(offsetProvider).applyAsLong("pref", "topic-x");
         verify(wrapped).processTopic("topic-x", 7L);
     }
+
+    @Test
+    void run_inFollowMode_reconnectsAfterFailureAndStopsOnRejectedTopic() throws Exception {
+        // Arrange
+        ToLongBiFunction<String, String> offsetProvider = mock(ToLongBiFunction.class);
+        when(offsetProvider.applyAsLong("pref", "topic-f")).thenReturn(5L, 9L);
+
+        WrappedGRPCClient wrapped = mock(WrappedGRPCClient.class);
+        when(wrapped.getRedisPrefix()).thenReturn("pref");
+        doThrow(new IllegalStateException("connection reset"))
+                .doThrow(new StatusRuntimeException(Status.INVALID_ARGUMENT))
+                .when(wrapped)
+                .followTopic(eq("topic-f"), anyLong());
+        BiFunction<ConnectionProperties, String, WrappedGRPCClient> clientFactory = mock(BiFunction.class);
+        ConnectionProperties cp = new ConnectionProperties("c", "k", "s", "host", 9090, false);
+        when(clientFactory.apply(cp, "pref")).thenReturn(wrapped);
+
+        List<Duration> pauses = new ArrayList<>();
+        ClientGRPCJob job = new ClientGRPCJob();
+        job.setPrefixSupplier(() -> "pref");
+        job.setOffsetProvider(offsetProvider);
+        job.setClientFactory(clientFactory);
+        job.setFollowMode(new FollowMode(true, Duration.ofSeconds(30), Duration.ofSeconds(1), Duration.ofMinutes(1)));
+        job.setSleeper(pauses::add);
+        ClientGRPCJobParams params = new ClientGRPCJobParams("topic-f", cp, "node");
+
+        // Act: the job only starts the follow loop and returns
+        assertDoesNotThrow(() -> job.run(params));
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> !TopicFollowers.getInstance().isFollowing(params.getJobId()));
+
+        // Assert: the next trigger reports the rejected topic
+        assertThrows(ClientGRPCJobException.class, () -> job.run(params));
+        verify(wrapped).followTopic("topic-f", 5L);
+        verify(wrapped).followTopic("topic-f", 9L);
+        verify(wrapped, never()).processTopic(anyString(), anyLong());
+        verify(wrapped, times(2)).close();
+        assertEquals(1, pauses.size());
+        assertTrue(pauses.get(0).compareTo(Duration.ofSeconds(1)) <= 0);
+    }
+
+    @Test
+    void run_inFollowMode_returnsWhenInterrupted() throws Exception {
+        // Arrange
+        WrappedGRPCClient wrapped = mock(WrappedGRPCClient.class);
+        doThrow(new IllegalStateException("unavailable")).when(wrapped).followTopic(anyString(), anyLong());
+        ConnectionProperties cp = new ConnectionProperties("c", "k", "s", "host", 9090, false);
+
+        ClientGRPCJob job = new ClientGRPCJob();
+        job.setPrefixSupplier(() -> "");
+        job.setOffsetProvider((prefix, topic) -> 0L);
+        job.setClientFactory((config, prefix) -> wrapped);
+        job.setFollowMode(new FollowMode(true, Duration.ofSeconds(30), Duration.ofSeconds(1), Duration.ofMinutes(1)));
+        job.setSleeper(delay -> {
+            throw new InterruptedException("job stopped");
+        });
+
+        ClientGRPCJobParams params = new ClientGRPCJobParams("t", cp, "node");
+
+        // Act
+        assertDoesNotThrow(() -> job.run(params));
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> !TopicFollowers.getInstance().isFollowing(params.getJobId()));
+
+        // Assert: the loop stopped quietly, so the next trigger follows again
+        verify(wrapped, times(1)).followTopic("t", 0L);
+        assertDoesNotThrow(() -> job.run(params));
+    }
+
+    @Test
+    void run_inFollowMode_laterTriggersLeaveRunningLoopAlone() throws Exception {
+        // Arrange
+        CountDownLatch following = new CountDownLatch(1);
+        WrappedGRPCClient wrapped = mock(WrappedGRPCClient.class);
+        doAnswer(invocation -> {
+                    following.countDown();
+                    Thread.sleep(Long.MAX_VALUE);
+                    return null;
+                })
+                .when(wrapped)
+                .followTopic(anyString(), anyLong());
+        BiFunction<ConnectionProperties, String, WrappedGRPCClient> clientFactory = mock(BiFunction.class);
+        ConnectionProperties cp = new ConnectionProperties("c", "k", "s", "host", 9090, false);
+        when(clientFactory.apply(cp, "")).thenReturn(wrapped);
+
+        ClientGRPCJob job = new ClientGRPCJob();
+        job.setPrefixSupplier(() -> "");
+        job.setOffsetProvider((prefix, topic) -> 0L);
+        job.setClientFactory(clientFactory);
+        job.setFollowMode(new FollowMode(true, Duration.ofSeconds(30), Duration.ofSeconds(1), Duration.ofMinutes(1)));
+        job.setSleeper(delay -> {
+            throw new InterruptedException("job stopped");
+        });
+        ClientGRPCJobParams params = new ClientGRPCJobParams("t", cp, "node");
+
+        // Act
+        job.run(params);
+        assertTrue(following.await(5, TimeUnit.SECONDS));
+        job.run(params);
+
+        // Assert
+        assertTrue(TopicFollowers.getInstance().isFollowing(params.getJobId()));
+        verify(clientFactory, times(1)).apply(cp, "");
+    }
 }
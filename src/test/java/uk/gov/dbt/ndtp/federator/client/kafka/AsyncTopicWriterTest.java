@@ -0,0 +1,128 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.kafka;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.google.protobuf.ByteString;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.apache.kafka.common.utils.Bytes;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
+import uk.gov.dbt.ndtp.federator.exceptions.RetryableException;
+import uk.gov.dbt.ndtp.grpc.Headers;
+import uk.gov.dbt.ndtp.grpc.KafkaByteBatch;
+
+class AsyncTopicWriterTest {
+
+    private static final String TOPIC = "local-topic";
+
+    @SuppressWarnings("unchecked")
+    private final Producer<Bytes, Bytes> producer = mock(Producer.class);
+
+    private final AsyncTopicWriter writer = new AsyncTopicWriter(producer, TOPIC);
+
+    @Test
+    void write_sendsRecordWithHeaders() {
+        writer.write(KafkaByteBatch.newBuilder()
+                .setOffset(5L)
+                .setKey(ByteString.copyFromUtf8("k"))
+                .setValue(ByteString.copyFromUtf8("v"))
+                .addShared(Headers.newBuilder().setKey("hk").setValue("hv"))
+                .build());
+
+        ProducerRecord<Bytes, Bytes> sent = sentRecords(1).get(0);
+        assertEquals(TOPIC, sent.topic());
+        assertEquals(Bytes.wrap("k".getBytes(StandardCharsets.UTF_8)), sent.key());
+        assertEquals(Bytes.wrap("v".getBytes(StandardCharsets.UTF_8)), sent.value());
+        assertEquals("hv", new String(sent.headers().lastHeader("hk").value(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void committableOffset_advancesOnlyOverContiguousAcks() {
+        writer.write(batch(10));
+        writer.write(batch(11));
+        writer.write(batch(12));
+        List<Callback> callbacks = callbacks(3);
+        assertEquals(-1L, writer.committableOffset());
+
+        callbacks.get(2).onCompletion(null, null);
+        assertEquals(-1L, writer.committableOffset(), "record 12 acked but 10 and 11 are still in flight");
+
+        callbacks.get(0).onCompletion(null, null);
+        assertEquals(11L, writer.committableOffset());
+
+        callbacks.get(1).onCompletion(null, null);
+        assertEquals(13L, writer.committableOffset());
+    }
+
+    @Test
+    void failedSend_holdsOffsetAndFailsLaterWrites() {
+        writer.write(batch(10));
+        writer.write(batch(11));
+        List<Callback> callbacks = callbacks(2);
+
+        callbacks.get(1).onCompletion(null, null);
+        callbacks.get(0).onCompletion(null, new TimeoutException("broker slow"));
+
+        assertEquals(-1L, writer.committableOffset());
+        assertThrows(RetryableException.class, () -> writer.write(batch(12)));
+        assertThrows(RetryableException.class, writer::flush);
+        verify(producer).flush();
+    }
+
+    @Test
+    void close_releasesSharedProducerOnceAndLeavesItOpen() {
+        AtomicInteger releases = new AtomicInteger();
+        AsyncTopicWriter shared = new AsyncTopicWriter(producer, TOPIC, releases::incrementAndGet);
+
+        shared.close();
+        shared.close();
+
+        assertEquals(1, releases.get());
+        verify(producer, never()).close();
+    }
+
+    @Test
+    void isEnabled_falseWithoutProperties() {
+        PropertyUtil.clear();
+
+        assertFalse(AsyncTopicWriter.isEnabled());
+    }
+
+    private static KafkaByteBatch batch(long offset) {
+        return KafkaByteBatch.newBuilder()
+                .setOffset(offset)
+                .setValue(ByteString.copyFromUtf8("value" + offset))
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ProducerRecord<Bytes, Bytes>> sentRecords(int count) {
+        ArgumentCaptor<ProducerRecord<Bytes, Bytes>> records = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(producer, times(count)).send(records.capture(), any());
+        return records.getAllValues();
+    }
+
+    private List<Callback> callbacks(int count) {
+        ArgumentCaptor<Callback> callbacks = ArgumentCaptor.forClass(Callback.class);
+        verify(producer, times(count)).send(any(), callbacks.capture());
+        return callbacks.getAllValues();
+    }
+}
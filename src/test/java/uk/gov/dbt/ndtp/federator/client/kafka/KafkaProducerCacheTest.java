@@ -0,0 +1,116 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.kafka;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.common.utils.Bytes;
+import org.junit.jupiter.api.Test;
+import uk.gov.dbt.ndtp.secure.agent.sources.kafka.sinks.KafkaSink;
+
+class KafkaProducerCacheTest {
+
+    private final AtomicInteger sinksBuilt = new AtomicInteger();
+    private final AtomicInteger producersBuilt = new AtomicInteger();
+
+    @SuppressWarnings("unchecked")
+    private final KafkaProducerCache cache = new KafkaProducerCache(
+            topic -> {
+                sinksBuilt.incrementAndGet();
+                return mock(KafkaSink.class);
+            },
+            () -> {
+                producersBuilt.incrementAndGet();
+                return mock(Producer.class);
+            });
+
+    @Test
+    void sink_isReusedPerTopic() {
+        KafkaSink<Bytes, Bytes> first = cache.sink("prefix-server-a");
+
+        assertSame(first, cache.sink("prefix-server-a"));
+        assertNotSame(first, cache.sink("prefix-server-b"));
+        assertEquals(2, sinksBuilt.get());
+        verify(first, never()).close();
+    }
+
+    @Test
+    void producer_isSharedAcrossTopics() {
+        assertSame(cache.producer(), cache.producer());
+        assertEquals(1, producersBuilt.get());
+    }
+
+    @Test
+    void invalidate_closesSinkAndNextUseRebuilds() {
+        KafkaSink<Bytes, Bytes> failed = cache.sink("topic");
+
+        cache.invalidate("topic");
+
+        verify(failed).close();
+        assertNotSame(failed, cache.sink("topic"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void invalidateProducer_ignoresProducerAlreadyReplaced() {
+        Producer<Bytes, Bytes> failed = cache.producer();
+        cache.release(failed);
+        cache.invalidateProducer(failed);
+        Producer<Bytes, Bytes> replacement = cache.producer();
+
+        cache.invalidateProducer(failed);
+
+        assertSame(replacement, cache.producer());
+        verify(failed).close(any());
+        verify(replacement, never()).close(any());
+    }
+
+    @Test
+    void invalidateProducer_closesOnlyAfterLastWriterReleases() {
+        Producer<Bytes, Bytes> failed = cache.producer();
+        Producer<Bytes, Bytes> sameProducerOtherTopic = cache.producer();
+
+        cache.invalidateProducer(failed);
+        cache.release(failed);
+        verify(failed, never()).close(any());
+
+        cache.release(sameProducerOtherTopic);
+        verify(failed).close(any());
+        assertNotSame(failed, cache.producer());
+    }
+
+    @Test
+    void release_keepsCurrentProducerOpen() {
+        Producer<Bytes, Bytes> producer = cache.producer();
+
+        cache.release(producer);
+        cache.release(producer);
+
+        verify(producer, never()).close(any());
+        assertSame(producer, cache.producer());
+    }
+
+    @Test
+    void close_closesEverythingAndRejectsFurtherUse() {
+        KafkaSink<Bytes, Bytes> sink = cache.sink("topic");
+        Producer<Bytes, Bytes> producer = cache.producer();
+
+        cache.close();
+
+        verify(sink).close();
+        verify(producer).close(any());
+        assertThrows(IllegalStateException.class, () -> cache.sink("topic"));
+        assertThrows(IllegalStateException.class, cache::producer);
+    }
+}
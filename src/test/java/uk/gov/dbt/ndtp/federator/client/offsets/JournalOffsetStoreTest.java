@@ -0,0 +1,167 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.offsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JournalOffsetStoreTest {
+
+    private static final int CAPACITY = 4096;
+
+    @TempDir
+    Path dir;
+
+    private Path journal() {
+        return dir.resolve("offsets.journal");
+    }
+
+    @Test
+    void getOffset_zeroForUnknownTopic() {
+        try (JournalOffsetStore store = new JournalOffsetStore(journal(), CAPACITY, null)) {
+            assertEquals(0L, store.getOffset("client-server", "topic"));
+        }
+    }
+
+    @Test
+    void offsets_surviveReopen() {
+        try (JournalOffsetStore store = new JournalOffsetStore(journal(), CAPACITY, null)) {
+            store.setOffset("client-server", "topic-a", 10L);
+            store.setOffset("client-server", "topic-b", 20L);
+            store.setOffset("client-server", "topic-a", 11L);
+        }
+
+        try (JournalOffsetStore store = new JournalOffsetStore(journal(), CAPACITY, null)) {
+            assertEquals(11L, store.getOffset("client-server", "topic-a"));
+            assertEquals(20L, store.getOffset("client-server", "topic-b"));
+        }
+    }
+
+    @Test
+    void replay_stopsAtTornRecord() throws IOException {
+        try (JournalOffsetStore store = new JournalOffsetStore(journal(), CAPACITY, null)) {
+            store.setOffset("client-server", "topic", 5L);
+            store.setOffset("client-server", "topic", 6L);
+        }
+        // Corrupt the checksum of the second record, as if the process died while writing it
+        long recordSize = 1 + 4 + "client-server".length() + 4 + "topic".length() + 8 + 4;
+        try (RandomAccessFile file = new RandomAccessFile(journal().toFile(), "rw")) {
+            file.seek(recordSize * 2 - 1);
+            int last = file.read();
+            file.seek(recordSize * 2 - 1);
+            file.write(last ^ 0xFF);
+        }
+
+        try (JournalOffsetStore store = new JournalOffsetStore(journal(), CAPACITY, null)) {
+            assertEquals(5L, store.getOffset("client-server", "topic"));
+            store.setOffset("client-server", "topic", 7L);
+        }
+        try (JournalOffsetStore store = new JournalOffsetStore(journal(), CAPACITY, null)) {
+            assertEquals(7L, store.getOffset("client-server", "topic"));
+        }
+    }
+
+    @Test
+    void compact_keepsLatestOffsets() throws IOException {
+        try (JournalOffsetStore store = new JournalOffsetStore(journal(), CAPACITY, null)) {
+            for (long offset = 1; offset <= 1000; offset++) {
+                store.setOffset("client-server", "topic-" + (offset % 3), offset);
+            }
+            store.compact();
+            assertEquals(998L, store.getOffset("client-server", "topic-2"));
+        }
+
+        assertTrue(Files.size(journal()) <= CAPACITY);
+        try (JournalOffsetStore store = new JournalOffsetStore(journal(), CAPACITY, null)) {
+            assertEquals(999L, store.getOffset("client-server", "topic-0"));
+            assertEquals(1000L, store.getOffset("client-server", "topic-1"));
+            assertEquals(998L, store.getOffset("client-server", "topic-2"));
+        }
+    }
+
+    @Test
+    void setOffset_growsJournalWhenCompactionIsNotEnough() {
+        try (JournalOffsetStore store = new JournalOffsetStore(journal(), 64, null)) {
+            for (int i = 0; i < 20; i++) {
+                store.setOffset("client-server", "topic-" + i, i);
+            }
+        }
+
+        try (JournalOffsetStore store = new JournalOffsetStore(journal(), 64, null)) {
+            assertEquals(19L, store.getOffset("client-server", "topic-19"));
+        }
+    }
+
+    @Test
+    void mirror_copiesChangedOffsetsOnce() {
+        OffsetStore redis = mock(OffsetStore.class);
+        try (JournalOffsetStore store = new JournalOffsetStore(journal(), CAPACITY, redis)) {
+            store.setOffset("client-server", "topic", 3L);
+            store.setOffset("client-server", "topic", 4L);
+
+            store.mirror();
+            store.mirror();
+
+            verify(redis, times(1)).setOffset("client-server", "topic", 4L);
+            verify(redis, never()).setOffset("client-server", "topic", 3L);
+        }
+    }
+
+    @Test
+    void mirror_retriesAfterFailure() {
+        OffsetStore redis = mock(OffsetStore.class);
+        doThrow(new IllegalStateException("redis down"))
+                .doNothing()
+                .when(redis)
+                .setOffset(anyString(), anyString(), anyLong());
+        try (JournalOffsetStore store = new JournalOffsetStore(journal(), CAPACITY, redis)) {
+            store.setOffset("client-server", "topic", 8L);
+
+            store.mirror();
+            store.mirror();
+
+            verify(redis, times(2)).setOffset("client-server", "topic", 8L);
+        }
+    }
+
+    @Test
+    void getOffset_readsMissingTopicFromMirrorOnce() {
+        OffsetStore redis = mock(OffsetStore.class);
+        when(redis.getOffset("client-server", "topic")).thenReturn(42L);
+        try (JournalOffsetStore store = new JournalOffsetStore(journal(), CAPACITY, redis)) {
+            assertEquals(42L, store.getOffset("client-server", "topic"));
+            assertEquals(42L, store.getOffset("client-server", "topic"));
+        }
+
+        verify(redis, times(1)).getOffset("client-server", "topic");
+        try (JournalOffsetStore store = new JournalOffsetStore(journal(), CAPACITY, null)) {
+            assertEquals(42L, store.getOffset("client-server", "topic"));
+        }
+    }
+
+    @Test
+    void setOffset_failsAfterClose() {
+        JournalOffsetStore store = new JournalOffsetStore(journal(), CAPACITY, null);
+        store.close();
+
+        assertThrows(IllegalStateException.class, () -> store.setOffset("client-server", "topic", 1L));
+    }
+}
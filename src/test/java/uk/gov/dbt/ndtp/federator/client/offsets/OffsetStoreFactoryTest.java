@@ -0,0 +1,52 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.client.offsets;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
+
+class OffsetStoreFactoryTest {
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void tearDown() {
+        OffsetStoreFactory.clearForTests();
+        PropertyUtil.clear();
+    }
+
+    @Test
+    void getInstance_redisWithoutProperties() {
+        PropertyUtil.clear();
+
+        assertInstanceOf(RedisOffsetStore.class, OffsetStoreFactory.getInstance());
+    }
+
+    @Test
+    void getInstance_sharedJournalWhenConfigured() throws IOException {
+        Path properties = dir.resolve("client.properties");
+        Files.writeString(
+                properties,
+                OffsetStoreFactory.CLIENT_OFFSETS_STORE + "=journal\n"
+                        + OffsetStoreFactory.CLIENT_OFFSETS_JOURNAL_PATH + "="
+                        + dir.resolve("offsets.journal").toString().replace("\\", "/") + "\n");
+        PropertyUtil.clear();
+        PropertyUtil.init(properties.toFile());
+
+        OffsetStore store = OffsetStoreFactory.getInstance();
+
+        assertInstanceOf(JournalOffsetStore.class, store);
+        assertSame(store, OffsetStoreFactory.getInstance());
+    }
+}
@@ -0,0 +1,137 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.common.management;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.dbt.ndtp.federator.common.model.dto.ConfigChangeDTO;
+import uk.gov.dbt.ndtp.federator.common.utils.ObjectMapperUtil;
+
+class ConfigChangeSubscriberTest {
+
+    private final List<String> queries = new CopyOnWriteArrayList<>();
+    private final List<String> authHeaders = new CopyOnWriteArrayList<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final BlockingQueue<ConfigChangeDTO> received = new LinkedBlockingQueue<>();
+    private HttpServer server;
+    private ConfigChangeSubscriber subscriber;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(ManagementNodeDataHandler.CHANGES_PATH, this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (subscriber != null) {
+            subscriber.close();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void deliversChangesAndResumesFromLastVersion() throws Exception {
+        subscriber = subscriber();
+        subscriber.start();
+
+        ConfigChangeDTO first = received.poll(5, TimeUnit.SECONDS);
+        ConfigChangeDTO second = received.poll(5, TimeUnit.SECONDS);
+
+        assertNotNull(first);
+        assertEquals(1L, first.getVersion());
+        assertEquals(List.of("producer-1"), first.getProducers());
+        assertNotNull(second);
+        assertEquals(3L, second.getVersion());
+        assertEquals(List.of("consumer-1"), second.getConsumers());
+        assertEquals("timeoutSeconds=1", queries.get(0));
+        assertEquals("timeoutSeconds=1&since=1", queries.get(1));
+        assertEquals("timeoutSeconds=1&since=1", queries.get(2));
+        assertEquals("Bearer token", authHeaders.get(0));
+    }
+
+    @Test
+    void retriesAfterServerError() throws Exception {
+        requests.set(-1);
+        subscriber = subscriber();
+        subscriber.start();
+
+        ConfigChangeDTO first = received.poll(5, TimeUnit.SECONDS);
+
+        assertNotNull(first);
+        assertEquals(1L, subscriber.lastVersion());
+    }
+
+    private ConfigChangeSubscriber subscriber() {
+        URI uri = URI.create(
+                "http://localhost:" + server.getAddress().getPort() + ManagementNodeDataHandler.CHANGES_PATH);
+        return new ConfigChangeSubscriber(
+                HttpClient.newHttpClient(),
+                ObjectMapperUtil.getInstance(),
+                () -> "token",
+                uri,
+                Duration.ofSeconds(1),
+                received::add);
+    }
+
+    // -1: server error, 0: version 1, 1: no change, 2: version 3, then no change after a short hold
+    private void handle(HttpExchange exchange) throws IOException {
+        queries.add(exchange.getRequestURI().getRawQuery());
+        authHeaders.add(exchange.getRequestHeaders().getFirst("Authorization"));
+        int request = requests.getAndIncrement();
+        switch (request) {
+            case -1 -> respond(exchange, 500, null);
+            case 0 -> respond(exchange, 200, "{\"version\":1,\"producers\":[\"producer-1\"]}");
+            case 1 -> respond(exchange, 204, null);
+            case 2 -> respond(exchange, 200, "{\"version\":3,\"consumers\":[\"consumer-1\"]}");
+            default -> {
+                sleep();
+                respond(exchange, 204, null);
+            }
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
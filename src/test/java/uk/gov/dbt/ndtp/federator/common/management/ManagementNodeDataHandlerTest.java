@@ -5,12 +5,14 @@ package uk.gov.dbt.ndtp.federator.common.management;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -18,13 +20,17 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandler;
+import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -52,6 +58,7 @@ class ManagementNodeDataHandlerTest {
     private static final String ERROR_401 = "401";
     private static final String ERROR_MSG = "error";
     private static final String EMPTY = "";
+    private static final String LAST_MODIFIED = "Mon, 05 Jan 2026 10:00:00 GMT";
 
     @Mock
     private HttpClient httpClient;
@@ -165,6 +172,63 @@ class ManagementNodeDataHandlerTest {
         assertThrows(ManagementNodeDataException.class, () -> handler.getProducerData(ID));
     }
 
+    @Test
+    void testConditionalFetch_notModifiedReturnsPreviousConfigWithoutParsing() throws Exception {
+        final ManagementNodeDataHandler conditional = conditionalHandler();
+        setupSuccess(createConsumerConfig());
+        when(httpResponse.headers()).thenReturn(headers(Map.of("ETag", List.of("\"v1\""))));
+
+        final ConsumerConfigDTO first = conditional.getConsumerData(ID);
+        when(httpResponse.statusCode()).thenReturn(304);
+        final ConsumerConfigDTO second = conditional.getConsumerData(ID);
+
+        assertSame(first, second);
+        verify(objectMapper, times(1)).readValue(anyString(), any(Class.class));
+        final ArgumentCaptor<HttpRequest> requests = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient, times(2)).send(requests.capture(), any(BodyHandler.class));
+        assertTrue(requests.getAllValues().get(0).headers().firstValue("If-None-Match").isEmpty());
+        assertEquals("\"v1\"", requests.getAllValues().get(1).headers().firstValue("If-None-Match").orElseThrow());
+    }
+
+    @Test
+    void testConditionalFetch_identicalBodyIsNotParsedAgain() throws Exception {
+        final ManagementNodeDataHandler conditional = conditionalHandler();
+        setupSuccess(createProducerConfig());
+        when(httpResponse.headers()).thenReturn(headers(Map.of("Last-Modified", List.of(LAST_MODIFIED))));
+
+        final ProducerConfigDTO first = conditional.getProducerData(ID);
+        final ProducerConfigDTO second = conditional.getProducerData(ID);
+
+        assertSame(first, second);
+        verify(objectMapper, times(1)).readValue(anyString(), any(Class.class));
+        final ArgumentCaptor<HttpRequest> requests = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient, times(2)).send(requests.capture(), any(BodyHandler.class));
+        assertEquals(
+                LAST_MODIFIED,
+                requests.getAllValues().get(1).headers().firstValue("If-Modified-Since").orElseThrow());
+    }
+
+    @Test
+    void testNotModifiedWithoutConditionalFetchIsAnError() throws Exception {
+        mockToken();
+        when(httpResponse.statusCode()).thenReturn(304);
+        when(httpClient.send(any(HttpRequest.class), any(BodyHandler.class))).thenReturn(httpResponse);
+
+        assertThrows(ManagementNodeDataException.class, () -> handler.getConsumerData(ID));
+    }
+
+    private ManagementNodeDataHandler conditionalHandler() {
+        propertyMock
+                .when(() -> PropertyUtil.getPropertyBooleanValue(
+                        eq(ManagementNodeDataHandler.CONDITIONAL_FETCH_PROP), anyString()))
+                .thenReturn(true);
+        return new ManagementNodeDataHandler(httpClient, objectMapper, tokenService);
+    }
+
+    private static HttpHeaders headers(final Map<String, List<String>> values) {
+        return HttpHeaders.of(values, (name, value) -> true);
+    }
+
     private void setupProperties() {
         propertyMock
                 .when(() -> PropertyUtil.getPropertyValue(eq(BASE_URL_PROP), anyString()))
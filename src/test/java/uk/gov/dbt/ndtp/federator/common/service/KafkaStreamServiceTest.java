@@ -14,11 +14,14 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import org.apache.kafka.common.errors.InvalidTopicException;
 import org.junit.jupiter.api.Test;
+import org.mockito.MockedConstruction;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import uk.gov.dbt.ndtp.federator.common.model.dto.AttributesDTO;
@@ -30,6 +33,9 @@ import uk.gov.dbt.ndtp.federator.common.service.config.ProducerConfigService;
 import uk.gov.dbt.ndtp.federator.common.service.kafka.KafkaStreamService;
 import uk.gov.dbt.ndtp.federator.common.utils.ProducerConsumerConfigServiceFactory;
 import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
+import uk.gov.dbt.ndtp.federator.server.bandwidth.StreamType;
+import uk.gov.dbt.ndtp.federator.server.conductor.RdfMessageConductor;
+import uk.gov.dbt.ndtp.federator.server.conductor.ReadyDrivenConductorDriver;
 import uk.gov.dbt.ndtp.federator.server.grpc.GRPCContextKeys;
 import uk.gov.dbt.ndtp.federator.server.interfaces.StreamObservable;
 import uk.gov.dbt.ndtp.grpc.TopicRequest;
@@ -96,6 +102,30 @@ class KafkaStreamServiceTest {
                 cut.getFilterAttributesForConsumer("client-a", "topic-1", cfg2).isEmpty());
     }
 
+    // -------------------- Tests for getBandwidthLimitForConsumer --------------------
+
+    @Test
+    void test_getBandwidthLimitForConsumer_returnsLimitForStreamType() {
+        KafkaStreamService cut = new KafkaStreamService(EMPTY_SHARED_HEADERS);
+        ProducerConfigDTO cfg = buildConfig("telemetry.raw", "client-a", null);
+        ConsumerDTO consumer = cfg.getProducers().get(0).getProducts().get(0).getConsumers().get(0);
+        consumer.setTopicBytesPerSecond(1_000L);
+        consumer.setFileBytesPerSecond(50_000L);
+
+        assertEquals(1_000L, cut.getBandwidthLimitForConsumer("CLIENT-A", "telemetry.raw", cfg, StreamType.TOPIC));
+        assertEquals(50_000L, cut.getBandwidthLimitForConsumer("client-a", "telemetry.raw", cfg, StreamType.FILE));
+    }
+
+    @Test
+    void test_getBandwidthLimitForConsumer_returnsZero_whenUnsetOrNoMatch() {
+        KafkaStreamService cut = new KafkaStreamService(EMPTY_SHARED_HEADERS);
+        ProducerConfigDTO cfg = buildConfig("telemetry.raw", "client-a", null);
+
+        assertEquals(0L, cut.getBandwidthLimitForConsumer("client-a", "telemetry.raw", null, StreamType.TOPIC));
+        assertEquals(0L, cut.getBandwidthLimitForConsumer("client-a", "telemetry.raw", cfg, StreamType.TOPIC));
+        assertEquals(0L, cut.getBandwidthLimitForConsumer("client-b", "telemetry.raw", cfg, StreamType.FILE));
+    }
+
     // -------------------- Tests for hasConsumerAccessToTopic --------------------
 
     @Test
@@ -230,4 +260,52 @@ class KafkaStreamServiceTest {
             }
         }
     }
+
+    @Test
+    void test_streamToClient_readyDrivenStreamIgnoresPipelineParallelism() throws IOException {
+        KafkaStreamService cut = new KafkaStreamService(EMPTY_SHARED_HEADERS);
+        TopicRequest req =
+                TopicRequest.newBuilder().setTopic("test").setOffset(0L).build();
+        StreamObservable readyDriven = mock(StreamObservable.class);
+        when(readyDriven.isReadyDriven()).thenReturn(true);
+        StreamObservable blocking = mock(StreamObservable.class);
+        ExecutorService executorService = mock(ExecutorService.class);
+        when(executorService.submit(any(Runnable.class))).thenReturn(mock(Future.class));
+        ProducerConfigService mockService = mock(ProducerConfigService.class);
+        when(mockService.getProducerConfiguration()).thenReturn(buildConfig("test", "consumer-1", null));
+        List<List<?>> conductorArguments = new CopyOnWriteArrayList<>();
+
+        Path tmp = Files.createTempFile("pipeline-test-", ".properties");
+        Files.writeString(tmp, String.join("\n", "server.pipeline.parallelism=4", "server.pipeline.depth=16"));
+        PropertyUtil.init(tmp.toFile());
+        Context ctx = Context.current().withValue(GRPCContextKeys.CLIENT_ID, "consumer-1");
+        Context previous = ctx.attach();
+        try (MockedStatic<ProducerConsumerConfigServiceFactory> mockedFactory =
+                        Mockito.mockStatic(ProducerConsumerConfigServiceFactory.class);
+                MockedConstruction<RdfMessageConductor> ignored = Mockito.mockConstruction(
+                        RdfMessageConductor.class, (mock, context) -> conductorArguments.add(context.arguments()));
+                MockedConstruction<ReadyDrivenConductorDriver> drivers = Mockito.mockConstruction(
+                        ReadyDrivenConductorDriver.class,
+                        (mock, context) -> when(mock.start()).thenReturn(new CompletableFuture<>()))) {
+            mockedFactory
+                    .when(ProducerConsumerConfigServiceFactory::getProducerConfigService)
+                    .thenReturn(mockService);
+
+            cut.streamToClient(req, readyDriven, executorService);
+            cut.streamToClient(req, blocking, executorService);
+
+            assertEquals(1, drivers.constructed().size());
+            assertEquals(2, conductorArguments.size());
+            // Pipeline executor and depth are the fifth and sixth constructor arguments
+            assertNull(conductorArguments.get(0).get(4), "ready-driven stream processes sequentially");
+            assertEquals(1, conductorArguments.get(0).get(5));
+            assertNotNull(conductorArguments.get(1).get(4), "blocking stream uses the worker pool");
+            assertEquals(16, conductorArguments.get(1).get(5));
+        } finally {
+            ctx.detach(previous);
+            cut.close();
+            PropertyUtil.clear();
+            Files.deleteIfExists(tmp);
+        }
+    }
 }
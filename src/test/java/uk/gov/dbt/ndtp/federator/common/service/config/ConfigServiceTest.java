@@ -9,10 +9,22 @@ package uk.gov.dbt.ndtp.federator.common.service.config;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import uk.gov.dbt.ndtp.federator.common.service.config.exception.ConfigFetchException;
 import uk.gov.dbt.ndtp.federator.common.storage.InMemoryConfigurationStore;
 import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
 import uk.gov.dbt.ndtp.federator.common.utils.ResilienceSupport;
@@ -145,14 +157,178 @@ class ConfigServiceTest {
     void testRefreshConfigurations() {
         service.refreshConfigurations();
 
-        verify(store).clearCache();
+        verify(store, never()).clearCache();
         verify(store).store("test:client1", "configValue");
         assertEquals(1, fetchCount);
     }
 
+    @Test
+    void testGetConfiguration_concurrentCallersShareOneFetch() throws Exception {
+        InMemoryConfigurationStore realStore = InMemoryConfigurationStore.getInstance();
+        AtomicInteger fetches = new AtomicInteger();
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ConfigService<String> shared = serviceOn(realStore, "shared:", () -> {
+            fetches.incrementAndGet();
+            fetchStarted.countDown();
+            try {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "fetched";
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                results.add(executor.submit(shared::getConfiguration));
+            }
+            assertTrue(fetchStarted.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("fetched", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    void testGetConfiguration_errorInFetchFailsWaitingCallersToo() throws Exception {
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ConfigService<String> failing = serviceOn(InMemoryConfigurationStore.getInstance(), "failing:", () -> {
+            fetchStarted.countDown();
+            try {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new LinkageError("fetch broke");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(failing::getConfiguration);
+            assertTrue(fetchStarted.await(5, TimeUnit.SECONDS));
+            Future<String> waiter = executor.submit(failing::getConfiguration);
+            Thread.sleep(100);
+            release.countDown();
+
+            ExecutionException leaderFailure =
+                    assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+            ExecutionException waiterFailure =
+                    assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(LinkageError.class, leaderFailure.getCause());
+            assertInstanceOf(LinkageError.class, waiterFailure.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testGetConfiguration_refreshDueServesCachedAndRefreshesInBackground() {
+        when(store.get("test:client1", String.class)).thenReturn(Optional.of("cachedValue"));
+        when(store.isRefreshDue("test:client1")).thenReturn(true);
+
+        assertEquals("cachedValue", service.getConfiguration());
+
+        verify(store, timeout(5000)).store("test:client1", "configValue");
+    }
+
+    @Test
+    void testGetConfiguration_expiredServesStaleAndRefreshesInBackground() {
+        when(store.get("test:client1", String.class)).thenReturn(Optional.empty());
+        when(store.getStale("test:client1", String.class)).thenReturn(Optional.of("staleValue"));
+
+        assertEquals("staleValue", service.getConfiguration());
+
+        verify(store, timeout(5000)).store("test:client1", "configValue");
+    }
+
+    @Test
+    void testGetConfigurationWithin_servesLastKnownGoodAndFetchesInBackground() {
+        when(store.get("test:client1", String.class)).thenReturn(Optional.empty());
+        when(store.getLastKnownGood("test:client1", String.class)).thenReturn(Optional.of("lastKnownGood"));
+
+        assertEquals("lastKnownGood", service.getConfigurationWithin(Duration.ofSeconds(5)));
+
+        verify(store, timeout(5000)).store("test:client1", "configValue");
+    }
+
+    @Test
+    void testGetConfigurationWithin_waitsForFirstFetch() {
+        when(store.get("test:client1", String.class)).thenReturn(Optional.empty());
+
+        assertEquals("configValue", service.getConfigurationWithin(Duration.ofSeconds(5)));
+        verify(store).store("test:client1", "configValue");
+    }
+
+    @Test
+    void testGetConfigurationWithin_failsWhenBudgetExhausted() {
+        CountDownLatch release = new CountDownLatch(1);
+        ConfigService<String> slow = serviceOn(InMemoryConfigurationStore.getInstance(), "slow:", () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "late";
+        });
+
+        try {
+            assertThrows(ConfigFetchException.class, () -> slow.getConfigurationWithin(Duration.ofMillis(50)));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testIsAffectedBy() {
+        assertFalse(service.isAffectedBy(null));
+        assertTrue(service.isAffectedBy(List.of()));
+        assertTrue(service.isAffectedBy(List.of("other", "client1")));
+        assertFalse(service.isAffectedBy(List.of("other")));
+    }
+
     @Test
     void testClearCache() {
         service.clearCache();
         verify(store).clearCache();
     }
+
+    private static ConfigService<String> serviceOn(
+            InMemoryConfigurationStore configStore, String keyPrefix, Supplier<String> fetch) {
+        return new ConfigService<String>() {
+            @Override
+            public InMemoryConfigurationStore getConfigStore() {
+                return configStore;
+            }
+
+            @Override
+            public String getKeyPrefix() {
+                return keyPrefix;
+            }
+
+            @Override
+            public String getConfiguredClientId() {
+                return "client1";
+            }
+
+            @Override
+            public Class<String> getDtoClass() {
+                return String.class;
+            }
+
+            @Override
+            public String fetchConfiguration() {
+                return fetch.get();
+            }
+        };
+    }
 }
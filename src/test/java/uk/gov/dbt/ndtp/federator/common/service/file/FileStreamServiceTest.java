@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import io.grpc.Context;
+import java.time.Duration;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -15,6 +16,8 @@ import org.mockito.Mockito;
 import uk.gov.dbt.ndtp.federator.common.model.dto.ProducerConfigDTO;
 import uk.gov.dbt.ndtp.federator.common.service.config.ProducerConfigService;
 import uk.gov.dbt.ndtp.federator.common.utils.ProducerConsumerConfigServiceFactory;
+import uk.gov.dbt.ndtp.federator.exceptions.StreamAdmissionException;
+import uk.gov.dbt.ndtp.federator.server.admission.StreamAdmissionController;
 import uk.gov.dbt.ndtp.federator.server.conductor.FileConductor;
 import uk.gov.dbt.ndtp.federator.server.grpc.GRPCContextKeys;
 import uk.gov.dbt.ndtp.federator.server.interfaces.StreamObservable;
@@ -77,4 +80,103 @@ class FileStreamServiceTest {
             verify(observer, times(1)).onCompleted();
         }
     }
+
+    @Test
+    void test_streamToClient_rangeRequestAdmittedWhileConsumersFileStreamHoldsItsSlot() {
+        FileStreamService cut = new FileStreamService();
+        StreamObservable<FileStreamEvent> observer = mock(StreamObservable.class);
+        ExecutorService executorService = mock(ExecutorService.class);
+        when(executorService.submit(any(Runnable.class))).thenReturn(mock(Future.class));
+        // One stream per consumer and no queue: the outer file stream holds the consumer's only slot
+        StreamAdmissionController admission =
+                new StreamAdmissionController(0, 1, 0, Duration.ZERO, Duration.ofSeconds(1));
+        StreamAdmissionController.Permit outer = admission.acquire("client-xyz");
+
+        FileStreamRequest range = FileStreamRequest.newBuilder()
+                .setTopic("files-topic")
+                .setStartSequenceId(3L)
+                .setRangeOffset(100L)
+                .setRangeLength(50L)
+                .build();
+        FileStreamRequest whole = range.toBuilder().clearRangeOffset().clearRangeLength().build();
+
+        try (MockedConstruction<FileConductor> ignored = Mockito.mockConstruction(FileConductor.class);
+                MockedStatic<ProducerConsumerConfigServiceFactory> mockedFactory =
+                        Mockito.mockStatic(ProducerConsumerConfigServiceFactory.class);
+                MockedStatic<StreamAdmissionController> mockedAdmission =
+                        Mockito.mockStatic(StreamAdmissionController.class)) {
+            ProducerConfigService mockConfigService = Mockito.mock(ProducerConfigService.class);
+            mockedFactory
+                    .when(ProducerConsumerConfigServiceFactory::getProducerConfigService)
+                    .thenReturn(mockConfigService);
+            Mockito.when(mockConfigService.getProducerConfiguration())
+                    .thenReturn(ProducerConfigDTO.builder()
+                            .producers(java.util.List.of())
+                            .build());
+            mockedAdmission.when(StreamAdmissionController::getInstance).thenReturn(admission);
+
+            Context grpcCtx = Context.current().withValue(GRPCContextKeys.CLIENT_ID, "client-xyz");
+            Context prev = grpcCtx.attach();
+            try {
+                assertDoesNotThrow(() -> cut.streamToClient(range, observer, executorService));
+                assertThrows(
+                        StreamAdmissionException.class, () -> cut.streamToClient(whole, observer, executorService));
+            } finally {
+                grpcCtx.detach(prev);
+            }
+
+            verify(observer, times(1)).onCompleted();
+            assertEquals(1, admission.getActiveStreams(), "the range request released its permit");
+        }
+        outer.close();
+    }
+
+    @Test
+    void test_streamToClient_secondConcurrentRangeRequestRefused() {
+        FileStreamService cut = new FileStreamService();
+        StreamObservable<FileStreamEvent> observer = mock(StreamObservable.class);
+        StreamAdmissionController admission =
+                new StreamAdmissionController(0, 0, 0, Duration.ZERO, Duration.ofSeconds(1));
+        StreamAdmissionController.Permit outer = admission.acquire("client-xyz");
+        // A range request of the outer stream is still running
+        StreamAdmissionController.Permit firstRange = admission.acquireNested("client-xyz");
+
+        FileStreamRequest range = FileStreamRequest.newBuilder()
+                .setTopic("files-topic")
+                .setStartSequenceId(3L)
+                .setRangeOffset(100L)
+                .setRangeLength(50L)
+                .build();
+
+        try (MockedConstruction<FileConductor> constructed = Mockito.mockConstruction(FileConductor.class);
+                MockedStatic<ProducerConsumerConfigServiceFactory> mockedFactory =
+                        Mockito.mockStatic(ProducerConsumerConfigServiceFactory.class);
+                MockedStatic<StreamAdmissionController> mockedAdmission =
+                        Mockito.mockStatic(StreamAdmissionController.class)) {
+            ProducerConfigService mockConfigService = Mockito.mock(ProducerConfigService.class);
+            mockedFactory
+                    .when(ProducerConsumerConfigServiceFactory::getProducerConfigService)
+                    .thenReturn(mockConfigService);
+            Mockito.when(mockConfigService.getProducerConfiguration())
+                    .thenReturn(ProducerConfigDTO.builder()
+                            .producers(java.util.List.of())
+                            .build());
+            mockedAdmission.when(StreamAdmissionController::getInstance).thenReturn(admission);
+
+            Context grpcCtx = Context.current().withValue(GRPCContextKeys.CLIENT_ID, "client-xyz");
+            Context prev = grpcCtx.attach();
+            try {
+                assertThrows(
+                        StreamAdmissionException.class,
+                        () -> cut.streamToClient(range, observer, mock(ExecutorService.class)));
+            } finally {
+                grpcCtx.detach(prev);
+            }
+
+            assertTrue(constructed.constructed().isEmpty());
+            assertEquals(2, admission.getActiveStreams());
+        }
+        firstRange.close();
+        outer.close();
+    }
 }
@@ -191,6 +191,66 @@ class InMemoryConfigurationStoreTest {
                 "Should throw NPE for null class type");
     }
 
+    @Test
+    @DisplayName("Fresh entry is not due for refresh and is not stale")
+    void testFreshEntryNotDueForRefresh() {
+        store.store(PRODUCER_KEY, createProducerConfig());
+
+        assertFalse(store.isRefreshDue(PRODUCER_KEY));
+        assertFalse(store.isRefreshDue(NON_EXISTENT_KEY));
+        assertTrue(store.getStale(PRODUCER_KEY, ProducerConfigDTO.class).isPresent());
+    }
+
+    @Test
+    @DisplayName("Expired entry is served stale with refresh-ahead enabled")
+    void testExpiredEntryServedStaleWithRefreshAhead() throws Exception {
+        reinitialise("management.node.cache.ttl.seconds=0\n"
+                + "management.node.cache.refreshAhead.enabled=true\n"
+                + "management.node.cache.maxStale.seconds=3600\n");
+        store.store(PRODUCER_KEY, createProducerConfig());
+        Thread.sleep(5);
+
+        assertTrue(store.get(PRODUCER_KEY, ProducerConfigDTO.class).isEmpty(), "Expired entry should not be fresh");
+        assertTrue(store.getStale(PRODUCER_KEY, ProducerConfigDTO.class).isPresent(), "Expired entry should be stale");
+        assertTrue(store.isRefreshDue(PRODUCER_KEY));
+        assertEquals(1, store.getCacheSize(), "Stale entry should be kept");
+    }
+
+    @Test
+    @DisplayName("Expired entry is removed without refresh-ahead")
+    void testExpiredEntryRemovedWithoutRefreshAhead() throws Exception {
+        reinitialise("management.node.cache.ttl.seconds=0\n");
+        store.store(PRODUCER_KEY, createProducerConfig());
+        Thread.sleep(5);
+
+        assertTrue(store.getStale(PRODUCER_KEY, ProducerConfigDTO.class).isEmpty());
+        assertEquals(0, store.getCacheSize());
+    }
+
+    @Test
+    @DisplayName("Last-known-good value survives expiry and cache clear")
+    void testLastKnownGoodSurvivesExpiryAndClear() throws Exception {
+        reinitialise("management.node.cache.ttl.seconds=0\n");
+        final ProducerConfigDTO config = createProducerConfig();
+        store.store(PRODUCER_KEY, config);
+        Thread.sleep(5);
+
+        assertTrue(store.get(PRODUCER_KEY, ProducerConfigDTO.class).isEmpty());
+        store.clearCache();
+
+        assertEquals(Optional.of(config), store.getLastKnownGood(PRODUCER_KEY, ProducerConfigDTO.class));
+        assertTrue(store.getLastKnownGood(PRODUCER_KEY, ConsumerConfigDTO.class).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Invalid refresh-ahead ratio is rejected")
+    void testInvalidRefreshAheadRatio() {
+        assertThrowsExactly(
+                IllegalArgumentException.class,
+                () -> reinitialise("management.node.cache.refreshAhead.enabled=true\n"
+                        + "management.node.cache.refreshAhead.ratio=2\n"));
+    }
+
     @Test
     @DisplayName("Thread safety verification")
     @Timeout(value = 10, unit = TimeUnit.SECONDS)
@@ -223,6 +283,18 @@ class InMemoryConfigurationStoreTest {
         }
     }
 
+    private void reinitialise(final String properties) throws Exception {
+        PropertyUtil.clear();
+        InMemoryConfigurationStore.clearForTests();
+        final File tempFile = File.createTempFile("test", ".properties");
+        tempFile.deleteOnExit();
+        try (FileWriter writer = new FileWriter(tempFile)) {
+            writer.write(properties);
+        }
+        PropertyUtil.init(tempFile);
+        store = InMemoryConfigurationStore.getInstance();
+    }
+
     private void performOperations(final int threadId, final CountDownLatch latch) {
         try {
             for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
@@ -0,0 +1,109 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.common.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import uk.gov.dbt.ndtp.grpc.FileChecksumAlgorithm;
+
+class FileChecksumsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @CsvSource({
+        "'', ef46db3751d8e999",
+        "a, d24ec4f1a98c6e5b",
+        "abc, 44bc2cf5ad770999",
+        "Nobody inspects the spammish repetition, fbcea83c8a378bf1"
+    })
+    void xxh64_matchesReferenceVectors(String input, String expected) {
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        Xxh64 hash = new Xxh64();
+        hash.update(bytes, 0, bytes.length);
+
+        assertEquals(expected, Long.toHexString(hash.digest()));
+    }
+
+    @Test
+    void xxh64_isIndependentOfUpdateSizes() {
+        byte[] data = randomBytes(1000, 7);
+        Xxh64 whole = new Xxh64();
+        whole.update(data, 0, data.length);
+        Xxh64 pieces = new Xxh64();
+        int[] sizes = {1, 7, 33, 5, 64, 100, 3};
+        int position = 0;
+        for (int i = 0; position < data.length; i++) {
+            int n = Math.min(sizes[i % sizes.length], data.length - position);
+            pieces.update(data, position, n);
+            position += n;
+        }
+
+        assertEquals(whole.digest(), pieces.digest());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 5, 1 << 20, (1 << 20) + 1, 3 * (1 << 20) + 12345})
+    void xxh64Tree_streamedDigestMatchesParallelFileChecksum(int size) throws Exception {
+        byte[] data = randomBytes(size, size);
+        Path file = Files.write(tempDir.resolve("data-" + size + ".bin"), data);
+        MessageDigest digest = FileChecksums.newDigest(FileChecksumAlgorithm.XXH64_TREE);
+        for (int position = 0; position < size; position += 70_001) {
+            digest.update(data, position, Math.min(70_001, size - position));
+        }
+        String streamed = GRPCUtils.bytesToHex(digest.digest());
+
+        assertEquals(streamed, FileChecksums.calculate(file, FileChecksumAlgorithm.XXH64_TREE));
+        assertEquals(streamed, FileChecksums.calculate(data, FileChecksumAlgorithm.XXH64_TREE));
+        assertEquals(16, streamed.length());
+    }
+
+    @Test
+    void xxh64Tree_detectsChangedByte() {
+        byte[] data = randomBytes(2 * (1 << 20), 3);
+        String before = FileChecksums.calculate(data, FileChecksumAlgorithm.XXH64_TREE);
+        data[(1 << 20) + 17] ^= 1;
+
+        assertNotEquals(before, FileChecksums.calculate(data, FileChecksumAlgorithm.XXH64_TREE));
+    }
+
+    @Test
+    void sha256_matchesExistingChecksum() throws Exception {
+        byte[] data = randomBytes(4096, 11);
+        Path file = Files.write(tempDir.resolve("sha.bin"), data);
+
+        assertEquals(
+                GRPCUtils.calculateSha256Checksum(data), FileChecksums.calculate(data, FileChecksumAlgorithm.SHA_256));
+        assertEquals(
+                GRPCUtils.calculateSha256Checksum(file), FileChecksums.calculate(file, FileChecksumAlgorithm.SHA_256));
+    }
+
+    @Test
+    void parse_defaultsToSha256() {
+        assertEquals(FileChecksumAlgorithm.XXH64_TREE, FileChecksums.parse(" xxh64_tree "));
+        assertEquals(FileChecksumAlgorithm.SHA_256, FileChecksums.parse("md5"));
+        assertEquals(FileChecksumAlgorithm.SHA_256, FileChecksums.parse("UNRECOGNIZED"));
+        assertEquals(FileChecksumAlgorithm.SHA_256, FileChecksums.parse(""));
+        assertEquals(FileChecksumAlgorithm.SHA_256, FileChecksums.parse(null));
+    }
+
+    private static byte[] randomBytes(int size, long seed) {
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+}
@@ -27,6 +27,7 @@
 package uk.gov.dbt.ndtp.federator.common.utils;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static uk.gov.dbt.ndtp.federator.common.utils.TestPropertyUtil.clearProperties;
 import static uk.gov.dbt.ndtp.federator.common.utils.TestPropertyUtil.setUpProperties;
 
@@ -35,6 +36,7 @@ import java.lang.reflect.Field;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Properties;
+import org.apache.kafka.common.serialization.StringDeserializer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
@@ -227,4 +229,36 @@ class KafkaUtilTest {
             return (Properties) propertiesField.get(builder);
         }
     }
+
+    @Nested
+    class AssignedConsumerConfigTest {
+
+        @Test
+        void getAssignedConsumerConfig_hasNoGroupAndNeverCommits() throws IOException {
+            TestPropertyUtil.clearProperties();
+
+            Path propertiesLocation = FileUtils.createSelfDeletingTmpFile(null, null);
+            Files.writeString(
+                    propertiesLocation,
+                    """
+                    kafka.bootstrapServers=example.com:9092
+                    kafka.consumerGroup=example
+                    kafka.pollRecords=10
+                    kafka.additional.security.protocol=SASL_SSL
+                    kafka.additional.group.id=ignored
+                    kafka.additional.enable.auto.commit=true
+                    """);
+            PropertyUtil.init(propertiesLocation.toFile());
+
+            Properties actual = KafkaUtil.getAssignedConsumerConfig(StringDeserializer.class, StringDeserializer.class);
+
+            assertEquals("example.com:9092", actual.getProperty("bootstrap.servers"));
+            assertEquals("10", actual.getProperty("max.poll.records"));
+            assertEquals("SASL_SSL", actual.getProperty("security.protocol"));
+            assertEquals(StringDeserializer.class.getName(), actual.getProperty("key.deserializer"));
+            assertEquals(StringDeserializer.class.getName(), actual.getProperty("value.deserializer"));
+            assertEquals("false", actual.getProperty("enable.auto.commit"));
+            assertFalse(actual.containsKey("group.id"));
+        }
+    }
 }
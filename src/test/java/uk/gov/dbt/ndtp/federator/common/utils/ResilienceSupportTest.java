@@ -1,6 +1,9 @@
 package uk.gov.dbt.ndtp.federator.common.utils;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
@@ -9,7 +12,14 @@ import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.net.SocketTimeoutException;
 import java.net.http.HttpTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -209,4 +219,69 @@ class ResilienceSupportTest {
                 thrown.getMessage());
         assertEquals(federatorTokenException, thrown.getCause());
     }
+
+    @Test
+    void decorateAndExecuteAsync_runsOffCallingThread() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+        CompletableFuture<Thread> result =
+                ResilienceSupport.decorateAndExecuteAsync(COMPONENT_NAME + "-async", OPERATION, TARGET_ID, () -> {
+                    await(release);
+                    return Thread.currentThread();
+                });
+
+        assertFalse(result.isDone(), "Caller should not wait for the supplier");
+        release.countDown();
+        assertNotSame(caller, result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void decorateAndExecuteAsync_completesWithEnrichedException() {
+        HttpTimeoutException originalException = new HttpTimeoutException("Error: request timed out!");
+        FederatorTokenException federatorTokenException = new FederatorTokenException(BASE_MESSAGE, originalException);
+        Mockito.when(supplier.get()).thenThrow(federatorTokenException);
+
+        CompletableFuture<String> result =
+                ResilienceSupport.decorateAndExecuteAsync(COMPONENT_NAME + "-async", OPERATION, TARGET_ID, supplier);
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        FederatorTokenException cause = assertInstanceOf(FederatorTokenException.class, thrown.getCause());
+        assertEquals(
+                BASE_MESSAGE + " (timeout while calling " + COMPONENT_NAME + "-async for " + TARGET_ID + ")",
+                cause.getMessage());
+    }
+
+    @Test
+    void decorateAndExecuteAsync_rejectsWhenBulkheadFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<String>> running = new ArrayList<>();
+        try {
+            for (int i = 0; i < 4; i++) {
+                running.add(ResilienceSupport.decorateAndExecuteAsync(
+                        COMPONENT_NAME + "-bulkhead", OPERATION, TARGET_ID, () -> {
+                            await(release);
+                            return "done";
+                        }));
+            }
+
+            CompletableFuture<String> rejected = ResilienceSupport.decorateAndExecuteAsync(
+                    COMPONENT_NAME + "-bulkhead", OPERATION, TARGET_ID, () -> "x");
+
+            ExecutionException thrown = assertThrows(ExecutionException.class, rejected::get);
+            assertInstanceOf(RejectedExecutionException.class, thrown.getCause());
+        } finally {
+            release.countDown();
+        }
+        for (CompletableFuture<String> future : running) {
+            assertEquals("done", future.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
@@ -29,9 +29,14 @@ package uk.gov.dbt.ndtp.federator.common.utils;
 import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mockStatic;
 import static uk.gov.dbt.ndtp.federator.common.utils.ThreadUtil.awaitShutdown;
+import static uk.gov.dbt.ndtp.federator.common.utils.ThreadUtil.serverThreadExecutor;
 import static uk.gov.dbt.ndtp.federator.common.utils.ThreadUtil.threadExecutor;
+import static uk.gov.dbt.ndtp.federator.common.utils.ThreadUtil.virtualThreadExecutor;
 
 import java.util.Collections;
 import java.util.concurrent.ExecutorService;
@@ -40,6 +45,7 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
 
 class ThreadUtilTest {
 
@@ -61,6 +67,49 @@ class ThreadUtilTest {
         assertTrue(threadName.startsWith(RANDOM_THREAD_NAME));
     }
 
+    @Test
+    void test_virtualThreadExecutor_runsOnNamedVirtualThreads() throws Exception {
+        // given
+        ExecutorService service = virtualThreadExecutor(RANDOM_THREAD_NAME);
+        // when
+        Thread thread = service.submit(Thread::currentThread).get();
+        // then
+        assertTrue(thread.isVirtual());
+        assertTrue(thread.getName().startsWith(RANDOM_THREAD_NAME + "-virtual-"));
+        service.shutdown();
+    }
+
+    @Test
+    void test_serverThreadExecutor_defaultsToPlatformThreadsWithoutProperties() {
+        try (MockedStatic<PropertyUtil> mockedProperties = mockStatic(PropertyUtil.class)) {
+            // given
+            mockedProperties
+                    .when(() -> PropertyUtil.getPropertyBooleanValue(any(), any()))
+                    .thenThrow(new PropertyUtil.PropertyUtilException("not initialised"));
+            // when
+            ExecutorService service = serverThreadExecutor(RANDOM_THREAD_NAME);
+            // then
+            assertInstanceOf(ThreadPoolExecutor.class, service);
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void test_serverThreadExecutor_usesVirtualThreadsWhenEnabled() throws Exception {
+        try (MockedStatic<PropertyUtil> mockedProperties = mockStatic(PropertyUtil.class)) {
+            // given
+            mockedProperties
+                    .when(() -> PropertyUtil.getPropertyBooleanValue(
+                            ThreadUtil.SERVER_VIRTUAL_THREADS, ThreadUtil.DEFAULT_SERVER_VIRTUAL_THREADS))
+                    .thenReturn(true);
+            // when
+            ExecutorService service = serverThreadExecutor(RANDOM_THREAD_NAME);
+            // then
+            assertTrue(service.submit(() -> Thread.currentThread().isVirtual()).get());
+            service.shutdown();
+        }
+    }
+
     @Test
     void test_awaitShutdown_failingTask() {
         // given
@@ -0,0 +1,232 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.server.admission;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.dbt.ndtp.federator.exceptions.StreamAdmissionException;
+
+class StreamAdmissionControllerTest {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(7);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        StreamAdmissionController.clearForTests();
+    }
+
+    @Test
+    void unlimited_admitsEveryStream() {
+        StreamAdmissionController cut = new StreamAdmissionController(0, 0, 0, Duration.ZERO, RETRY_AFTER);
+
+        for (int i = 0; i < 100; i++) {
+            cut.acquire("client");
+        }
+
+        assertEquals(100, cut.getActiveStreams());
+        assertEquals(Map.of("client", 100), cut.getActiveStreamsByConsumer());
+    }
+
+    @Test
+    void perConsumerLimit_rejectsImmediatelyWithRetryAfter() {
+        StreamAdmissionController cut = new StreamAdmissionController(0, 2, 10, Duration.ofSeconds(5), RETRY_AFTER);
+        cut.acquire("client");
+        cut.acquire("client");
+
+        StreamAdmissionException ex = assertThrows(StreamAdmissionException.class, () -> cut.acquire("client"));
+
+        assertEquals(RETRY_AFTER, ex.getRetryAfter());
+        assertEquals(1, cut.getRejectedStreams());
+        assertEquals(0, cut.getQueuedStreams());
+        assertNotNull(cut.acquire("other"));
+    }
+
+    @Test
+    void globalLimit_withNoQueue_rejects() {
+        StreamAdmissionController cut = new StreamAdmissionController(1, 0, 0, Duration.ofSeconds(5), RETRY_AFTER);
+        cut.acquire("a");
+
+        assertThrows(StreamAdmissionException.class, () -> cut.acquire("b"));
+        assertEquals(1, cut.getRejectedStreams());
+    }
+
+    @Test
+    void globalLimit_queuedRequestAdmittedWhenSlotFreed() throws Exception {
+        StreamAdmissionController cut = new StreamAdmissionController(1, 0, 1, Duration.ofSeconds(5), RETRY_AFTER);
+        StreamAdmissionController.Permit first = cut.acquire("a");
+
+        CompletableFuture<StreamAdmissionController.Permit> waiting =
+                CompletableFuture.supplyAsync(() -> cut.acquire("b"), executor);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> cut.getQueuedStreams() == 1);
+        assertFalse(waiting.isDone());
+
+        first.close();
+
+        assertNotNull(waiting.get(5, TimeUnit.SECONDS));
+        assertEquals(Map.of("b", 1), cut.getActiveStreamsByConsumer());
+        assertEquals(0, cut.getQueuedStreams());
+    }
+
+    @Test
+    void globalLimit_queuedRequestsAdmittedInArrivalOrder() throws Exception {
+        StreamAdmissionController cut = new StreamAdmissionController(1, 0, 3, Duration.ofSeconds(5), RETRY_AFTER);
+        StreamAdmissionController.Permit held = cut.acquire("a");
+        List<String> admitted = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Void>> waiting = new ArrayList<>();
+        for (String consumer : List.of("b", "c", "d")) {
+            waiting.add(CompletableFuture.runAsync(
+                    () -> {
+                        StreamAdmissionController.Permit permit = cut.acquire(consumer);
+                        admitted.add(consumer);
+                        permit.close();
+                    },
+                    executor));
+            int expected = waiting.size();
+            await().atMost(5, TimeUnit.SECONDS).until(() -> cut.getQueuedStreams() == expected);
+        }
+
+        held.close();
+
+        CompletableFuture.allOf(waiting.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("b", "c", "d"), admitted);
+        assertEquals(0, cut.getActiveStreams());
+    }
+
+    @Test
+    void nested_admittedAlongsideOuterStreamAtLimits() {
+        StreamAdmissionController cut = new StreamAdmissionController(1, 1, 1, Duration.ofSeconds(5), RETRY_AFTER);
+        StreamAdmissionController.Permit outer = cut.acquire("a");
+
+        StreamAdmissionController.Permit nested = cut.acquireNested("a");
+
+        assertNotNull(nested);
+        assertEquals(Map.of("a", 2), cut.getActiveStreamsByConsumer());
+        assertEquals(0, cut.getQueuedStreams());
+        assertThrows(StreamAdmissionException.class, () -> cut.acquire("a"));
+
+        nested.close();
+        outer.close();
+        assertEquals(0, cut.getActiveStreams());
+    }
+
+    @Test
+    void nested_secondConcurrentNestedStreamForOneOuter_rejected() {
+        StreamAdmissionController cut = new StreamAdmissionController(0, 0, 0, Duration.ZERO, RETRY_AFTER);
+        StreamAdmissionController.Permit outer = cut.acquire("a");
+        StreamAdmissionController.Permit nested = cut.acquireNested("a");
+
+        StreamAdmissionException e = assertThrows(StreamAdmissionException.class, () -> cut.acquireNested("a"));
+
+        assertEquals(RETRY_AFTER, e.getRetryAfter());
+        assertEquals(Map.of("a", 2), cut.getActiveStreamsByConsumer());
+        assertEquals(1, cut.getRejectedStreams());
+
+        nested.close();
+        cut.acquireNested("a").close();
+        outer.close();
+        assertEquals(0, cut.getActiveStreams());
+    }
+
+    @Test
+    void nested_onePerOuterStream() {
+        StreamAdmissionController cut = new StreamAdmissionController(0, 0, 0, Duration.ZERO, RETRY_AFTER);
+        cut.acquire("a");
+        cut.acquire("a");
+
+        cut.acquireNested("a");
+        cut.acquireNested("a");
+
+        assertThrows(StreamAdmissionException.class, () -> cut.acquireNested("a"));
+        assertEquals(Map.of("a", 4), cut.getActiveStreamsByConsumer());
+    }
+
+    @Test
+    void nested_withoutOuterStream_isLimitedAsUsual() {
+        StreamAdmissionController cut = new StreamAdmissionController(1, 0, 0, Duration.ZERO, RETRY_AFTER);
+        cut.acquireNested("a");
+
+        assertThrows(StreamAdmissionException.class, () -> cut.acquireNested("b"));
+        assertEquals(Map.of("a", 1), cut.getActiveStreamsByConsumer());
+    }
+
+    @Test
+    void getInstance_concurrentFirstCalls_createOneController() throws Exception {
+        StreamAdmissionController.clearForTests();
+        List<CompletableFuture<StreamAdmissionController>> calls = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            calls.add(CompletableFuture.supplyAsync(StreamAdmissionController::getInstance, executor));
+        }
+
+        StreamAdmissionController first = calls.get(0).get(5, TimeUnit.SECONDS);
+        for (CompletableFuture<StreamAdmissionController> call : calls) {
+            assertSame(first, call.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void globalLimit_queueFull_rejects() {
+        StreamAdmissionController cut = new StreamAdmissionController(1, 0, 1, Duration.ofSeconds(5), RETRY_AFTER);
+        cut.acquire("a");
+        CompletableFuture.runAsync(() -> cut.acquire("b"), executor);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> cut.getQueuedStreams() == 1);
+
+        assertThrows(StreamAdmissionException.class, () -> cut.acquire("c"));
+    }
+
+    @Test
+    void globalLimit_queueTimeout_rejects() {
+        StreamAdmissionController cut = new StreamAdmissionController(1, 0, 1, Duration.ofMillis(50), RETRY_AFTER);
+        cut.acquire("a");
+
+        assertThrows(StreamAdmissionException.class, () -> cut.acquire("b"));
+        assertEquals(0, cut.getQueuedStreams());
+        assertEquals(1, cut.getActiveStreams());
+    }
+
+    @Test
+    void permit_closeIsIdempotent() {
+        StreamAdmissionController cut = new StreamAdmissionController(2, 0, 0, Duration.ZERO, RETRY_AFTER);
+        StreamAdmissionController.Permit permit = cut.acquire("a");
+        cut.acquire("a");
+
+        permit.close();
+        permit.close();
+
+        assertEquals(1, cut.getActiveStreams());
+        assertEquals(Map.of("a", 1), cut.getActiveStreamsByConsumer());
+    }
+
+    @Test
+    void getInstance_withoutProperties_isUnlimitedSingleton() {
+        StreamAdmissionController.clearForTests();
+
+        StreamAdmissionController instance = StreamAdmissionController.getInstance();
+
+        assertSame(instance, StreamAdmissionController.getInstance());
+        assertEquals(0, instance.getMaxStreams());
+        assertEquals(0, instance.getMaxStreamsPerConsumer());
+        assertTrue(instance.getActiveStreamsByConsumer().isEmpty());
+    }
+}
@@ -0,0 +1,212 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.server.bandwidth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Field;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.dbt.ndtp.federator.server.interfaces.StreamObservable;
+
+class BandwidthSchedulerTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final AtomicLong paused = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    private final StreamObservable<String> topicStream = mock(StreamObservable.class);
+
+    @SuppressWarnings("unchecked")
+    private final StreamObservable<String> fileStream = mock(StreamObservable.class);
+
+    @AfterEach
+    void tearDown() {
+        BandwidthScheduler.clearForTests();
+    }
+
+    private BandwidthScheduler scheduler(long serverBytesPerSecond) {
+        return new BandwidthScheduler(serverBytesPerSecond, clock::get, nanos -> {
+            clock.addAndGet(nanos);
+            paused.addAndGet(nanos);
+        });
+    }
+
+    private static String bytes(int n) {
+        return "x".repeat(n);
+    }
+
+    private long pausedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(paused.get());
+    }
+
+    @Test
+    void throttle_withNoLimits_returnsStreamUnwrapped() {
+        assertSame(topicStream, scheduler(0).throttle(topicStream, "c", StreamType.TOPIC, 0, String::length));
+    }
+
+    @Test
+    void consumerLimit_pacesAfterBurst() {
+        StreamObservable<String> paced = scheduler(0).throttle(topicStream, "c", StreamType.TOPIC, 1000, String::length);
+
+        paced.onNext(bytes(1000));
+        assertEquals(0, pausedMillis());
+
+        paced.onNext(bytes(500));
+        assertEquals(500, pausedMillis());
+        verify(topicStream).onNext(bytes(500));
+    }
+
+    @Test
+    void consumerLimit_isSharedByAllOfTheConsumersStreams() {
+        BandwidthScheduler cut = scheduler(0);
+        StreamObservable<String> first = cut.throttle(topicStream, "c", StreamType.FILE, 1000, String::length);
+        StreamObservable<String> second = cut.throttle(fileStream, "C", StreamType.FILE, 1000, String::length);
+
+        first.onNext(bytes(1000));
+        second.onNext(bytes(1000));
+
+        assertEquals(1000, pausedMillis());
+    }
+
+    @Test
+    void consumerLimit_isSharedAcrossCaseUnderTurkishLocale() {
+        Locale original = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr"));
+        try {
+            BandwidthScheduler cut = scheduler(0);
+            StreamObservable<String> first =
+                    cut.throttle(topicStream, "CLIENT-I", StreamType.FILE, 1000, String::length);
+            StreamObservable<String> second =
+                    cut.throttle(fileStream, "client-i", StreamType.FILE, 1000, String::length);
+
+            first.onNext(bytes(1000));
+            second.onNext(bytes(1000));
+
+            assertEquals(1000, pausedMillis());
+        } finally {
+            Locale.setDefault(original);
+        }
+    }
+
+    @Test
+    void serverLimit_topicStreamsNeverWaitButHoldBackFileStreams() {
+        BandwidthScheduler cut = scheduler(1000);
+        StreamObservable<String> topic = cut.throttle(topicStream, "a", StreamType.TOPIC, 0, String::length);
+        StreamObservable<String> file = cut.throttle(fileStream, "b", StreamType.FILE, 0, String::length);
+
+        topic.onNext(bytes(3000));
+        assertEquals(0, pausedMillis());
+
+        file.onNext(bytes(100));
+        assertEquals(2000, pausedMillis());
+        verify(fileStream).onNext(bytes(100));
+    }
+
+    @Test
+    void readyDrivenStream_isChargedWithoutWaiting() {
+        when(topicStream.isReadyDriven()).thenReturn(true);
+        BandwidthScheduler cut = scheduler(1000);
+        StreamObservable<String> paced = cut.throttle(topicStream, "a", StreamType.TOPIC, 1000, String::length);
+
+        paced.onNext(bytes(5000));
+        paced.onNext(bytes(5000));
+
+        assertEquals(0, pausedMillis());
+        StreamObservable<String> file = cut.throttle(fileStream, "b", StreamType.FILE, 0, String::length);
+        file.onNext(bytes(1));
+        assertEquals(9000, pausedMillis());
+    }
+
+    @Test
+    void readyDrivenStream_isNotReadyWhileConsumerBucketIsInDebt() {
+        when(topicStream.isReadyDriven()).thenReturn(true);
+        when(topicStream.isReady()).thenReturn(true);
+        StreamObservable<String> paced = scheduler(0).throttle(topicStream, "a", StreamType.TOPIC, 1000, String::length);
+
+        paced.onNext(bytes(1000));
+        assertTrue(paced.isReady());
+        assertEquals(0L, paced.readyDelayNanos());
+
+        paced.onNext(bytes(500));
+        assertFalse(paced.isReady());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), paced.readyDelayNanos());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertTrue(paced.isReady());
+        assertEquals(0, pausedMillis());
+    }
+
+    @Test
+    void blockingStream_readinessIsNotAffectedByDebt() {
+        when(topicStream.isReady()).thenReturn(true);
+        StreamObservable<String> paced = scheduler(0).throttle(topicStream, "a", StreamType.TOPIC, 1000, String::length);
+
+        paced.onNext(bytes(3000));
+
+        assertTrue(paced.isReady());
+    }
+
+    @Test
+    void fullConsumerBuckets_areEvicted() throws Exception {
+        BandwidthScheduler cut = scheduler(0);
+        for (int i = 0; i < 50; i++) {
+            cut.throttle(topicStream, "consumer-" + i, StreamType.TOPIC, 1000, String::length);
+        }
+        StreamObservable<String> busy = cut.throttle(fileStream, "busy", StreamType.FILE, 1000, String::length);
+        busy.onNext(bytes(1000));
+        assertEquals(51, consumerBuckets(cut).size());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        busy.onNext(bytes(200_000));
+        cut.throttle(topicStream, "new", StreamType.TOPIC, 1000, String::length);
+
+        assertEquals(2, consumerBuckets(cut).size(), "only the bucket in debt and the new one are kept");
+        paused.set(0);
+        busy.onNext(bytes(1));
+        assertTrue(pausedMillis() > 0, "the busy consumer keeps its debt");
+    }
+
+    private static Map<?, ?> consumerBuckets(BandwidthScheduler scheduler) throws Exception {
+        Field field = BandwidthScheduler.class.getDeclaredField("consumers");
+        field.setAccessible(true);
+        return (Map<?, ?>) field.get(scheduler);
+    }
+
+    @Test
+    void cancelledStream_stopsWaiting() {
+        when(fileStream.isCancelled()).thenReturn(true);
+        StreamObservable<String> paced = scheduler(0).throttle(fileStream, "c", StreamType.FILE, 10, String::length);
+
+        paced.onNext(bytes(1_000_000));
+
+        assertEquals(0, pausedMillis());
+        verify(fileStream).onNext(bytes(1_000_000));
+    }
+
+    @Test
+    void changedConsumerLimit_replacesBucket() {
+        BandwidthScheduler cut = scheduler(0);
+        cut.throttle(topicStream, "c", StreamType.TOPIC, 1000, String::length).onNext(bytes(2000));
+        paused.set(0);
+
+        StreamObservable<String> paced = cut.throttle(topicStream, "c", StreamType.TOPIC, 4000, String::length);
+        assertNotSame(topicStream, paced);
+        paced.onNext(bytes(4000));
+
+        assertEquals(0, pausedMillis());
+    }
+}
@@ -12,15 +12,29 @@ import static org.mockito.Mockito.*;
 import java.lang.reflect.Constructor;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.MockedConstruction;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
 import uk.gov.dbt.ndtp.federator.common.model.FileTransferRequest;
 import uk.gov.dbt.ndtp.federator.common.model.dto.AttributesDTO;
+import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
 import uk.gov.dbt.ndtp.federator.exceptions.MessageProcessingException;
+import uk.gov.dbt.ndtp.federator.server.consumer.AssignedKafkaEventMessageConsumer;
+import uk.gov.dbt.ndtp.federator.server.consumer.ClientTopicOffsets;
+import uk.gov.dbt.ndtp.federator.server.consumer.KafkaEventMessageConsumer;
+import uk.gov.dbt.ndtp.federator.server.consumer.KafkaMessageConsumers;
 import uk.gov.dbt.ndtp.federator.server.consumer.MessageConsumer;
 import uk.gov.dbt.ndtp.federator.server.interfaces.StreamObservable;
 import uk.gov.dbt.ndtp.federator.server.processor.MessageProcessor;
+import uk.gov.dbt.ndtp.federator.server.processor.file.FileKafkaEventMessageProcessor;
 import uk.gov.dbt.ndtp.grpc.FileChunk;
+import uk.gov.dbt.ndtp.grpc.FileStreamEvent;
+import uk.gov.dbt.ndtp.grpc.FileStreamRequest;
 import uk.gov.dbt.ndtp.secure.agent.sources.kafka.KafkaEvent;
 
 class FileConductorTest {
@@ -103,4 +117,48 @@ class FileConductorTest {
         verify(mockConsumer, times(1)).close();
         verify(mockProcessor, times(1)).close();
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRangeRequest_InGroupMode_ReadsWithoutJoiningClientsConsumerGroup() {
+        StreamObservable<FileStreamEvent> observer = mock(StreamObservable.class);
+        FileStreamRequest whole = FileStreamRequest.newBuilder()
+                .setTopic("files-topic")
+                .setStartSequenceId(3L)
+                .build();
+        FileStreamRequest range = whole.toBuilder()
+                .setRangeOffset(100L)
+                .setRangeLength(50L)
+                .build();
+        List<List<?>> assignedArguments = new CopyOnWriteArrayList<>();
+
+        try (MockedStatic<PropertyUtil> mockedProps = Mockito.mockStatic(PropertyUtil.class);
+                MockedConstruction<KafkaEventMessageConsumer> groupConsumers =
+                        Mockito.mockConstruction(KafkaEventMessageConsumer.class);
+                MockedConstruction<AssignedKafkaEventMessageConsumer> assignedConsumers =
+                        Mockito.mockConstruction(
+                                AssignedKafkaEventMessageConsumer.class,
+                                (mock, ctx) -> assignedArguments.add(ctx.arguments()));
+                MockedConstruction<FileKafkaEventMessageProcessor> ignored =
+                        Mockito.mockConstruction(FileKafkaEventMessageProcessor.class)) {
+            mockedProps
+                    .when(() -> PropertyUtil.getPropertyValue(
+                            eq(KafkaMessageConsumers.SERVER_KAFKA_CONSUMER_MODE), anyString()))
+                    .thenReturn("group");
+
+            // The client's file stream stays open while it asks for the range
+            FileConductor fileStream = new FileConductor(
+                    new ClientTopicOffsets("client", "files-topic", 3L), observer, filterAttributes, whole);
+            FileConductor rangeStream = new FileConductor(
+                    new ClientTopicOffsets("client", "files-topic", 3L), observer, filterAttributes, range);
+
+            assertNotNull(fileStream);
+            assertNotNull(rangeStream);
+            assertEquals(1, groupConsumers.constructed().size(), "only the file stream joins the group");
+            assertEquals(1, assignedConsumers.constructed().size());
+            assertEquals(
+                    List.of(List.of(StringDeserializer.class, ByteArrayDeserializer.class, "files-topic", 3L, false)),
+                    assignedArguments);
+        }
+    }
 }
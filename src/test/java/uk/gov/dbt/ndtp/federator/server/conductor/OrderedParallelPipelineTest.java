@@ -0,0 +1,142 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.server.conductor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.dbt.ndtp.federator.exceptions.MessageProcessingException;
+
+class OrderedParallelPipelineTest {
+
+    private final ExecutorService workers = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    void constructor_rejectsDepthBelowOne() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new OrderedParallelPipeline<Integer, Integer>(workers, 0, i -> i, i -> {}));
+    }
+
+    @Test
+    void submit_emitsInSubmissionOrderDespiteOutOfOrderCompletion() {
+        List<Integer> emitted = new ArrayList<>();
+        OrderedParallelPipeline<Integer, Integer> cut = new OrderedParallelPipeline<>(
+                workers,
+                8,
+                i -> {
+                    sleepQuietly(ThreadLocalRandom.current().nextInt(5));
+                    return i;
+                },
+                emitted::add);
+
+        IntStream.range(0, 100).forEach(cut::submit);
+        cut.drain();
+
+        assertEquals(IntStream.range(0, 100).boxed().toList(), emitted);
+        assertEquals(0, cut.inFlight());
+    }
+
+    @Test
+    void submit_dropsNullResultsWithoutBreakingOrder() {
+        List<Integer> emitted = new ArrayList<>();
+        OrderedParallelPipeline<Integer, Integer> cut =
+                new OrderedParallelPipeline<>(workers, 4, i -> i % 2 == 0 ? i : null, emitted::add);
+
+        IntStream.range(0, 10).forEach(cut::submit);
+        cut.drain();
+
+        assertEquals(List.of(0, 2, 4, 6, 8), emitted);
+    }
+
+    @Test
+    void submit_neverExceedsDepth() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        OrderedParallelPipeline<Integer, Integer> cut = new OrderedParallelPipeline<>(
+                workers,
+                2,
+                i -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleepQuietly(2);
+                    running.decrementAndGet();
+                    return i;
+                },
+                i -> {});
+
+        IntStream.range(0, 20).forEach(i -> {
+            cut.submit(i);
+            assertTrue(cut.inFlight() <= 2);
+        });
+        cut.drain();
+
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test
+    void drain_propagatesStageFailure() {
+        OrderedParallelPipeline<Integer, Integer> cut = new OrderedParallelPipeline<>(
+                workers,
+                4,
+                i -> {
+                    if (i == 1) {
+                        throw new IllegalStateException("boom");
+                    }
+                    return i;
+                },
+                i -> {});
+
+        cut.submit(0);
+        cut.submit(1);
+
+        MessageProcessingException ex = assertThrows(MessageProcessingException.class, cut::drain);
+        assertTrue(ex.getCause() instanceof IllegalStateException);
+        assertEquals(0, cut.inFlight());
+    }
+
+    @Test
+    void close_discardsInFlightWork() {
+        List<Integer> emitted = new ArrayList<>();
+        OrderedParallelPipeline<Integer, Integer> cut = new OrderedParallelPipeline<>(
+                workers,
+                4,
+                i -> {
+                    sleepQuietly(50);
+                    return i;
+                },
+                emitted::add);
+
+        cut.submit(1);
+        cut.close();
+        cut.drain();
+
+        assertTrue(emitted.isEmpty());
+        assertEquals(0, cut.inFlight());
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -26,9 +26,11 @@
 
 package uk.gov.dbt.ndtp.federator.server.conductor;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
@@ -37,7 +39,9 @@ import static org.mockito.Mockito.when;
 import static uk.gov.dbt.ndtp.federator.common.utils.TestPropertyUtil.clearProperties;
 import static uk.gov.dbt.ndtp.federator.common.utils.TestPropertyUtil.setUpProperties;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.UUID;
@@ -53,8 +57,10 @@ import uk.gov.dbt.ndtp.federator.common.model.dto.AttributesDTO;
 import uk.gov.dbt.ndtp.federator.common.utils.KafkaUtil;
 import uk.gov.dbt.ndtp.federator.exceptions.LabelException;
 import uk.gov.dbt.ndtp.federator.server.consumer.ClientTopicOffsets;
+import uk.gov.dbt.ndtp.federator.server.consumer.MessageConsumer;
 import uk.gov.dbt.ndtp.federator.server.grpc.LimitedServerCallStreamObserver;
 import uk.gov.dbt.ndtp.federator.server.interfaces.StreamObservable;
+import uk.gov.dbt.ndtp.grpc.KafkaByteBatch;
 import uk.gov.dbt.ndtp.secure.agent.payloads.RdfPayload;
 import uk.gov.dbt.ndtp.secure.agent.sources.kafka.KafkaEvent;
 import uk.gov.dbt.ndtp.secure.agent.sources.kafka.KafkaEventSource;
@@ -154,6 +160,59 @@ class RdfMessageConductorTest {
         verify(mockObserver, never()).onNext(any());
     }
 
+    @Test
+    void test_processMessages_followedStream_sendsHeartbeatWhenIdle() {
+        // given
+        ClientTopicOffsets followed = new ClientTopicOffsets(CLIENT_ID, TOPIC, OFFSET, true);
+        when(mockEventSource.isClosed()).thenReturn(false).thenReturn(true);
+        when(mockEventSource.poll(any())).thenReturn(null);
+        cut = new RdfMessageConductor(
+                followed, mockObserver, List.of(), emptySharedHeaders, null, 1, Duration.ofNanos(1));
+        // when
+        cut.processMessages();
+        // then
+        verify(mockObserver)
+                .onNext(argThat(batch -> ((KafkaByteBatch) batch).getHeartbeat()
+                        && TOPIC.equals(((KafkaByteBatch) batch).getTopic())));
+    }
+
+    @Test
+    void test_processMessages_unfollowedStream_neverSendsHeartbeat() {
+        // given
+        when(mockEventSource.isClosed()).thenReturn(false).thenReturn(true);
+        when(mockEventSource.poll(any())).thenReturn(null);
+        cut = new RdfMessageConductor(
+                topicData, mockObserver, List.of(), emptySharedHeaders, null, 1, Duration.ofNanos(1));
+        // when
+        cut.processMessages();
+        // then
+        verify(mockObserver, never()).onNext(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void test_forTopics_filtersEachRecordWithItsOwnTopicsAttributes() {
+        // given
+        List<AttributesDTO> filtered = List.of(new AttributesDTO("foo", "bar", "String"));
+        MessageConsumer<KafkaEvent<String, RdfPayload>> consumer = mock(MessageConsumer.class);
+        cut = RdfMessageConductor.forTopics(
+                consumer,
+                Map.of("filtered", filtered),
+                false,
+                mockObserver,
+                emptySharedHeaders,
+                null,
+                1,
+                Duration.ZERO);
+        // when / then
+        assertEquals(filtered, cut.filterAttributesFor(eventFrom("filtered")));
+        assertEquals(List.of(), cut.filterAttributesFor(eventFrom("unfiltered")));
+    }
+
+    private static KafkaEvent<String, RdfPayload> eventFrom(String topic) {
+        return new KafkaEvent<>(new ConsumerRecord<>(topic, 0, 0, "key", null), null);
+    }
+
     @Test
     void test_close_happyPath() {
         // given
@@ -0,0 +1,262 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.server.conductor;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.dbt.ndtp.federator.exceptions.MessageProcessingException;
+import uk.gov.dbt.ndtp.federator.server.interfaces.StreamObservable;
+
+class ReadyDrivenConductorDriverTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final MessageConductor conductor = mock(MessageConductor.class);
+
+    @SuppressWarnings("unchecked")
+    private final StreamObservable<String> observer = mock(StreamObservable.class);
+
+    private final AtomicReference<Runnable> onReady = new AtomicReference<>();
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private ReadyDrivenConductorDriver driver(int maxPerTurn) {
+        doAnswer(inv -> {
+                    onReady.set(inv.getArgument(0));
+                    return null;
+                })
+                .when(observer)
+                .setOnReadyHandler(any());
+        return new ReadyDrivenConductorDriver(conductor, observer, scheduler, Duration.ofMillis(5), maxPerTurn);
+    }
+
+    @Test
+    void start_processesWhileReadyAndCompletesWhenSourceEnds() throws Exception {
+        AtomicInteger processed = new AtomicInteger();
+        when(observer.isReady()).thenReturn(true);
+        when(conductor.continueProcessing()).thenAnswer(inv -> processed.get() < 10);
+        when(conductor.processAvailableMessage()).thenAnswer(inv -> {
+            processed.incrementAndGet();
+            return true;
+        });
+
+        CompletableFuture<Void> done = driver(3).start();
+
+        done.get(5, TimeUnit.SECONDS);
+        assertEquals(10, processed.get());
+        verify(conductor).close();
+        verify(observer).onCompleted();
+    }
+
+    @Test
+    void notReady_waitsForOnReadyWithoutPolling() {
+        AtomicBoolean ready = new AtomicBoolean(false);
+        AtomicInteger processed = new AtomicInteger();
+        when(observer.isReady()).thenAnswer(inv -> ready.get());
+        when(conductor.continueProcessing()).thenAnswer(inv -> processed.get() < 1);
+        when(conductor.processAvailableMessage()).thenAnswer(inv -> {
+            processed.incrementAndGet();
+            return true;
+        });
+
+        CompletableFuture<Void> done = driver(10).start();
+
+        await().during(50, TimeUnit.MILLISECONDS).atMost(1, TimeUnit.SECONDS).until(() -> processed.get() == 0);
+
+        ready.set(true);
+        onReady.get().run();
+
+        await().atMost(5, TimeUnit.SECONDS).until(done::isDone);
+        assertEquals(1, processed.get());
+    }
+
+    @Test
+    void notReadyWithDelay_retriesAfterDelayWithoutOnReady() {
+        AtomicInteger readyChecks = new AtomicInteger();
+        AtomicInteger processed = new AtomicInteger();
+        // Held back twice, as by a bandwidth limit in debt, then ready
+        when(observer.isReady()).thenAnswer(inv -> readyChecks.incrementAndGet() > 2);
+        when(observer.readyDelayNanos()).thenReturn(TimeUnit.MILLISECONDS.toNanos(10));
+        when(conductor.continueProcessing()).thenAnswer(inv -> processed.get() < 1);
+        when(conductor.processAvailableMessage()).thenAnswer(inv -> {
+            processed.incrementAndGet();
+            return true;
+        });
+
+        CompletableFuture<Void> done = driver(10).start();
+
+        await().atMost(5, TimeUnit.SECONDS).until(done::isDone);
+        assertEquals(1, processed.get());
+        assertTrue(readyChecks.get() >= 3);
+    }
+
+    @Test
+    void idleSource_isPolledAgainAfterDelay() {
+        AtomicInteger polls = new AtomicInteger();
+        when(observer.isReady()).thenReturn(true);
+        when(conductor.continueProcessing()).thenAnswer(inv -> polls.get() < 3);
+        when(conductor.processAvailableMessage()).thenAnswer(inv -> {
+            polls.incrementAndGet();
+            return false;
+        });
+
+        CompletableFuture<Void> done = driver(10).start();
+
+        await().atMost(5, TimeUnit.SECONDS).until(done::isDone);
+        assertEquals(3, polls.get());
+    }
+
+    @Test
+    void processingFailure_signalsErrorAndCompletesExceptionally() {
+        when(observer.isReady()).thenReturn(true);
+        when(conductor.continueProcessing()).thenReturn(true);
+        when(conductor.processAvailableMessage()).thenThrow(new MessageProcessingException(new RuntimeException("x")));
+
+        CompletableFuture<Void> done = driver(10).start();
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> done.get(5, TimeUnit.SECONDS));
+        assertTrue(ex.getCause() instanceof MessageProcessingException);
+        verify(observer).onError(any(MessageProcessingException.class));
+        verify(observer, never()).onCompleted();
+        verify(conductor).close();
+    }
+
+    @Test
+    void stop_closesConductorOnNextTurn() throws Exception {
+        when(observer.isReady()).thenReturn(false);
+        when(conductor.continueProcessing()).thenReturn(true);
+
+        ReadyDrivenConductorDriver cut = driver(10);
+        CompletableFuture<Void> done = cut.start();
+        cut.stop();
+
+        done.get(5, TimeUnit.SECONDS);
+        verify(conductor).close();
+        verify(conductor, never()).processAvailableMessage();
+    }
+
+    @Test
+    void sourceEnds_emitsRecordsInFlightOnParallelPipelineBeforeCompleting() throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(4);
+        List<String> emitted = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger emittedAtCompletion = new AtomicInteger(-1);
+        doAnswer(inv -> emitted.add(inv.getArgument(0))).when(observer).onNext(any());
+        doAnswer(inv -> {
+                    emittedAtCompletion.set(emitted.size());
+                    return null;
+                })
+                .when(observer)
+                .onCompleted();
+        when(observer.isReady()).thenReturn(true);
+        try {
+            PipelineConductor pipelineConductor = new PipelineConductor(workers, 20, observer);
+            ReadyDrivenConductorDriver cut = new ReadyDrivenConductorDriver(
+                    pipelineConductor, observer, scheduler, Duration.ofMillis(5), 3);
+
+            cut.start().get(5, TimeUnit.SECONDS);
+
+            assertEquals(20, emittedAtCompletion.get());
+            for (int i = 0; i < 20; i++) {
+                assertEquals("record-" + i, emitted.get(i));
+            }
+            assertTrue(pipelineConductor.closed);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectedScheduler_finishesWithError() {
+        scheduler.shutdownNow();
+        when(conductor.continueProcessing()).thenReturn(true);
+
+        CompletableFuture<Void> done = driver(10).start();
+
+        assertTrue(done.isCompletedExceptionally());
+        verify(conductor).close();
+    }
+
+    /**
+     * Submits a fixed number of records to a parallel pipeline whose stage is slow, so records are still in flight
+     * when the source runs out.
+     */
+    private static final class PipelineConductor implements MessageConductor {
+        private final OrderedParallelPipeline<Integer, String> pipeline;
+        private final int records;
+        private int submitted;
+        private volatile boolean closed;
+
+        PipelineConductor(ExecutorService workers, int records, StreamObservable<String> observer) {
+            this.pipeline = new OrderedParallelPipeline<>(
+                    workers,
+                    records,
+                    record -> {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(20));
+                        return "record-" + record;
+                    },
+                    observer::onNext);
+            this.records = records;
+        }
+
+        @Override
+        public void processMessages() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void processMessage() {
+            pipeline.submit(submitted++);
+        }
+
+        @Override
+        public boolean processAvailableMessage() {
+            processMessage();
+            return true;
+        }
+
+        @Override
+        public void finishProcessing() {
+            pipeline.drain();
+        }
+
+        @Override
+        public boolean continueProcessing() {
+            return submitted < records;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            pipeline.close();
+        }
+    }
+}
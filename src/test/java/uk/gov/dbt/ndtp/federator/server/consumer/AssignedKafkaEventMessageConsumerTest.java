@@ -0,0 +1,150 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.server.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import uk.gov.dbt.ndtp.secure.agent.sources.kafka.KafkaEvent;
+
+class AssignedKafkaEventMessageConsumerTest {
+
+    private static final String TOPIC = "TOPIC";
+    private static final TopicPartition P0 = new TopicPartition(TOPIC, 0);
+    private static final TopicPartition P1 = new TopicPartition(TOPIC, 1);
+    private static final String OTHER_TOPIC = "OTHER_TOPIC";
+    private static final TopicPartition OTHER_P0 = new TopicPartition(OTHER_TOPIC, 0);
+    private static final Duration POLL = Duration.ofMillis(10);
+
+    private final MockConsumer<String, String> mockConsumer = new MockConsumer<>("earliest");
+
+    @Test
+    void offsetZero_assignsWithoutGroupAndReadsFromBeginning() {
+        withPartitions(Map.of(P0, 3L));
+
+        AssignedKafkaEventMessageConsumer<String, String> underTest =
+                new AssignedKafkaEventMessageConsumer<>(mockConsumer, TOPIC, 0L, POLL, Duration.ofMinutes(1));
+        for (long offset = 0; offset < 3; offset++) {
+            mockConsumer.addRecord(new ConsumerRecord<>(TOPIC, 0, offset, "key" + offset, "value" + offset));
+        }
+
+        assertEquals(Set.of(P0), mockConsumer.assignment());
+        assertTrue(mockConsumer.subscription().isEmpty());
+        for (long offset = 0; offset < 3; offset++) {
+            KafkaEvent<String, String> event = underTest.getNextMessage();
+            assertEquals("value" + offset, event.value());
+        }
+        assertNull(underTest.getAvailableMessage());
+        assertTrue(underTest.stillAvailable());
+    }
+
+    @Test
+    void offset_isSoughtOnEveryPartitionAndClampedToPartitionEnd() {
+        withPartitions(Map.of(P0, 10L, P1, 3L));
+
+        new AssignedKafkaEventMessageConsumer<>(mockConsumer, TOPIC, 5L, POLL, Duration.ofMinutes(1));
+
+        assertEquals(Set.of(P0, P1), mockConsumer.assignment());
+        assertEquals(5L, mockConsumer.position(P0));
+        assertEquals(3L, mockConsumer.position(P1));
+    }
+
+    @Test
+    void multipleTopics_areAssignedTogetherEachFromItsOwnOffset() {
+        withPartitions(Map.of(P0, 10L));
+        withPartitions(OTHER_TOPIC, Map.of(OTHER_P0, 10L));
+
+        AssignedKafkaEventMessageConsumer<String, String> underTest = new AssignedKafkaEventMessageConsumer<>(
+                mockConsumer, Map.of(TOPIC, 4L, OTHER_TOPIC, 7L), POLL, Duration.ofMinutes(1));
+        mockConsumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 4L, "key", "from-topic"));
+        mockConsumer.addRecord(new ConsumerRecord<>(OTHER_TOPIC, 0, 7L, "key", "from-other"));
+
+        assertEquals(Set.of(P0, OTHER_P0), mockConsumer.assignment());
+        assertEquals(4L, mockConsumer.position(P0));
+        assertEquals(7L, mockConsumer.position(OTHER_P0));
+        Set<String> topics = new HashSet<>();
+        topics.add(underTest.getNextMessage().getConsumerRecord().topic());
+        topics.add(underTest.getNextMessage().getConsumerRecord().topic());
+        assertEquals(Set.of(TOPIC, OTHER_TOPIC), topics);
+    }
+
+    @Test
+    void multipleTopics_skipTopicsWithoutPartitions() {
+        withPartitions(Map.of(P0, 3L));
+        mockConsumer.updatePartitions(OTHER_TOPIC, List.of());
+
+        AssignedKafkaEventMessageConsumer<String, String> underTest = new AssignedKafkaEventMessageConsumer<>(
+                mockConsumer, Map.of(TOPIC, 0L, OTHER_TOPIC, 0L), POLL, Duration.ofMinutes(1));
+
+        assertEquals(Set.of(P0), mockConsumer.assignment());
+        assertTrue(underTest.stillAvailable());
+    }
+
+    @Test
+    void topicWithoutPartitions_isNotAvailable() {
+        mockConsumer.updatePartitions(TOPIC, List.of());
+
+        AssignedKafkaEventMessageConsumer<String, String> underTest =
+                new AssignedKafkaEventMessageConsumer<>(mockConsumer, TOPIC, 0L, POLL, Duration.ofMinutes(1));
+
+        assertFalse(underTest.stillAvailable());
+        assertNull(underTest.getNextMessage());
+        assertTrue(mockConsumer.closed());
+    }
+
+    @Test
+    void inactivityTimeout_closesConsumer() {
+        withPartitions(Map.of(P0, 0L));
+
+        AssignedKafkaEventMessageConsumer<String, String> underTest =
+                new AssignedKafkaEventMessageConsumer<>(mockConsumer, TOPIC, 0L, POLL, Duration.ZERO);
+
+        assertFalse(underTest.stillAvailable());
+        assertTrue(mockConsumer.closed());
+    }
+
+    @Test
+    void following_ignoresInactivity() {
+        withPartitions(Map.of(P0, 0L));
+
+        AssignedKafkaEventMessageConsumer<String, String> underTest =
+                new AssignedKafkaEventMessageConsumer<>(mockConsumer, TOPIC, 0L, POLL, null);
+
+        assertNull(underTest.getNextMessage());
+        assertTrue(underTest.stillAvailable());
+        underTest.close();
+        assertFalse(underTest.stillAvailable());
+        assertTrue(mockConsumer.closed());
+    }
+
+    private void withPartitions(Map<TopicPartition, Long> endOffsets) {
+        withPartitions(TOPIC, endOffsets);
+    }
+
+    private void withPartitions(String topic, Map<TopicPartition, Long> endOffsets) {
+        mockConsumer.updatePartitions(
+                topic,
+                endOffsets.keySet().stream()
+                        .map(partition -> new PartitionInfo(topic, partition.partition(), null, null, null))
+                        .toList());
+        Map<TopicPartition, Long> beginningOffsets = new HashMap<>();
+        endOffsets.keySet().forEach(partition -> beginningOffsets.put(partition, 0L));
+        mockConsumer.updateBeginningOffsets(beginningOffsets);
+        mockConsumer.updateEndOffsets(endOffsets);
+    }
+}
@@ -28,6 +28,7 @@ package uk.gov.dbt.ndtp.federator.server.consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -118,6 +119,24 @@ class KafkaEventMessageConsumerTest {
         }
     }
 
+    @Test
+    void stillAvailable_ignores_inactivity_timeout_when_following() {
+        reset(mockEventSource);
+        when(mockEventSource.isClosed()).thenReturn(false);
+
+        try (MockedStatic<PropertyUtil> mockedProps = Mockito.mockStatic(PropertyUtil.class)) {
+            mockedProps
+                    .when(() -> PropertyUtil.getPropertyDurationValue(anyString(), anyString()))
+                    .thenReturn(Duration.ZERO);
+
+            KafkaEventMessageConsumer<String, String> consumer = new KafkaEventMessageConsumer<>(
+                    StringDeserializer.class, StringDeserializer.class, "TOPIC", 0L, "CLIENT", true);
+
+            assertTrue(consumer.stillAvailable(), "A followed consumer stays open however long it is idle");
+            verify(mockEventSource, never()).close();
+        }
+    }
+
     @Test
     void close_delegates_to_underlying_source() {
         KafkaEventMessageConsumer<String, String> consumer = new KafkaEventMessageConsumer<>(
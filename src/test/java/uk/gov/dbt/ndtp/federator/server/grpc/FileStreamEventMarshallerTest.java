@@ -0,0 +1,132 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * © Crown Copyright 2026. This work has been developed by the National Digital Twin Programme and is legally
+ * attributed to the Department for Business and Trade (UK) as the governing entity.
+ */
+
+package uk.gov.dbt.ndtp.federator.server.grpc;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.protobuf.UnsafeByteOperations;
+import io.grpc.Drainable;
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerServiceDefinition;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import uk.gov.dbt.ndtp.grpc.FederatorServiceGrpc;
+import uk.gov.dbt.ndtp.grpc.FileChunk;
+import uk.gov.dbt.ndtp.grpc.FileStreamEvent;
+import uk.gov.dbt.ndtp.grpc.StreamWarning;
+
+class FileStreamEventMarshallerTest {
+
+    private final FileStreamEventMarshaller marshaller = new FileStreamEventMarshaller();
+
+    private static FileStreamEvent dataChunk(int size) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) (i * 31);
+        }
+        return FileStreamEvent.newBuilder()
+                .setChunk(FileChunk.newBuilder()
+                        .setFileName("file.bin")
+                        .setChunkData(UnsafeByteOperations.unsafeWrap(data))
+                        .setChunkIndex(3)
+                        .setTotalChunks(9)
+                        .setFileSize(9L * size)
+                        .setFileSequenceId(42L)
+                        .setChunkOffset(3L * size))
+                .build();
+    }
+
+    @Test
+    void drainTo_producesParseableEventOfKnownLength() throws Exception {
+        FileStreamEvent event = dataChunk(1 << 20);
+
+        InputStream stream = marshaller.stream(event);
+        assertInstanceOf(Drainable.class, stream);
+        assertInstanceOf(KnownLength.class, stream);
+        assertEquals(event.getSerializedSize(), stream.available());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int written = ((Drainable) stream).drainTo(out);
+
+        assertEquals(event.getSerializedSize(), written);
+        assertEquals(0, stream.available());
+        assertEquals(event, FileStreamEvent.parseFrom(out.toByteArray()));
+    }
+
+    @Test
+    void read_matchesDrainedBytes() throws Exception {
+        FileStreamEvent event = dataChunk(1000);
+
+        byte[] read = marshaller.stream(event).readAllBytes();
+        ByteArrayOutputStream drained = new ByteArrayOutputStream();
+        ((Drainable) marshaller.stream(event)).drainTo(drained);
+
+        assertArrayEquals(drained.toByteArray(), read);
+        assertEquals(event, marshaller.parse(marshaller.stream(event)));
+    }
+
+    @Test
+    void drainTo_afterPartialRead_writesOnlyTheRest() throws Exception {
+        FileStreamEvent event = dataChunk(100);
+        byte[] expected = marshaller.stream(event).readAllBytes();
+
+        InputStream stream = marshaller.stream(event);
+        byte[] head = stream.readNBytes(expected.length - 10);
+        ByteArrayOutputStream tail = new ByteArrayOutputStream();
+        int written = ((Drainable) stream).drainTo(tail);
+
+        assertEquals(10, written);
+        ByteArrayOutputStream joined = new ByteArrayOutputStream();
+        joined.write(head);
+        joined.write(tail.toByteArray());
+        assertArrayEquals(expected, joined.toByteArray());
+    }
+
+    @Test
+    void eventsWithoutPayload_useGeneratedEncoding() throws Exception {
+        FileStreamEvent last = FileStreamEvent.newBuilder()
+                .setChunk(FileChunk.newBuilder()
+                        .setFileName("file.bin")
+                        .setIsLastChunk(true)
+                        .setFileChecksum("abc"))
+                .build();
+        FileStreamEvent warning = FileStreamEvent.newBuilder()
+                .setWarning(StreamWarning.newBuilder().setSkippedSequenceId(7L).setReason("VALIDATION"))
+                .build();
+
+        assertArrayEquals(last.toByteArray(), marshaller.stream(last).readAllBytes());
+        assertArrayEquals(warning.toByteArray(), marshaller.stream(warning).readAllBytes());
+    }
+
+    @Test
+    void bindTo_replacesOnlyFileStreamResponseMarshaller() {
+        ServerServiceDefinition original = new EmptyFederatorService().bindService();
+
+        ServerServiceDefinition bound = FileStreamEventMarshaller.bindTo(original);
+
+        MethodDescriptor<?, ?> files = bound.getMethod(
+                        FederatorServiceGrpc.getGetFilesStreamMethod().getFullMethodName())
+                .getMethodDescriptor();
+        MethodDescriptor<?, ?> topics = bound.getMethod(
+                        FederatorServiceGrpc.getGetKafkaConsumerMethod().getFullMethodName())
+                .getMethodDescriptor();
+        assertInstanceOf(FileStreamEventMarshaller.class, files.getResponseMarshaller());
+        assertSame(FederatorServiceGrpc.getGetKafkaConsumerMethod(), topics);
+        assertEquals(
+                Set.copyOf(original.getServiceDescriptor().getMethods().stream()
+                        .map(MethodDescriptor::getFullMethodName)
+                        .toList()),
+                Set.copyOf(bound.getServiceDescriptor().getMethods().stream()
+                        .map(MethodDescriptor::getFullMethodName)
+                        .toList()));
+    }
+
+    private static final class EmptyFederatorService extends FederatorServiceGrpc.FederatorServiceImplBase {}
+}
@@ -0,0 +1,118 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * © Crown Copyright 2026. This work has been developed by the National Digital Twin Programme and is legally
+ * attributed to the Department for Business and Trade (UK) as the governing entity.
+ */
+
+package uk.gov.dbt.ndtp.federator.server.grpc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class ReadyDrivenServerCallStreamObserverTest {
+
+    @SuppressWarnings("unchecked")
+    private final ServerCallStreamObserver<String> mockObserver = mock(ServerCallStreamObserver.class);
+
+    @Test
+    void constructor_requiresNonNullDelegate() {
+        assertThrows(NullPointerException.class, () -> new ReadyDrivenServerCallStreamObserver<>(null));
+    }
+
+    @Test
+    void isReadyDriven_isTrue() {
+        assertTrue(new ReadyDrivenServerCallStreamObserver<>(mockObserver).isReadyDriven());
+    }
+
+    @Test
+    void onNext_whenNotReady_sendsWithoutBlocking() {
+        when(mockObserver.isReady()).thenReturn(false);
+        ReadyDrivenServerCallStreamObserver<String> observer = new ReadyDrivenServerCallStreamObserver<>(mockObserver);
+
+        observer.onNext("test");
+
+        verify(mockObserver).onNext("test");
+    }
+
+    @Test
+    void onNext_whenClosed_throwsCancelledException() {
+        ReadyDrivenServerCallStreamObserver<String> observer = new ReadyDrivenServerCallStreamObserver<>(mockObserver);
+        observer.onCompleted();
+
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class, () -> observer.onNext("test"));
+        assertEquals(Status.Code.CANCELLED, ex.getStatus().getCode());
+    }
+
+    @Test
+    void isReady_falseOnceClosed() {
+        when(mockObserver.isReady()).thenReturn(true);
+        ReadyDrivenServerCallStreamObserver<String> observer = new ReadyDrivenServerCallStreamObserver<>(mockObserver);
+        assertTrue(observer.isReady());
+
+        observer.onError(new RuntimeException("boom"));
+
+        assertFalse(observer.isReady());
+        assertTrue(observer.isCancelled());
+    }
+
+    @Test
+    void onReady_invokesExternalHandler() {
+        ArgumentCaptor<Runnable> readyCaptor = ArgumentCaptor.forClass(Runnable.class);
+        ReadyDrivenServerCallStreamObserver<String> observer = new ReadyDrivenServerCallStreamObserver<>(mockObserver);
+        verify(mockObserver).setOnReadyHandler(readyCaptor.capture());
+        AtomicInteger calls = new AtomicInteger();
+        observer.setOnReadyHandler(calls::incrementAndGet);
+
+        readyCaptor.getValue().run();
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void onReady_swallowsHandlerFailure() {
+        ArgumentCaptor<Runnable> readyCaptor = ArgumentCaptor.forClass(Runnable.class);
+        ReadyDrivenServerCallStreamObserver<String> observer = new ReadyDrivenServerCallStreamObserver<>(mockObserver);
+        verify(mockObserver).setOnReadyHandler(readyCaptor.capture());
+        observer.setOnReadyHandler(() -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertDoesNotThrow(() -> readyCaptor.getValue().run());
+    }
+
+    @Test
+    void onCancel_marksCancelledAndWakesReadyHandler() {
+        ArgumentCaptor<Runnable> cancelCaptor = ArgumentCaptor.forClass(Runnable.class);
+        ReadyDrivenServerCallStreamObserver<String> observer = new ReadyDrivenServerCallStreamObserver<>(mockObserver);
+        verify(mockObserver).setOnCancelHandler(cancelCaptor.capture());
+        AtomicInteger cancels = new AtomicInteger();
+        AtomicInteger readies = new AtomicInteger();
+        observer.setOnCancelHandler(cancels::incrementAndGet);
+        observer.setOnReadyHandler(readies::incrementAndGet);
+
+        cancelCaptor.getValue().run();
+
+        assertTrue(observer.isCancelled());
+        assertEquals(1, cancels.get());
+        assertEquals(1, readies.get());
+    }
+
+    @Test
+    void terminalSignals_areIdempotent() {
+        ReadyDrivenServerCallStreamObserver<String> observer = new ReadyDrivenServerCallStreamObserver<>(mockObserver);
+
+        observer.onCompleted();
+        observer.onCompleted();
+        observer.onError(new RuntimeException("late"));
+
+        verify(mockObserver, times(1)).onCompleted();
+        verify(mockObserver, never()).onError(any());
+    }
+}
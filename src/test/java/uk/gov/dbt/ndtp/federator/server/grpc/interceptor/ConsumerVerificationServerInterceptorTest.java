@@ -28,6 +28,7 @@ import uk.gov.dbt.ndtp.federator.common.model.dto.ProducerConfigDTO;
 import uk.gov.dbt.ndtp.federator.common.model.dto.ProducerDTO;
 import uk.gov.dbt.ndtp.federator.common.model.dto.ProductDTO;
 import uk.gov.dbt.ndtp.federator.common.service.config.ProducerConfigService;
+import uk.gov.dbt.ndtp.federator.common.service.config.exception.ConfigFetchException;
 import uk.gov.dbt.ndtp.federator.common.service.idp.IdpTokenService;
 import uk.gov.dbt.ndtp.federator.common.utils.ProducerConsumerConfigServiceFactory;
 
@@ -244,6 +245,34 @@ class ConsumerVerificationServerInterceptorTest {
         }
     }
 
+    @Test
+    void interceptCall_closesUnavailable_whenConfigurationCannotBeFetched() {
+        when(idpTokenService.extractClientIdFromToken(any())).thenReturn("consumer-1");
+
+        ProducerConfigService mockSvc = mock(ProducerConfigService.class);
+        try (MockedStatic<ProducerConsumerConfigServiceFactory> mocked =
+                Mockito.mockStatic(ProducerConsumerConfigServiceFactory.class)) {
+            mocked.when(ProducerConsumerConfigServiceFactory::getProducerConfigService)
+                    .thenReturn(mockSvc);
+            when(mockSvc.getProducerConfiguration()).thenThrow(new ConfigFetchException("management node down"));
+
+            Metadata headers = new Metadata();
+            Metadata.Key<String> authorization = Metadata.Key.of("Authorization", Metadata.ASCII_STRING_MARSHALLER);
+            headers.put(authorization, "Bearer token");
+
+            @SuppressWarnings("unchecked")
+            ServerCall<String, String> call = mock(ServerCall.class);
+            @SuppressWarnings("unchecked")
+            ServerCallHandler<String, String> next = mock(ServerCallHandler.class);
+
+            ServerCall.Listener<String> listener = cut.interceptCall(call, headers, next);
+
+            assertNotNull(listener);
+            verify(call).close(argThat(status -> status.getCode() == Status.Code.UNAVAILABLE), any());
+            verify(next, never()).startCall(any(), any());
+        }
+    }
+
     @Test
     void interceptCall_proceeds_whenAuthorized() {
         // given
@@ -0,0 +1,80 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.server.processor.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveChunkSizerTest {
+
+    private static final long TARGET_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private AdaptiveChunkSizer sizer(int min, int max, int initial) {
+        return new AdaptiveChunkSizer(min, max, initial, Duration.ofNanos(TARGET_NANOS));
+    }
+
+    @Test
+    void fixed_neverChanges() {
+        AdaptiveChunkSizer cut = AdaptiveChunkSizer.fixed(1000);
+
+        cut.record(1000, 0);
+        cut.record(1000, TimeUnit.SECONDS.toNanos(10));
+
+        assertFalse(cut.isAdaptive());
+        assertEquals(1000, cut.nextChunkSize());
+        assertEquals(-1, cut.observedBytesPerSecond());
+    }
+
+    @Test
+    void fastSends_doubleUpToMax() {
+        AdaptiveChunkSizer cut = sizer(1024, 8192, 1024);
+
+        for (int i = 0; i < 10; i++) {
+            cut.record(cut.nextChunkSize(), 0);
+        }
+
+        assertTrue(cut.isAdaptive());
+        assertEquals(8192, cut.nextChunkSize());
+    }
+
+    @Test
+    void slowSends_shrinkTowardsThroughputTimesTarget() {
+        AdaptiveChunkSizer cut = sizer(1024, 1 << 20, 1 << 20);
+
+        // 1 MiB taking 2 s is ~512 KiB/s, so ~100 KiB fits the 200 ms target; steps halve at most
+        cut.record(1 << 20, TimeUnit.SECONDS.toNanos(2));
+        assertEquals(1 << 19, cut.nextChunkSize());
+
+        for (int i = 0; i < 10; i++) {
+            int size = cut.nextChunkSize();
+            cut.record(size, (long) size * TimeUnit.SECONDS.toNanos(2) / (1 << 20));
+        }
+
+        assertEquals(104857, cut.nextChunkSize(), 1024);
+        assertEquals(524288, cut.observedBytesPerSecond(), 1024);
+    }
+
+    @Test
+    void sizeStaysWithinBounds() {
+        AdaptiveChunkSizer cut = sizer(4096, 8192, 100);
+        assertEquals(4096, cut.nextChunkSize());
+
+        cut.record(4096, TimeUnit.SECONDS.toNanos(60));
+
+        assertEquals(4096, cut.nextChunkSize());
+    }
+
+    @Test
+    void invalidBounds_areRejected() {
+        assertThrows(IllegalArgumentException.class, () -> sizer(0, 10, 5));
+        assertThrows(IllegalArgumentException.class, () -> sizer(10, 5, 5));
+    }
+}
@@ -0,0 +1,87 @@
+// SPDX-License-Identifier: Apache-2.0
+// © Crown Copyright 2025. This work has been developed by the National Digital Twin Programme
+// and is legally attributed to the Department for Business and Trade (UK) as the governing entity.
+
+package uk.gov.dbt.ndtp.federator.server.processor.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.google.protobuf.ByteString;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import uk.gov.dbt.ndtp.federator.server.interfaces.StreamObservable;
+import uk.gov.dbt.ndtp.grpc.BundledFile;
+import uk.gov.dbt.ndtp.grpc.FileStreamEvent;
+
+class FileBundlerTest {
+
+    private StreamObservable<FileStreamEvent> observer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        observer = mock(StreamObservable.class);
+    }
+
+    @Test
+    void add_sendsBundleWhenFileLimitReached() {
+        FileBundler bundler = new FileBundler(2, 1000, 100);
+
+        bundler.add(file(1L, 10), observer);
+        verify(observer, never()).onNext(any());
+        bundler.add(file(2L, 10), observer);
+
+        assertEquals(List.of(2), sentBundleSizes(1));
+        assertEquals(0, bundler.pendingFiles());
+    }
+
+    @Test
+    void add_sendsPendingBundleBeforeExceedingByteLimit() {
+        FileBundler bundler = new FileBundler(10, 100, 100);
+
+        bundler.add(file(1L, 60), observer);
+        bundler.add(file(2L, 60), observer);
+
+        assertEquals(List.of(1), sentBundleSizes(1));
+        assertEquals(1, bundler.pendingFiles());
+    }
+
+    @Test
+    void flush_sendsNothingWhenEmpty() {
+        FileBundler bundler = new FileBundler(10, 100, 100);
+
+        bundler.flush(observer);
+
+        verify(observer, never()).onNext(any());
+    }
+
+    @Test
+    void maxFileSize_isCappedByByteLimit() {
+        assertEquals(50, new FileBundler(10, 50, 100).maxFileSize());
+        assertThrows(IllegalArgumentException.class, () -> new FileBundler(0, 50, 100));
+    }
+
+    private List<Integer> sentBundleSizes(int bundles) {
+        ArgumentCaptor<FileStreamEvent> captor = ArgumentCaptor.forClass(FileStreamEvent.class);
+        verify(observer, times(bundles)).onNext(captor.capture());
+        return captor.getAllValues().stream()
+                .map(event -> event.getBundle().getFilesCount())
+                .toList();
+    }
+
+    private static BundledFile file(long sequenceId, int size) {
+        return BundledFile.newBuilder()
+                .setFileName("file-" + sequenceId)
+                .setFileSequenceId(sequenceId)
+                .setData(ByteString.copyFrom(new byte[size]))
+                .build();
+    }
+}
@@ -10,8 +10,10 @@ import io.grpc.StatusRuntimeException;
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.CRC32C;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
@@ -19,7 +21,11 @@ import uk.gov.dbt.ndtp.federator.common.model.FileTransferRequest;
 import uk.gov.dbt.ndtp.federator.common.model.SourceType;
 import uk.gov.dbt.ndtp.federator.common.storage.provider.file.FileProvider;
 import uk.gov.dbt.ndtp.federator.common.storage.provider.file.FileProviderFactory;
+import uk.gov.dbt.ndtp.federator.common.utils.FileChecksums;
 import uk.gov.dbt.ndtp.federator.server.interfaces.StreamObservable;
+import uk.gov.dbt.ndtp.grpc.BundledFile;
+import uk.gov.dbt.ndtp.grpc.FileBundle;
+import uk.gov.dbt.ndtp.grpc.FileChecksumAlgorithm;
 import uk.gov.dbt.ndtp.grpc.FileChunk;
 import uk.gov.dbt.ndtp.grpc.FileStreamEvent;
 
@@ -72,6 +78,7 @@ class FileChunkStreamerTest {
             digest.update(data);
             String expectedChecksum = bytesToHex(digest.digest());
             assertEquals(expectedChecksum, last.getFileChecksum());
+            assertEquals(FileChecksumAlgorithm.SHA_256, last.getChecksumAlgorithm());
 
             // Check data chunks consistency
             int totalChunks = (int) (fileSize / chunkSize + (fileSize % chunkSize == 0 ? 0 : 1));
@@ -96,6 +103,291 @@ class FileChunkStreamerTest {
         }
     }
 
+    @Test
+    void test_stream_adaptive_carriesOffsetsAndFinalCount() throws Exception {
+        byte[] data = new byte[1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        FileProvider mockFetcher = mock(FileProvider.class);
+        when(mockFetcher.get(any())).thenReturn(new FileTransferResult(new ByteArrayInputStream(data), data.length));
+
+        try (MockedStatic<FileProviderFactory> mockedFactory = Mockito.mockStatic(FileProviderFactory.class)) {
+            mockedFactory.when(() -> FileProviderFactory.getProvider(any())).thenReturn(mockFetcher);
+
+            // onNext never blocks here, so the chunk size doubles from 16 up to the 256 cap
+            FileChunkStreamer cut = new FileChunkStreamer(new AdaptiveChunkSizer(16, 256, 16, Duration.ofSeconds(1)));
+            CapturingObserver observer = new CapturingObserver();
+
+            cut.stream(3L, new FileTransferRequest(SourceType.LOCAL, null, "adaptive.bin"), observer);
+
+            assertNull(observer.error);
+            List<FileChunk> dataChunks = observer.chunks.subList(0, observer.chunks.size() - 1);
+            assertEquals(16, dataChunks.get(0).getChunkData().size());
+            assertEquals(32, dataChunks.get(1).getChunkData().size());
+            long expectedOffset = 0;
+            ByteString joined = ByteString.EMPTY;
+            for (FileChunk c : dataChunks) {
+                assertEquals(expectedOffset, c.getChunkOffset());
+                assertEquals(0, c.getTotalChunks());
+                expectedOffset += c.getChunkData().size();
+                joined = joined.concat(c.getChunkData());
+            }
+            assertArrayEquals(data, joined.toByteArray());
+
+            FileChunk last = observer.chunks.get(observer.chunks.size() - 1);
+            assertTrue(last.getIsLastChunk());
+            assertEquals(dataChunks.size(), last.getTotalChunks());
+            assertEquals(dataChunks.size(), last.getChunkIndex());
+        }
+    }
+
+    @Test
+    void test_stream_withChunkChecksums_setsCrc32cOnDataChunks() {
+        byte[] data = "checksummed chunk payload".getBytes(StandardCharsets.UTF_8);
+        FileProvider mockFetcher = mock(FileProvider.class);
+        when(mockFetcher.get(any())).thenReturn(new FileTransferResult(new ByteArrayInputStream(data), data.length));
+
+        try (MockedStatic<FileProviderFactory> mockedFactory = Mockito.mockStatic(FileProviderFactory.class)) {
+            mockedFactory.when(() -> FileProviderFactory.getProvider(any())).thenReturn(mockFetcher);
+
+            FileChunkStreamer cut = new FileChunkStreamer(AdaptiveChunkSizer.fixed(8), true);
+            CapturingObserver observer = new CapturingObserver();
+
+            cut.stream(4L, new FileTransferRequest(SourceType.LOCAL, null, "crc.txt"), observer);
+
+            assertNull(observer.error);
+            List<FileChunk> dataChunks = observer.chunks.subList(0, observer.chunks.size() - 1);
+            for (FileChunk c : dataChunks) {
+                assertTrue(c.hasChunkCrc32C());
+                assertEquals(crc32c(c.getChunkData().toByteArray()), c.getChunkCrc32C());
+            }
+            assertFalse(observer.chunks.get(observer.chunks.size() - 1).hasChunkCrc32C());
+        }
+    }
+
+    @Test
+    void test_stream_withoutChunkChecksums_leavesCrc32cUnset() {
+        byte[] data = "plain".getBytes(StandardCharsets.UTF_8);
+        FileProvider mockFetcher = mock(FileProvider.class);
+        when(mockFetcher.get(any())).thenReturn(new FileTransferResult(new ByteArrayInputStream(data), data.length));
+
+        try (MockedStatic<FileProviderFactory> mockedFactory = Mockito.mockStatic(FileProviderFactory.class)) {
+            mockedFactory.when(() -> FileProviderFactory.getProvider(any())).thenReturn(mockFetcher);
+
+            CapturingObserver observer = new CapturingObserver();
+            new FileChunkStreamer(4).stream(4L, new FileTransferRequest(SourceType.LOCAL, null, "p.txt"), observer);
+
+            assertFalse(observer.chunks.get(0).hasChunkCrc32C());
+        }
+    }
+
+    @Test
+    void test_stream_withFastChecksum_namesAlgorithmOnLastChunk() {
+        byte[] data = new byte[3000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 7);
+        }
+        FileProvider mockFetcher = mock(FileProvider.class);
+        when(mockFetcher.get(any())).thenReturn(new FileTransferResult(new ByteArrayInputStream(data), data.length));
+
+        try (MockedStatic<FileProviderFactory> mockedFactory = Mockito.mockStatic(FileProviderFactory.class)) {
+            mockedFactory.when(() -> FileProviderFactory.getProvider(any())).thenReturn(mockFetcher);
+
+            CapturingObserver observer = new CapturingObserver();
+            new FileChunkStreamer(512)
+                    .stream(
+                            5L,
+                            new FileTransferRequest(SourceType.LOCAL, null, "fast.bin"),
+                            FileChecksumAlgorithm.XXH64_TREE,
+                            observer);
+
+            FileChunk last = observer.chunks.get(observer.chunks.size() - 1);
+            assertTrue(last.getIsLastChunk());
+            assertEquals(FileChecksumAlgorithm.XXH64_TREE, last.getChecksumAlgorithm());
+            assertEquals(FileChecksums.calculate(data, FileChecksumAlgorithm.XXH64_TREE), last.getFileChecksum());
+        }
+    }
+
+    @Test
+    void test_streamRange_sendsOnlyRequestedBytesWithOffsetsAndCrc() {
+        byte[] data = new byte[100];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        FileProvider mockFetcher = mock(FileProvider.class);
+        when(mockFetcher.get(any())).thenReturn(new FileTransferResult(new ByteArrayInputStream(data), data.length));
+
+        try (MockedStatic<FileProviderFactory> mockedFactory = Mockito.mockStatic(FileProviderFactory.class)) {
+            mockedFactory.when(() -> FileProviderFactory.getProvider(any())).thenReturn(mockFetcher);
+
+            FileChunkStreamer cut = new FileChunkStreamer(16);
+            CapturingObserver observer = new CapturingObserver();
+
+            cut.streamRange(9L, new FileTransferRequest(SourceType.LOCAL, null, "range.bin"), 40, 20, observer);
+
+            assertNull(observer.error);
+            assertEquals(2, observer.chunks.size(), "16 + 4 bytes and no last chunk");
+            assertEquals(40, observer.chunks.get(0).getChunkOffset());
+            assertEquals(56, observer.chunks.get(1).getChunkOffset());
+            ByteString joined = ByteString.EMPTY;
+            for (FileChunk c : observer.chunks) {
+                assertFalse(c.getIsLastChunk());
+                assertEquals(9L, c.getFileSequenceId());
+                assertEquals(crc32c(c.getChunkData().toByteArray()), c.getChunkCrc32C());
+                joined = joined.concat(c.getChunkData());
+            }
+            assertArrayEquals(copyOfRange(data, 40, 60), joined.toByteArray());
+        }
+    }
+
+    @Test
+    void test_streamRange_unknownFileSize_skipsToRangeOffset() {
+        byte[] data = new byte[100];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        FileProvider mockFetcher = mock(FileProvider.class);
+        when(mockFetcher.get(any())).thenReturn(new FileTransferResult(new ByteArrayInputStream(data), -1L));
+
+        try (MockedStatic<FileProviderFactory> mockedFactory = Mockito.mockStatic(FileProviderFactory.class)) {
+            mockedFactory.when(() -> FileProviderFactory.getProvider(any())).thenReturn(mockFetcher);
+            CapturingObserver observer = new CapturingObserver();
+
+            new FileChunkStreamer(16)
+                    .streamRange(9L, new FileTransferRequest(SourceType.LOCAL, null, "range.bin"), 40, 20, observer);
+
+            assertNull(observer.error);
+            assertEquals(40, observer.chunks.get(0).getChunkOffset());
+            ByteString joined = ByteString.EMPTY;
+            for (FileChunk c : observer.chunks) {
+                joined = joined.concat(c.getChunkData());
+            }
+            assertArrayEquals(copyOfRange(data, 40, 60), joined.toByteArray());
+        }
+    }
+
+    @Test
+    void test_streamRange_pastEndOfFile_sendsNothing() {
+        byte[] data = new byte[100];
+        FileProvider mockFetcher = mock(FileProvider.class);
+        when(mockFetcher.get(any())).thenReturn(new FileTransferResult(new ByteArrayInputStream(data), -1L));
+
+        try (MockedStatic<FileProviderFactory> mockedFactory = Mockito.mockStatic(FileProviderFactory.class)) {
+            mockedFactory.when(() -> FileProviderFactory.getProvider(any())).thenReturn(mockFetcher);
+            CapturingObserver observer = new CapturingObserver();
+
+            new FileChunkStreamer(16)
+                    .streamRange(9L, new FileTransferRequest(SourceType.LOCAL, null, "range.bin"), 150, 20, observer);
+
+            assertNull(observer.error);
+            assertTrue(observer.chunks.isEmpty());
+        }
+    }
+
+    @Test
+    void test_bundleOrStream_smallFile_bundledWholeWithChecksumFromOneFetch() {
+        byte[] data = "small file".getBytes(StandardCharsets.UTF_8);
+        FileProvider mockFetcher = mock(FileProvider.class);
+        when(mockFetcher.get(any())).thenReturn(new FileTransferResult(new ByteArrayInputStream(data), data.length));
+
+        try (MockedStatic<FileProviderFactory> mockedFactory = Mockito.mockStatic(FileProviderFactory.class)) {
+            mockedFactory.when(() -> FileProviderFactory.getProvider(any())).thenReturn(mockFetcher);
+            FileBundler bundler = new FileBundler(10, 1000, data.length);
+            CapturingObserver observer = new CapturingObserver();
+
+            new FileChunkStreamer(4)
+                    .bundleOrStream(
+                            11L,
+                            new FileTransferRequest(SourceType.LOCAL, null, "/dir/small.txt"),
+                            FileChecksumAlgorithm.SHA_256,
+                            bundler,
+                            observer);
+            bundler.flush(observer);
+
+            verify(mockFetcher, times(1)).get(any());
+            assertTrue(observer.chunks.isEmpty());
+            assertEquals(1, observer.bundles.size());
+            BundledFile file = observer.bundles.get(0).getFiles(0);
+            assertEquals("small.txt", file.getFileName());
+            assertEquals(11L, file.getFileSequenceId());
+            assertArrayEquals(data, file.getData().toByteArray());
+            assertEquals(FileChecksums.calculate(data, FileChecksumAlgorithm.SHA_256), file.getFileChecksum());
+        }
+    }
+
+    @Test
+    void test_bundleOrStream_largeOrUnknownSize_sendsPendingBundleThenStreamsFromOneFetch() {
+        byte[] data = new byte[100];
+        FileProvider mockFetcher = mock(FileProvider.class);
+        when(mockFetcher.get(any()))
+                .thenReturn(new FileTransferResult(new ByteArrayInputStream(data), data.length))
+                .thenReturn(new FileTransferResult(new ByteArrayInputStream(data), -1));
+
+        try (MockedStatic<FileProviderFactory> mockedFactory = Mockito.mockStatic(FileProviderFactory.class)) {
+            mockedFactory.when(() -> FileProviderFactory.getProvider(any())).thenReturn(mockFetcher);
+            FileChunkStreamer cut = new FileChunkStreamer(40);
+            FileTransferRequest request = new FileTransferRequest(SourceType.LOCAL, null, "large.bin");
+            FileBundler bundler = new FileBundler(10, 1000, 99);
+            CapturingObserver observer = new CapturingObserver();
+            bundler.add(
+                    BundledFile.newBuilder()
+                            .setFileName("pending.txt")
+                            .setFileSequenceId(11L)
+                            .build(),
+                    observer);
+
+            cut.bundleOrStream(12L, request, FileChecksumAlgorithm.SHA_256, bundler, observer);
+            cut.bundleOrStream(13L, request, FileChecksumAlgorithm.SHA_256, bundler, observer);
+
+            verify(mockFetcher, times(2)).get(any());
+            assertNull(observer.error);
+            assertTrue(observer.events.get(0).hasBundle(), "the pending bundle goes first");
+            assertEquals(1, observer.bundles.size());
+            assertEquals(
+                    2,
+                    observer.chunks.stream().filter(FileChunk::getIsLastChunk).count(),
+                    "both files streamed in chunks");
+            assertEquals(0, bundler.pendingFiles());
+        }
+    }
+
+    @Test
+    void test_stream_defaultMaxChunkSize_fitsClientsDefaultInboundLimit() {
+        int maxChunkSize = Integer.parseInt(FileKafkaEventMessageProcessor.DEFAULT_CHUNK_MAX_SIZE);
+        byte[] data = new byte[2 * maxChunkSize + 1];
+        FileProvider mockFetcher = mock(FileProvider.class);
+        when(mockFetcher.get(any())).thenReturn(new FileTransferResult(new ByteArrayInputStream(data), data.length));
+
+        try (MockedStatic<FileProviderFactory> mockedFactory = Mockito.mockStatic(FileProviderFactory.class)) {
+            mockedFactory.when(() -> FileProviderFactory.getProvider(any())).thenReturn(mockFetcher);
+            AdaptiveChunkSizer sizer =
+                    new AdaptiveChunkSizer(65536, maxChunkSize, maxChunkSize, Duration.ofMillis(200));
+            CapturingObserver observer = new CapturingObserver();
+
+            new FileChunkStreamer(sizer, true)
+                    .stream(
+                            Long.MAX_VALUE,
+                            new FileTransferRequest(SourceType.LOCAL, null, "/dir/" + "f".repeat(255)),
+                            FileChecksumAlgorithm.SHA_256,
+                            observer);
+
+            assertNull(observer.error);
+            int largest = observer.events.stream()
+                    .mapToInt(FileStreamEvent::getSerializedSize)
+                    .max()
+                    .orElseThrow();
+            assertTrue(largest >= maxChunkSize, "chunks grew to the maximum");
+            assertTrue(largest <= 4 * 1024 * 1024, "largest event is " + largest + " bytes");
+        }
+    }
+
+    private static int crc32c(byte[] bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
     @Test
     void test_stream_error_propagatesAsInternalStatus() {
         FileProvider mockFetcher = mock(FileProvider.class);
@@ -118,7 +410,9 @@ class FileChunkStreamerTest {
     }
 
     private static class CapturingObserver implements StreamObservable<FileStreamEvent> {
+        final List<FileStreamEvent> events = new ArrayList<>();
         final List<FileChunk> chunks = new ArrayList<>();
+        final List<FileBundle> bundles = new ArrayList<>();
         Exception error;
         boolean completed;
         Runnable cancelHandler;
@@ -127,9 +421,13 @@ class FileChunkStreamerTest {
 
         @Override
         public void onNext(FileStreamEvent value) {
+            events.add(value);
             if (value.hasChunk()) {
                 chunks.add(value.getChunk());
             }
+            if (value.hasBundle()) {
+                bundles.add(value.getBundle());
+            }
         }
 
         @Override
@@ -6,18 +6,27 @@
 
 package uk.gov.dbt.ndtp.federator.server.processor.file;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
+import com.google.protobuf.ByteString;
+import java.io.File;
 import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import uk.gov.dbt.ndtp.federator.common.model.FileTransferRequest;
 import uk.gov.dbt.ndtp.federator.common.model.SourceType;
 import uk.gov.dbt.ndtp.federator.common.utils.ObjectMapperUtil;
 import uk.gov.dbt.ndtp.federator.common.utils.PropertyUtil;
 import uk.gov.dbt.ndtp.federator.server.interfaces.StreamObservable;
+import uk.gov.dbt.ndtp.grpc.BundledFile;
+import uk.gov.dbt.ndtp.grpc.FileChecksumAlgorithm;
 import uk.gov.dbt.ndtp.grpc.FileStreamEvent;
 import uk.gov.dbt.ndtp.secure.agent.sources.kafka.KafkaEvent;
 
@@ -75,6 +84,7 @@ class FileKafkaEventMessageProcessorTest {
                 eq(123L),
                 argThat(req -> req.path().equals("/path/to/file.txt")
                         && req.sourceType().equals(SourceType.LOCAL)),
+                eq(FileChecksumAlgorithm.SHA_256),
                 eq(mockObserver));
         verify(mockObserver, never()).onNext(any(FileStreamEvent.class));
     }
@@ -96,7 +106,7 @@ class FileKafkaEventMessageProcessorTest {
         processor.process(mockEvent);
 
         // Then
-        verify(mockStreamer, never()).stream(anyLong(), any(), any());
+        verify(mockStreamer, never()).stream(anyLong(), any(), any(), any());
         verify(mockObserver)
                 .onNext(argThat(event -> event.hasWarning()
                         && event.getWarning().getSkippedSequenceId() == 456L
@@ -125,7 +135,7 @@ class FileKafkaEventMessageProcessorTest {
         processor.process(mockEvent);
 
         // Then
-        verify(mockStreamer, never()).stream(anyLong(), any(), any());
+        verify(mockStreamer, never()).stream(anyLong(), any(), any(), any());
         verify(mockObserver)
                 .onNext(argThat(event -> event.hasWarning()
                         && event.getWarning().getSkippedSequenceId() == 789L
@@ -156,7 +166,7 @@ class FileKafkaEventMessageProcessorTest {
         processor.process(mockEvent);
 
         // Then
-        verify(mockStreamer, never()).stream(anyLong(), any(), any());
+        verify(mockStreamer, never()).stream(anyLong(), any(), any(), any());
         verify(mockObserver)
                 .onNext(argThat(event -> event.hasWarning()
                         && event.getWarning().getSkippedSequenceId() == 111L
@@ -183,7 +193,7 @@ class FileKafkaEventMessageProcessorTest {
         processor.process(mockEvent);
 
         // Then
-        verify(mockStreamer, never()).stream(anyLong(), any(), any());
+        verify(mockStreamer, never()).stream(anyLong(), any(), any(), any());
         verify(mockObserver)
                 .onNext(argThat(event -> event.hasWarning()
                         && event.getWarning().getSkippedSequenceId() == 222L
@@ -214,7 +224,7 @@ class FileKafkaEventMessageProcessorTest {
         processor.process(mockEvent);
 
         // Then
-        verify(mockStreamer, never()).stream(anyLong(), any(), any());
+        verify(mockStreamer, never()).stream(anyLong(), any(), any(), any());
         verify(mockObserver)
                 .onNext(argThat(event -> event.hasWarning()
                         && event.getWarning().getSkippedSequenceId() == 333L
@@ -240,7 +250,7 @@ class FileKafkaEventMessageProcessorTest {
         doNothing().when(mockValidator).validate(any(FileTransferRequest.class));
 
         // Simulate unexpected exception during streaming
-        doThrow(new RuntimeException("Unexpected error")).when(mockStreamer).stream(anyLong(), any(), any());
+        doThrow(new RuntimeException("Unexpected error")).when(mockStreamer).stream(anyLong(), any(), any(), any());
 
         // When
         processor.process(mockEvent);
@@ -252,4 +262,185 @@ class FileKafkaEventMessageProcessorTest {
                         && event.getWarning().getReason().equals("VALIDATION")
                         && event.getWarning().getDetails().contains("Unexpected error")));
     }
+
+    @Test
+    void testProcessWithRange_resendsOnlyTheRange() throws Exception {
+        FileKafkaEventMessageProcessor rangeProcessor = rangeProcessor(new FileRange(50L, 1024L, 512L));
+
+        rangeProcessor.process(fileEvent(50L));
+
+        verify(mockStreamer)
+                .streamRange(eq(50L), any(FileTransferRequest.class), eq(1024L), eq(512L), eq(mockObserver));
+        verify(mockStreamer, never()).stream(anyLong(), any(), any(), any());
+        assertTrue(rangeProcessor.isRangeServed());
+    }
+
+    @Test
+    void testProcessWithRange_otherFile_sendsNothing() throws Exception {
+        FileKafkaEventMessageProcessor rangeProcessor = rangeProcessor(new FileRange(50L, 0L, 10L));
+
+        rangeProcessor.process(fileEvent(51L));
+
+        verifyNoInteractions(mockStreamer);
+        verify(mockObserver, never()).onNext(any(FileStreamEvent.class));
+        assertTrue(rangeProcessor.isRangeServed());
+    }
+
+    private FileKafkaEventMessageProcessor rangeProcessor(FileRange range) throws Exception {
+        return injectMocks(new FileKafkaEventMessageProcessor(mockObserver, range));
+    }
+
+    private FileKafkaEventMessageProcessor injectMocks(FileKafkaEventMessageProcessor target) throws Exception {
+        Field streamerField = FileKafkaEventMessageProcessor.class.getDeclaredField("fileChunkStreamer");
+        streamerField.setAccessible(true);
+        streamerField.set(target, mockStreamer);
+        Field validatorField = FileKafkaEventMessageProcessor.class.getDeclaredField("validator");
+        validatorField.setAccessible(true);
+        validatorField.set(target, mockValidator);
+        return target;
+    }
+
+    private static File propertiesWith(String line) throws Exception {
+        Path file = Files.createTempFile("processor", ".properties");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, line + System.lineSeparator());
+        return file.toFile();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static KafkaEvent<String, byte[]> fileEvent(long offset) throws Exception {
+        KafkaEvent<String, byte[]> event = mock(KafkaEvent.class);
+        ConsumerRecord<String, byte[]> record = mock(ConsumerRecord.class);
+        FileTransferRequest request = new FileTransferRequest(SourceType.LOCAL, null, "/path/to/file.txt");
+        when(event.getConsumerRecord()).thenReturn(record);
+        when(record.offset()).thenReturn(offset);
+        when(event.value()).thenReturn(ObjectMapperUtil.getInstance().writeValueAsBytes(request));
+        return event;
+    }
+
+    @Test
+    void testFastChecksum_notAllowed_fallsBackToSha256() throws Exception {
+        FileKafkaEventMessageProcessor fastProcessor =
+                injectMocks(new FileKafkaEventMessageProcessor(mockObserver, null, FileChecksumAlgorithm.XXH64_TREE));
+
+        fastProcessor.process(fileEvent(60L));
+
+        verify(mockStreamer).stream(eq(60L), any(), eq(FileChecksumAlgorithm.SHA_256), eq(mockObserver));
+    }
+
+    @Test
+    void testFastChecksum_allowed_isUsed() throws Exception {
+        PropertyUtil.clear();
+        PropertyUtil.init(propertiesWith("file.stream.checksum.allowFast=true"));
+        try {
+            FileKafkaEventMessageProcessor fastProcessor = injectMocks(
+                    new FileKafkaEventMessageProcessor(mockObserver, null, FileChecksumAlgorithm.XXH64_TREE));
+
+            fastProcessor.process(fileEvent(61L));
+
+            verify(mockStreamer).stream(eq(61L), any(), eq(FileChecksumAlgorithm.XXH64_TREE), eq(mockObserver));
+        } finally {
+            PropertyUtil.clear();
+        }
+    }
+
+    @Test
+    void testBundles_notAcceptedByClient_streamsFiles() throws Exception {
+        PropertyUtil.clear();
+        PropertyUtil.init(propertiesWith("file.stream.bundle.enabled=true"));
+        try {
+            FileKafkaEventMessageProcessor bundleProcessor = injectMocks(
+                    new FileKafkaEventMessageProcessor(mockObserver, null, FileChecksumAlgorithm.SHA_256, false));
+
+            bundleProcessor.process(fileEvent(70L));
+
+            verify(mockStreamer, never()).bundleOrStream(anyLong(), any(), any(), any(), any());
+            verify(mockStreamer).stream(eq(70L), any(), any(), eq(mockObserver));
+        } finally {
+            PropertyUtil.clear();
+        }
+    }
+
+    @Test
+    void testBundles_smallFilesSentTogetherOnFlush() throws Exception {
+        PropertyUtil.clear();
+        PropertyUtil.init(propertiesWith("file.stream.bundle.enabled=true"));
+        try {
+            FileKafkaEventMessageProcessor bundleProcessor = bundleProcessor();
+            bundleSmallFiles(71L, 72L);
+
+            bundleProcessor.process(fileEvent(71L));
+            bundleProcessor.process(fileEvent(72L));
+            verify(mockObserver, never()).onNext(any(FileStreamEvent.class));
+
+            bundleProcessor.flushBundle();
+            bundleProcessor.flushBundle();
+
+            verify(mockObserver, times(1))
+                    .onNext(argThat(event -> event.hasBundle()
+                            && event.getBundle().getFilesCount() == 2
+                            && event.getBundle().getFiles(1).getFileSequenceId() == 72L));
+            verify(mockStreamer, never()).stream(anyLong(), any(), any(), any());
+        } finally {
+            PropertyUtil.clear();
+        }
+    }
+
+    @Test
+    void testBundles_pendingBundleSentBeforeLargeFileAndWarning() throws Exception {
+        PropertyUtil.clear();
+        PropertyUtil.init(propertiesWith("file.stream.bundle.enabled=true"));
+        try {
+            FileKafkaEventMessageProcessor bundleProcessor = bundleProcessor();
+            bundleSmallFiles(73L, 75L);
+            bundleProcessor.process(fileEvent(73L));
+            bundleProcessor.process(fileEvent(74L));
+            bundleProcessor.process(fileEvent(75L));
+            doThrow(new IllegalArgumentException("invalid")).when(mockValidator).validate(any());
+            bundleProcessor.process(fileEvent(76L));
+
+            InOrder inOrder = inOrder(mockObserver, mockStreamer);
+            inOrder.verify(mockStreamer).bundleOrStream(eq(74L), any(), any(), any(), eq(mockObserver));
+            inOrder.verify(mockObserver)
+                    .onNext(argThat(event -> event.hasBundle()
+                            && event.getBundle().getFiles(0).getFileSequenceId() == 73L));
+            inOrder.verify(mockObserver)
+                    .onNext(argThat(event -> event.hasBundle()
+                            && event.getBundle().getFiles(0).getFileSequenceId() == 75L));
+            inOrder.verify(mockObserver)
+                    .onNext(argThat(event -> event.hasWarning()
+                            && event.getWarning().getSkippedSequenceId() == 76L));
+        } finally {
+            PropertyUtil.clear();
+        }
+    }
+
+    // The streamer bundles the given files and, like a large file, sends the pending bundle for any other
+    private void bundleSmallFiles(Long... sequenceIds) {
+        List<Long> small = List.of(sequenceIds);
+        doAnswer(inv -> {
+                    long sequenceId = inv.getArgument(0);
+                    FileBundler bundler = inv.getArgument(3);
+                    if (small.contains(sequenceId)) {
+                        bundler.add(smallFile(sequenceId), inv.getArgument(4));
+                    } else {
+                        bundler.flush(inv.getArgument(4));
+                    }
+                    return null;
+                })
+                .when(mockStreamer)
+                .bundleOrStream(anyLong(), any(), any(), any(), any());
+    }
+
+    private FileKafkaEventMessageProcessor bundleProcessor() throws Exception {
+        return injectMocks(new FileKafkaEventMessageProcessor(mockObserver, null, FileChecksumAlgorithm.SHA_256, true));
+    }
+
+    private static BundledFile smallFile(long sequenceId) {
+        return BundledFile.newBuilder()
+                .setFileName("file.txt")
+                .setFileSequenceId(sequenceId)
+                .setData(ByteString.copyFromUtf8("content"))
+                .build();
+    }
 }